@@ -66,6 +66,11 @@ public class AddScoredEntityRequest<T> {
     /** The namespace enabled. */
     private boolean namespaceEnabled;
 
+    /**
+     * Optional. The lane of the async pipeline the mutation is executed in, NORMAL by default.
+     */
+    private MutationPriority priority = MutationPriority.NORMAL;
+
     /**
      * Instantiates AddScoredEntityRequest.
      */
@@ -131,6 +136,17 @@ public class AddScoredEntityRequest<T> {
         return this;
     }
 
+    /**
+     * The lane of the async pipeline the mutation is executed in. Ignored by synchronous operations.
+     *
+     * @param priority the priority, null for NORMAL
+     * @return the add scored entity request
+     */
+    public AddScoredEntityRequest<T> withPriority(MutationPriority priority) {
+        this.priority = priority == null ? MutationPriority.NORMAL : priority;
+        return this;
+    }
+
     /**
      * Gets the key.
      *
@@ -176,4 +192,13 @@ public class AddScoredEntityRequest<T> {
         return namespaceEnabled;
     }
 
+    /**
+     * Gets the priority.
+     *
+     * @return the priority
+     */
+    public MutationPriority getPriority() {
+        return priority;
+    }
+
 }
@@ -64,6 +64,11 @@ public class AddScoredStringRequest {
     /** The namespace enabled. */
     private boolean namespaceEnabled;
 
+    /**
+     * Optional. The lane of the async pipeline the mutation is executed in, NORMAL by default.
+     */
+    private MutationPriority priority = MutationPriority.NORMAL;
+
     /**
      * Instantiates AddScoredStringRequest.
      */
@@ -129,6 +134,17 @@ public class AddScoredStringRequest {
         return this;
     }
 
+    /**
+     * The lane of the async pipeline the mutation is executed in. Ignored by synchronous operations.
+     *
+     * @param priority the priority, null for NORMAL
+     * @return the add scored string request
+     */
+    public AddScoredStringRequest withPriority(MutationPriority priority) {
+        this.priority = priority == null ? MutationPriority.NORMAL : priority;
+        return this;
+    }
+
     /**
      * Gets the key.
      *
@@ -174,4 +190,13 @@ public class AddScoredStringRequest {
         return namespaceEnabled;
     }
 
+    /**
+     * Gets the priority.
+     *
+     * @return the priority
+     */
+    public MutationPriority getPriority() {
+        return priority;
+    }
+
 }
@@ -0,0 +1,217 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache;
+
+import org.eclipse.ecsp.entities.IgniteEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking view of the .*Async() operations of {@link IgniteCache}.
+ * Every operation returns a {@link CompletableFuture} that can be composed without parking a thread on get().
+ * <br> <br>
+ * By default, dependent stages run on the thread that completes the operation, for ex the Redis event loop or the
+ * batch flusher. Operations taking an {@link Executor} complete the returned future on that executor instead, so
+ * callbacks doing blocking or lengthy work do not stall the cache.
+ */
+public interface AsyncIgniteCache {
+
+    /**
+     * Adds the put string mutation operation to a batch and completes the future when the batch is committed.
+     *
+     * @param request the put string request
+     * @return future that returns the mutationId from the original request
+     */
+    CompletableFuture<String> putStringAsync(PutStringRequest request);
+
+    /**
+     * Adds the put string mutation operation to a batch and completes the future on the executor when the batch
+     * is committed.
+     *
+     * @param request the put string request
+     * @param executor the executor that completes the returned future
+     * @return future that returns the mutationId from the original request
+     */
+    default CompletableFuture<String> putStringAsync(PutStringRequest request, Executor executor) {
+        return completeOn(putStringAsync(request), executor);
+    }
+
+    /**
+     * Adds the put entity mutation operation to a batch and completes the future when the batch is committed.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the put entity request
+     * @return future that returns the mutationId from the original request
+     */
+    <T extends IgniteEntity> CompletableFuture<String> putEntityAsync(PutEntityRequest<T> request);
+
+    /**
+     * Adds the put entity mutation operation to a batch and completes the future on the executor when the batch
+     * is committed.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the put entity request
+     * @param executor the executor that completes the returned future
+     * @return future that returns the mutationId from the original request
+     */
+    default <T extends IgniteEntity> CompletableFuture<String> putEntityAsync(PutEntityRequest<T> request,
+            Executor executor) {
+        return completeOn(putEntityAsync(request), executor);
+    }
+
+    /**
+     * Adds the scored set string append mutation to a batch and completes the future when the batch is committed.
+     *
+     * @param request the add scored string request
+     * @return future that returns the mutationId from the original request
+     */
+    CompletableFuture<String> addStringToScoredSortedSetAsync(AddScoredStringRequest request);
+
+    /**
+     * Adds the scored set string append mutation to a batch and completes the future on the executor when the batch
+     * is committed.
+     *
+     * @param request the add scored string request
+     * @param executor the executor that completes the returned future
+     * @return future that returns the mutationId from the original request
+     */
+    default CompletableFuture<String> addStringToScoredSortedSetAsync(AddScoredStringRequest request,
+            Executor executor) {
+        return completeOn(addStringToScoredSortedSetAsync(request), executor);
+    }
+
+    /**
+     * Adds the scored set entity append mutation to a batch and completes the future when the batch is committed.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the add scored entity request
+     * @return future that returns the mutationId from the original request
+     */
+    <T extends IgniteEntity> CompletableFuture<String> addEntityToScoredSortedSetAsync(
+            AddScoredEntityRequest<T> request);
+
+    /**
+     * Adds the scored set entity append mutation to a batch and completes the future on the executor when the batch
+     * is committed.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the add scored entity request
+     * @param executor the executor that completes the returned future
+     * @return future that returns the mutationId from the original request
+     */
+    default <T extends IgniteEntity> CompletableFuture<String> addEntityToScoredSortedSetAsync(
+            AddScoredEntityRequest<T> request, Executor executor) {
+        return completeOn(addEntityToScoredSortedSetAsync(request), executor);
+    }
+
+    /**
+     * Adds the delete entry mutation operation to a batch and completes the future when the batch is committed.
+     *
+     * @param request the delete entry request
+     * @return future that returns the mutationId from the original request
+     */
+    CompletableFuture<String> deleteAsync(DeleteEntryRequest request);
+
+    /**
+     * Adds the delete entry mutation operation to a batch and completes the future on the executor when the batch
+     * is committed.
+     *
+     * @param request the delete entry request
+     * @param executor the executor that completes the returned future
+     * @return future that returns the mutationId from the original request
+     */
+    default CompletableFuture<String> deleteAsync(DeleteEntryRequest request, Executor executor) {
+        return completeOn(deleteAsync(request), executor);
+    }
+
+    /**
+     * Adds the get string operation to a batch of reads and completes the future when the value has been read.
+     *
+     * @param request the get string request
+     * @return future that returns the string value, or null if the key does not exist
+     */
+    CompletableFuture<String> getStringAsync(GetStringRequest request);
+
+    /**
+     * Adds the get string operation to a batch of reads and completes the future on the executor when the value
+     * has been read.
+     *
+     * @param request the get string request
+     * @param executor the executor that completes the returned future
+     * @return future that returns the string value, or null if the key does not exist
+     */
+    default CompletableFuture<String> getStringAsync(GetStringRequest request, Executor executor) {
+        return completeOn(getStringAsync(request), executor);
+    }
+
+    /**
+     * Adds the get entity operation to a batch of reads and completes the future when the entity has been read.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the get entity request
+     * @return future that returns the entity, or null if the key does not exist
+     */
+    <T extends IgniteEntity> CompletableFuture<T> getEntityAsync(GetEntityRequest request);
+
+    /**
+     * Adds the get entity operation to a batch of reads and completes the future on the executor when the entity
+     * has been read.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the get entity request
+     * @param executor the executor that completes the returned future
+     * @return future that returns the entity, or null if the key does not exist
+     */
+    default <T extends IgniteEntity> CompletableFuture<T> getEntityAsync(GetEntityRequest request,
+            Executor executor) {
+        return completeOn(this.<T>getEntityAsync(request), executor);
+    }
+
+    /**
+     * Returns a future that is completed on the executor with the outcome of the given future.
+     *
+     * @param <V> the result type
+     * @param future the future
+     * @param executor the executor
+     * @return the future completed on the executor
+     */
+    private static <V> CompletableFuture<V> completeOn(CompletableFuture<V> future, Executor executor) {
+        return future.whenCompleteAsync((v, e) -> { }, executor);
+    }
+}
@@ -58,6 +58,11 @@ public class DeleteEntryRequest {
     /** The namespace enabled. */
     private boolean namespaceEnabled;
 
+    /**
+     * Optional. The lane of the async pipeline the mutation is executed in, NORMAL by default.
+     */
+    private MutationPriority priority = MutationPriority.NORMAL;
+
     /**
      * Instantiates DeleteEntryRequest.
      */
@@ -101,6 +106,17 @@ public class DeleteEntryRequest {
         return this;
     }
 
+    /**
+     * The lane of the async pipeline the mutation is executed in. Ignored by synchronous operations.
+     *
+     * @param priority the priority, null for NORMAL
+     * @return the delete entry request
+     */
+    public DeleteEntryRequest withPriority(MutationPriority priority) {
+        this.priority = priority == null ? MutationPriority.NORMAL : priority;
+        return this;
+    }
+
     /**
      * Gets the key.
      *
@@ -128,4 +144,13 @@ public class DeleteEntryRequest {
         return namespaceEnabled;
     }
 
-}
\ No newline at end of file
+    /**
+     * Gets the priority.
+     *
+     * @return the priority
+     */
+    public MutationPriority getPriority() {
+        return priority;
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * Captures the options for reading an entity through the cache, loading it on a miss.
+ *
+ * @param <T> Any type that implements IgniteEntity (enforced by IgniteCache contract)
+ */
+public class GetOrLoadRequest<T> {
+
+    /**
+     * Mandatory attribute.
+     */
+    private String key;
+
+    /**
+     * Mandatory attribute. Loads the entity from the system of record on a miss, null if it does not exist.
+     */
+    private Supplier<T> loader;
+
+    /**
+     * Optional. If greater than 0 then ttl will be applied to the loaded entity.
+     */
+    private long ttlMs = -1L;
+
+    /**
+     * Optional. If greater than 0, a lease of this many milliseconds is taken in Redis before loading, so that only
+     * one node of the cluster loads the entity while the others wait for it.
+     */
+    private long leaseMs;
+
+    /**
+     * Optional. If greater than 0, the entity is loaded again before it expires, the earlier the greater the beta
+     * and the longer the entity takes to load. 1.0 is a good default.
+     */
+    private double earlyRefreshBeta;
+
+    /** The namespace enabled. */
+    private boolean namespaceEnabled = true;
+
+    /**
+     * Instantiates a new get or load request.
+     */
+    public GetOrLoadRequest() {
+        //default constructor
+    }
+
+    /**
+     * With key.
+     *
+     * @param key the key
+     * @return the get or load request
+     */
+    public GetOrLoadRequest<T> withKey(String key) {
+        this.key = key;
+        return this;
+    }
+
+    /**
+     * With loader.
+     *
+     * @param loader loads the entity on a miss, null if it does not exist
+     * @return the get or load request
+     */
+    public GetOrLoadRequest<T> withLoader(Supplier<T> loader) {
+        this.loader = loader;
+        return this;
+    }
+
+    /**
+     * If greater than 0 then ttl will be applied to the loaded entity.
+     *
+     * @param ttlMs the ttl ms
+     * @return the get or load request
+     */
+    public GetOrLoadRequest<T> withTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+        return this;
+    }
+
+    /**
+     * If greater than 0, only the node holding the lease in Redis loads the entity, and the others wait for it.
+     *
+     * @param leaseMs the lease ms
+     * @return the get or load request
+     */
+    public GetOrLoadRequest<T> withLeaseMs(long leaseMs) {
+        this.leaseMs = leaseMs;
+        return this;
+    }
+
+    /**
+     * If greater than 0, the entity is loaded again before it expires, with probabilistic early expiration.
+     *
+     * @param earlyRefreshBeta the beta, 1.0 is a good default
+     * @return the get or load request
+     */
+    public GetOrLoadRequest<T> withEarlyRefreshBeta(double earlyRefreshBeta) {
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        return this;
+    }
+
+    /**
+     * With namespace enabled.
+     *
+     * @param namespaceEnabled the namespace enabled
+     * @return the get or load request
+     */
+    public GetOrLoadRequest<T> withNamespaceEnabled(boolean namespaceEnabled) {
+        this.namespaceEnabled = namespaceEnabled;
+        return this;
+    }
+
+    /**
+     * Gets the key.
+     *
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the loader.
+     *
+     * @return the loader
+     */
+    public Supplier<T> getLoader() {
+        return loader;
+    }
+
+    /**
+     * Gets the ttl ms.
+     *
+     * @return the ttl ms
+     */
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    /**
+     * Gets the lease ms.
+     *
+     * @return the lease ms
+     */
+    public long getLeaseMs() {
+        return leaseMs;
+    }
+
+    /**
+     * Gets the early refresh beta.
+     *
+     * @return the early refresh beta
+     */
+    public double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+
+    /**
+     * Gets the namespace enabled.
+     *
+     * @return the namespace enabled
+     */
+    public boolean getNamespaceEnabled() {
+        return namespaceEnabled;
+    }
+}
@@ -36,12 +36,17 @@
 
 package org.eclipse.ecsp.cache;
 
+import org.eclipse.ecsp.cache.exception.IgniteCacheException;
 import org.eclipse.ecsp.entities.IgniteEntity;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Base contract for cache in Ignite.
@@ -76,6 +81,15 @@ public interface IgniteCache {
      */
     String getString(GetStringRequest request);
 
+    /**
+     * Adds the get string operation to a batch of reads, which is loaded together with other reads issued
+     * within a short window, and completes the future when the value has been read.
+     *
+     * @param request the get string request
+     * @return future that returns the string value, or null if the key does not exist
+     */
+    CompletableFuture<String> getStringAsync(GetStringRequest request);
+
     /**
      * Stores a string value based on the provided request.
      *
@@ -91,6 +105,14 @@ public interface IgniteCache {
      */
     Future<String> putStringAsync(PutStringRequest request);
 
+    /**
+     * Stores the given string values in a dedicated pipeline and returns once all writes are acknowledged.
+     *
+     * @param values the string values by key
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
+     */
+    void putStrings(Map<String, String> values, long ttlMs);
+
     /**
      * Retrieves an entity based on the provided request.
      *
@@ -109,6 +131,33 @@ public interface IgniteCache {
      */
     <T extends IgniteEntity> T getEntity(String key);
 
+    /**
+     * Adds the get entity operation to a batch of reads, which is loaded together with other reads issued
+     * within a short window, and completes the future when the entity has been read.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param getRequest the get entity request
+     * @return future that returns the entity, or null if the key does not exist
+     */
+    <T extends IgniteEntity> CompletableFuture<T> getEntityAsync(GetEntityRequest getRequest);
+
+    /**
+     * Retrieves the entities associated with the given keys, with as few round trips as possible.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param keys the keys to retrieve the entities for
+     * @return the entities by key, keys that do not exist are omitted
+     */
+    <T extends IgniteEntity> Map<String, T> getEntities(Collection<String> keys);
+
+    /**
+     * Retrieves the string values associated with the given keys, with as few round trips as possible.
+     *
+     * @param keys the keys to retrieve the string values for
+     * @return the string values by key, keys that do not exist are omitted
+     */
+    Map<String, String> getStrings(Collection<String> keys);
+
     /**
      * Stores an entity based on the provided request.
      *
@@ -126,6 +175,91 @@ public interface IgniteCache {
      */
     <T extends IgniteEntity> Future<String> putEntityAsync(PutEntityRequest<T> putRequest);
 
+    /**
+     * Stores the given entities in a dedicated pipeline and returns once all writes are acknowledged.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param entities the entities by key
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
+     */
+    <T extends IgniteEntity> void putEntities(Map<String, T> entities, long ttlMs);
+
+    /**
+     * Stores an entity in versioned mode if its current version matches the expected one, and increments the
+     * version. Only the version is compared, so the expected entity does not need to be sent. Keys stored in
+     * versioned mode must only be accessed through the versioned operations.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param key the key
+     * @param value the entity
+     * @param expectedVersion the expected version, 0 if the key is expected not to exist
+     * @return true if the entity has been stored, its version is then expectedVersion + 1
+     * @throws IgniteCacheException if the implementation does not support versioned entities
+     */
+    default <T extends IgniteEntity> boolean putEntityIfVersion(String key, T value, long expectedVersion) {
+        throw new IgniteCacheException(String.format("%s does not support versioned entities",
+                getClass().getName()));
+    }
+
+    /**
+     * Retrieves an entity stored in versioned mode together with its version.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param key the key
+     * @return the entity and its version, null if the key does not exist
+     * @throws IgniteCacheException if the implementation does not support versioned entities
+     */
+    default <T extends IgniteEntity> VersionedEntity<T> getEntityWithVersion(String key) {
+        throw new IgniteCacheException(String.format("%s does not support versioned entities",
+                getClass().getName()));
+    }
+
+    /**
+     * Retrieves an entity, or loads it with the loader and stores it on a miss. Concurrent misses of the key
+     * within the process share one call of the loader.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param key the key
+     * @param loader loads the entity on a miss, null if it does not exist, in which case nothing is stored
+     * @param ttlMs the ttl of the loaded entity in ms, -1 for no expiry
+     * @return the entity, null if it does not exist
+     * @throws IgniteCacheException if the implementation does not support loading on a miss
+     */
+    default <T extends IgniteEntity> T getOrLoad(String key, Supplier<T> loader, long ttlMs) {
+        throw new IgniteCacheException(String.format("%s does not support loading on a miss",
+                getClass().getName()));
+    }
+
+    /**
+     * Retrieves an entity, or loads it and stores it on a miss, with the options of the request: a lease in Redis
+     * so that only one node of the cluster calls the loader, and early refresh of the entity before it expires.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the request
+     * @return the entity, null if it does not exist
+     * @throws IgniteCacheException if the implementation does not support loading on a miss
+     */
+    default <T extends IgniteEntity> T getOrLoad(GetOrLoadRequest<T> request) {
+        throw new IgniteCacheException(String.format("%s does not support loading on a miss",
+                getClass().getName()));
+    }
+
+    /**
+     * Registers the loader that refreshes the entities of the keys starting with a prefix ahead of their expiry.
+     * Once a read finds such a key past the configured fraction of the ttl, the entity is loaded again and written
+     * with the ttl in the background, while the current entity keeps being served.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param keyPrefix the key prefix, to which the namespace is applied
+     * @param ttlMs the ttl in ms the entities of the keys are written with
+     * @param loader loads the entity of a key, null if it does not exist anymore, in which case it expires
+     * @throws IgniteCacheException if the implementation does not support refresh ahead
+     */
+    default <T extends IgniteEntity> void registerRefreshLoader(String keyPrefix, long ttlMs,
+            Function<String, T> loader) {
+        throw new IgniteCacheException(String.format("%s does not support refresh ahead", getClass().getName()));
+    }
+
     /**
      * Adds a string to a scored sorted set based on the provided request.
      *
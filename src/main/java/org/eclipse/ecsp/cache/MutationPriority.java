@@ -0,0 +1,54 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache;
+
+/**
+ * The lane of the async pipeline a mutation is queued, batched and executed in.<br>
+ * Every lane has its own batch size, linger time and in-flight batch limit, and full batches of higher
+ * priority lanes are executed first. Constants are declared from the highest to the lowest priority.
+ */
+public enum MutationPriority {
+
+    /** Latency critical mutations, for ex session updates. */
+    HIGH,
+
+    /** The default lane. */
+    NORMAL,
+
+    /** Bulk mutations that may wait, for ex backfills. */
+    LOW
+}
@@ -57,6 +57,11 @@ public class PutEntityRequest<T> extends PutEntityBaseRequest<T> {
      */
     private T expectedValue;
 
+    /**
+     * Optional. The lane of the async pipeline the mutation is executed in, NORMAL by default.
+     */
+    private MutationPriority priority = MutationPriority.NORMAL;
+
     /**
      * Instantiates a new put entity request.
      */
@@ -78,7 +83,8 @@ public class PutEntityRequest<T> extends PutEntityBaseRequest<T> {
     /**
      * If value is non-null then put becomes a compare and set operation
      * ie, put will be applied only if the existing value in cache should
-     * match the value here.
+     * match the value here. Combined with a ttl, the value and its expiry are
+     * set atomically.
      *
      * @param expectedValue - null is valid. If non-null then put becomes a compare and set operation
      * @return this
@@ -88,6 +94,17 @@ public class PutEntityRequest<T> extends PutEntityBaseRequest<T> {
         return this;
     }
 
+    /**
+     * The lane of the async pipeline the mutation is executed in. Ignored by synchronous operations.
+     *
+     * @param priority the priority, null for NORMAL
+     * @return the put entity request
+     */
+    public PutEntityRequest<T> withPriority(MutationPriority priority) {
+        this.priority = priority == null ? MutationPriority.NORMAL : priority;
+        return this;
+    }
+
     /**
      * Gets the ttl ms.
      *
@@ -106,4 +123,13 @@ public class PutEntityRequest<T> extends PutEntityBaseRequest<T> {
         return expectedValue;
     }
 
+    /**
+     * Gets the priority.
+     *
+     * @return the priority
+     */
+    public MutationPriority getPriority() {
+        return priority;
+    }
+
 }
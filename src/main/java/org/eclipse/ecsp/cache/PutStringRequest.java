@@ -74,6 +74,11 @@ public class PutStringRequest {
     /** The namespace enabled. */
     private boolean namespaceEnabled;
 
+    /**
+     * Optional. The lane of the async pipeline the mutation is executed in, NORMAL by default.
+     */
+    private MutationPriority priority = MutationPriority.NORMAL;
+
     /**
      * Instantiates a new put string request.
      */
@@ -117,7 +122,8 @@ public class PutStringRequest {
     /**
      * If expectedValue is non-null then put becomes a compare and set operation
      * ie, put will be applied only if the existing value in cache
-     * should match the value here.
+     * should match the value here. Combined with a ttl, the value and its expiry
+     * are set atomically.
      *
      * @param expectedValue - set expected value
      * @return the put string request
@@ -152,6 +158,17 @@ public class PutStringRequest {
         return this;
     }
 
+    /**
+     * The lane of the async pipeline the mutation is executed in. Ignored by synchronous operations.
+     *
+     * @param priority the priority, null for NORMAL
+     * @return the put string request
+     */
+    public PutStringRequest withPriority(MutationPriority priority) {
+        this.priority = priority == null ? MutationPriority.NORMAL : priority;
+        return this;
+    }
+
     /**
      * Gets the key.
      *
@@ -206,4 +223,13 @@ public class PutStringRequest {
         return namespaceEnabled;
     }
 
-}
\ No newline at end of file
+    /**
+     * Gets the priority.
+     *
+     * @return the priority
+     */
+    public MutationPriority getPriority() {
+        return priority;
+    }
+
+}
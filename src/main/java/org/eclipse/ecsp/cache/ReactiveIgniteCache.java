@@ -0,0 +1,251 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache;
+
+import org.eclipse.ecsp.entities.IgniteEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reactive counterpart of {@link IgniteCache}, built on the reactive API of the Redis client.
+ * Operations are lazy: nothing is sent to Redis until the returned {@link Mono} or {@link Flux} is subscribed,
+ * and no thread is parked while waiting for a reply. Invalid requests are signalled as errors of the returned
+ * publisher.
+ */
+public interface ReactiveIgniteCache {
+
+    /**
+     * Retrieves a string value associated with the given key.
+     *
+     * @param key the key to retrieve the string value for
+     * @return the string value associated with the key, empty if the key does not exist
+     */
+    Mono<String> getString(String key);
+
+    /**
+     * Retrieves a string value based on the provided request.
+     *
+     * @param request the request containing the parameters for retrieving the string
+     * @return the string value based on the request, empty if the key does not exist
+     */
+    Mono<String> getString(GetStringRequest request);
+
+    /**
+     * Stores a string value based on the provided request.
+     *
+     * @param request the request containing the parameters for storing the string
+     * @return completes once the value has been stored
+     */
+    Mono<Void> putString(PutStringRequest request);
+
+    /**
+     * Stores the given string values and completes once all writes are acknowledged.
+     *
+     * @param values the string values by key
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
+     * @return completes once the values have been stored
+     */
+    Mono<Void> putStrings(Map<String, String> values, long ttlMs);
+
+    /**
+     * Retrieves the string values associated with the given keys.
+     *
+     * @param keys the keys to retrieve the string values for
+     * @return the string values by key, keys that do not exist are omitted
+     */
+    Mono<Map<String, String>> getStrings(Collection<String> keys);
+
+    /**
+     * Retrieves an entity based on the provided request.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the request containing the parameters for retrieving the entity
+     * @return the entity based on the request, empty if the key does not exist
+     */
+    <T extends IgniteEntity> Mono<T> getEntity(GetEntityRequest request);
+
+    /**
+     * Retrieves an entity associated with the given key.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param key the key to retrieve the entity for
+     * @return the entity associated with the key, empty if the key does not exist
+     */
+    <T extends IgniteEntity> Mono<T> getEntity(String key);
+
+    /**
+     * Retrieves the entities associated with the given keys.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param keys the keys to retrieve the entities for
+     * @return the entities by key, keys that do not exist are omitted
+     */
+    <T extends IgniteEntity> Mono<Map<String, T>> getEntities(Collection<String> keys);
+
+    /**
+     * Stores an entity based on the provided request.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the request containing the parameters for storing the entity
+     * @return completes once the entity has been stored
+     */
+    <T extends IgniteEntity> Mono<Void> putEntity(PutEntityRequest<T> request);
+
+    /**
+     * Stores the given entities and completes once all writes are acknowledged.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param entities the entities by key
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
+     * @return completes once the entities have been stored
+     */
+    <T extends IgniteEntity> Mono<Void> putEntities(Map<String, T> entities, long ttlMs);
+
+    /**
+     * Stores an entity in versioned mode if its current version matches the expected one, and increments the
+     * version.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param key the key
+     * @param value the entity
+     * @param expectedVersion the expected version, 0 if the key is expected not to exist
+     * @return emits true if the entity has been stored, its version is then expectedVersion + 1
+     */
+    <T extends IgniteEntity> Mono<Boolean> putEntityIfVersion(String key, T value, long expectedVersion);
+
+    /**
+     * Retrieves an entity stored in versioned mode together with its version.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param key the key
+     * @return emits the entity and its version, empty if the key does not exist
+     */
+    <T extends IgniteEntity> Mono<VersionedEntity<T>> getEntityWithVersion(String key);
+
+    /**
+     * Adds a string to a scored sorted set based on the provided request.
+     *
+     * @param request the request containing the parameters for adding the string to the scored sorted set
+     * @return completes once the string has been added
+     */
+    Mono<Void> addStringToScoredSortedSet(AddScoredStringRequest request);
+
+    /**
+     * Retrieves the strings of a scored sorted set based on the provided request.
+     *
+     * @param request the request containing the parameters for retrieving the strings
+     * @return the strings of the scored sorted set, in score order
+     */
+    Flux<String> getStringsFromScoredSortedSet(GetScoredStringsRequest request);
+
+    /**
+     * Adds an entity to a scored sorted set based on the provided request.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the request containing the parameters for adding the entity to the scored sorted set
+     * @return completes once the entity has been added
+     */
+    <T extends IgniteEntity> Mono<Void> addEntityToScoredSortedSet(AddScoredEntityRequest<T> request);
+
+    /**
+     * Retrieves the entities of a scored sorted set based on the provided request.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the request containing the parameters for retrieving the entities
+     * @return the entities of the scored sorted set, in score order
+     */
+    <T extends IgniteEntity> Flux<T> getEntitiesFromScoredSortedSet(GetScoredEntitiesRequest request);
+
+    /**
+     * Streams the key-value pairs of the entities matching the given key regex. The next page of the scan is only
+     * requested from Redis once the previous one has been consumed.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param keyRegex the regex pattern to match keys
+     * @param namespaceEnabled optional flag to enable namespace
+     * @return the key-value pairs for entities matching the key regex
+     */
+    <T extends IgniteEntity> Flux<Map.Entry<String, T>> getKeyValuePairsForRegex(String keyRegex,
+            Optional<Boolean> namespaceEnabled);
+
+    /**
+     * Deletes the entry associated with the given key.
+     *
+     * @param key the key to delete the entry for
+     * @return completes once the entry has been deleted
+     */
+    Mono<Void> delete(String key);
+
+    /**
+     * Deletes the entry based on the provided request.
+     *
+     * @param request the request containing the parameters for deleting the entry
+     * @return completes once the entry has been deleted
+     */
+    Mono<Void> delete(DeleteEntryRequest request);
+
+    /**
+     * Stores a map of entities based on the provided request.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the request containing the parameters for storing the map of entities
+     * @return completes once the map of entities has been stored
+     */
+    <T extends IgniteEntity> Mono<Void> putMapOfEntities(PutMapOfEntitiesRequest<T> request);
+
+    /**
+     * Retrieves a map of entities based on the provided request.
+     *
+     * @param <T> the type of the entity extending IgniteEntity
+     * @param request the request containing the parameters for retrieving the map of entities
+     * @return the map of entities based on the request
+     */
+    <T extends IgniteEntity> Mono<Map<String, T>> getMapOfEntities(GetMapOfEntitiesRequest request);
+
+    /**
+     * Deletes a map of entities based on the provided request.
+     *
+     * @param request the request containing the parameters for deleting the map of entities
+     * @return completes once the map of entities has been deleted
+     */
+    Mono<Void> deleteMapOfEntities(DeleteMapOfEntitiesRequest request);
+}
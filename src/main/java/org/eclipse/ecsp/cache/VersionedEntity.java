@@ -0,0 +1,90 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache;
+
+import org.eclipse.ecsp.entities.IgniteEntity;
+
+/**
+ * An entity stored in versioned mode together with its version.<br>
+ * The version starts at 1 with the first put and is incremented by every successful
+ * {@link IgniteCache#putEntityIfVersion(String, IgniteEntity, long)}.
+ *
+ * @param <T> the type of the entity
+ */
+public final class VersionedEntity<T extends IgniteEntity> {
+
+    /** The entity. */
+    private final T value;
+
+    /** The version of the entity. */
+    private final long version;
+
+    /**
+     * Instantiates a new versioned entity.
+     *
+     * @param value the entity
+     * @param version the version of the entity
+     */
+    public VersionedEntity(T value, long version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    /**
+     * Gets the entity.
+     *
+     * @return the entity
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the version.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "VersionedEntity [version=" + version + ", value=" + value + "]";
+    }
+}
@@ -53,4 +53,14 @@ public class RedisBatchProcessingException extends RuntimeException {
         super(message);
     }
 
+    /**
+     * Instantiates a new redis batch processing exception.
+     *
+     * @param message the message
+     * @param cause the cause
+     */
+    public RedisBatchProcessingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
 }
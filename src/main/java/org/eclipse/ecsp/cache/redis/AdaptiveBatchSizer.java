@@ -0,0 +1,126 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adjusts the async pipeline batch size between configured bounds with AIMD
+ * (additive increase, multiplicative decrease).<br>
+ * After every executed batch:
+ * <ul>
+ *     <li>if the batch failed, its executeAsync round trip exceeded the target latency, or its oldest
+ *     mutation waited longer than the target latency to be flushed (arrivals too slow to fill the batch),
+ *     the size is halved;</li>
+ *     <li>otherwise, if the batch was full (arrivals keep up with the size), the size grows by the increment.</li>
+ * </ul>
+ * A decrease is only applied by batches that were drained with the current size, so batches that were
+ * already in flight when the size dropped do not shrink it again.
+ */
+final class AdaptiveBatchSizer {
+
+    /** The divisor applied on a multiplicative decrease. */
+    private static final int DECREASE_DIVISOR = 2;
+
+    /** The min size. */
+    private final int minSize;
+
+    /** The max size. */
+    private final int maxSize;
+
+    /** The additive increment. */
+    private final int increment;
+
+    /** The target latency in nanos. */
+    private final long targetLatencyNanos;
+
+    /** The current size. */
+    private final AtomicInteger size;
+
+    /**
+     * Instantiates a new adaptive batch sizer.
+     *
+     * @param initialSize the initial size, clamped to the bounds
+     * @param minSize the min size
+     * @param maxSize the max size
+     * @param increment the additive increment
+     * @param targetLatencyMs the target round trip and flush wait latency in milliseconds
+     */
+    AdaptiveBatchSizer(int initialSize, int minSize, int maxSize, int increment, long targetLatencyMs) {
+        if (minSize < 1 || maxSize < minSize || increment < 1 || targetLatencyMs < 1) {
+            throw new IllegalArgumentException(String.format("Invalid adaptive pipeline configuration, "
+                    + "min size: %d, max size: %d, increment: %d, target latency ms: %d",
+                    minSize, maxSize, increment, targetLatencyMs));
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.increment = increment;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.size = new AtomicInteger(Math.min(maxSize, Math.max(minSize, initialSize)));
+    }
+
+    /**
+     * Gets the current batch size.
+     *
+     * @return the size
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Adjusts the size after a batch has been executed.
+     *
+     * @param drainSize the batch size the batch was drained with
+     * @param count the number of mutations in the batch
+     * @param waitedNanos the time the oldest mutation of the batch waited before being flushed
+     * @param roundTripNanos the executeAsync round trip time
+     * @param failed whether the batch failed
+     * @return the new size
+     */
+    int onBatchExecuted(int drainSize, int count, long waitedNanos, long roundTripNanos, boolean failed) {
+        boolean congested = failed || roundTripNanos > targetLatencyNanos || waitedNanos > targetLatencyNanos;
+        return size.updateAndGet(current -> {
+            if (congested) {
+                return current == drainSize ? Math.max(minSize, current / DECREASE_DIVISOR) : current;
+            }
+            return count >= current ? Math.min(maxSize, current + increment) : current;
+        });
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.cache.MutationPriority;
+import org.eclipse.ecsp.cache.exception.RedisBatchProcessingException;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucketAsync;
+import org.redisson.api.RScoredSortedSetAsync;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A single async mutation waiting in the pipeline to be added to an {@link RBatch}.<br>
+ * Producers only create and enqueue these records, the batch flusher is the only one that
+ * turns them into batch commands, so a producer never touches a batch that might already be executing.
+ */
+final class BatchMutation {
+
+    /**
+     * The kind of Redis command a mutation translates to.
+     */
+    enum Type {
+
+        /** SET with an optional PX expiry. */
+        SET,
+
+        /** Compare and set of a bucket value. */
+        COMPARE_AND_SET,
+
+        /** DEL of a key. */
+        DELETE,
+
+        /** ZADD to a scored sorted set. */
+        SCORED_SORTED_SET_ADD
+    }
+
+    /** The type. */
+    private final Type type;
+
+    /** The key, with namespace already applied. */
+    private final String key;
+
+    /** The value. */
+    private final Object value;
+
+    /** The expected value for compare and set. */
+    private final Object expectedValue;
+
+    /** The ttl ms, -1 for no expiry. */
+    private final long ttlMs;
+
+    /** The score for scored sorted set additions. */
+    private final double score;
+
+    /** The mutation id returned to the caller on completion. */
+    private final String mutationId;
+
+    /** The future handed out to the caller. */
+    private final CompletableFuture<String> future = new CompletableFuture<>();
+
+    /** The time at which the mutation was created. */
+    private final long enqueuedAt = System.currentTimeMillis();
+
+    /** Set while the current attempt awaits its outcome, so that every attempt is settled exactly once. */
+    private final AtomicBoolean attemptPending = new AtomicBoolean(false);
+
+    /** The number of times the mutation has been added to a batch. */
+    private volatile int attempts;
+
+    /** The lane of the pipeline the mutation is executed in. */
+    private MutationPriority priority = MutationPriority.NORMAL;
+
+    /**
+     * Instantiates a new batch mutation.
+     *
+     * @param type the type
+     * @param key the key
+     * @param value the value
+     * @param expectedValue the expected value
+     * @param ttlMs the ttl ms
+     * @param score the score
+     * @param mutationId the mutation id
+     */
+    private BatchMutation(Type type, String key, Object value, Object expectedValue, long ttlMs, double score,
+            String mutationId) {
+        this.type = type;
+        this.key = key;
+        this.value = value;
+        this.expectedValue = expectedValue;
+        this.ttlMs = ttlMs;
+        this.score = score;
+        this.mutationId = mutationId;
+    }
+
+    /**
+     * Creates a SET mutation, or a compare and set mutation if expectedValue is non-null.
+     *
+     * @param key the key
+     * @param value the value
+     * @param expectedValue the expected value, null for an unconditional SET
+     * @param ttlMs the ttl ms, -1 for no expiry
+     * @param mutationId the mutation id
+     * @return the batch mutation
+     */
+    static BatchMutation put(String key, Object value, Object expectedValue, long ttlMs, String mutationId) {
+        Type type = expectedValue == null ? Type.SET : Type.COMPARE_AND_SET;
+        return new BatchMutation(type, key, value, expectedValue, ttlMs, 0D, mutationId);
+    }
+
+    /**
+     * Creates a DEL mutation.
+     *
+     * @param key the key
+     * @param mutationId the mutation id
+     * @return the batch mutation
+     */
+    static BatchMutation delete(String key, String mutationId) {
+        return new BatchMutation(Type.DELETE, key, null, null, IgniteCacheRedisImpl.MINUS_ONE_LONG, 0D, mutationId);
+    }
+
+    /**
+     * Creates a ZADD mutation.
+     *
+     * @param key the key
+     * @param score the score
+     * @param value the value
+     * @param mutationId the mutation id
+     * @return the batch mutation
+     */
+    static BatchMutation addToScoredSortedSet(String key, double score, Object value, String mutationId) {
+        return new BatchMutation(Type.SCORED_SORTED_SET_ADD, key, value, null, IgniteCacheRedisImpl.MINUS_ONE_LONG,
+                score, mutationId);
+    }
+
+    /**
+     * Recreates a mutation from its fields, for ex after it has been read back from the spill journal.
+     *
+     * @param type the type
+     * @param key the key
+     * @param value the value
+     * @param expectedValue the expected value
+     * @param ttlMs the ttl ms
+     * @param score the score
+     * @param mutationId the mutation id
+     * @return the batch mutation
+     */
+    static BatchMutation restore(Type type, String key, Object value, Object expectedValue, long ttlMs, double score,
+            String mutationId) {
+        return new BatchMutation(type, key, value, expectedValue, ttlMs, score, mutationId);
+    }
+
+    /**
+     * Sets the lane of the pipeline the mutation is executed in, before it is enqueued.
+     *
+     * @param priority the priority
+     * @return this
+     */
+    BatchMutation withPriority(MutationPriority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * Adds this mutation as a command to the given batch and wires the command result to the caller's future.
+     * If the command fails, the failure handler is called instead, which either retries the mutation or fails it.
+     *
+     * @param batch the batch
+     * @param compareAndSetScript the script a compare and set with expiry is executed with
+     * @param onFailure the failure handler
+     */
+    void addTo(RBatch batch, CompareAndSetScript compareAndSetScript, BiConsumer<BatchMutation, Throwable> onFailure) {
+        attempts++;
+        attemptPending.set(true);
+        switch (type) {
+            case SET -> {
+                RBucketAsync<Object> bucket = batch.getBucket(key);
+                if (ttlMs == IgniteCacheRedisImpl.MINUS_ONE_LONG) {
+                    settle(bucket.setAsync(value), s -> future.complete(mutationId), onFailure);
+                } else {
+                    settle(bucket.setAsync(value, ttlMs, TimeUnit.MILLISECONDS), s -> future.complete(mutationId),
+                            onFailure);
+                }
+            }
+            case COMPARE_AND_SET -> {
+                if (ttlMs == IgniteCacheRedisImpl.MINUS_ONE_LONG) {
+                    RBucketAsync<Object> bucket = batch.getBucket(key);
+                    settle(bucket.compareAndSetAsync(expectedValue, value), this::complete, onFailure);
+                } else {
+                    settle(compareAndSetScript.executeAsync(batch, key, expectedValue, value, ttlMs),
+                            this::complete, onFailure);
+                }
+            }
+            case DELETE -> settle(batch.getBucket(key).deleteAsync(), s -> future.complete(mutationId), onFailure);
+            case SCORED_SORTED_SET_ADD -> {
+                RScoredSortedSetAsync<Object> sset = batch.getScoredSortedSet(key);
+                settle(sset.addAsync(score, value), this::complete, onFailure);
+            }
+            default -> throw new IllegalStateException("Unsupported batch mutation type " + type);
+        }
+    }
+
+    /**
+     * Settles the current attempt with the outcome of its command, unless it has already been settled.
+     *
+     * @param <R> the command result type
+     * @param result the command result
+     * @param onSuccess the success handler
+     * @param onFailure the failure handler
+     */
+    private <R> void settle(CompletionStage<R> result, Consumer<R> onSuccess,
+            BiConsumer<BatchMutation, Throwable> onFailure) {
+        result.whenComplete((r, e) -> {
+            if (!attemptPending.compareAndSet(true, false)) {
+                return;
+            }
+            if (e == null) {
+                onSuccess.accept(r);
+            } else {
+                onFailure.accept(this, e);
+            }
+        });
+    }
+
+    /**
+     * Claims the current attempt as failed, for ex because the whole batch failed, unless its command outcome
+     * already settled it.
+     *
+     * @return true if the caller now owns the failure of the attempt
+     */
+    boolean claimFailedAttempt() {
+        return attemptPending.compareAndSet(true, false);
+    }
+
+    /**
+     * Completes the caller's future once the batch of a fire and forget mutation has been executed, unless its
+     * attempt has already been settled.
+     */
+    void acknowledge() {
+        if (attemptPending.compareAndSet(true, false)) {
+            future.complete(mutationId);
+        }
+    }
+
+    /**
+     * Checks whether the outcome of the mutation depends on the reply of its command, i.e. a compare and set
+     * or a ZADD, so it cannot be executed in a batch that skips results.
+     *
+     * @return true if the reply is needed
+     */
+    boolean needsResult() {
+        return type == Type.COMPARE_AND_SET || type == Type.SCORED_SORTED_SET_ADD;
+    }
+
+    /**
+     * Checks whether the mutation can safely be executed again after a failure.
+     * A compare and set is not retried, since a lost response does not tell whether it has been applied.
+     * The pipeline still retries it on NOSCRIPT, which tells that its script did not run.
+     *
+     * @return true if the mutation may be retried
+     */
+    boolean isRetryable() {
+        return type != Type.COMPARE_AND_SET;
+    }
+
+    /**
+     * Checks whether the mutation is executed as a script, i.e. a compare and set with expiry, which fails with
+     * NOSCRIPT once the script cache of the server has been flushed.
+     *
+     * @return true if the mutation is executed with EVALSHA
+     */
+    boolean usesScript() {
+        return type == Type.COMPARE_AND_SET && ttlMs != IgniteCacheRedisImpl.MINUS_ONE_LONG;
+    }
+
+    /**
+     * Gets the number of times the mutation has been added to a batch.
+     *
+     * @return the attempts
+     */
+    int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Completes the caller's future based on the success flag of a conditional command.
+     *
+     * @param success indicates if the operation was successful
+     */
+    private void complete(boolean success) {
+        if (success) {
+            future.complete(mutationId);
+        } else {
+            future.completeExceptionally(new RedisBatchProcessingException("Redis batch update failed"));
+        }
+    }
+
+    /**
+     * Checks whether this mutation overwrites the key regardless of its current value, i.e. a SET or DEL,
+     * so an earlier such mutation of the same key can be coalesced into it.
+     *
+     * @return true for SET and DEL mutations
+     */
+    boolean isUnconditionalWrite() {
+        return type == Type.SET || type == Type.DELETE;
+    }
+
+    /**
+     * Marks this mutation as superseded by a later unconditional write of the same key, which is executed instead.
+     * The caller's future still completes with this mutation's id, once the later write has been executed.
+     *
+     * @param winner the later write of the same key
+     */
+    void supersededBy(BatchMutation winner) {
+        winner.future.whenComplete((id, e) -> {
+            if (e == null) {
+                future.complete(mutationId);
+            } else {
+                future.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Completes the caller's future exceptionally.
+     *
+     * @param cause the cause
+     */
+    void fail(Throwable cause) {
+        future.completeExceptionally(cause);
+    }
+
+    /**
+     * Gets the type.
+     *
+     * @return the type
+     */
+    Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the lane of the pipeline the mutation is executed in.
+     *
+     * @return the priority
+     */
+    MutationPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the key.
+     *
+     * @return the key
+     */
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the value.
+     *
+     * @return the value, null for a DEL
+     */
+    Object getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the expected value of a compare and set.
+     *
+     * @return the expected value, null unless a compare and set
+     */
+    Object getExpectedValue() {
+        return expectedValue;
+    }
+
+    /**
+     * Gets the ttl ms.
+     *
+     * @return the ttl ms, -1 for no expiry
+     */
+    long getTtlMs() {
+        return ttlMs;
+    }
+
+    /**
+     * Gets the score of a scored sorted set addition.
+     *
+     * @return the score
+     */
+    double getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the mutation id.
+     *
+     * @return the mutation id
+     */
+    String getMutationId() {
+        return mutationId;
+    }
+
+    /**
+     * Gets the future.
+     *
+     * @return the future
+     */
+    CompletableFuture<String> getFuture() {
+        return future;
+    }
+
+    /**
+     * Gets the time at which the mutation was created.
+     *
+     * @return the enqueued at
+     */
+    long getEnqueuedAt() {
+        return enqueuedAt;
+    }
+}
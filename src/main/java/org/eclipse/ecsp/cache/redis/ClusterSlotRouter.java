@@ -0,0 +1,232 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.redisson.api.redisnode.RedisClusterMaster;
+import org.redisson.cluster.ClusterSlotRange;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Routes keys to the Redis cluster master that owns their hash slot.<br>
+ * Slots are calculated locally with CRC16 (XMODEM) modulo 16384, honouring hash tags,
+ * the same way Redis Cluster does. Every master gets a stable shard index that is kept across
+ * topology refreshes, so callers can keep one pipeline per shard.<br>
+ * Routing only decides which batch a mutation is pipelined in, Redisson still sends every command
+ * to the node owning its slot, so a stale slot map costs batching efficiency but never correctness.
+ */
+final class ClusterSlotRouter {
+
+    /** The number of hash slots of a Redis cluster. */
+    static final int SLOT_COUNT = 16384;
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(ClusterSlotRouter.class);
+
+    /** The CRC16 XMODEM polynomial used by Redis Cluster. */
+    private static final int CRC16_POLYNOMIAL = 0x1021;
+
+    /** The number of bits in a byte. */
+    private static final int BITS_PER_BYTE = 8;
+
+    /** The mask of a single byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** The mask of a 16 bit checksum. */
+    private static final int CRC16_MASK = 0xFFFF;
+
+    /** The most significant bit of a 16 bit checksum. */
+    private static final int CRC16_HIGH_BIT = 0x8000;
+
+    /** The CRC16 lookup table, indexed by byte value. */
+    private static final int[] CRC16_TABLE = new int[BYTE_MASK + 1];
+
+    static {
+        for (int i = 0; i < CRC16_TABLE.length; i++) {
+            int crc = i << BITS_PER_BYTE;
+            for (int bit = 0; bit < BITS_PER_BYTE; bit++) {
+                crc = (crc & CRC16_HIGH_BIT) != 0 ? (crc << 1) ^ CRC16_POLYNOMIAL : crc << 1;
+            }
+            CRC16_TABLE[i] = crc & CRC16_MASK;
+        }
+    }
+
+    /** Guards the shard indexes. A j.u.c lock rather than a monitor so virtual threads do not pin carriers. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Shard index of every master seen so far, by address. Indexes are never reused. */
+    private final Map<String, Integer> shardIndexes = new HashMap<>();
+
+    /** The shard index of every slot. Slots not owned by a known master are routed to shard 0. */
+    private volatile int[] slotShards = new int[SLOT_COUNT];
+
+    /**
+     * Gets the shard index of the master owning the slot of the key.
+     *
+     * @param key the key
+     * @return the shard index
+     */
+    int shardOf(String key) {
+        return slotShards[slot(key)];
+    }
+
+    /**
+     * Gets the number of shards assigned so far.
+     *
+     * @return the shard count, at least 1
+     */
+    int shardCount() {
+        lock.lock();
+        try {
+            return Math.max(1, shardIndexes.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the slot map from the slot ranges reported by the given masters.
+     *
+     * @param masters the cluster masters
+     * @return true if the slot map changed
+     */
+    boolean refresh(Collection<RedisClusterMaster> masters) {
+        if (masters == null || masters.isEmpty()) {
+            return false;
+        }
+        lock.lock();
+        try {
+            return rebuild(masters);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the slot map, with the lock held.
+     *
+     * @param masters the cluster masters, not empty
+     * @return true if the slot map changed
+     */
+    private boolean rebuild(Collection<RedisClusterMaster> masters) {
+        Map<String, Integer> addressShards = new HashMap<>();
+        for (RedisClusterMaster master : masters) {
+            InetSocketAddress addr = master.getAddr();
+            int shard = shardIndexes.computeIfAbsent(addr.getHostString() + ":" + addr.getPort(),
+                    k -> shardIndexes.size());
+            addressShards.put(addr.getHostString() + ":" + addr.getPort(), shard);
+            if (addr.getAddress() != null) {
+                addressShards.put(addr.getAddress().getHostAddress() + ":" + addr.getPort(), shard);
+            }
+        }
+        Map<ClusterSlotRange, Set<String>> ranges = masters.iterator().next().clusterSlots();
+        int[] mapping = new int[SLOT_COUNT];
+        for (Map.Entry<ClusterSlotRange, Set<String>> range : ranges.entrySet()) {
+            Integer shard = range.getValue().stream()
+                    .map(addressShards::get)
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+            if (shard == null) {
+                LOGGER.warn("No known master for slots {}-{} served by {}, routing them to shard 0",
+                        range.getKey().getStartSlot(), range.getKey().getEndSlot(), range.getValue());
+                continue;
+            }
+            Arrays.fill(mapping, range.getKey().getStartSlot(), range.getKey().getEndSlot() + 1, shard);
+        }
+        boolean changed = !Arrays.equals(mapping, slotShards);
+        slotShards = mapping;
+        return changed;
+    }
+
+    /**
+     * Calculates the Redis Cluster hash slot of the key.
+     * If the key contains a non-empty hash tag, i.e. a substring between the first '{' and the next '}',
+     * only the hash tag is hashed.
+     *
+     * @param key the key
+     * @return the slot, between 0 and 16383
+     */
+    static int slot(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        int end = bytes.length;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '{') {
+                for (int j = i + 1; j < bytes.length; j++) {
+                    if (bytes[j] == '}') {
+                        if (j > i + 1) {
+                            start = i + 1;
+                            end = j;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        return crc16(bytes, start, end) & (SLOT_COUNT - 1);
+    }
+
+    /**
+     * Calculates the CRC16 (XMODEM) checksum of a range of bytes.
+     *
+     * @param bytes the bytes
+     * @param start the start index, inclusive
+     * @param end the end index, exclusive
+     * @return the checksum
+     */
+    static int crc16(byte[] bytes, int start, int end) {
+        int crc = 0;
+        for (int i = start; i < end; i++) {
+            crc = ((crc << BITS_PER_BYTE) ^ CRC16_TABLE[((crc >>> BITS_PER_BYTE) ^ bytes[i]) & BYTE_MASK])
+                    & CRC16_MASK;
+        }
+        return crc;
+    }
+}
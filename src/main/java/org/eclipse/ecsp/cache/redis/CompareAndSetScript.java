@@ -0,0 +1,160 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.codec.Codec;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.function.Supplier;
+
+/**
+ * Compare and set with expiry as a single Lua script, executed with EVALSHA through the {@link RedisScriptRegistry}.
+ * <br>
+ * The value is set with PX only if the current value of the key matches the expected one, so the value and its
+ * expiry are applied atomically in one round trip. Arguments are encoded with {@link ScriptArgumentCodec}, so the
+ * comparison matches values written through buckets.
+ */
+final class CompareAndSetScript {
+
+    /** The script, KEYS[1] the key, ARGV[1] the expected value, ARGV[2] the new value, ARGV[3] the ttl in ms. */
+    static final String SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "redis.call('set', KEYS[1], ARGV[2], 'px', ARGV[3]) "
+            + "return 1 "
+            + "end "
+            + "return 0";
+
+    /** The SHA1 digest of the script, which is what EVALSHA refers to it by. */
+    static final String SHA = RedisScriptRegistry.sha1(SCRIPT);
+
+    /** The name the script is registered with. */
+    static final String NAME = "compareAndSet";
+
+    /** The script registry. */
+    private final RedisScriptRegistry registry;
+
+    /** The registered script. */
+    private final RedisScriptRegistry.Script script;
+
+    /** Supplies the codec of the Redisson client. */
+    private final Supplier<Codec> codecSupplier;
+
+    /** The codec of the script arguments, resolved on first use. */
+    private volatile Codec codec;
+
+    /**
+     * Instantiates a new compare and set script and registers it.
+     *
+     * @param registry the script registry
+     * @param codecSupplier supplies the codec of the Redisson client, only called on first use
+     */
+    CompareAndSetScript(RedisScriptRegistry registry, Supplier<Codec> codecSupplier) {
+        this.registry = registry;
+        this.script = registry.register(NAME, SCRIPT);
+        this.codecSupplier = codecSupplier;
+    }
+
+    /**
+     * Sets the value with expiry if the current value matches the expected one, loading the script on NOSCRIPT.
+     *
+     * @param client the Redisson client
+     * @param key the key
+     * @param expectedValue the expected value
+     * @param value the new value
+     * @param ttlMs the ttl in milliseconds
+     * @return true if the value has been set
+     */
+    boolean execute(RedissonClient client, String key, Object expectedValue, Object value, long ttlMs) {
+        Boolean set = registry.evalSha(client.getScript(codec()), script, RScript.Mode.READ_WRITE,
+                RScript.ReturnType.BOOLEAN, Collections.singletonList(key), expectedValue, value,
+                ScriptArgumentCodec.digits(ttlMs));
+        return Boolean.TRUE.equals(set);
+    }
+
+    /**
+     * Adds the script to the batch. A NOSCRIPT failure is left to the caller, see
+     * {@link RedisScriptRegistry#isNoScript(Throwable)}.
+     *
+     * @param batch the batch
+     * @param key the key
+     * @param expectedValue the expected value
+     * @param value the new value
+     * @param ttlMs the ttl in milliseconds
+     * @return the future of whether the value has been set
+     */
+    RFuture<Boolean> executeAsync(RBatch batch, String key, Object expectedValue, Object value, long ttlMs) {
+        return registry.evalShaAsync(batch, codec(), script, RScript.Mode.READ_WRITE, RScript.ReturnType.BOOLEAN,
+                Collections.singletonList(key), expectedValue, value, ScriptArgumentCodec.digits(ttlMs));
+    }
+
+    /**
+     * Sets the value with expiry through the reactive client if the current value matches the expected one,
+     * loading the script on NOSCRIPT.
+     *
+     * @param client the reactive Redisson client
+     * @param key the key
+     * @param expectedValue the expected value
+     * @param value the new value
+     * @param ttlMs the ttl in milliseconds
+     * @return emits whether the value has been set
+     */
+    Mono<Boolean> execute(RedissonReactiveClient client, String key, Object expectedValue, Object value,
+            long ttlMs) {
+        return registry.evalSha(client.getScript(codec()), script, RScript.Mode.READ_WRITE,
+                RScript.ReturnType.BOOLEAN, Collections.singletonList(key), expectedValue, value,
+                ScriptArgumentCodec.digits(ttlMs));
+    }
+
+    /**
+     * Gets the codec of the script arguments.
+     *
+     * @return the codec
+     */
+    private Codec codec() {
+        Codec argumentCodec = codec;
+        if (argumentCodec == null) {
+            argumentCodec = new ScriptArgumentCodec(codecSupplier.get());
+            codec = argumentCodec;
+        }
+        return argumentCodec;
+    }
+}
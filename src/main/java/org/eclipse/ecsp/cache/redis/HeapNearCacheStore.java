@@ -0,0 +1,150 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near cache storage of decoded values on the heap, bounded by size and evicted with W-TinyLFU.
+ */
+final class HeapNearCacheStore implements NearCacheStore {
+
+    /** The cached values by key with namespace applied, or ABSENT for keys that do not exist. */
+    private final Cache<String, Object> entries;
+
+    /** The ttl of values in nanoseconds, 0 not to keep values. */
+    private final long ttlNanos;
+
+    /** The ttl of keys that do not exist in nanoseconds, 0 not to keep such keys. */
+    private final long absentTtlNanos;
+
+    /**
+     * Instantiates a new heap near cache store.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param ttlMs the time in milliseconds a value is kept, 0 not to keep values
+     * @param absentTtlMs the time in milliseconds a key that does not exist is kept, 0 not to keep such keys
+     */
+    HeapNearCacheStore(long maximumSize, long ttlMs, long absentTtlMs) {
+        NearCache.validate(maximumSize, ttlMs, absentTtlMs);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.absentTtlNanos = TimeUnit.MILLISECONDS.toNanos(absentTtlMs);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Object>() {
+                    @Override
+                    public long expireAfterCreate(String key, Object value, long currentTime) {
+                        return value == NearCache.ABSENT ? absentTtlNanos : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Object value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Gets the value of the key.
+     *
+     * @param key the key
+     * @return the value, ABSENT or null
+     */
+    @Override
+    public Object get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * Stores the value of the key, for a ttl capped by the remaining ttl of the key.
+     *
+     * @param key the key
+     * @param value the value or ABSENT
+     * @param maxTtlMs the remaining ttl of the key in milliseconds, negative if it does not expire
+     */
+    @Override
+    public void put(String key, Object value, long maxTtlMs) {
+        long ttl = value == NearCache.ABSENT ? absentTtlNanos : ttlNanos;
+        if (ttl == 0 || maxTtlMs == 0) {
+            return;
+        }
+        if (maxTtlMs < 0 || TimeUnit.MILLISECONDS.toNanos(maxTtlMs) >= ttl) {
+            entries.put(key, value);
+        } else {
+            entries.policy().expireVariably().orElseThrow()
+                    .put(key, value, maxTtlMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Removes the key.
+     *
+     * @param key the key
+     */
+    @Override
+    public void invalidate(String key) {
+        entries.invalidate(key);
+    }
+
+    /**
+     * Removes all keys.
+     */
+    @Override
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * Gets the approximate number of entries.
+     *
+     * @return the size
+     */
+    @Override
+    public long size() {
+        return entries.estimatedSize();
+    }
+}
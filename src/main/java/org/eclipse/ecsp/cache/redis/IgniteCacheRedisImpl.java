@@ -39,39 +39,48 @@ package org.eclipse.ecsp.cache.redis;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.buffer.Unpooled;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.ecsp.cache.AddScoredEntityRequest;
 import org.eclipse.ecsp.cache.AddScoredStringRequest;
+import org.eclipse.ecsp.cache.AsyncIgniteCache;
 import org.eclipse.ecsp.cache.DeleteEntryRequest;
 import org.eclipse.ecsp.cache.DeleteMapOfEntitiesRequest;
 import org.eclipse.ecsp.cache.GetEntityRequest;
 import org.eclipse.ecsp.cache.GetMapOfEntitiesRequest;
+import org.eclipse.ecsp.cache.GetOrLoadRequest;
 import org.eclipse.ecsp.cache.GetScoredEntitiesRequest;
 import org.eclipse.ecsp.cache.GetScoredStringsRequest;
 import org.eclipse.ecsp.cache.GetStringRequest;
 import org.eclipse.ecsp.cache.IgniteCache;
+import org.eclipse.ecsp.cache.MutationPriority;
 import org.eclipse.ecsp.cache.PutEntityRequest;
 import org.eclipse.ecsp.cache.PutMapOfEntitiesRequest;
 import org.eclipse.ecsp.cache.PutStringRequest;
+import org.eclipse.ecsp.cache.ReactiveIgniteCache;
+import org.eclipse.ecsp.cache.VersionedEntity;
 import org.eclipse.ecsp.cache.exception.DecodeException;
 import org.eclipse.ecsp.cache.exception.FileNotFoundException;
 import org.eclipse.ecsp.cache.exception.IgniteCacheException;
 import org.eclipse.ecsp.cache.exception.JacksonCodecException;
 import org.eclipse.ecsp.cache.exception.RedisBatchProcessingException;
+import org.eclipse.ecsp.cache.exception.RedisPipelineOverflowException;
 import org.eclipse.ecsp.entities.IgniteEntity;
 import org.eclipse.ecsp.healthcheck.HealthMonitor;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
 import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.BatchResult;
+import org.redisson.api.BatchOptions.ExecutionMode;
 import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
-import org.redisson.api.RBucketAsync;
-import org.redisson.api.RFuture;
 import org.redisson.api.RMap;
 import org.redisson.api.RScoredSortedSet;
-import org.redisson.api.RScoredSortedSetAsync;
 import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisCluster;
+import org.redisson.api.redisnode.RedisNodes;
 import org.redisson.client.codec.Codec;
 import org.redisson.client.codec.StringCodec;
 import org.redisson.client.protocol.Decoder;
@@ -85,19 +94,34 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import static org.eclipse.ecsp.cache.redis.RedisConstants.TEN;
@@ -120,10 +144,7 @@ import static org.eclipse.ecsp.cache.redis.RedisProperty.REDIS_KEY_NAMESPACE_DEL
  * @author ssasidharan
  */
 @Repository
-public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
-    
-    /** The Constant NUM_BATCH_RETRIES. */
-    private static final int NUM_BATCH_RETRIES = 5;
+public class IgniteCacheRedisImpl implements IgniteCache, AsyncIgniteCache, HealthMonitor {
     
     /** The Constant MINUS_ONE_LONG. */
     public static final long MINUS_ONE_LONG = -1L;
@@ -136,6 +157,12 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
     
     /** The Constant LOGGER. */
     private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(IgniteCacheRedisImpl.class);
+
+    /** The Constant MAX_RETRY_BACKOFF_SHIFT. */
+    private static final int MAX_RETRY_BACKOFF_SHIFT = 20;
+
+    /** The Constant SHUTDOWN_POLL_MS. */
+    private static final long SHUTDOWN_POLL_MS = 10L;
     
     /** The scan limit. */
     @Value("${redis.scan.limit:100}")
@@ -169,39 +196,332 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
     @Autowired
     private ObjectMapper objectMapper;
     
-    /** The scan regex script. */
-    private String scanRegexScript;
+    /** The scan regex script, registered once read from the scan file. */
+    private RedisScriptRegistry.Script scanRegexScript;
+
+    /** The reactive view of this cache, built when the cache is constructed. */
+    private ReactiveIgniteCache reactiveCache;
     /**
      * Pipelining batch size. See redis pipelining for more details.
      */
     @Value("${redis.pipeline.size:1000}")
     private int batchSize = 1000;
-    // One thread could be committing the batch when another thread could be
-    // adding to the batch. To avoid this, using a volatile and assigning a new
-    // batch so other threads that are about to execute a batch op, will use the
-    // new batch. And existing threads that might be adding to the batch when
-    // the batch is currently about to be committed are left to fail-retry
-    // semantics. The only error would be that the batch may not always contain
-    /** The current batch. */
-    // batchSize entries; there can be more but not less. That is ok.
-    private volatile RBatch currentBatch = null;
-    
-    /** The batch count. */
-    /*
-     * used for tracking the current size of the batch and to trigger execution
-     * when size equals batch size
+
+    /**
+     * The lanes async mutations wait in to be pipelined, indexed by the ordinal of their priority, so from the
+     * highest to the lowest. Every lane has one queue per shard. Producers only enqueue lightweight mutation
+     * records there, the batch flusher drains them into a freshly created RBatch, so producers never touch a
+     * batch that might already be executing.<br>
+     * Outside cluster mode there is a single shard. In cluster mode every master gets its own queue,
+     * flushed on its own size or linger trigger, so a slow master does not hold back the others.
      */
-    private AtomicInteger batchCount = new AtomicInteger(0);
-    
+    private final PipelineLane[] lanes = {
+        new PipelineLane(MutationPriority.HIGH, () -> this.highLaneBatchSize),
+        new PipelineLane(MutationPriority.NORMAL, this::effectiveBatchSize),
+        new PipelineLane(MutationPriority.LOW, () -> this.lowLaneBatchSize)
+    };
+
+    /** Pipelining batch size of the HIGH lane. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_LANE_HIGH_SIZE + ":100}")
+    private volatile int highLaneBatchSize = 100;
+
+    /** Linger time in milliseconds of the HIGH lane, 0 to disable. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_LANE_HIGH_LINGER_MS + ":10}")
+    private long highLaneLingerMs = 10;
+
+    /** Maximum number of batches of the HIGH lane executing concurrently, 0 for no limit. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_LANE_HIGH_MAX_INFLIGHT_BATCHES + ":0}")
+    private int highLaneMaxInFlightBatches;
+
+    /** Pipelining batch size of the LOW lane. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_LANE_LOW_SIZE + ":1000}")
+    private volatile int lowLaneBatchSize = 1000;
+
+    /** Linger time in milliseconds of the LOW lane, 0 to disable. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_LANE_LOW_LINGER_MS + ":0}")
+    private long lowLaneLingerMs;
+
+    /** Maximum number of batches of the LOW lane executing concurrently, 0 for no limit. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_LANE_LOW_MAX_INFLIGHT_BATCHES + ":1}")
+    private int lowLaneMaxInFlightBatches = 1;
+
+    /** Whether getString and getEntity are served from an in-process near cache. */
+    @Value("${" + RedisProperty.REDIS_NEAR_CACHE_ENABLED + ":false}")
+    private boolean nearCacheEnabled;
+
+    /** Maximum number of entries of the near cache. */
+    @Value("${" + RedisProperty.REDIS_NEAR_CACHE_MAX_SIZE + ":10000}")
+    private long nearCacheMaxSize = 10000;
+
+    /** Time in milliseconds an entry of the near cache is kept after it has been read from Redis. */
+    @Value("${" + RedisProperty.REDIS_NEAR_CACHE_TTL_MS + ":60000}")
+    private long nearCacheTtlMs = 60000;
+
+    /** Key prefixes, to which the namespace is applied, of the near cached keys. All keys if empty. */
+    @Value("${" + RedisProperty.REDIS_NEAR_CACHE_KEY_PREFIXES + ":}")
+    private String[] nearCacheKeyPrefixes = new String[0];
+
+    /** How the near cache learns about keys written by other instances, KEYSPACE is rejected in cluster mode. */
+    @Value("${" + RedisProperty.REDIS_NEAR_CACHE_INVALIDATION + ":CHANNEL}")
+    private NearCacheInvalidation nearCacheInvalidation = NearCacheInvalidation.CHANNEL;
+
+    /** The channel written keys are published to with CHANNEL invalidation. */
+    @Value("${" + RedisProperty.REDIS_NEAR_CACHE_INVALIDATION_CHANNEL + ":ignite-cache:near-cache-invalidation}")
+    private String nearCacheInvalidationChannel = "ignite-cache:near-cache-invalidation";
+
+    /** Where the near cache keeps its entries. */
+    @Value("${" + RedisProperty.REDIS_NEAR_CACHE_STORAGE + ":HEAP}")
+    private NearCacheStorage nearCacheStorage = NearCacheStorage.HEAP;
+
+    /** Direct memory in bytes of the keys and values of the near cache with OFF_HEAP storage. */
+    @Value("${" + RedisProperty.REDIS_NEAR_CACHE_OFF_HEAP_BYTES + ":67108864}")
+    private long nearCacheOffHeapBytes = 67108864;
+
+    /**
+     * Whether getString and getEntity remember keys that do not exist in the near cache, for ex to absorb probes of
+     * unknown ids. Enables the near cache, keeping only missing keys unless it is enabled itself.
+     */
+    @Value("${" + RedisProperty.REDIS_NEGATIVE_CACHE_ENABLED + ":false}")
+    private boolean negativeCacheEnabled;
+
+    /** Time in milliseconds a key that does not exist is remembered after it has been read from Redis. */
+    @Value("${" + RedisProperty.REDIS_NEGATIVE_CACHE_TTL_MS + ":5000}")
+    private long negativeCacheTtlMs = 5000;
+
+    /** The metrics of the near cache. */
+    private final RedisNearCacheMetrics nearCacheMetrics = new RedisNearCacheMetrics(this::nearCacheSize);
+
+    /** The near cache, null if disabled. */
+    private volatile NearCache nearCache;
+
+    /** The Lua scripts of this cache, invoked by their SHA1 digest. */
+    private final RedisScriptRegistry scriptRegistry = new RedisScriptRegistry();
+
+    /** Compare and set with expiry, encoding its arguments with the codec of the Redisson client. */
+    private final CompareAndSetScript compareAndSetScript =
+            new CompareAndSetScript(scriptRegistry, () -> redissonClient.getConfig().getCodec());
+
+    /** Versioned entities, encoding their values with the codec of the Redisson client. */
+    private final VersionedEntityScript versionedEntityScript =
+            new VersionedEntityScript(scriptRegistry, () -> redissonClient.getConfig().getCodec());
+
+    /** Refreshes the keys of registered loaders ahead of their expiry. */
+    private final RefreshAhead refreshAhead = new RefreshAhead(scriptRegistry, () -> redissonClient,
+            () -> redissonClient.getConfig().getCodec(), this::nearCacheWritten);
+
+    /** Fraction of the ttl of a key refreshed ahead after which a read refreshes it. */
+    @Value("${" + RedisProperty.REDIS_REFRESH_AHEAD_FRACTION + ":0.8}")
+    private double refreshAheadFraction = 0.8;
+
+    /** Number of threads refreshing keys ahead of their expiry. */
+    @Value("${" + RedisProperty.REDIS_REFRESH_AHEAD_THREADS + ":2}")
+    private int refreshAheadThreads = 2;
+
+    /** Maximum number of refreshes waiting for a thread, further ones are dropped. */
+    @Value("${" + RedisProperty.REDIS_REFRESH_AHEAD_QUEUE_CAPACITY + ":1000}")
+    private int refreshAheadQueueCapacity = 1000;
+
+    /** Loads missed entities once per key, reading and invalidating through the near cache. */
+    private final SingleFlightLoader singleFlightLoader = new SingleFlightLoader(scriptRegistry, () -> redissonClient,
+            () -> redissonClient.getConfig().getCodec(), this::readBucket, this::nearCacheWritten);
+
+    /** Routes keys of async mutations to the cluster master owning their slot. */
+    private final ClusterSlotRouter slotRouter = new ClusterSlotRouter();
+
+    /** Interval in milliseconds at which the slot map is refreshed in cluster mode. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_SHARD_REFRESH_MS + ":60000}")
+    private long shardRefreshMs = 60000;
+
+    /** The options of batches with results. */
+    private BatchOptions batchOptions = BatchOptions.defaults();
+
+    /** The options of batches of fire and forget mutations. */
+    private BatchOptions fireAndForgetBatchOptions = BatchOptions.defaults().skipResult();
+
+    /** Creates the batch that pending mutations are drained into. */
+    private Supplier<RBatch> batchFactory = () -> redissonClient.createBatch(batchOptions);
+
+    /** Creates the batch that fire and forget mutations are drained into when results are skipped. */
+    private Supplier<RBatch> fireAndForgetBatchFactory = () -> redissonClient.createBatch(fireAndForgetBatchOptions);
+
+    /**
+     * Whether SET and DEL are executed in batches that skip their replies. Compare and set and ZADD
+     * still go into a batch with results, since their outcome depends on the reply.
+     */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_SKIP_RESULT + ":false}")
+    private boolean skipResult;
+
+    /** Response timeout in milliseconds of a batch, 0 to use the Redisson default. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_RESPONSE_TIMEOUT_MS + ":0}")
+    private long batchResponseTimeoutMs;
+
+    /** Number of times Redisson retries sending a batch, -1 to use the Redisson default. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_BATCH_RETRY_ATTEMPTS + ":-1}")
+    private int batchRetryAttempts = -1;
+
+    /** Interval in milliseconds between Redisson retries of a batch, -1 to use the Redisson default. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_BATCH_RETRY_INTERVAL_MS + ":-1}")
+    private long batchRetryIntervalMs = -1;
+
+    /** How batches are executed. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_EXECUTION_MODE + ":IN_MEMORY}")
+    private ExecutionMode batchExecutionMode = ExecutionMode.IN_MEMORY;
+
     /** The last batch exec timestamp. */
     private AtomicLong lastBatchExecTimestamp = new AtomicLong(System.currentTimeMillis());
 
+    /**
+     * Maximum time in milliseconds a partially filled batch is allowed to wait before it is executed.
+     * 0 (default) disables the time based flush and batches are executed only when full.
+     */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_LINGER_MS + ":0}")
+    private long lingerMs;
+
+    /**
+     * Whether the batch size adapts between adaptiveMinBatchSize and adaptiveMaxBatchSize
+     * to the observed executeAsync round trip and flush wait. Disabled by default.
+     */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_ADAPTIVE_ENABLED + ":false}")
+    private boolean adaptiveBatchSizeEnabled;
+
+    /** The lower bound of the adaptive batch size. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_ADAPTIVE_MIN_SIZE + ":100}")
+    private int adaptiveMinBatchSize = 100;
+
+    /** The upper bound of the adaptive batch size. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_ADAPTIVE_MAX_SIZE + ":5000}")
+    private int adaptiveMaxBatchSize = 5000;
+
+    /** The additive increment of the adaptive batch size. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_ADAPTIVE_INCREMENT + ":50}")
+    private int adaptiveBatchSizeIncrement = 50;
+
+    /** The round trip and flush wait above which the adaptive batch size is halved. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_ADAPTIVE_TARGET_LATENCY_MS + ":50}")
+    private long adaptiveTargetLatencyMs = 50;
+
+    /** Adapts the batch size, null unless adaptive batch sizing is enabled. */
+    private volatile AdaptiveBatchSizer batchSizer;
+
+    /** The metrics of the async pipeline. */
+    private final RedisPipelineMetrics pipelineMetrics = new RedisPipelineMetrics(this::queuedMutations);
+
+    /** Maximum number of batches of each lane executing concurrently, caps the HIGH and LOW lane limits. 0 for none. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_MAX_INFLIGHT_BATCHES + ":0}")
+    private int maxInFlightBatches;
+
+    /** Maximum number of async mutations waiting to be drained into a batch. 0 (default) for no limit. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_MAX_QUEUED_MUTATIONS + ":0}")
+    private int maxQueuedMutations;
+
+    /** What async mutations do once maxQueuedMutations are queued. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_OVERFLOW_POLICY + ":BLOCK}")
+    private PipelineOverflowPolicy overflowPolicy = PipelineOverflowPolicy.BLOCK;
+
+    /** Maximum time in milliseconds the BLOCK overflow policy blocks a caller before failing it. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_OVERFLOW_BLOCK_TIMEOUT_MS + ":30000}")
+    private long overflowBlockTimeoutMs = 30000;
+
+    /**
+     * Whether a drained batch keeps only the last unconditional SET or DEL per key. Superseded mutations
+     * complete with their own mutationId once the last write has been executed. Disabled by default.
+     */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_COALESCE_WRITES + ":false}")
+    private boolean coalesceWrites;
+
+    /**
+     * Number of times a failed SET, DEL or ZADD is retried before its future fails. Disabled by default, since a
+     * retry is dropped rather than executed after a newer mutation of the same key.
+     */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_RETRY_ATTEMPTS + ":0}")
+    private int retryAttempts;
+
+    /** The last mutation of each key that entered the pipeline, tracked while retries are enabled. */
+    private final ConcurrentMap<String, BatchMutation> latestMutations = new ConcurrentHashMap<>();
+
+    /** Delay in milliseconds before the first retry of a failed mutation, doubling with every further retry. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_RETRY_BACKOFF_MS + ":100}")
+    private long retryBackoffMs = 100;
+
+    /** Upper bound in milliseconds of the delay between retries of a failed mutation. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_RETRY_MAX_BACKOFF_MS + ":5000}")
+    private long retryMaxBackoffMs = 5000;
+
+    /** Gathers concurrent async reads into MGETs. */
+    private final ReadBatcher readBatcher = new ReadBatcher(this::readAll);
+
+    /** Time in milliseconds async reads are gathered for before they are read together. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_READ_WINDOW_MS + ":1}")
+    private long readWindowMs = 1;
+
+    /** Max number of keys read together by async reads. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_READ_MAX_BATCH_SIZE + ":500}")
+    private int readMaxBatchSize = ReadBatcher.DEFAULT_MAX_BATCH_SIZE;
+
+    /** Generates the ids of executed batches, used to correlate failures in logs and exceptions. */
+    private final AtomicLong batchSequence = new AtomicLong();
+
+    /** Permits for queued async mutations, null if unbounded. */
+    private Semaphore queuedPermits;
+
+    /** Set while a flush of all queued mutations, triggered by a full pipeline, has not started yet. */
+    private final AtomicBoolean pressureFlushScheduled = new AtomicBoolean(false);
+
+    /** The dedicated thread that drains pending mutations into batches and executes them. */
+    private ScheduledExecutorService batchFlusher;
+
+    /** Maximum time in milliseconds shutdown waits for queued and in-flight async mutations to be executed. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_SHUTDOWN_TIMEOUT_MS + ":30000}")
+    private long shutdownTimeoutMs = 30000;
+
+    /** Set once shutdown has started, new async mutations are rejected from then on. */
+    private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
+
+    /** Set once shutdown has given up on the mutations still queued, mutations queued later are abandoned. */
+    private volatile boolean pipelineClosed;
+
+    /** The number of mutations of the batches currently executing. */
+    private final AtomicInteger inFlightMutations = new AtomicInteger();
+
+    /** The failed mutations waiting for the backoff of their retry, neither queued nor in flight. */
+    private final Set<BatchMutation> retryingMutations = ConcurrentHashMap.newKeySet();
+
+    /** The number of mutations drained into batches since shutdown started. */
+    private final AtomicLong shutdownFlushedMutations = new AtomicLong();
+
+    /**
+     * Path of the journal async mutations are spilled to while Redis is unhealthy or the in-flight batch limit
+     * has been reached. Empty (default) disables spilling.
+     */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_SPILL_PATH + ":}")
+    private String spillPath;
+
+    /** Size in bytes of the spill journal, which bounds the spilled mutations. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_SPILL_MAX_BYTES + ":67108864}")
+    private int spillMaxBytes = 67108864;
+
+    /** Interval in milliseconds at which spilled mutations are replayed once Redis can take them again. */
+    @Value("${" + RedisProperty.REDIS_PIPELINE_SPILL_REPLAY_INTERVAL_MS + ":1000}")
+    private long spillReplayIntervalMs = 1000;
+
+    /** The spill journal, null if spilling is disabled. */
+    private volatile SpillJournal spillJournal;
+
+    /** Set while a replay of spilled mutations has been submitted to the flusher but has not started yet. */
+    private final AtomicBoolean spillReplayScheduled = new AtomicBoolean(false);
+
     /** The Constant MANDATORY_VALUE. */
     public static final String MANDATORY_VALUE = "value is mandatory";
     
     /** The Constant MANDATORY_KEY. */
     public static final String MANDATORY_KEY = "key is mandatory";
 
+    /** The Constant MANDATORY_LOADER. */
+    public static final String MANDATORY_LOADER = "loader is mandatory";
+
+    /** The name the scan regex script is registered with. */
+    static final String SCAN_REGEX_SCRIPT_NAME = "scanRegex";
+
     /** The redis health monitor enabled. */
     @Value("${" + RedisProperty.REDIS_HEALTH_MONITOR_ENABLED + ":false}")
     private boolean redisHealthMonitorEnabled;
@@ -233,8 +553,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
     @Override
     public String getString(String key) {
         key = addNamespace(key, true);
-        RBucket<String> bucket = redissonClient.getBucket(key);
-        return bucket.get();
+        return (String) readBucket(key);
     }
 
     /**
@@ -247,7 +566,21 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
     public String getString(GetStringRequest request) {
         validate(request);
         request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
-        return (String) redissonClient.getBucket(request.getKey()).get();
+        return (String) readBucket(request.getKey());
+    }
+
+    /**
+     * Retrieves a string value from the near cache if enabled, or from Redis asynchronously together with the other
+     * reads of the current window.
+     *
+     * @param request the request containing the key and namespace information
+     * @return future of the string value associated with the key
+     */
+    @Override
+    public CompletableFuture<String> getStringAsync(GetStringRequest request) {
+        validate(request);
+        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
+        return readBucketAsync(request.getKey()).thenApply(String.class::cast);
     }
 
     /**
@@ -266,9 +599,13 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
             } else {
                 bucket.set(putRequest.getValue(), putRequest.getTtlMs(), TimeUnit.MILLISECONDS);
             }
-        } else {
+        } else if (putRequest.getTtlMs() == MINUS_ONE_LONG) {
             bucket.compareAndSet(putRequest.getExpectedValue(), putRequest.getValue());
+        } else {
+            compareAndSetScript.execute(redissonClient, putRequest.getKey(), putRequest.getExpectedValue(),
+                    putRequest.getValue(), putRequest.getTtlMs());
         }
+        nearCacheWritten(putRequest.getKey());
     }
 
     /**
@@ -281,8 +618,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
     @Override
     public <T extends IgniteEntity> T getEntity(String key) {
         key = addNamespace(key, true);
-        RBucket<T> bucket = redissonClient.getBucket(key);
-        return bucket.get();
+        return (T) readBucket(key);
     }
 
     /**
@@ -295,550 +631,2119 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
     @Override
     public <T extends IgniteEntity> T getEntity(GetEntityRequest request) {
         request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
-        return (T) redissonClient.getBucket(request.getKey()).get();
+        return (T) readBucket(request.getKey());
     }
 
     /**
-     * Stores an entity in Redis based on the provided request.
+     * Retrieves an entity from the near cache if enabled, or from Redis asynchronously together with the other reads
+     * of the current window.
      *
      * @param <T> the type of the entity
-     * @param putRequest the request containing the key, value, and other parameters
+     * @param request the request containing the key and namespace information
+     * @return future of the entity associated with the key
      */
     @Override
-    public <T extends IgniteEntity> void putEntity(PutEntityRequest<T> putRequest) {
-        validate(putRequest);
-        putRequest.withKey(addNamespace(putRequest.getKey(), putRequest.getNamespaceEnabled()));
-        RBucket<T> bucket = redissonClient.getBucket(putRequest.getKey());
-        if (putRequest.getExpectedValue() == null) {
-            if (putRequest.getTtlMs() == MINUS_ONE_LONG) {
-                bucket.set(putRequest.getValue());
-            } else {
-                bucket.set(putRequest.getValue(), putRequest.getTtlMs(), TimeUnit.MILLISECONDS);
-            }
-        } else {
-            bucket.compareAndSet(putRequest.getExpectedValue(), putRequest.getValue());
-        }
+    public <T extends IgniteEntity> CompletableFuture<T> getEntityAsync(GetEntityRequest request) {
+        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
+        return readBucketAsync(request.getKey()).thenApply(v -> (T) v);
     }
 
     /**
-     * Adds a string to a scored sorted set in Redis.
+     * Retrieves the entities associated with the given keys from Redis, with one MGET per slot.
      *
-     * @param request the request containing the key, value, and score
+     * @param <T> the type of the entity
+     * @param keys the keys to retrieve the entities for
+     * @return the entities by key, keys that do not exist are omitted
      */
     @Override
-    public void addStringToScoredSortedSet(AddScoredStringRequest request) {
-        validate(request);
-        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
-        RScoredSortedSet<String> sset = redissonClient.getScoredSortedSet(request.getKey());
-        sset.add(request.getScore(), request.getValue());
+    public <T extends IgniteEntity> Map<String, T> getEntities(Collection<String> keys) {
+        return (Map<String, T>) getAll(keys);
     }
 
     /**
-     * Gets the strings from scored sorted set.
+     * Retrieves the string values associated with the given keys from Redis, with one MGET per slot.
      *
-     * @param request the request
-     * @return the strings from scored sorted set
+     * @param keys the keys to retrieve the string values for
+     * @return the string values by key, keys that do not exist are omitted
      */
     @Override
-    public List<String> getStringsFromScoredSortedSet(GetScoredStringsRequest request) {
-        validate(request);
-        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
-        RScoredSortedSet<String> sset = redissonClient.getScoredSortedSet(request.getKey());
-        if (request.isReversed()) {
-            return sset.entryRangeReversed(request.getStartIndex(), request.getEndIndex()).stream()
-                    .map(ScoredEntry::getValue).collect(Collectors.toList());
-        } else {
-            return sset.entryRange(request.getStartIndex(), request.getEndIndex())
-                    .stream()
-                    .map(ScoredEntry::getValue)
-                    .collect(Collectors.toList());
+    public Map<String, String> getStrings(Collection<String> keys) {
+        return (Map<String, String>) getAll(keys);
+    }
+
+    /**
+     * Reads the keys with namespace applied, waiting for the MGETs of all slot groups.
+     *
+     * @param keys the keys without namespace
+     * @return the values by key without namespace, keys that do not exist are omitted
+     */
+    private Map<String, ?> getAll(Collection<String> keys) {
+        return join(getAllAsync(keys));
+    }
+
+    /**
+     * Reads the keys with namespace applied, issuing the MGETs of all slot groups at once.
+     *
+     * @param keys the keys without namespace
+     * @return future of the values by key without namespace, keys that do not exist are omitted
+     */
+    CompletableFuture<Map<String, Object>> getAllAsync(Collection<String> keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys cannot be null");
+        }
+        Map<String, String> originalKeys = new HashMap<>();
+        for (String key : keys) {
+            originalKeys.put(addNamespace(key, true), key);
         }
+        List<CompletableFuture<Map<String, Object>>> reads = new ArrayList<>();
+        for (List<String> group : groupBySlot(originalKeys.keySet(), readMaxBatchSize)) {
+            reads.add(redissonClient.getBuckets().<Object>getAsync(group.toArray(new String[0]))
+                    .toCompletableFuture());
+        }
+        return CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).thenApply(v -> {
+            Map<String, Object> values = new HashMap<>();
+            reads.forEach(read -> read.join().forEach((key, value) -> values.put(originalKeys.get(key), value)));
+            return values;
+        });
     }
 
     /**
-     * Adds an entity to a scored sorted set in Redis.
+     * Stores the given entities in Redis, with one pipeline per cluster master.
      *
      * @param <T> the type of the entity
-     * @param request the request containing the key, value, and score
+     * @param entities the entities by key
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
      */
     @Override
-    public <T extends IgniteEntity> void addEntityToScoredSortedSet(AddScoredEntityRequest<T> request) {
-        validate(request);
-        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
-        RScoredSortedSet<T> sset = redissonClient.getScoredSortedSet(request.getKey());
-        sset.add(request.getScore(), request.getValue());
+    public <T extends IgniteEntity> void putEntities(Map<String, T> entities, long ttlMs) {
+        putAll(entities, ttlMs);
     }
 
     /**
-     * Gets the entities from scored sorted set.
+     * Stores an entity in versioned mode if its current version matches the expected one, comparing only the
+     * version in a single script.
      *
-     * @param <T> the generic type
+     * @param <T> the type of the entity
+     * @param key the key
+     * @param value the entity
+     * @param expectedVersion the expected version, 0 if the key is expected not to exist
+     * @return true if the entity has been stored
+     */
+    @Override
+    public <T extends IgniteEntity> boolean putEntityIfVersion(String key, T value, long expectedVersion) {
+        Objects.requireNonNull(key, MANDATORY_KEY);
+        Objects.requireNonNull(value, MANDATORY_VALUE);
+        return versionedEntityScript.put(redissonClient, addNamespace(key, true), value, expectedVersion);
+    }
+
+    /**
+     * Retrieves an entity stored in versioned mode together with its version.
+     *
+     * @param <T> the type of the entity
+     * @param key the key
+     * @return the entity and its version, null if the key does not exist
+     */
+    @Override
+    public <T extends IgniteEntity> VersionedEntity<T> getEntityWithVersion(String key) {
+        Objects.requireNonNull(key, MANDATORY_KEY);
+        return versionedEntityScript.get(redissonClient, addNamespace(key, true));
+    }
+
+    /**
+     * Retrieves an entity, or loads it and stores it on a miss, sharing the load with concurrent misses.
+     *
+     * @param <T> the type of the entity
+     * @param key the key
+     * @param loader loads the entity on a miss
+     * @param ttlMs the ttl of the loaded entity in ms, -1 for no expiry
+     * @return the entity, null if it does not exist
+     */
+    @Override
+    public <T extends IgniteEntity> T getOrLoad(String key, Supplier<T> loader, long ttlMs) {
+        return getOrLoad(new GetOrLoadRequest<T>().withKey(key).withLoader(loader).withTtlMs(ttlMs));
+    }
+
+    /**
+     * Retrieves an entity, or loads it and stores it on a miss, with the lease and early refresh of the request.
+     *
+     * @param <T> the type of the entity
      * @param request the request
-     * @return the entities from scored sorted set
+     * @return the entity, null if it does not exist
      */
+    @SuppressWarnings("unchecked")
     @Override
-    public <T extends IgniteEntity> List<T> getEntitiesFromScoredSortedSet(GetScoredEntitiesRequest request) {
+    public <T extends IgniteEntity> T getOrLoad(GetOrLoadRequest<T> request) {
         validate(request);
-        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
-        RScoredSortedSet<T> sset = redissonClient.getScoredSortedSet(request.getKey());
-        if (request.isReversed()) {
-            return sset.entryRangeReversed(request.getStartIndex(), request.getEndIndex())
-                    .stream()
-                    .map(ScoredEntry::getValue)
-                    .toList();
-        } else {
-            return sset.entryRange(request.getStartIndex(), request.getEndIndex())
-                    .stream()
-                    .map(ScoredEntry::getValue)
-                    .toList();
-        }
+        String key = addNamespace(request.getKey(), request.getNamespaceEnabled());
+        return (T) singleFlightLoader.getOrLoad(key, request.getLoader(), request.getTtlMs(), request.getLeaseMs(),
+                request.getEarlyRefreshBeta());
     }
 
     /**
-     * Asynchronously stores a string value in Redis based on the provided request.
+     * Registers the loader that refreshes the keys starting with a prefix ahead of their expiry.
      *
-     * @param putRequest the request containing the key, value, and other parameters
-     * @return a Future representing the result of the asynchronous operation
+     * @param <T> the type of the entity
+     * @param keyPrefix the key prefix, to which the namespace is applied
+     * @param ttlMs the ttl in ms the entities are written with
+     * @param loader loads the entity of a key without namespace
      */
     @Override
-    public Future<String> putStringAsync(PutStringRequest putRequest) {
-        validate(putRequest);
-        putRequest.withKey(addNamespace(putRequest.getKey(), putRequest.getNamespaceEnabled()));
-        CompletableFuture<String> f = new CompletableFuture<>();
-        performBatchOperation(v -> {
-            RBucketAsync<String> bucket = currentBatch.getBucket(putRequest.getKey());
-            final String mutationId = putRequest.getMutationId();
-            if (putRequest.getExpectedValue() == null) {
-                if (putRequest.getTtlMs() == MINUS_ONE_LONG) {
-                    bucket.setAsync(putRequest.getValue())
-                            .thenAccept(s -> f.complete(mutationId));
-                } else {
-                    bucket.setAsync(putRequest.getValue(), putRequest.getTtlMs(), TimeUnit.MILLISECONDS)
-                            .thenAccept(s -> f.complete(mutationId));
+    public <T extends IgniteEntity> void registerRefreshLoader(String keyPrefix, long ttlMs,
+            Function<String, T> loader) {
+        validateRefreshLoader(keyPrefix, ttlMs, loader);
+        String prefix = addNamespace(keyPrefix, true);
+        refreshAhead.register(prefix, prefix.length() - keyPrefix.length(), ttlMs, loader);
+    }
+
+    /**
+     * Gets the metrics of the refreshes ahead of expiry.
+     *
+     * @return the metrics
+     */
+    public RedisRefreshAheadMetrics getRefreshAheadMetrics() {
+        return refreshAhead.getMetrics();
+    }
+
+    /**
+     * Starts the executor of the refreshes ahead of expiry.
+     *
+     * @param fraction the fraction of the ttl after which a read refreshes a key
+     * @param threads the number of threads
+     * @param queueCapacity the maximum number of refreshes waiting for a thread
+     */
+    void enableRefreshAhead(double fraction, int threads, int queueCapacity) {
+        refreshAhead.configure(fraction, threads, queueCapacity);
+        LOGGER.info("Refresh ahead enabled with fraction: {}, threads: {}, queue capacity: {}", fraction, threads,
+                queueCapacity);
+    }
+
+    /**
+     * Stores the given string values in Redis, with one pipeline per cluster master.
+     *
+     * @param values the string values by key
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
+     */
+    @Override
+    public void putStrings(Map<String, String> values, long ttlMs) {
+        putAll(values, ttlMs);
+    }
+
+    /**
+     * Writes the values with namespace applied, waiting for the batches of all cluster masters.
+     *
+     * @param values the values by key without namespace
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
+     */
+    private void putAll(Map<String, ?> values, long ttlMs) {
+        join(putAllAsync(values, ttlMs));
+    }
+
+    /**
+     * Writes the values with namespace applied, in one batch per cluster master holding an MSET per slot, or
+     * pipelined SET PX if they expire. The batches of all masters are executed at once.
+     *
+     * @param values the values by key without namespace
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
+     * @return future completed once all writes are acknowledged
+     * @throws IllegalArgumentException if the time to live is neither positive nor -1
+     */
+    CompletableFuture<Void> putAllAsync(Map<String, ?> values, long ttlMs) {
+        Objects.requireNonNull(values, "Values cannot be null");
+        if (ttlMs <= 0 && ttlMs != MINUS_ONE_LONG) {
+            throw new IllegalArgumentException(String.format("Invalid ttlMs %d, expected a positive value or -1",
+                    ttlMs));
+        }
+        Map<String, Object> namespacedValues = new HashMap<>();
+        values.forEach((key, value) -> {
+            Objects.requireNonNull(key, MANDATORY_KEY);
+            Objects.requireNonNull(value, MANDATORY_VALUE);
+            namespacedValues.put(addNamespace(key, true), value);
+        });
+        List<CompletableFuture<BatchResult<?>>> writes = new ArrayList<>();
+        for (List<String> group : groupByMaster(namespacedValues.keySet(), batchSize)) {
+            RBatch batch = redissonClient.createBatch(batchOptions);
+            if (ttlMs == MINUS_ONE_LONG) {
+                // an MSET cannot span slots
+                for (List<String> slotKeys : groupBySlot(group, group.size())) {
+                    Map<String, Object> slotValues = new HashMap<>();
+                    slotKeys.forEach(key -> slotValues.put(key, namespacedValues.get(key)));
+                    batch.getBuckets().setAsync(slotValues);
                 }
             } else {
-                bucket.compareAndSetAsync(putRequest.getExpectedValue(), putRequest.getValue())
-                        .thenAccept(s -> completeFuture(s, f, mutationId));
+                group.forEach(key -> batch.getBucket(key).setAsync(namespacedValues.get(key), ttlMs,
+                        TimeUnit.MILLISECONDS));
             }
+            writes.add(batch.executeAsync().toCompletableFuture());
+        }
+        LOGGER.debug("Writing {} keys in {} batches", namespacedValues.size(), writes.size());
+        CompletableFuture<Void> written = CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+        NearCache cache = nearCache;
+        if (cache != null) {
+            namespacedValues.keySet().forEach(cache::invalidate);
+            written.whenComplete((v, e) -> namespacedValues.keySet().forEach(this::nearCacheWritten));
+        }
+        return written;
+    }
+
+    /**
+     * Waits for the stage to complete, rethrowing its failure as is.
+     *
+     * @param <V> the result type
+     * @param stage the stage
+     * @return the result
+     */
+    private static <V> V join(CompletionStage<V> stage) {
+        try {
+            return stage.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /**
+     * Splits the keys into groups of at most the max group size, each within a single slot in cluster mode.
+     *
+     * @param keys the keys with namespace applied
+     * @param maxGroupSize the max group size
+     * @return the groups
+     */
+    private List<List<String>> groupBySlot(Collection<String> keys, int maxGroupSize) {
+        return groupBy(keys, maxGroupSize, ClusterSlotRouter::slot);
+    }
+
+    /**
+     * Splits the keys into groups of at most the max group size, each served by a single master in cluster mode,
+     * as of the last refresh of the slot map.
+     *
+     * @param keys the keys with namespace applied
+     * @param maxGroupSize the max group size
+     * @return the groups
+     */
+    private List<List<String>> groupByMaster(Collection<String> keys, int maxGroupSize) {
+        return groupBy(keys, maxGroupSize, slotRouter::shardOf);
+    }
+
+    /**
+     * Splits the keys into groups of at most the max group size, keys of a group sharing the same group id in
+     * cluster mode.
+     *
+     * @param keys the keys with namespace applied
+     * @param maxGroupSize the max group size
+     * @param groupOf the group id of a key
+     * @return the groups
+     */
+    private List<List<String>> groupBy(Collection<String> keys, int maxGroupSize, ToIntFunction<String> groupOf) {
+        Map<Integer, List<String>> byGroup = new HashMap<>();
+        boolean cluster = isClusterMode();
+        for (String key : keys) {
+            byGroup.computeIfAbsent(cluster ? groupOf.applyAsInt(key) : 0, g -> new ArrayList<>()).add(key);
+        }
+        List<List<String>> groups = new ArrayList<>();
+        for (List<String> groupKeys : byGroup.values()) {
+            for (int i = 0; i < groupKeys.size(); i += maxGroupSize) {
+                groups.add(groupKeys.subList(i, Math.min(groupKeys.size(), i + maxGroupSize)));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Checks whether the Redisson client is connected to a Redis cluster.
+     *
+     * @return true in cluster mode
+     */
+    private boolean isClusterMode() {
+        return redissonClient.getConfig() != null && redissonClient.getConfig().isClusterConfig();
+    }
+
+    /**
+     * Stores an entity in Redis based on the provided request.
+     *
+     * @param <T> the type of the entity
+     * @param putRequest the request containing the key, value, and other parameters
+     */
+    @Override
+    public <T extends IgniteEntity> void putEntity(PutEntityRequest<T> putRequest) {
+        validate(putRequest);
+        putRequest.withKey(addNamespace(putRequest.getKey(), putRequest.getNamespaceEnabled()));
+        RBucket<T> bucket = redissonClient.getBucket(putRequest.getKey());
+        if (putRequest.getExpectedValue() == null) {
+            if (putRequest.getTtlMs() == MINUS_ONE_LONG) {
+                bucket.set(putRequest.getValue());
+            } else {
+                bucket.set(putRequest.getValue(), putRequest.getTtlMs(), TimeUnit.MILLISECONDS);
+            }
+        } else if (putRequest.getTtlMs() == MINUS_ONE_LONG) {
+            bucket.compareAndSet(putRequest.getExpectedValue(), putRequest.getValue());
+        } else {
+            compareAndSetScript.execute(redissonClient, putRequest.getKey(), putRequest.getExpectedValue(),
+                    putRequest.getValue(), putRequest.getTtlMs());
+        }
+        nearCacheWritten(putRequest.getKey());
+    }
+
+    /**
+     * Adds a string to a scored sorted set in Redis.
+     *
+     * @param request the request containing the key, value, and score
+     */
+    @Override
+    public void addStringToScoredSortedSet(AddScoredStringRequest request) {
+        validate(request);
+        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
+        RScoredSortedSet<String> sset = redissonClient.getScoredSortedSet(request.getKey());
+        sset.add(request.getScore(), request.getValue());
+    }
+
+    /**
+     * Gets the strings from scored sorted set.
+     *
+     * @param request the request
+     * @return the strings from scored sorted set
+     */
+    @Override
+    public List<String> getStringsFromScoredSortedSet(GetScoredStringsRequest request) {
+        validate(request);
+        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
+        RScoredSortedSet<String> sset = redissonClient.getScoredSortedSet(request.getKey());
+        if (request.isReversed()) {
+            return sset.entryRangeReversed(request.getStartIndex(), request.getEndIndex()).stream()
+                    .map(ScoredEntry::getValue).collect(Collectors.toList());
+        } else {
+            return sset.entryRange(request.getStartIndex(), request.getEndIndex())
+                    .stream()
+                    .map(ScoredEntry::getValue)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Adds an entity to a scored sorted set in Redis.
+     *
+     * @param <T> the type of the entity
+     * @param request the request containing the key, value, and score
+     */
+    @Override
+    public <T extends IgniteEntity> void addEntityToScoredSortedSet(AddScoredEntityRequest<T> request) {
+        validate(request);
+        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
+        RScoredSortedSet<T> sset = redissonClient.getScoredSortedSet(request.getKey());
+        sset.add(request.getScore(), request.getValue());
+    }
+
+    /**
+     * Gets the entities from scored sorted set.
+     *
+     * @param <T> the generic type
+     * @param request the request
+     * @return the entities from scored sorted set
+     */
+    @Override
+    public <T extends IgniteEntity> List<T> getEntitiesFromScoredSortedSet(GetScoredEntitiesRequest request) {
+        validate(request);
+        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
+        RScoredSortedSet<T> sset = redissonClient.getScoredSortedSet(request.getKey());
+        if (request.isReversed()) {
+            return sset.entryRangeReversed(request.getStartIndex(), request.getEndIndex())
+                    .stream()
+                    .map(ScoredEntry::getValue)
+                    .toList();
+        } else {
+            return sset.entryRange(request.getStartIndex(), request.getEndIndex())
+                    .stream()
+                    .map(ScoredEntry::getValue)
+                    .toList();
+        }
+    }
+
+    /**
+     * Asynchronously stores a string value in Redis based on the provided request.
+     *
+     * @param putRequest the request containing the key, value, and other parameters
+     * @return a CompletableFuture representing the result of the asynchronous operation
+     */
+    @Override
+    public CompletableFuture<String> putStringAsync(PutStringRequest putRequest) {
+        validate(putRequest);
+        putRequest.withKey(addNamespace(putRequest.getKey(), putRequest.getNamespaceEnabled()));
+        return invalidatingNearCache(putRequest.getKey(), enqueueMutation(BatchMutation.put(putRequest.getKey(),
+                putRequest.getValue(), putRequest.getExpectedValue(), putRequest.getTtlMs(),
+                putRequest.getMutationId()).withPriority(putRequest.getPriority())));
+    }
+
+    /**
+     * Asynchronously stores an entity in Redis based on the provided request.
+     *
+     * @param <T> the type of the entity
+     * @param putRequest the request containing the key, value, and other parameters
+     * @return a CompletableFuture representing the result of the asynchronous operation
+     */
+    @Override
+    public <T extends IgniteEntity> CompletableFuture<String> putEntityAsync(PutEntityRequest<T> putRequest) {
+        validate(putRequest);
+        putRequest.withKey(addNamespace(putRequest.getKey(), putRequest.getNamespaceEnabled()));
+        return invalidatingNearCache(putRequest.getKey(), enqueueMutation(BatchMutation.put(putRequest.getKey(),
+                putRequest.getValue(), putRequest.getExpectedValue(), putRequest.getTtlMs(),
+                putRequest.getMutationId()).withPriority(putRequest.getPriority())));
+    }
+
+    /**
+     * Adds a string to a scored sorted set in Redis asynchronously.
+     *
+     * @param request the request containing the key, value, and score
+     * @return a CompletableFuture representing the result of the asynchronous operation
+     */
+    @Override
+    public CompletableFuture<String> addStringToScoredSortedSetAsync(AddScoredStringRequest request) {
+        validate(request);
+        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
+        return enqueueMutation(BatchMutation.addToScoredSortedSet(request.getKey(), request.getScore(),
+                request.getValue(), request.getMutationId()).withPriority(request.getPriority()));
+    }
+
+    /**
+     * Adds the entity to a scored sorted set asynchronously.
+     *
+     * @param <T> the generic type of the entity
+     * @param request the request containing the entity and its score
+     * @return a CompletableFuture representing the result of the asynchronous operation
+     */
+    @Override
+    public <T extends IgniteEntity> CompletableFuture<String> addEntityToScoredSortedSetAsync(
+            AddScoredEntityRequest<T> request) {
+        validate(request);
+        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
+        return enqueueMutation(BatchMutation.addToScoredSortedSet(request.getKey(), request.getScore(),
+                request.getValue(), request.getMutationId()).withPriority(request.getPriority()));
+    }
+
+    /**
+     * Deletes the entry associated with the given key from Redis.
+     *
+     * @param key the key of the entry to be deleted
+     */
+    @Override
+    public void delete(String key) {
+        key = addNamespace(key, true);
+        RBucket<String> bucket = redissonClient.getBucket(key);
+        bucket.delete();
+        nearCacheWritten(key);
+    }
+
+    /**
+     * Deletes the entry associated with the given key from Redis.
+     *
+     * @param deleteRequest the delete request containing the key and namespace information
+     */
+    @Override
+    public void delete(DeleteEntryRequest deleteRequest) {
+        validate(deleteRequest);
+        deleteRequest.withKey(addNamespace(deleteRequest.getKey(), deleteRequest.getNamespaceEnabled()));
+        redissonClient.getBucket(deleteRequest.getKey()).delete();
+        nearCacheWritten(deleteRequest.getKey());
+    }
+
+    /**
+     * Asynchronously deletes the entry associated with the given key from Redis.
+     *
+     * @param deleteRequest the delete request containing the key and namespace information
+     * @return a CompletableFuture representing the result of the asynchronous operation
+     */
+    @Override
+    public CompletableFuture<String> deleteAsync(DeleteEntryRequest deleteRequest) {
+        validate(deleteRequest);
+        deleteRequest.withKey(addNamespace(deleteRequest.getKey(), deleteRequest.getNamespaceEnabled()));
+        return invalidatingNearCache(deleteRequest.getKey(), enqueueMutation(BatchMutation.delete(
+                deleteRequest.getKey(), deleteRequest.getMutationId()).withPriority(deleteRequest.getPriority())));
+    }
+
+    /**
+     * Sets the batch size.
+     *
+     * @param batchSize the new batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        pipelineMetrics.batchSize(effectiveBatchSize());
+    }
+
+    /**
+     * Gets the metrics of the async pipeline, for ex the current batch size.
+     *
+     * @return the pipeline metrics
+     */
+    public RedisPipelineMetrics getPipelineMetrics() {
+        return pipelineMetrics;
+    }
+
+    /**
+     * Gets the metrics of the near cache, for ex its hits and misses. Counters stay at 0 if it is disabled.
+     *
+     * @return the near cache metrics
+     */
+    public RedisNearCacheMetrics getNearCacheMetrics() {
+        return nearCacheMetrics;
+    }
+
+    /**
+     * Enables the near cache in front of getString and getEntity, and subscribes to the invalidations of keys
+     * written by other instances. Entries are stored as configured by redis.near.cache.storage.
+     *
+     * @param maxSize the maximum number of entries
+     * @param ttlMs the time in milliseconds a value is kept after it has been read from Redis, 0 not to keep values
+     * @param absentTtlMs the time in milliseconds a key that does not exist is kept, 0 not to keep such keys
+     * @param keyPrefixes the key prefixes, to which the namespace is applied, of the near cached keys, all keys if
+     *     empty
+     * @param invalidation the invalidation mode
+     * @param channel the invalidation channel in CHANNEL mode
+     * @throws IllegalArgumentException if KEYSPACE invalidation is configured in cluster mode
+     */
+    void enableNearCache(long maxSize, long ttlMs, long absentTtlMs, Collection<String> keyPrefixes,
+            NearCacheInvalidation invalidation, String channel) {
+        if (invalidation == NearCacheInvalidation.KEYSPACE && isClusterMode()) {
+            throw new IllegalArgumentException("Near cache KEYSPACE invalidation is not supported in cluster mode, "
+                    + "as keyspace notifications are only published by the node owning the key, use CHANNEL");
+        }
+        List<String> prefixes = keyPrefixes.stream().filter(StringUtils::isNotBlank)
+                .map(prefix -> addNamespace(prefix.trim(), true)).toList();
+        NearCacheStore store = nearCacheStorage == NearCacheStorage.OFF_HEAP
+                ? new OffHeapNearCacheStore(maxSize, ttlMs, absentTtlMs, nearCacheOffHeapBytes,
+                        () -> redissonClient.getConfig().getCodec())
+                : new HeapNearCacheStore(maxSize, ttlMs, absentTtlMs);
+        NearCache cache = new NearCache(store, prefixes, nearCacheMetrics);
+        cache.subscribe(redissonClient, invalidation, channel);
+        nearCache = cache;
+        LOGGER.info("Near cache enabled with max size: {}, ttl: {} ms, missing keys ttl: {} ms, key prefixes: {}, "
+                + "invalidation: {}, storage: {}", maxSize, ttlMs, absentTtlMs, prefixes, invalidation,
+                nearCacheStorage);
+    }
+
+    /**
+     * Reads the value of a bucket asynchronously, from the near cache if enabled. Other keys are gathered with the
+     * reads of the current window, near cached keys missing from the near cache are read with their remaining ttl.
+     *
+     * @param key the key with namespace applied
+     * @return future of the value, completed with null if the key does not exist
+     */
+    private CompletableFuture<Object> readBucketAsync(String key) {
+        NearCache cache = nearCache;
+        if (cache == null || !cache.isNearCached(key)) {
+            return readBatcher.load(key);
+        }
+        return cache.getAsync(key, refreshAhead::readWithTtlAsync);
+    }
+
+    /**
+     * Reads the value of a bucket, from the near cache if enabled. Near cached keys are read from Redis with their
+     * remaining ttl, which caps the time they are near cached for.
+     *
+     * @param key the key with namespace applied
+     * @return the value, null if the key does not exist
+     */
+    private Object readBucket(String key) {
+        NearCache cache = nearCache;
+        if (cache == null || !cache.isNearCached(key)) {
+            return readRedisBucket(key);
+        }
+        return cache.get(key, refreshAhead::readWithTtl);
+    }
+
+    /**
+     * Reads the value of a bucket from Redis, along with its remaining ttl if it is refreshed ahead of expiry.
+     *
+     * @param key the key with namespace applied
+     * @return the value, null if the key does not exist
+     */
+    private Object readRedisBucket(String key) {
+        return refreshAhead.isRegistered(key) ? refreshAhead.read(key) : redissonClient.getBucket(key).get();
+    }
+
+    /**
+     * Invalidates a key written by this instance in the near cache, and publishes the invalidation to the other
+     * instances if needed.
+     *
+     * @param key the key with namespace applied
+     */
+    void nearCacheWritten(String key) {
+        NearCache cache = nearCache;
+        if (cache != null) {
+            cache.written(key);
+        }
+    }
+
+    /**
+     * Invalidates the key of an async mutation in the near cache right away, so that this instance does not read
+     * its own stale value, and once again after the mutation has been executed.
+     *
+     * @param key the key with namespace applied
+     * @param write the future of the mutation
+     * @return the future of the mutation
+     */
+    private CompletableFuture<String> invalidatingNearCache(String key, CompletableFuture<String> write) {
+        NearCache cache = nearCache;
+        if (cache != null) {
+            cache.invalidate(key);
+            write.whenComplete((mutationId, e) -> nearCacheWritten(key));
+        }
+        return write;
+    }
+
+    /**
+     * Gets the approximate number of entries of the near cache.
+     *
+     * @return the size, 0 if disabled
+     */
+    private long nearCacheSize() {
+        NearCache cache = nearCache;
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * Gets the batch size async mutations are pipelined with, which is the adaptive size if enabled.
+     *
+     * @return the batch size
+     */
+    private int effectiveBatchSize() {
+        AdaptiveBatchSizer sizer = batchSizer;
+        return sizer == null ? batchSize : sizer.size();
+    }
+
+    /**
+     * This methods tries to scan redis keys with the regex provided and returns key value pairs.
+     *
+     * @param <T> the generic type
+     * @param keyRegex the key regex
+     * @param namespaceEnabled the namespace enabled
+     * @return the key value pairs for regex
+     */
+    @Override
+    public <T extends IgniteEntity> Map<String, T> getKeyValuePairsForRegex(
+            String keyRegex, Optional<Boolean> namespaceEnabled) {
+        Map<String, T> keyValuePairs = new HashMap<>();
+        keyRegex = scanPattern(keyRegex, namespaceEnabled);
+        long cursor = 0L;
+        do {
+            List<Object> matches = scriptRegistry.evalSha(redissonClient.getScript(stringCodec), scanRegexScript,
+                    RScript.Mode.READ_ONLY, RScript.ReturnType.MULTI, Collections.emptyList(), cursor, scanLimit,
+                    keyRegex);
+            cursor = scanCursor(matches);
+            keyValuePairs.putAll(decodeScanMatches(matches));
+        } while (cursor > 0);
+        LOGGER.debug("Key Value Pairs for regex {} of total size {} being returned are as follows {}",
+                keyRegex,
+                keyValuePairs.size(),
+                keyValuePairs);
+        return keyValuePairs;
+    }
+
+    /**
+     * Gets the number of keys a page of a regex scan looks at.
+     *
+     * @return the scan limit
+     */
+    int getScanLimit() {
+        return scanLimit;
+    }
+
+    /**
+     * Builds the reactive view of this cache on the reactive client of Redisson.
+     */
+    void enableReactive() {
+        reactiveCache = new ReactiveIgniteCacheRedisImpl(this, redissonClient.reactive(), scanRegexScript);
+    }
+
+    /**
+     * Gets the reactive view of this cache, whose operations return Mono and Flux instead of blocking.
+     *
+     * @return the reactive ignite cache, null until the cache is constructed
+     */
+    public ReactiveIgniteCache reactive() {
+        return reactiveCache;
+    }
+
+    /**
+     * Applies the namespace to the key regex of a scan, unless it is disabled, and makes sure the scan limit is
+     * at least 10.
+     *
+     * @param keyRegex the key regex
+     * @param namespaceEnabled the namespace enabled
+     * @return the key regex to scan with
+     */
+    String scanPattern(String keyRegex, Optional<Boolean> namespaceEnabled) {
+        if ((namespaceEnabled.isPresent() && Boolean.TRUE.equals(namespaceEnabled.get()))
+                || namespaceEnabled.isEmpty()) {
+            keyRegex = addNamespace(keyRegex, true);
+        }
+        if (scanLimit < TEN.getValue()) {
+            scanLimit = (int) TEN.getValue();
+            LOGGER.warn("Scan limit for redis cache should be at least 10. Changing scan limit to 10");
+        }
+        LOGGER.debug("Scanning Redis with ScanLimit {} and keyRegex {}", scanLimit, keyRegex);
+        return keyRegex;
+    }
+
+    /**
+     * Gets the cursor of the next page of a regex scan.
+     *
+     * @param matches the result of the scan script, the cursor followed by key and value pairs
+     * @return the cursor, 0 once the scan is complete
+     */
+    static long scanCursor(List<Object> matches) {
+        if (matches.isEmpty()) {
+            LOGGER.error("No more result found for regex scan. Exiting !!!");
+            return 0L;
+        }
+        long cursor = (long) matches.get(0);
+        LOGGER.debug("Received cursor value {}", cursor);
+        return cursor;
+    }
+
+    /**
+     * Decodes the key and value pairs of a page of a regex scan.
+     *
+     * @param <T> the generic type
+     * @param matches the result of the scan script, the cursor followed by key and value pairs
+     * @return the decoded entities by key
+     */
+    <T extends IgniteEntity> Map<String, T> decodeScanMatches(List<Object> matches) {
+        Map<String, T> keyValuePairs = new LinkedHashMap<>();
+        int size = matches.size();
+        for (int index = 1; index < size; index = (int) (index + TWO.getValue())) {
+            String key = String.valueOf(matches.get(index));
+            String value = String.valueOf(matches.get(index + 1));
+            T entity;
+            try {
+                entity = (T) decoder.decode(Unpooled.wrappedBuffer(value.getBytes()), null);
+                LOGGER.debug("Decoded entity for key {} is {}", key, entity);
+                keyValuePairs.put(key, entity);
+            } catch (IOException e) {
+                LOGGER.error("Unable to decode value {} from cache for key {}", value, key, e);
+                throw new DecodeException(
+                        String.format("Unable to decode value %s from cache for key %s", value, key), e);
+            }
+        }
+        return keyValuePairs;
+    }
+
+    /**
+     * Stores a map of entities in Redis based on the provided request.
+     *
+     * @param <T> the type of the entities
+     * @param mapRequest the request containing the key, value, and other parameters
+     */
+    @Override
+    public <T extends IgniteEntity> void putMapOfEntities(PutMapOfEntitiesRequest<T> mapRequest) {
+        validate(mapRequest);
+        mapRequest.withKey(addNamespace(mapRequest.getKey(), mapRequest.getNamespaceEnabled()));
+        String key = mapRequest.getKey();
+        Map<String, T> value = mapRequest.getValue();
+
+        RMap<String, T> rmap = redissonClient.getMap(key);
+        rmap.putAll(value);
+        LOGGER.debug("Put map {} to Redis for key {}", value, key);
+    }
+
+    /**
+     * Retrieves a map of entities from Redis based on the provided request.
+     *
+     * @param <T> the type of the entities
+     * @param mapRequest the request containing the key and namespace information
+     * @return the map of entities associated with the key
+     */
+    @Override
+    public <T extends IgniteEntity> Map<String, T> getMapOfEntities(GetMapOfEntitiesRequest mapRequest) {
+        validate(mapRequest);
+        mapRequest.withKey(addNamespace(mapRequest.getKey(), mapRequest.getNamespaceEnabled()));
+        String key = mapRequest.getKey();
+
+        RMap<String, T> rmap = redissonClient.getMap(key);
+        Set<String> fields = mapRequest.getFields();
+        if (fields != null && !fields.isEmpty()) {
+            LOGGER.debug("Attempting to get key value pairs from Redis for subkeys {} with key {}", fields, key);
+            return rmap.getAll(fields);
+        } else {
+            LOGGER.debug("Attempting to get all key value pairs from Redis with parent key {}", key);
+            return rmap.readAllMap();
+        }
+    }
+
+    /**
+     * Deletes a map of entities from Redis based on the provided request.
+     *
+     * @param request the request containing the key and namespace information
+     */
+    @Override
+    public void deleteMapOfEntities(DeleteMapOfEntitiesRequest request) {
+        validate(request);
+        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
+        String key = request.getKey();
+        Set<String> fields = request.getFields();
+        if (fields != null && !fields.isEmpty()) {
+            LOGGER.debug("Attempting to remove key value pairs from Redis for subkeys {} with key {}", fields, key);
+            redissonClient.getMap(key).fastRemove(fields.toArray());
+        } else {
+            LOGGER.debug("Attempting to remove all key value pairs from Redis with parent key {}", key);
+            redissonClient.getMap(key).delete();
+        }
+
+    }
+
+    /**
+     * Adds the namespace.
+     *
+     * @param key the key
+     * @param namespaceEnabled the namespace enabled
+     * @return the string
+     */
+    String addNamespace(String key, boolean namespaceEnabled) {
+        if (StringUtils.isNotEmpty(redisKeyNamespace) && namespaceEnabled) {
+            LOGGER.debug("Namespace enabled: {}, Namespace value for redis: {}, for key: {}",
+                    namespaceEnabled, redisKeyNamespace, key);
+            key = redisKeyNamespace + REDIS_KEY_NAMESPACE_DELIMETER + key;
+            LOGGER.debug("Ignite cache key with namespace {}", key);
+        }
+        return key;
+    }
+
+    /**
+     * Enqueues the mutation in the lane of its priority for pipelined execution and hands the drain over to
+     * the batch flusher once a full batch is pending in the shard of the mutation.
+     *
+     * @param mutation the mutation
+     * @return the future that is completed with the mutationId once the mutation has been executed
+     */
+    private CompletableFuture<String> enqueueMutation(BatchMutation mutation) {
+        if (shuttingDown.get()) {
+            throw new RedisBatchProcessingException(String.format(
+                    "Async pipeline is shutting down, mutation %s for key %s was rejected",
+                    mutation.getMutationId(), mutation.getKey()));
+        }
+        PipelineLane lane = laneOf(mutation);
+        SpillJournal journal = spillJournal;
+        if (journal != null && spill(journal, mutation, !healthy || lane.isSaturated())) {
+            pipelineMetrics.mutationSpilled();
+            return mutation.getFuture();
+        }
+        MutationQueue queue = queueFor(lane, mutation.getKey());
+        admit(queue);
+        trackLatest(mutation);
+        offerAndDrain(lane, queue, mutation);
+        if (pipelineClosed) {
+            // admitted by the overflow policy after shutdown gave up on the queue
+            abandonQueuedMutations();
+        }
+        return mutation.getFuture();
+    }
+
+    /**
+     * Spills the mutation to the journal if it has to be spilled, or earlier mutations are waiting to be replayed.
+     * A mutation that does not fit into a full journal is rejected rather than executed ahead of the spilled ones.
+     *
+     * @param journal the spill journal
+     * @param mutation the mutation
+     * @param required whether the mutation has to be spilled
+     * @return true if the mutation has been spilled, false if it goes through the pipeline directly
+     * @throws RedisPipelineOverflowException if the journal is full
+     */
+    private boolean spill(SpillJournal journal, BatchMutation mutation, boolean required) {
+        try {
+            return journal.offer(mutation, required);
+        } catch (RedisPipelineOverflowException e) {
+            pipelineMetrics.mutationRejected();
+            throw e;
+        }
+    }
+
+    /**
+     * Offers the mutation to the queue and hands the drain over to the batch flusher once a full batch of the
+     * lane is pending.
+     *
+     * @param lane the lane of the queue
+     * @param queue the queue
+     * @param mutation the mutation
+     */
+    private void offerAndDrain(PipelineLane lane, MutationQueue queue, BatchMutation mutation) {
+        int size = queue.offer(mutation);
+        if (size >= lane.batchSize()) {
+            if (batchFlusher == null) {
+                // not started through postConstruct, i.e. used directly by tests
+                drainFullBatches(lane, queue);
+            } else if (queue.scheduleDrain()) {
+                batchFlusher.execute(() -> drainFullBatches(lane, queue));
+            }
+        }
+    }
+
+    /**
+     * Takes a queued mutation permit for a new mutation, applying the overflow policy if the pipeline is full.
+     *
+     * @param queue the queue the mutation is routed to
+     * @throws RedisPipelineOverflowException if the mutation is rejected
+     */
+    private void admit(MutationQueue queue) {
+        Semaphore permits = queuedPermits;
+        if (permits == null || permits.tryAcquire()) {
+            return;
+        }
+        // a full pipeline is a flush trigger of its own, so partially filled batches cannot hold it up
+        requestPressureFlush();
+        if (permits.tryAcquire()) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> awaitQueueCapacity(permits);
+            case DROP_OLDEST -> dropOldestUntilAdmitted(permits, queue);
+            default -> throw rejectMutation();
+        }
+    }
+
+    /**
+     * Blocks until a queued mutation permit is available or the block timeout elapsed.
+     *
+     * @param permits the queued mutation permits
+     * @throws RedisPipelineOverflowException if no permit became available in time
+     */
+    private void awaitQueueCapacity(Semaphore permits) {
+        try {
+            if (permits.tryAcquire(overflowBlockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw rejectMutation();
+    }
+
+    /**
+     * Fails the oldest queued mutations until a queued mutation permit is available. The queue the new mutation
+     * is routed to is shed first.
+     *
+     * @param permits the queued mutation permits
+     * @param queue the queue the new mutation is routed to
+     * @throws RedisPipelineOverflowException if nothing could be dropped and no permit became available in time
+     */
+    private void dropOldestUntilAdmitted(Semaphore permits, MutationQueue queue) {
+        do {
+            BatchMutation dropped = pollOldest(queue);
+            if (dropped == null) {
+                // all permits are held by mutations that are just being queued or drained
+                awaitQueueCapacity(permits);
+                return;
+            }
+            permits.release();
+            pipelineMetrics.mutationDropped();
+            LOGGER.warn("Async pipeline is full, dropping mutation {} for key {}", dropped.getMutationId(),
+                    dropped.getKey());
+            dropped.fail(new RedisPipelineOverflowException(String.format(
+                    "Mutation dropped as the async pipeline is full with %d queued mutations", maxQueuedMutations)));
+        } while (!permits.tryAcquire());
+    }
+
+    /**
+     * Removes the oldest mutation of the given queue, or of any other queue if the given one is empty.
+     * Other queues are shed starting with the lowest priority lane.
+     *
+     * @param preferred the queue to poll first
+     * @return the removed mutation, null if no mutation is queued
+     */
+    private BatchMutation pollOldest(MutationQueue preferred) {
+        BatchMutation oldest = pollUnderDrainLock(preferred);
+        if (oldest != null) {
+            return oldest;
+        }
+        for (int i = lanes.length - 1; i >= 0; i--) {
+            for (MutationQueue queue : lanes[i].queues()) {
+                oldest = pollUnderDrainLock(queue);
+                if (oldest != null) {
+                    return oldest;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the oldest mutation of the queue while holding its drain lock.
+     *
+     * @param queue the queue
+     * @return the removed mutation, null if the queue is empty
+     */
+    private BatchMutation pollUnderDrainLock(MutationQueue queue) {
+        queue.drainLock().lock();
+        try {
+            return queue.poll();
+        } finally {
+            queue.drainLock().unlock();
+        }
+    }
+
+    /**
+     * Counts a rejected mutation.
+     *
+     * @return the exception to fail the caller with
+     */
+    private RedisPipelineOverflowException rejectMutation() {
+        pipelineMetrics.mutationRejected();
+        return new RedisPipelineOverflowException(String.format(
+                "Async pipeline is full with %d queued mutations", maxQueuedMutations));
+    }
+
+    /**
+     * Flushes all queued mutations irrespective of batch size, bounded by the in-flight batch limit.
+     */
+    private void requestPressureFlush() {
+        if (batchFlusher == null) {
+            flushPendingMutations();
+        } else if (pressureFlushScheduled.compareAndSet(false, true)) {
+            batchFlusher.execute(() -> {
+                pressureFlushScheduled.set(false);
+                flushPendingMutations();
+            });
+        }
+    }
+
+    /**
+     * Gets the number of queued async mutations across all lanes and shards.
+     *
+     * @return the queued mutations
+     */
+    private int queuedMutations() {
+        int queued = 0;
+        for (PipelineLane lane : lanes) {
+            queued += lane.queuedMutations();
+        }
+        return queued;
+    }
+
+    /**
+     * Gets the lane of a priority.
+     *
+     * @param priority the priority
+     * @return the lane
+     */
+    private PipelineLane lane(MutationPriority priority) {
+        return lanes[priority.ordinal()];
+    }
+
+    /**
+     * Gets the lane the mutation is queued in.
+     *
+     * @param mutation the mutation
+     * @return the lane of its priority
+     */
+    private PipelineLane laneOf(BatchMutation mutation) {
+        return lane(mutation.getPriority());
+    }
+
+    /**
+     * Gets the queue of the lane for the shard the key is routed to.
+     *
+     * @param lane the lane
+     * @param key the key
+     * @return the queue
+     */
+    private MutationQueue queueFor(PipelineLane lane, String key) {
+        MutationQueue[] queues = lane.queues();
+        return queues.length == 1 ? queues[0] : lane.queue(slotRouter.shardOf(key));
+    }
+
+    /**
+     * Executes batches for as long as at least a batch of the lane is pending in the queue. Full batches pending
+     * in lanes of higher priority are executed before each batch.
+     *
+     * @param lane the lane of the queue
+     * @param queue the queue
+     */
+    private void drainFullBatches(PipelineLane lane, MutationQueue queue) {
+        queue.drainLock().lock();
+        try {
+            queue.drainStarted();
+            while (queue.size() >= lane.batchSize()) {
+                drainHigherPriorityLanes(lane);
+                if (flushBatch(lane, queue) == 0) {
+                    break;
+                }
+                LOGGER.trace("Executed full batch, {} mutations still pending in {}", queue.size(), queue);
+            }
+        } finally {
+            queue.drainLock().unlock();
+        }
+    }
+
+    /**
+     * Executes the full batches pending in the lanes of higher priority than the given one. Queues whose drain is
+     * in progress elsewhere are skipped, their drain serves them anyway.
+     *
+     * @param lane the lane
+     */
+    private void drainHigherPriorityLanes(PipelineLane lane) {
+        for (int i = 0; i < lane.getPriority().ordinal(); i++) {
+            PipelineLane higher = lanes[i];
+            for (MutationQueue queue : higher.queues()) {
+                if (queue.size() < higher.batchSize() || !queue.drainLock().tryLock()) {
+                    continue;
+                }
+                try {
+                    while (queue.size() >= higher.batchSize() && flushBatch(higher, queue) > 0) {
+                        LOGGER.trace("Executed full batch of {} ahead of {}", queue, lane);
+                    }
+                } finally {
+                    queue.drainLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes partially filled batches for as long as the oldest pending mutation of a shard has been
+     * waiting for at least the linger time of its lane. Invoked periodically by the batch flusher so that async
+     * mutations are not held back indefinitely when traffic is too low to fill a batch. Lanes without a linger
+     * time are skipped, lanes of higher priority are served first.
+     */
+    void flushIfLingerElapsed() {
+        for (PipelineLane lane : lanes) {
+            long laneLingerMs = lane.getLingerMs();
+            if (laneLingerMs <= 0) {
+                continue;
+            }
+            for (MutationQueue queue : lane.queues()) {
+                queue.drainLock().lock();
+                try {
+                    long oldest = queue.oldestEnqueuedAt();
+                    while (oldest > 0 && System.currentTimeMillis() - oldest >= laneLingerMs
+                            && flushBatch(lane, queue) > 0) {
+                        LOGGER.debug("Batch linger of {} ms elapsed, executed partially filled batch of {}",
+                                laneLingerMs, queue);
+                        oldest = queue.oldestEnqueuedAt();
+                    }
+                } finally {
+                    queue.drainLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes all pending mutations irrespective of batch size and linger time, lanes of higher priority first.
+     * Added to support test cases.
+     */
+    void flushPendingMutations() {
+        for (PipelineLane lane : lanes) {
+            for (MutationQueue queue : lane.queues()) {
+                queue.drainLock().lock();
+                try {
+                    while (flushBatch(lane, queue) > 0) {
+                        LOGGER.trace("Flushed batch, {} mutations still pending in {}", queue.size(), queue);
+                    }
+                } finally {
+                    queue.drainLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drains up to a batch of the lane from the pending mutations of the queue into a new batch and executes it
+     * asynchronously. Must be called with the drain lock of the queue held.
+     *
+     * @param lane the lane of the queue
+     * @param queue the queue
+     * @return the number of mutations that were drained
+     */
+    private int flushBatch(PipelineLane lane, MutationQueue queue) {
+        if (queue.size() == 0 || !tryAcquireInFlightPermit(lane)) {
+            return 0;
+        }
+        BatchMutation mutation = queue.poll();
+        if (mutation == null) {
+            releaseInFlightPermit(lane);
+            return 0;
+        }
+        int drainSize = lane.batchSize();
+        long waitedNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - mutation.getEnqueuedAt());
+        List<BatchMutation> drained = new ArrayList<>(Math.min(drainSize, queue.size() + 1));
+        while (mutation != null) {
+            drained.add(mutation);
+            mutation = drained.size() < drainSize ? queue.poll() : null;
+        }
+        int count = drained.size();
+        if (queuedPermits != null) {
+            queuedPermits.release(count);
+        }
+        List<BatchMutation> commands = coalesceWrites ? MutationCoalescer.coalesce(drained) : drained;
+        if (commands.size() < count) {
+            pipelineMetrics.mutationsCoalesced(count - commands.size());
+        }
+        inFlightMutations.addAndGet(count);
+        if (shuttingDown.get()) {
+            shutdownFlushedMutations.addAndGet(count);
+        }
+        long batchId = batchSequence.incrementAndGet();
+        boolean fireAndForget = skipResult && PipelineBatch.canSkipResult(commands);
+        PipelineBatch batch = new PipelineBatch(fireAndForget ? fireAndForgetBatchFactory.get() : batchFactory.get(),
+                fireAndForget, compareAndSetScript);
+        for (BatchMutation command : commands) {
+            try {
+                batch.add(command, (m, e) -> onMutationFailed(m, batchId, e));
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to add mutation {} for key {} to batch {}", command.getMutationId(),
+                        command.getKey(), batchId, e);
+                command.claimFailedAttempt();
+                command.fail(e);
+            }
+        }
+        lastBatchExecTimestamp.set(System.currentTimeMillis());
+        LOGGER.debug("Executing batch {} of {} mutations of {} asynchronously", batchId, count, queue);
+        long start = System.nanoTime();
+        batch.execute((responses, e) -> {
+            if (e == null) {
+                LOGGER.debug("Executed batch {} asynchronously", batchId);
+                LOGGER.trace("Responses of last batch operation: {}", responses);
+            } else {
+                LOGGER.warn("Execution of batch {} of {} mutations of {} failed", batchId, count, queue, e);
+                failPendingCommands(batchId, commands, e);
+            }
+            onBatchExecuted(lane, drainSize, count, waitedNanos, System.nanoTime() - start, e != null);
+            inFlightMutations.addAndGet(-count);
+            releaseInFlightPermit(lane);
+        });
+        return count;
+    }
+
+    /**
+     * Fails every command of a failed batch whose own outcome has not settled it yet, so that no caller's future
+     * is left pending.
+     *
+     * @param batchId the batch id
+     * @param commands the commands of the batch
+     * @param cause the failure of the batch
+     */
+    private void failPendingCommands(long batchId, List<BatchMutation> commands, Throwable cause) {
+        for (BatchMutation command : commands) {
+            if (command.claimFailedAttempt()) {
+                onMutationFailed(command, batchId, cause);
+            }
+        }
+    }
+
+    /**
+     * Retries a failed mutation after a backoff, or fails its future once it ran out of retries.
+     *
+     * @param mutation the failed mutation
+     * @param batchId the id of the batch the mutation failed in
+     * @param cause the failure
+     */
+    private void onMutationFailed(BatchMutation mutation, long batchId, Throwable cause) {
+        if (overtakenByNewerMutation(mutation, cause)) {
+            return;
+        }
+        boolean noScript = RedisScriptRegistry.isNoScript(cause);
+        // NOSCRIPT tells the script did not run, so it is retried once even if retries are disabled
+        int allowedRetries = noScript ? Math.max(retryAttempts, 1) : retryAttempts;
+        if ((mutation.isRetryable() || noScript) && mutation.getAttempts() <= allowedRetries) {
+            long delayMs = retryDelayMs(mutation.getAttempts());
+            LOGGER.warn("Mutation {} for key {} failed in batch {}, retrying in {} ms: {}", mutation.getMutationId(),
+                    mutation.getKey(), batchId, delayMs, cause.getMessage());
+            pipelineMetrics.mutationRetried();
+            retryingMutations.add(mutation);
+            if (noScript) {
+                // the script cache of the server has been flushed, load the scripts again before the retry
+                scriptRegistry.loadAllAsync(redissonClient)
+                        .whenComplete((loaded, e) -> scheduleRetry(mutation, delayMs));
+            } else {
+                scheduleRetry(mutation, delayMs);
+            }
+            return;
+        }
+        LOGGER.error("Mutation {} for key {} failed in batch {} after {} attempt(s)", mutation.getMutationId(),
+                mutation.getKey(), batchId, mutation.getAttempts(), cause);
+        pipelineMetrics.mutationFailed();
+        mutation.fail(new RedisBatchProcessingException(String.format("Mutation %s for key %s failed in batch %d "
+                + "after %d attempt(s)", mutation.getMutationId(), mutation.getKey(), batchId,
+                mutation.getAttempts()), cause));
+    }
+
+    /**
+     * Remembers the mutation as the last one of its key that entered the pipeline, until its future completes.
+     * Only tracked while retries are enabled, since retries are the only way a mutation can be executed again.
+     * Mutations executed as a script are retried once on NOSCRIPT regardless, so they are always tracked, and so
+     * are the mutations of a key queued while such a mutation is pending.
+     *
+     * @param mutation the mutation entering the pipeline
+     */
+    private void trackLatest(BatchMutation mutation) {
+        String key = mutation.getKey();
+        if (retryAttempts <= 0 && !mutation.usesScript() && !latestMutations.containsKey(key)) {
+            return;
+        }
+        latestMutations.put(key, mutation);
+        mutation.getFuture().whenComplete((id, e) -> latestMutations.remove(key, mutation));
+    }
+
+    /**
+     * Checks whether a newer mutation of the same key entered the pipeline after the failed one, in which case
+     * retrying it would overwrite the outcome of the newer one. A failed SET or DEL overtaken by a newer SET or DEL
+     * completes with the outcome of the newer write, any other overtaken mutation fails.
+     *
+     * @param mutation the failed mutation
+     * @param cause the failure, null if the mutation is about to be queued again after its backoff
+     * @return true if the mutation has been dropped and must not be retried
+     */
+    private boolean overtakenByNewerMutation(BatchMutation mutation, Throwable cause) {
+        BatchMutation latest = latestMutations.get(mutation.getKey());
+        if (latest == null || latest == mutation) {
+            return false;
+        }
+        LOGGER.warn("Mutation {} for key {} is not retried, a newer mutation {} of the key has been queued",
+                mutation.getMutationId(), mutation.getKey(), latest.getMutationId());
+        if (mutation.isUnconditionalWrite() && latest.isUnconditionalWrite()) {
+            mutation.supersededBy(latest);
+        } else {
+            pipelineMetrics.mutationFailed();
+            mutation.fail(new RedisBatchProcessingException(String.format("Mutation %s for key %s failed and was "
+                    + "overtaken by a newer mutation of the key", mutation.getMutationId(), mutation.getKey()), cause));
+        }
+        return true;
+    }
+
+    /**
+     * Queues a failed mutation again after the delay.
+     *
+     * @param mutation the mutation
+     * @param delayMs the delay in milliseconds
+     */
+    private void scheduleRetry(BatchMutation mutation, long delayMs) {
+        if (batchFlusher == null || delayMs <= 0 || shuttingDown.get()) {
+            // retried right away while shutting down, so the retry is not lost with the batch flusher
+            requeue(mutation);
+        } else {
+            batchFlusher.schedule(() -> requeue(mutation), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Gets the delay before the next attempt of a failed mutation, doubling with every attempt.
+     *
+     * @param attempts the attempts made so far
+     * @return the delay in milliseconds
+     */
+    private long retryDelayMs(int attempts) {
+        return Math.min(retryMaxBackoffMs, retryBackoffMs << Math.min(attempts - 1, MAX_RETRY_BACKOFF_SHIFT));
+    }
+
+    /**
+     * Queues a failed mutation again, unless it has already been queued again or abandoned. Retries are subject to
+     * the queued mutation limit, but never block.
+     *
+     * @param mutation the mutation
+     */
+    private void requeue(BatchMutation mutation) {
+        if (!retryingMutations.remove(mutation) || overtakenByNewerMutation(mutation, null)) {
+            return;
+        }
+        if (queuedPermits != null && !queuedPermits.tryAcquire()) {
+            mutation.fail(rejectMutation());
+            return;
+        }
+        PipelineLane lane = laneOf(mutation);
+        offerAndDrain(lane, queueFor(lane, mutation.getKey()), mutation);
+        if (pipelineClosed) {
+            abandonQueuedMutations();
+        }
+    }
+
+    /**
+     * Takes an in-flight batch permit of the lane, without blocking.
+     *
+     * @param lane the lane
+     * @return false if the in-flight batch limit of the lane has been reached
+     */
+    private boolean tryAcquireInFlightPermit(PipelineLane lane) {
+        if (!lane.tryAcquireInFlightPermit()) {
+            LOGGER.trace("{} batches of {} in flight, holding back queued mutations", lane.getMaxInFlightBatches(),
+                    lane);
+            return false;
+        }
+        pipelineMetrics.batchStarted();
+        return true;
+    }
+
+    /**
+     * Returns an in-flight batch permit of the lane and resumes draining its queues that were held back by the
+     * limit.
+     *
+     * @param lane the lane
+     */
+    private void releaseInFlightPermit(PipelineLane lane) {
+        pipelineMetrics.batchFinished();
+        if (!lane.releaseInFlightPermit() || batchFlusher == null) {
+            return;
+        }
+        if (spillJournal != null && spillJournal.hasPending()) {
+            requestSpillReplay();
+        }
+        for (MutationQueue queue : lane.queues()) {
+            if (queue.size() >= lane.batchSize() && queue.scheduleDrain()) {
+                batchFlusher.execute(() -> drainFullBatches(lane, queue));
+            }
+        }
+        if (queuedPermits != null && queuedPermits.hasQueuedThreads()) {
+            requestPressureFlush();
+        }
+    }
+
+    /**
+     * Sets how failed mutations are retried.
+     * Added to support test cases.
+     *
+     * @param retryAttempts the number of retries, 0 to fail right away
+     * @param retryBackoffMs the delay before the first retry
+     * @param retryMaxBackoffMs the max delay between retries
+     */
+    void setRetryPolicy(int retryAttempts, long retryBackoffMs, long retryMaxBackoffMs) {
+        this.retryAttempts = retryAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.retryMaxBackoffMs = retryMaxBackoffMs;
+    }
+
+    /**
+     * Enables or disables coalescing of repeated unconditional writes of a key within a batch.
+     * Added to support test cases.
+     *
+     * @param coalesceWrites whether to coalesce writes
+     */
+    void setCoalesceWrites(boolean coalesceWrites) {
+        this.coalesceWrites = coalesceWrites;
+    }
+
+    /**
+     * Limits the batches of every lane executing concurrently and the async mutations waiting to be drained.
+     * The in-flight batch limit is that of the NORMAL lane, and caps the limits of the HIGH and LOW lanes.
+     * Added as package-private to support test cases.
+     *
+     * @param maxInFlightBatches the max in-flight batches of each lane, 0 for no limit
+     * @param maxQueuedMutations the max queued mutations, 0 for no limit
+     * @param overflowPolicy the overflow policy
+     * @param overflowBlockTimeoutMs the max time the BLOCK policy blocks a caller
+     */
+    void configureBackpressure(int maxInFlightBatches, int maxQueuedMutations,
+            PipelineOverflowPolicy overflowPolicy, long overflowBlockTimeoutMs) {
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.maxQueuedMutations = maxQueuedMutations;
+        this.overflowPolicy = overflowPolicy;
+        this.overflowBlockTimeoutMs = overflowBlockTimeoutMs;
+        lane(MutationPriority.NORMAL).setMaxInFlightBatches(maxInFlightBatches);
+        lane(MutationPriority.HIGH).setMaxInFlightBatches(cappedInFlightBatches(highLaneMaxInFlightBatches));
+        lane(MutationPriority.LOW).setMaxInFlightBatches(cappedInFlightBatches(lowLaneMaxInFlightBatches));
+        queuedPermits = maxQueuedMutations > 0 ? new Semaphore(maxQueuedMutations) : null;
+        LOGGER.info("Async pipeline limits, max in-flight batches: {}, max queued mutations: {}, "
+                + "overflow policy: {}", maxInFlightBatches, maxQueuedMutations, overflowPolicy);
+    }
+
+    /**
+     * Records the executed batch in the pipeline metrics and adapts the batch size of the NORMAL lane, if enabled.
+     *
+     * @param lane the lane the batch was drained from
+     * @param drainSize the batch size the batch was drained with
+     * @param count the number of mutations in the batch
+     * @param waitedNanos the time the oldest mutation of the batch waited before being flushed
+     * @param roundTripNanos the executeAsync round trip time
+     * @param failed whether the batch failed
+     */
+    private void onBatchExecuted(PipelineLane lane, int drainSize, int count, long waitedNanos, long roundTripNanos,
+            boolean failed) {
+        AdaptiveBatchSizer sizer = batchSizer;
+        if (sizer != null && lane.getPriority() == MutationPriority.NORMAL) {
+            int newSize = sizer.onBatchExecuted(drainSize, count, waitedNanos, roundTripNanos, failed);
+            if (newSize != drainSize) {
+                LOGGER.debug("Adapted batch size from {} to {}, round trip {} ns, flush wait {} ns",
+                        drainSize, newSize, roundTripNanos, waitedNanos);
+            }
+        }
+        pipelineMetrics.batchSize(effectiveBatchSize());
+        pipelineMetrics.batchExecuted(TimeUnit.NANOSECONDS.toMillis(roundTripNanos), failed);
+    }
+
+    /**
+     * Enables adaptive batch sizing with the given bounds.
+     * Added as package-private to support test cases.
+     *
+     * @param minSize the min size
+     * @param maxSize the max size
+     * @param increment the additive increment
+     * @param targetLatencyMs the target round trip and flush wait latency in milliseconds
+     */
+    void enableAdaptiveBatchSize(int minSize, int maxSize, int increment, long targetLatencyMs) {
+        batchSizer = new AdaptiveBatchSizer(batchSize, minSize, maxSize, increment, targetLatencyMs);
+        pipelineMetrics.batchSize(effectiveBatchSize());
+        LOGGER.info("Adaptive batch size enabled, initial size {}, min {}, max {}, increment {}, "
+                + "target latency {} ms", batchSizer.size(), minSize, maxSize, increment, targetLatencyMs);
+    }
+
+    /**
+     * Refreshes the slot map of the cluster and adds a queue to every lane for every master that has not been
+     * seen before.
+     * Queues of masters that left the cluster are kept, they simply stop receiving mutations.
+     * Added as package-private to support test cases.
+     */
+    void refreshShards() {
+        try {
+            RedisCluster cluster = redissonClient.getRedisNodes(RedisNodes.CLUSTER);
+            boolean changed = slotRouter.refresh(cluster.getMasters());
+            int shardCount = slotRouter.shardCount();
+            for (PipelineLane lane : lanes) {
+                lane.ensureShards(shardCount);
+            }
+            if (changed) {
+                LOGGER.info("Cluster slot map changed, async mutations are pipelined across {} shards", shardCount);
+                // mutations queued under the previous slot map may sit in a shard that no longer gets traffic
+                flushPendingMutations();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to refresh cluster slot map, keeping the previous one", e);
+        }
+    }
+
+    /**
+     * Sets the redisson client.
+     * Added to support test cases.
+     *
+     * @param redissonClient the new redisson client
+     */
+    public void setRedissonClient(RedissonClient redissonClient) {
+        this.redissonClient = redissonClient;
+    }
+
+    /**
+     * Sets the batch that pending mutations are drained into.
+     * Added to support test cases.
+     *
+     * @param batch the new r batch
+     */
+    @SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+    void setRBatch(RBatch batch) {
+        this.batchFactory = () -> batch;
+    }
+
+    /**
+     * Sets the batch that fire and forget mutations are drained into when results are skipped.
+     * Added to support test cases.
+     *
+     * @param batch the new r batch
+     */
+    @SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+    void setFireAndForgetRBatch(RBatch batch) {
+        this.fireAndForgetBatchFactory = () -> batch;
+    }
+
+    /**
+     * Sets whether SET and DEL are executed in batches that skip their replies.
+     * Added to support test cases.
+     *
+     * @param skipResult true to skip the replies of fire and forget mutations
+     */
+    void setSkipResult(boolean skipResult) {
+        this.skipResult = skipResult;
+    }
+
+    /**
+     * Builds the options of pipeline batches from the redis.pipeline properties.
+     */
+    private void configureBatchOptions() {
+        batchOptions = newBatchOptions();
+        fireAndForgetBatchOptions = newBatchOptions().skipResult();
+        LOGGER.info("Async pipeline batches use execution mode {}, response timeout {} ms, retry attempts {}, "
+                + "retry interval {} ms, skip result {}", batchExecutionMode, batchResponseTimeoutMs,
+                batchRetryAttempts, batchRetryIntervalMs, skipResult);
+    }
+
+    /**
+     * Creates batch options from the redis.pipeline properties, leaving unset values to Redisson.
+     *
+     * @return the batch options
+     */
+    private BatchOptions newBatchOptions() {
+        BatchOptions options = BatchOptions.defaults().executionMode(batchExecutionMode);
+        if (batchResponseTimeoutMs > 0) {
+            options.responseTimeout(batchResponseTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        if (batchRetryAttempts >= 0) {
+            options.retryAttempts(batchRetryAttempts);
+        }
+        if (batchRetryIntervalMs >= 0) {
+            options.retryInterval(batchRetryIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        return options;
+    }
+
+    /**
+     * Initializes the `IgniteCacheRedisImpl` instance after construction.
+     * This method reads the scan regex script from the specified file and sets up the decoder.
+     * It loads all Lua scripts into the script cache of Redis, so that they are invoked by their SHA1 digest.
+     * It also starts the batch flusher that pipelines async mutations.
+     *
+     * @throws IgniteCacheException if there is an error reading the scan regex file
+     */
+    @PostConstruct
+    private void postConstruct() {
+        try {
+            scanRegexScript = scriptRegistry.register(SCAN_REGEX_SCRIPT_NAME, readFile(regexScanFileName));
+            LOGGER.info("Scan Regex file contents : {}", scanRegexScript.source());
+        } catch (IOException e) {
+            throw new IgniteCacheException(String.format("Unable to read from file : %s", regexScanFileName), e);
+        }
+
+        if (StringUtils.isBlank(igniteCodecClass)) {
+            LOGGER.info("Loading decoder from default JsonJacksonCodec class....");
+            decoder = JsonJacksonCodec.INSTANCE.getValueDecoder();
+        } else {
+            try {
+                // RTC-156940 - Redis issue when the component is not able
+                // to send to device, and we restart the component.
+                // In order to fix the above issue, a custom codec is needed to
+                // be loaded for DMF/ADA flow which will be used to encode and
+                // decode the data to the Redis without including @class
+                // parameter.
+                LOGGER.info("Loading decoder from ignite codec  ....");
+                Class<Codec> clazz = (Class<Codec>) Class.forName(igniteCodecClass);
+
+                decoder = clazz.getConstructor(ObjectMapper.class, String.class)
+                        .newInstance(objectMapper, retryRecordIdPattern)
+                        .getValueDecoder();
+            } catch (InstantiationException
+                    | IllegalAccessException
+                    | IllegalArgumentException
+                    | InvocationTargetException
+                    | NoSuchMethodException
+                    | SecurityException
+                    | ClassNotFoundException e) {
+                LOGGER.error("Unable to load ignite json jackson codec : {}", igniteCodecClass);
+                throw new JacksonCodecException(
+                        String.format("Unable to load ignite json jackson codec : %s", igniteCodecClass), e);
+            }
+        }
+        configureBackpressure(maxInFlightBatches, maxQueuedMutations, overflowPolicy, overflowBlockTimeoutMs);
+        configureLanes();
+        configureBatchOptions();
+        if (adaptiveBatchSizeEnabled) {
+            enableAdaptiveBatchSize(adaptiveMinBatchSize, adaptiveMaxBatchSize, adaptiveBatchSizeIncrement,
+                    adaptiveTargetLatencyMs);
+        } else {
+            pipelineMetrics.batchSize(batchSize);
+        }
+        scriptRegistry.loadAll(redissonClient);
+        enableRefreshAhead(refreshAheadFraction, refreshAheadThreads, refreshAheadQueueCapacity);
+        if (nearCacheEnabled || negativeCacheEnabled) {
+            enableNearCache(nearCacheMaxSize, nearCacheEnabled ? nearCacheTtlMs : 0,
+                    negativeCacheEnabled ? negativeCacheTtlMs : 0, Arrays.asList(nearCacheKeyPrefixes),
+                    nearCacheInvalidation, nearCacheInvalidationChannel);
+        }
+        openSpillJournal();
+        startBatchFlusher();
+        readBatcher.configure(readMaxBatchSize, readWindowMs, batchFlusher);
+        enableReactive();
+    }
+
+    /**
+     * Starts the dedicated thread that drains pending mutations into batches.
+     * In cluster mode it also keeps the slot map used to shard async mutations per master up to date.
+     * If a linger time has been configured, it also periodically executes partially filled batches.
+     */
+    private void startBatchFlusher() {
+        batchFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "redis-batch-flusher");
+            t.setDaemon(true);
+            return t;
         });
-        return f;
+        if (isClusterMode()) {
+            refreshShards();
+            batchFlusher.scheduleWithFixedDelay(this::refreshShards,
+                    shardRefreshMs, shardRefreshMs, TimeUnit.MILLISECONDS);
+        }
+        if (spillJournal != null) {
+            batchFlusher.scheduleWithFixedDelay(this::requestSpillReplay,
+                    spillReplayIntervalMs, spillReplayIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        long shortestLingerMs = shortestLingerMs();
+        if (shortestLingerMs <= 0) {
+            LOGGER.info("Batch linger is disabled, async batches are executed only when {} mutations are queued",
+                    batchSize);
+            return;
+        }
+        long checkIntervalMs = Math.max(1L, shortestLingerMs / TWO.getValue());
+        batchFlusher.scheduleWithFixedDelay(this::flushIfLingerElapsed,
+                checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+        LOGGER.info("Started batch linger flush with shortest linger {} ms and check interval {} ms",
+                shortestLingerMs, checkIntervalMs);
     }
 
     /**
-     * Asynchronously stores an entity in Redis based on the provided request.
+     * Gets the shortest linger time across the lanes that have one.
      *
-     * @param <T> the type of the entity
-     * @param putRequest the request containing the key, value, and other parameters
-     * @return a Future representing the result of the asynchronous operation
+     * @return the shortest linger time in milliseconds, 0 if no lane lingers
      */
-    @Override
-    public <T extends IgniteEntity> Future<String> putEntityAsync(PutEntityRequest<T> putRequest) {
-        validate(putRequest);
-        putRequest.withKey(addNamespace(putRequest.getKey(), putRequest.getNamespaceEnabled()));
-        CompletableFuture<String> f = new CompletableFuture<>();
-        performBatchOperation(v -> {
-            RBucketAsync<T> bucket = currentBatch.getBucket(putRequest.getKey());
-            final String mutationId = putRequest.getMutationId();
-            if (putRequest.getExpectedValue() == null) {
-                if (putRequest.getTtlMs() == MINUS_ONE_LONG) {
-                    bucket.setAsync(putRequest.getValue())
-                            .thenAccept(s -> f.complete(mutationId));
-                } else {
-                    bucket.setAsync(putRequest.getValue(), putRequest.getTtlMs(), TimeUnit.MILLISECONDS)
-                            .thenAccept(s -> f.complete(mutationId));
-                }
-            } else {
-                bucket.compareAndSetAsync(putRequest.getExpectedValue(), putRequest.getValue())
-                        .thenAccept(s -> completeFuture(s, f, mutationId));
+    private long shortestLingerMs() {
+        long shortest = 0;
+        for (PipelineLane lane : lanes) {
+            long laneLingerMs = lane.getLingerMs();
+            if (laneLingerMs > 0 && (shortest == 0 || laneLingerMs < shortest)) {
+                shortest = laneLingerMs;
             }
-        });
-        return f;
+        }
+        return shortest;
     }
 
     /**
-     * Adds a string to a scored sorted set in Redis asynchronously.
-     *
-     * @param request the request containing the key, value, and score
-     * @return a Future representing the result of the asynchronous operation
+     * Applies the configured batch size, linger time and in-flight batch limit of the HIGH and LOW lanes and the
+     * linger time of the NORMAL lane. The in-flight batch limit of the NORMAL lane is applied by the backpressure.
      */
-    @Override
-    public Future<String> addStringToScoredSortedSetAsync(AddScoredStringRequest request) {
-        validate(request);
-        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
-        CompletableFuture<String> f = new CompletableFuture<>();
-        performBatchOperation(v -> {
-            RScoredSortedSetAsync<String> sset = currentBatch.getScoredSortedSet(request.getKey());
-            final String mutationId = request.getMutationId();
-            sset.addAsync(request.getScore(), request.getValue())
-                    .thenAccept(s -> completeFuture(s, f, mutationId));
-        });
-        return f;
+    private void configureLanes() {
+        configureLane(MutationPriority.HIGH, highLaneBatchSize, highLaneLingerMs, highLaneMaxInFlightBatches);
+        lane(MutationPriority.NORMAL).setLingerMs(lingerMs);
+        configureLane(MutationPriority.LOW, lowLaneBatchSize, lowLaneLingerMs, lowLaneMaxInFlightBatches);
     }
 
     /**
-     * Adds the entity to a scored sorted set asynchronously.
+     * Sets the batch size, linger time and in-flight batch limit of the HIGH or LOW lane. The in-flight batch limit
+     * is capped by the one of the pipeline, if any.
+     * Added as package-private to support test cases.
      *
-     * @param <T> the generic type of the entity
-     * @param request the request containing the entity and its score
-     * @return a Future representing the result of the asynchronous operation
+     * @param priority the priority of the lane, HIGH or LOW
+     * @param laneBatchSize the batch size of the lane
+     * @param laneLingerMs the linger time of the lane in milliseconds, 0 to disable
+     * @param laneMaxInFlightBatches the max in-flight batches of the lane, 0 for no limit
+     * @throws IllegalArgumentException if the priority is NORMAL, configured through the pipeline properties
      */
-    @Override
-    public <T extends IgniteEntity> Future<String> addEntityToScoredSortedSetAsync(AddScoredEntityRequest<T> request) {
-        validate(request);
-        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
-        CompletableFuture<String> f = new CompletableFuture<>();
-        performBatchOperation(v -> {
-            RScoredSortedSetAsync<T> sset = currentBatch.getScoredSortedSet(request.getKey());
-            final String mutationId = request.getMutationId();
-            RFuture<Boolean> rf = sset.addAsync(request.getScore(), request.getValue());
-            rf.thenAccept(s -> completeFuture(s, f, mutationId));
-        });
-        return f;
+    void configureLane(MutationPriority priority, int laneBatchSize, long laneLingerMs, int laneMaxInFlightBatches) {
+        switch (priority) {
+            case HIGH -> {
+                highLaneBatchSize = laneBatchSize;
+                highLaneMaxInFlightBatches = laneMaxInFlightBatches;
+            }
+            case LOW -> {
+                lowLaneBatchSize = laneBatchSize;
+                lowLaneMaxInFlightBatches = laneMaxInFlightBatches;
+            }
+            default -> throw new IllegalArgumentException("The NORMAL lane is configured through redis.pipeline.*");
+        }
+        PipelineLane lane = lane(priority);
+        int maxInFlight = cappedInFlightBatches(laneMaxInFlightBatches);
+        lane.setLingerMs(laneLingerMs);
+        lane.setMaxInFlightBatches(maxInFlight);
+        LOGGER.info("{} configured with batch size {}, linger {} ms, max in-flight batches {}", lane,
+                laneBatchSize, laneLingerMs, maxInFlight);
     }
 
     /**
-     * Deletes the entry associated with the given key from Redis.
+     * Caps the in-flight batch limit of the HIGH or LOW lane by the in-flight batch limit of the pipeline.
      *
-     * @param key the key of the entry to be deleted
+     * @param laneMaxInFlightBatches the max in-flight batches of the lane, 0 for no limit
+     * @return the lower of both limits, 0 if neither is set
      */
-    @Override
-    public void delete(String key) {
-        key = addNamespace(key, true);
-        RBucket<String> bucket = redissonClient.getBucket(key);
-        bucket.delete();
+    private int cappedInFlightBatches(int laneMaxInFlightBatches) {
+        if (maxInFlightBatches <= 0) {
+            return laneMaxInFlightBatches;
+        }
+        return laneMaxInFlightBatches <= 0 ? maxInFlightBatches : Math.min(laneMaxInFlightBatches, maxInFlightBatches);
     }
 
     /**
-     * Deletes the entry associated with the given key from Redis.
-     *
-     * @param deleteRequest the delete request containing the key and namespace information
+     * Drains the async pipeline before the Redisson client is shut down, so that mutations queued below the
+     * batch size are not lost on a rolling restart.
      */
-    @Override
-    public void delete(DeleteEntryRequest deleteRequest) {
-        validate(deleteRequest);
-        deleteRequest.withKey(addNamespace(deleteRequest.getKey(), deleteRequest.getNamespaceEnabled()));
-        redissonClient.getBucket(deleteRequest.getKey()).delete();
+    @PreDestroy
+    private void preDestroy() {
+        shutdown(shutdownTimeoutMs);
     }
 
     /**
-     * Asynchronously deletes the entry associated with the given key from Redis.
+     * Stops accepting async mutations, flushes the queued ones and waits up to the timeout for them and the
+     * batches in flight to be executed. Queued mutations left at the deadline are failed, mutations of batches
+     * still in flight are left to the shutdown of the Redisson client. Subsequent calls are no-ops.
      *
-     * @param deleteRequest the delete request containing the key and namespace information
-     * @return a Future representing the result of the asynchronous operation
+     * @param timeoutMs the maximum time to wait in milliseconds
      */
-    @Override
-    public Future<String> deleteAsync(DeleteEntryRequest deleteRequest) {
-        validate(deleteRequest);
-        deleteRequest.withKey(addNamespace(deleteRequest.getKey(), deleteRequest.getNamespaceEnabled()));
-        CompletableFuture<String> f = new CompletableFuture<>();
-        performBatchOperation(v -> {
-            RBucketAsync<String> bucket = currentBatch.getBucket(deleteRequest.getKey());
-            final String mutationId = deleteRequest.getMutationId();
-            bucket.deleteAsync().thenAccept(s -> f.complete(mutationId));
-
-        });
-        return f;
+    void shutdown(long timeoutMs) {
+        if (!shuttingDown.compareAndSet(false, true)) {
+            return;
+        }
+        LOGGER.info("Shutting down async pipeline, draining {} queued and {} in-flight mutations within {} ms",
+                queuedMutations(), inFlightMutations.get(), timeoutMs);
+        readBatcher.flush();
+        boolean drained = awaitPipelineDrained(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        pipelineClosed = true;
+        int abandoned = abandonQueuedMutations() + abandonRetryingMutations() + inFlightMutations.get();
+        if (drained && abandoned == 0) {
+            LOGGER.info("Async pipeline shut down, {} mutations flushed", shutdownFlushedMutations.get());
+        } else {
+            LOGGER.warn("Async pipeline shut down after {} ms, {} mutations flushed and {} abandoned", timeoutMs,
+                    shutdownFlushedMutations.get(), abandoned);
+        }
+        if (batchFlusher != null) {
+            cancelScheduledTasks(batchFlusher.shutdownNow());
+            // reads gathered since the flush above would otherwise wait for a window that never elapses
+            readBatcher.flush();
+        }
+        if (spillJournal != null) {
+            LOGGER.info("Closed spill journal, {} spilled mutations are kept for the next start",
+                    spillJournal.close());
+        }
+        refreshAhead.close();
+        NearCache cache = nearCache;
+        if (cache != null) {
+            nearCache = null;
+            cache.close();
+        }
     }
 
     /**
-     * Sets the batch size.
+     * Flushes the queued mutations until neither queued nor in-flight mutations are left, or the deadline passes.
+     * Retries of failed mutations are queued again and flushed along, and so are spilled mutations while Redis
+     * is healthy.
      *
-     * @param batchSize the new batch size
+     * @param deadlineNanos the deadline, in terms of System.nanoTime()
+     * @return true if the pipeline has been drained
      */
-    public void setBatchSize(int batchSize) {
-        this.batchSize = batchSize;
+    private boolean awaitPipelineDrained(long deadlineNanos) {
+        while (true) {
+            // retries waiting for their backoff are queued right away, as they are during shutdown
+            retryingMutations.forEach(this::requeue);
+            replaySpilledMutations();
+            flushPendingMutations();
+            // spilled mutations are kept for the next start if Redis is unhealthy
+            boolean spillReplayed = spillJournal == null || !healthy || !spillJournal.hasPending();
+            if (queuedMutations() == 0 && inFlightMutations.get() == 0 && retryingMutations.isEmpty()
+                    && spillReplayed) {
+                return true;
+            }
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            if (remainingMs <= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(Math.min(SHUTDOWN_POLL_MS, remainingMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
     }
 
     /**
-     * This methods tries to scan redis keys with the regex provided and returns key value pairs.
+     * Fails the mutations still waiting for their retry, they will not be executed anymore.
      *
-     * @param <T> the generic type
-     * @param keyRegex the key regex
-     * @param namespaceEnabled the namespace enabled
-     * @return the key value pairs for regex
+     * @return the number of abandoned mutations
      */
-    @Override
-    public <T extends IgniteEntity> Map<String, T> getKeyValuePairsForRegex(
-            String keyRegex, Optional<Boolean> namespaceEnabled) {
-        Map<String, T> keyValuePairs = new HashMap<>();
-        if ((namespaceEnabled.isPresent() && Boolean.TRUE.equals(namespaceEnabled.get()))
-                || namespaceEnabled.isEmpty()) {
-            keyRegex = addNamespace(keyRegex, true);
-        }
-        if (scanLimit < TEN.getValue()) {
-            scanLimit = (int) TEN.getValue();
-            LOGGER.warn("Scan limit for redis cache should be at least 10. Changing scan limit to 10");
-        }
-        LOGGER.debug("Scanning Redis with ScanLimit {} and keyRegex {}", scanLimit, keyRegex);
-        long cursor = 0L;
-        do {
-            List<Object> matches = redissonClient.getScript(stringCodec).eval(RScript.Mode.READ_ONLY,
-                    scanRegexScript,
-                    RScript.ReturnType.MULTI, Collections.emptyList(), cursor, scanLimit, keyRegex);
-            if (!matches.isEmpty()) {
-                cursor = (long) matches.get(0);
-                LOGGER.debug("Received cursor value {}", cursor);
-            } else {
-                cursor = 0L;
-                LOGGER.error("No more result found for regex scan. Exiting !!!");
-            }
-            int size = matches.size();
-            for (int index = 1; index < size; index = (int) (index + TWO.getValue())) {
-                String key = String.valueOf(matches.get(index));
-                String value = String.valueOf(matches.get(index + 1));
-                T entity;
-                try {
-                    entity = (T) decoder.decode(Unpooled.wrappedBuffer(value.getBytes()), null);
-                    LOGGER.debug("Decoded entity for key {} is {}", key, entity);
-                    keyValuePairs.put(key, entity);
-                } catch (IOException e) {
-                    LOGGER.error("Unable to decode value {} from cache for key {}", value, key, e);
-                    throw new DecodeException(
-                            String.format("Unable to decode value %s from cache for key %s", value, key), e);
-                }
+    private int abandonRetryingMutations() {
+        int abandoned = 0;
+        for (BatchMutation mutation : retryingMutations) {
+            if (retryingMutations.remove(mutation)) {
+                mutation.fail(new RedisBatchProcessingException(String.format(
+                        "Mutation %s for key %s was abandoned at shutdown while waiting for its retry",
+                        mutation.getMutationId(), mutation.getKey())));
+                abandoned++;
             }
-        } while (cursor > 0);
-        LOGGER.debug("Key Value Pairs for regex {} of total size {} being returned are as follows {}",
-                keyRegex,
-                keyValuePairs.size(),
-                keyValuePairs);
-        return keyValuePairs;
+        }
+        pipelineMetrics.mutationsAbandoned(abandoned);
+        return abandoned;
     }
 
     /**
-     * Stores a map of entities in Redis based on the provided request.
+     * Cancels the tasks of the batch flusher that never ran, so that nothing waits for them. Retries among them
+     * have been abandoned already, and pending reads are flushed separately.
      *
-     * @param <T> the type of the entities
-     * @param mapRequest the request containing the key, value, and other parameters
+     * @param tasks the tasks returned by shutdownNow
      */
-    @Override
-    public <T extends IgniteEntity> void putMapOfEntities(PutMapOfEntitiesRequest<T> mapRequest) {
-        validate(mapRequest);
-        mapRequest.withKey(addNamespace(mapRequest.getKey(), mapRequest.getNamespaceEnabled()));
-        String key = mapRequest.getKey();
-        Map<String, T> value = mapRequest.getValue();
-
-        RMap<String, T> rmap = redissonClient.getMap(key);
-        rmap.putAll(value);
-        LOGGER.debug("Put map {} to Redis for key {}", value, key);
+    private static void cancelScheduledTasks(List<Runnable> tasks) {
+        for (Runnable task : tasks) {
+            if (task instanceof Future<?> future) {
+                future.cancel(false);
+            }
+        }
+        LOGGER.debug("Cancelled {} scheduled tasks of the batch flusher", tasks.size());
     }
 
     /**
-     * Retrieves a map of entities from Redis based on the provided request.
+     * Fails all queued mutations, they will not be executed anymore.
      *
-     * @param <T> the type of the entities
-     * @param mapRequest the request containing the key and namespace information
-     * @return the map of entities associated with the key
+     * @return the number of abandoned mutations
      */
-    @Override
-    public <T extends IgniteEntity> Map<String, T> getMapOfEntities(GetMapOfEntitiesRequest mapRequest) {
-        validate(mapRequest);
-        mapRequest.withKey(addNamespace(mapRequest.getKey(), mapRequest.getNamespaceEnabled()));
-        String key = mapRequest.getKey();
-
-        RMap<String, T> rmap = redissonClient.getMap(key);
-        Set<String> fields = mapRequest.getFields();
-        if (fields != null && !fields.isEmpty()) {
-            LOGGER.debug("Attempting to get key value pairs from Redis for subkeys {} with key {}", fields, key);
-            return rmap.getAll(fields);
-        } else {
-            LOGGER.debug("Attempting to get all key value pairs from Redis with parent key {}", key);
-            return rmap.readAllMap();
+    private int abandonQueuedMutations() {
+        int abandoned = 0;
+        for (PipelineLane lane : lanes) {
+            for (MutationQueue queue : lane.queues()) {
+                abandoned += abandonQueuedMutations(queue);
+            }
         }
+        pipelineMetrics.mutationsAbandoned(abandoned);
+        return abandoned;
     }
 
     /**
-     * Deletes a map of entities from Redis based on the provided request.
+     * Fails the mutations queued in the queue.
      *
-     * @param request the request containing the key and namespace information
+     * @param queue the queue
+     * @return the number of abandoned mutations
      */
-    @Override
-    public void deleteMapOfEntities(DeleteMapOfEntitiesRequest request) {
-        validate(request);
-        request.withKey(addNamespace(request.getKey(), request.getNamespaceEnabled()));
-        String key = request.getKey();
-        Set<String> fields = request.getFields();
-        if (fields != null && !fields.isEmpty()) {
-            LOGGER.debug("Attempting to remove key value pairs from Redis for subkeys {} with key {}", fields, key);
-            redissonClient.getMap(key).fastRemove(fields.toArray());
-        } else {
-            LOGGER.debug("Attempting to remove all key value pairs from Redis with parent key {}", key);
-            redissonClient.getMap(key).delete();
+    private int abandonQueuedMutations(MutationQueue queue) {
+        int abandoned = 0;
+        queue.drainLock().lock();
+        try {
+            for (BatchMutation mutation = queue.poll(); mutation != null; mutation = queue.poll()) {
+                if (queuedPermits != null) {
+                    queuedPermits.release();
+                }
+                mutation.fail(new RedisBatchProcessingException(String.format(
+                        "Mutation %s for key %s was abandoned at shutdown", mutation.getMutationId(),
+                        mutation.getKey())));
+                abandoned++;
+            }
+        } finally {
+            queue.drainLock().unlock();
         }
-
+        return abandoned;
     }
 
     /**
-     * Adds the namespace.
+     * Opens the spill journal if a path has been configured. Its values are encoded with the codec of the
+     * Redisson client, and mutations left in it by a previous process are replayed once Redis is healthy.
      *
-     * @param key the key
-     * @param namespaceEnabled the namespace enabled
-     * @return the string
+     * @throws IgniteCacheException if the journal cannot be opened
      */
-    private String addNamespace(String key, boolean namespaceEnabled) {
-        if (StringUtils.isNotEmpty(redisKeyNamespace) && namespaceEnabled) {
-            LOGGER.debug("Namespace enabled: {}, Namespace value for redis: {}, for key: {}",
-                    namespaceEnabled, redisKeyNamespace, key);
-            key = redisKeyNamespace + REDIS_KEY_NAMESPACE_DELIMETER + key;
-            LOGGER.debug("Ignite cache key with namespace {}", key);
+    private void openSpillJournal() {
+        if (StringUtils.isBlank(spillPath)) {
+            return;
+        }
+        try {
+            spillJournal = SpillJournal.open(Paths.get(spillPath), spillMaxBytes,
+                    redissonClient.getConfig().getCodec());
+        } catch (IOException e) {
+            throw new IgniteCacheException(String.format("Unable to open spill journal : %s", spillPath), e);
         }
-        return key;
     }
 
     /**
-     * Executes the batch operation consumer in a reliable way. <br>
-     * If a thread was performing a batch operation and another thread performed RBatch.execute() at the same time,
-     * then first thread will fail with IllegalStateException("Batch already has been executed").
-     * This method performs a retry for such scenarios. Also advances the batch state.
-     *
-     * @param c the batch operation consumer
-     * @throws RuntimeException
-     *         if NUM_BATCH_RETRIES exhausted, and it still fails
+     * Replays spilled mutations on the batch flusher, or right away if it has not been started.
      */
-    private void performBatchOperation(Consumer<Void> c) {
-        for (int i = 1; i <= NUM_BATCH_RETRIES; i++) {
-            try {
-                c.accept(null);
-                break;
-            } catch (IllegalStateException ise) {
-                if (!ise.getMessage().contains("Batch already has been executed")) {
-                    throw ise;
-                }
-                if (i == NUM_BATCH_RETRIES) {
-                    throw new RedisBatchProcessingException(
-                            "Batch operation failed despite trying " + NUM_BATCH_RETRIES + " times");
-                }
-            } catch (NullPointerException npe) {
-                // This has been introduced because it was observed in
-                // integration test case
-                // IgniteCacheRedisImplIntegrationTest.testBatchConcurrentExecutionException()
-                if (i == NUM_BATCH_RETRIES) {
-                    LOGGER.warn("SetAsync invoked before a new batch was created", npe);
-                    throw new RedisBatchProcessingException(
-                            "Batch operation failed despite trying " + NUM_BATCH_RETRIES + " times");
-                }
-            }
+    private void requestSpillReplay() {
+        if (batchFlusher == null) {
+            replaySpilledMutations();
+        } else if (spillReplayScheduled.compareAndSet(false, true)) {
+            batchFlusher.execute(this::replaySpilledMutations);
         }
-        advanceBatchState();
     }
 
     /**
-     * Advance batch state.
+     * Replays up to a batch of spilled mutations into the lanes of their priority, in the order they were spilled,
+     * as long as Redis is healthy and the in-flight batch limit of the NORMAL lane has not been reached. Requests
+     * the replay of the next batch while spilled mutations are left, so that batches of replayed mutations are
+     * executed in between.
      */
-    private void advanceBatchState() {
-        int size = batchCount.incrementAndGet();
-        if (size % batchSize == 0) {
-            // before executing the batch we will keep a reference and then swap
-            // the main reference to a new instance of batch so clients can
-            // continue adding to batch
-            RBatch existingBatch = currentBatch;
-            // now assign new batch to the same reference so that other threads
-            // see the new batch and not the old one (currentBatch is volatile)
-            startBatch();
-            LOGGER.debug("Executing batch asynchronously");
-            existingBatch.executeAsync().thenAccept(r -> {
-                LOGGER.debug("Executed batch asynchronously");
-                LOGGER.trace("Responses of last batch operation: {}",
-                        r.getResponses());
-            });
+    void replaySpilledMutations() {
+        spillReplayScheduled.set(false);
+        SpillJournal journal = spillJournal;
+        if (journal == null || !healthy || pipelineClosed || lane(MutationPriority.NORMAL).isSaturated()
+                || !journal.hasPending()) {
+            return;
+        }
+        int maxRecords = effectiveBatchSize();
+        Semaphore permits = queuedPermits;
+        if (permits != null) {
+            maxRecords = Math.min(maxRecords, permits.availablePermits());
+            if (maxRecords == 0 || !permits.tryAcquire(maxRecords)) {
+                return;
+            }
+        }
+        int replayed = journal.replay(maxRecords, mutation -> {
+            trackLatest(mutation);
+            PipelineLane lane = laneOf(mutation);
+            offerAndDrain(lane, queueFor(lane, mutation.getKey()), mutation);
+        });
+        if (permits != null && replayed < maxRecords) {
+            permits.release(maxRecords - replayed);
+        }
+        pipelineMetrics.mutationsReplayed(replayed);
+        LOGGER.debug("Replayed {} spilled mutations", replayed);
+        if (replayed > 0 && journal.hasPending()) {
+            requestSpillReplay();
         }
     }
 
     /**
-     * Completes the given CompletableFuture based on the success flag.
+     * Gets the compare and set with expiry script, shared with the reactive view.
      *
-     * @param success     indicates if the operation was successful
-     * @param f           the CompletableFuture to complete
-     * @param mutationId  the mutation ID to complete the future with if successful
+     * @return the compare and set script
      */
-    private void completeFuture(boolean success, CompletableFuture<String> f, final String mutationId) {
-        if (success) {
-            f.complete(mutationId);
-        } else {
-            f.completeExceptionally(new RedisBatchProcessingException("Redis batch update failed"));
-        }
+    CompareAndSetScript getCompareAndSetScript() {
+        return compareAndSetScript;
     }
 
     /**
-     * Sets the redisson client.
-     * Added to support test cases.
+     * Gets the script registry, shared with the reactive view.
      *
-     * @param redissonClient the new redisson client
+     * @return the script registry
      */
-    public void setRedissonClient(RedissonClient redissonClient) {
-        this.redissonClient = redissonClient;
+    RedisScriptRegistry getScriptRegistry() {
+        return scriptRegistry;
+    }
+
+    /**
+     * Gets the versioned entity scripts, shared with the reactive view.
+     *
+     * @return the versioned entity script
+     */
+    VersionedEntityScript getVersionedEntityScript() {
+        return versionedEntityScript;
     }
 
     /**
-     * Sets the r batch.
+     * Sets the spill journal.
      * Added to support test cases.
      *
-     * @param batch the new r batch
+     * @param spillJournal the spill journal
      */
-    @SuppressWarnings("checkstyle:AbbreviationAsWordInName")
-    void setRBatch(RBatch batch) {
-        this.currentBatch = batch;
+    void setSpillJournal(SpillJournal spillJournal) {
+        this.spillJournal = spillJournal;
     }
 
     /**
-     * Initializes the `IgniteCacheRedisImpl` instance after construction.
-     * This method reads the scan regex script from the specified file and sets up the decoder.
-     * It also starts the initial batch for Redis operations.
+     * Reads the values of the keys with a single MGET, split per slot by Redisson in cluster mode.
      *
-     * @throws IgniteCacheException if there is an error reading the scan regex file
+     * @param keys the keys
+     * @return future of the values by key, absent keys are missing
      */
-    @PostConstruct
-    private void postConstruct() {
-        try {
-            scanRegexScript = readFile(regexScanFileName);
-            LOGGER.info("Scan Regex file contents : {}", scanRegexScript);
-        } catch (IOException e) {
-            throw new IgniteCacheException(String.format("Unable to read from file : %s", regexScanFileName), e);
-        }
+    private CompletionStage<Map<String, Object>> readAll(String[] keys) {
+        LOGGER.debug("Reading {} keys gathered by async reads", keys.length);
+        return redissonClient.getBuckets().getAsync(keys);
+    }
 
-        if (StringUtils.isBlank(igniteCodecClass)) {
-            LOGGER.info("Loading decoder from default JsonJacksonCodec class....");
-            decoder = JsonJacksonCodec.INSTANCE.getValueDecoder();
-        } else {
-            try {
-                // RTC-156940 - Redis issue when the component is not able
-                // to send to device, and we restart the component.
-                // In order to fix the above issue, a custom codec is needed to
-                // be loaded for DMF/ADA flow which will be used to encode and
-                // decode the data to the Redis without including @class
-                // parameter.
-                LOGGER.info("Loading decoder from ignite codec  ....");
-                Class<Codec> clazz = (Class<Codec>) Class.forName(igniteCodecClass);
+    /**
+     * Reads the keys gathered by async reads right away.
+     * Added to support test cases.
+     */
+    void flushPendingReads() {
+        readBatcher.flush();
+    }
 
-                decoder = clazz.getConstructor(ObjectMapper.class, String.class)
-                        .newInstance(objectMapper, retryRecordIdPattern)
-                        .getValueDecoder();
-            } catch (InstantiationException
-                    | IllegalAccessException
-                    | IllegalArgumentException
-                    | InvocationTargetException
-                    | NoSuchMethodException
-                    | SecurityException
-                    | ClassNotFoundException e) {
-                LOGGER.error("Unable to load ignite json jackson codec : {}", igniteCodecClass);
-                throw new JacksonCodecException(
-                        String.format("Unable to load ignite json jackson codec : %s", igniteCodecClass), e);
-            }
-        }
-        startBatch();
+    /**
+     * Sets the linger time after which a partially filled batch of the NORMAL lane is executed.
+     * Added to support test cases.
+     *
+     * @param lingerMs the linger time in milliseconds, 0 to disable
+     */
+    void setLingerMs(long lingerMs) {
+        this.lingerMs = lingerMs;
+        lane(MutationPriority.NORMAL).setLingerMs(lingerMs);
     }
 
     /**
-     * Starts a new batch for Redis operations.
-     * This method initializes the `currentBatch` with a new instance of `RBatch`.
-     * It also resets the `batchCount` to 0 if it reaches the `batchSize` and updates the `lastBatchExecTimestamp`.
+     * Sets the executor that runs the delayed retries of failed mutations, as the batch flusher started on init.
+     * Added to support test cases.
+     *
+     * @param batchFlusher the batch flusher
      */
-    private void startBatch() {
-        currentBatch = redissonClient.createBatch();
-        boolean updated = batchCount.compareAndSet(batchSize, 0);
-        if (updated) {
-            lastBatchExecTimestamp.set(System.currentTimeMillis());
-        }
+    void setBatchFlusher(ScheduledExecutorService batchFlusher) {
+        this.batchFlusher = batchFlusher;
     }
 
     /**
@@ -847,7 +2752,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key and value to be validated
      * @throws NullPointerException if the key or value is null
      */
-    private void validate(PutMapOfEntitiesRequest<?> request) {
+    void validate(PutMapOfEntitiesRequest<?> request) {
         Objects.requireNonNull(
                 request.getKey(), "Received null/empty key in put map request.Aborting the request.");
         Objects.requireNonNull(
@@ -860,7 +2765,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key to be validated
      * @throws NullPointerException if the key is null
      */
-    private void validate(GetMapOfEntitiesRequest request) {
+    void validate(GetMapOfEntitiesRequest request) {
         Objects.requireNonNull(request.getKey(), "Received null/empty key in get map request.Aborting the request.");
     }
 
@@ -870,7 +2775,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key to be validated
      * @throws NullPointerException if the key is null
      */
-    private void validate(DeleteMapOfEntitiesRequest request) {
+    void validate(DeleteMapOfEntitiesRequest request) {
         Objects.requireNonNull(request.getKey(), "Received null/empty key in delete map request.Aborting the request.");
     }
 
@@ -880,7 +2785,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key to be validated
      * @throws NullPointerException if the key is null
      */
-    private void validate(DeleteEntryRequest request) {
+    void validate(DeleteEntryRequest request) {
         Objects.requireNonNull(request.getKey(), MANDATORY_KEY);
     }
 
@@ -890,7 +2795,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key to be validated
      * @throws NullPointerException if the key is null
      */
-    private void validate(GetStringRequest request) {
+    void validate(GetStringRequest request) {
         Objects.requireNonNull(request.getKey(), MANDATORY_KEY);
     }
 
@@ -900,7 +2805,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key and value to be validated
      * @throws NullPointerException if the key or value is null
      */
-    private void validate(AddScoredStringRequest request) {
+    void validate(AddScoredStringRequest request) {
         Objects.requireNonNull(request.getKey(), MANDATORY_KEY);
         Objects.requireNonNull(request.getValue(), MANDATORY_VALUE);
     }
@@ -911,7 +2816,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key to be validated
      * @throws NullPointerException if the key is null
      */
-    private void validate(GetScoredStringsRequest request) {
+    void validate(GetScoredStringsRequest request) {
         Objects.requireNonNull(request.getKey(), MANDATORY_KEY);
     }
 
@@ -921,7 +2826,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key and value to be validated
      * @throws NullPointerException if the key or value is null
      */
-    private void validate(AddScoredEntityRequest<?> request) {
+    void validate(AddScoredEntityRequest<?> request) {
         Objects.requireNonNull(request.getKey(), MANDATORY_KEY);
         Objects.requireNonNull(request.getValue(), MANDATORY_VALUE);
     }
@@ -932,7 +2837,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key and value to be validated
      * @throws NullPointerException if the key or value is null
      */
-    private void validate(GetScoredEntitiesRequest request) {
+    void validate(GetScoredEntitiesRequest request) {
         Objects.requireNonNull(request.getKey(), MANDATORY_KEY);
     }
 
@@ -942,7 +2847,7 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key and value to be validated
      * @throws NullPointerException if the key or value is null
      */
-    private void validate(PutStringRequest putRequest) {
+    void validate(PutStringRequest putRequest) {
         Objects.requireNonNull(putRequest.getKey(), MANDATORY_KEY);
         Objects.requireNonNull(putRequest.getValue(), MANDATORY_VALUE);
     }
@@ -953,11 +2858,44 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      * @param request the request containing the key and value to be validated
      * @throws NullPointerException if the key or value is null
      */
-    private void validate(PutEntityRequest<?> putRequest) {
+    void validate(PutEntityRequest<?> putRequest) {
         Objects.requireNonNull(putRequest.getKey(), MANDATORY_KEY);
         Objects.requireNonNull(putRequest.getValue(), MANDATORY_VALUE);
     }
 
+    /**
+     * Validates the registration of a refresh loader.
+     *
+     * @param keyPrefix the key prefix
+     * @param ttlMs the ttl in ms
+     * @param loader the loader
+     * @throws NullPointerException if the key prefix or loader is null
+     * @throws IllegalArgumentException if the ttl is not positive
+     */
+    void validateRefreshLoader(String keyPrefix, long ttlMs, Function<String, ?> loader) {
+        Objects.requireNonNull(keyPrefix, MANDATORY_KEY);
+        Objects.requireNonNull(loader, MANDATORY_LOADER);
+        if (ttlMs <= 0) {
+            throw new IllegalArgumentException("Keys refreshed ahead of expiry must have a ttl, got " + ttlMs);
+        }
+    }
+
+    /**
+     * Validates the `GetOrLoadRequest` to ensure that the key and loader are not null, and that the lease and
+     * early refresh beta are not negative.
+     *
+     * @param request the request to be validated
+     * @throws NullPointerException if the key or loader is null
+     * @throws IllegalArgumentException if the lease or early refresh beta is negative
+     */
+    void validate(GetOrLoadRequest<?> request) {
+        Objects.requireNonNull(request.getKey(), MANDATORY_KEY);
+        Objects.requireNonNull(request.getLoader(), MANDATORY_LOADER);
+        if (request.getLeaseMs() < 0 || request.getEarlyRefreshBeta() < 0) {
+            throw new IllegalArgumentException("Lease and early refresh beta cannot be negative");
+        }
+    }
+
     /**
      * Read file.
      *
@@ -993,6 +2931,9 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
     public boolean isHealthy(boolean forceHealthCheck) {
         if (forceHealthCheck) {
             healthy = forceHealthCheck();
+            if (healthy && spillJournal != null && spillJournal.hasPending()) {
+                requestSpillReplay();
+            }
         }
         return healthy;
     }
@@ -1004,8 +2945,10 @@ public class IgniteCacheRedisImpl implements IgniteCache, HealthMonitor {
      */
     private boolean forceHealthCheck() {
         try {
-            putString(new PutStringRequest().withKey("hello").withValue("world").withNamespaceEnabled(false));
-            delete(new DeleteEntryRequest().withKey("hello").withNamespaceEnabled(false));
+            // probed on the raw bucket, so the probe does not go through the near cache and publish invalidations
+            RBucket<Object> probe = redissonClient.getBucket("hello");
+            probe.set("world");
+            probe.delete();
             healthy = true;
         } catch (Exception ex) {
             healthy = false;
@@ -0,0 +1,87 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Coalesces repeated unconditional writes of the same key within a drained batch, so that only the last
+ * SET or DEL per key is sent to Redis, at the position it arrived at.<br>
+ * Compare and set and scored sorted set additions are never coalesced. They also act as a barrier for the key,
+ * so writes before and after them are not merged across them and keep their order relative to them.
+ */
+final class MutationCoalescer {
+
+    /**
+     * Instantiates a new mutation coalescer.
+     */
+    private MutationCoalescer() {
+    }
+
+    /**
+     * Coalesces the mutations. Superseded mutations complete with their own mutation id once the write
+     * that replaced them has been executed.
+     *
+     * @param mutations the drained mutations, in arrival order
+     * @return the mutations to add to the batch
+     */
+    static List<BatchMutation> coalesce(List<BatchMutation> mutations) {
+        List<BatchMutation> commands = new ArrayList<>(mutations.size());
+        Map<String, Integer> lastWriteIndex = new HashMap<>();
+        for (BatchMutation mutation : mutations) {
+            if (!mutation.isUnconditionalWrite()) {
+                lastWriteIndex.remove(mutation.getKey());
+                commands.add(mutation);
+                continue;
+            }
+            Integer index = lastWriteIndex.put(mutation.getKey(), commands.size());
+            if (index != null) {
+                // the winning write keeps its own position, so writes of other keys in between stay before it
+                commands.get(index).supersededBy(mutation);
+                commands.set(index, null);
+            }
+            commands.add(mutation);
+        }
+        commands.removeIf(Objects::isNull);
+        return commands;
+    }
+}
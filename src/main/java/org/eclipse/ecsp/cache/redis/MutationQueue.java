@@ -0,0 +1,151 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock-free multi-producer queue of pending {@link BatchMutation}s.<br>
+ * Any number of threads may {@link #offer(BatchMutation)} concurrently, mutations are only
+ * {@link #poll()}ed by the batch flusher while it holds the {@link #drainLock()} of the queue.<br>
+ * In cluster mode there is one queue per master, so every master is pipelined independently.
+ */
+final class MutationQueue {
+
+    /** The name of the queue, used for logging. */
+    private final String name;
+
+    /** Makes sure only one thread at a time drains this queue into a batch. */
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    /** Set while a drain of full batches has been submitted to the flusher but has not started yet. */
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    /** The pending mutations, in arrival order. */
+    private final ConcurrentLinkedQueue<BatchMutation> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of pending mutations. ConcurrentLinkedQueue.size() is O(n), hence tracked separately.
+     * It is incremented after an offer and decremented after a poll, so it never over-counts for the consumer.
+     */
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * Instantiates a new mutation queue.
+     *
+     * @param name the name of the queue
+     */
+    MutationQueue(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Enqueues the mutation.
+     *
+     * @param mutation the mutation
+     * @return the number of pending mutations including this one
+     */
+    int offer(BatchMutation mutation) {
+        pending.offer(mutation);
+        return size.incrementAndGet();
+    }
+
+    /**
+     * Removes the oldest pending mutation.
+     *
+     * @return the oldest mutation, or null if none is pending
+     */
+    BatchMutation poll() {
+        BatchMutation mutation = pending.poll();
+        if (mutation != null) {
+            size.decrementAndGet();
+        }
+        return mutation;
+    }
+
+    /**
+     * Gets the number of pending mutations.
+     *
+     * @return the size
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Gets the creation time of the oldest pending mutation.
+     *
+     * @return the creation time in millis, 0 if no mutation is pending
+     */
+    long oldestEnqueuedAt() {
+        BatchMutation head = pending.peek();
+        return head == null ? 0L : head.getEnqueuedAt();
+    }
+
+    /**
+     * Gets the lock to hold while draining the queue.
+     *
+     * @return the drain lock
+     */
+    ReentrantLock drainLock() {
+        return drainLock;
+    }
+
+    /**
+     * Marks a drain of full batches as scheduled.
+     *
+     * @return true if no drain was scheduled yet
+     */
+    boolean scheduleDrain() {
+        return drainScheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Clears the scheduled drain mark, called when the drain starts.
+     */
+    void drainStarted() {
+        drainScheduled.set(false);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
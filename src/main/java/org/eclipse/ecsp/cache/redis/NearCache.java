@@ -0,0 +1,388 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.redisson.api.RPatternTopic;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.BasePatternStatusListener;
+import org.redisson.api.listener.BaseStatusListener;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * In-process near cache of the values of buckets, in front of the reads of {@link IgniteCacheRedisImpl}.<br>
+ * Entries are kept in a {@link NearCacheStore}, on the heap or off it, bounded by size, and expire after a ttl,
+ * which also bounds how long a missed invalidation can serve a stale value. The ttl of a value is capped by the
+ * remaining ttl of its key in Redis, as nothing invalidates a key that expires. Writes through the cache invalidate the
+ * key locally right away, and other instances learn about them either from the keyspace notifications of Redis or
+ * from an invalidation channel the writers publish to, see {@link NearCacheInvalidation}. Notifications are lost
+ * while the subscription is down, so the whole near cache is cleared whenever the subscription is established
+ * again.<br>
+ * Keys that do not exist can be kept too, for a ttl of their own that is usually shorter, so that reads of missing
+ * keys, for ex probes of unknown ids, do not reach Redis. They are invalidated like values, so a key written later is
+ * read again. Either kind of entry can be disabled with a ttl of 0.
+ */
+final class NearCache {
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(NearCache.class);
+
+    /** The prefix of the keyspace notification channels, followed by the database index. */
+    static final String KEYSPACE_CHANNEL_PREFIX = "__keyspace@";
+
+    /** Separates the database index of a keyspace notification channel from the key. */
+    private static final String KEYSPACE_KEY_DELIMITER = "__:";
+
+    /** The number of invalidation stripes, a power of two. */
+    private static final int STRIPES = 1024;
+
+    /** Kept in place of the value of a key that does not exist. */
+    static final Object ABSENT = new Object();
+
+    /** The remaining ttl of a key that does not expire. */
+    static final long NO_EXPIRY = -1;
+
+    /** The cached values by key with namespace applied, or ABSENT for keys that do not exist. */
+    private final NearCacheStore entries;
+
+    /** The key prefixes of the near cached keys, all keys if empty. */
+    private final List<String> keyPrefixes;
+
+    /** The metrics. */
+    private final RedisNearCacheMetrics metrics;
+
+    /**
+     * Invalidation counters by stripe of the key. A value read from Redis is only kept if no invalidation of its
+     * stripe happened during the read, so that an invalidation racing the read does not leave a stale entry.
+     */
+    private final AtomicLongArray invalidationStripes = new AtomicLongArray(STRIPES);
+
+    /** The invalidation mode. */
+    private NearCacheInvalidation invalidation;
+
+    /** The invalidation channel written keys are published to in CHANNEL mode. */
+    private RTopic invalidationTopic;
+
+    /** Removes the listeners of the subscriptions. */
+    private final List<Runnable> unsubscribers = new ArrayList<>();
+
+    /**
+     * Instantiates a new near cache keeping its entries on the heap.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param ttlMs the time in milliseconds a value is kept after it has been read from Redis, 0 not to keep values
+     * @param absentTtlMs the time in milliseconds a key that does not exist is kept, 0 not to keep such keys
+     * @param keyPrefixes the key prefixes, with namespace applied, of the near cached keys, all keys if empty
+     * @param metrics the metrics
+     */
+    NearCache(long maximumSize, long ttlMs, long absentTtlMs, Collection<String> keyPrefixes,
+            RedisNearCacheMetrics metrics) {
+        this(new HeapNearCacheStore(maximumSize, ttlMs, absentTtlMs), keyPrefixes, metrics);
+    }
+
+    /**
+     * Instantiates a new near cache.
+     *
+     * @param entries the storage of the entries
+     * @param keyPrefixes the key prefixes, with namespace applied, of the near cached keys, all keys if empty
+     * @param metrics the metrics
+     */
+    NearCache(NearCacheStore entries, Collection<String> keyPrefixes, RedisNearCacheMetrics metrics) {
+        this.entries = entries;
+        this.keyPrefixes = List.copyOf(keyPrefixes);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Validates the bounds of a near cache store.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param ttlMs the ttl of values in milliseconds
+     * @param absentTtlMs the ttl of keys that do not exist in milliseconds
+     * @throws IllegalArgumentException if the size is not positive, a ttl is negative or both are 0
+     */
+    static void validate(long maximumSize, long ttlMs, long absentTtlMs) {
+        if (maximumSize <= 0 || ttlMs < 0 || absentTtlMs < 0 || ttlMs + absentTtlMs == 0) {
+            throw new IllegalArgumentException(String.format("Near cache maximum size must be greater than 0 and "
+                    + "at least one of its ttls, got %d, %d and %d", maximumSize, ttlMs, absentTtlMs));
+        }
+    }
+
+    /**
+     * Checks whether the key is near cached.
+     *
+     * @param key the key with namespace applied
+     * @return true if the key matches one of the key prefixes, or no prefix is configured
+     */
+    boolean isNearCached(String key) {
+        if (keyPrefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : keyPrefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the value of the key from the near cache, or reads it from Redis and keeps it. Keys that do not exist
+     * are only kept if a ttl is configured for them.
+     *
+     * @param key the key with namespace applied
+     * @param loader reads the value of the key from Redis with the remaining ttl of the key
+     * @return the value, null if the key does not exist
+     */
+    Object get(String key, Function<String, Loaded> loader) {
+        if (!isNearCached(key)) {
+            return loader.apply(key).value();
+        }
+        Object value = cached(key);
+        if (value != null) {
+            return value == ABSENT ? null : value;
+        }
+        int stripe = stripe(key);
+        long invalidations = invalidationStripes.get(stripe);
+        return keep(key, loader.apply(key), stripe, invalidations);
+    }
+
+    /**
+     * Gets the value of the key from the near cache, or reads it from Redis asynchronously and keeps it, see
+     * {@link #get(String, Function)}.
+     *
+     * @param key the key with namespace applied
+     * @param loader reads the value of the key from Redis with the remaining ttl of the key
+     * @return future of the value, completed with null if the key does not exist
+     */
+    CompletableFuture<Object> getAsync(String key, Function<String, CompletionStage<Loaded>> loader) {
+        if (!isNearCached(key)) {
+            return loader.apply(key).thenApply(Loaded::value).toCompletableFuture();
+        }
+        Object value = cached(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value == ABSENT ? null : value);
+        }
+        int stripe = stripe(key);
+        long invalidations = invalidationStripes.get(stripe);
+        return loader.apply(key).thenApply(loaded -> keep(key, loaded, stripe, invalidations)).toCompletableFuture();
+    }
+
+    /**
+     * Looks the key up in the near cache and counts the hit or miss.
+     *
+     * @param key the key with namespace applied
+     * @return the value, ABSENT if the key is kept as not existing, null on a miss
+     */
+    private Object cached(String key) {
+        Object value = entries.get(key);
+        if (value == ABSENT) {
+            metrics.absentHit();
+        } else if (value != null) {
+            metrics.hit();
+        } else {
+            metrics.miss();
+        }
+        return value;
+    }
+
+    /**
+     * Keeps the value read from Redis, unless the key was invalidated during the read.
+     *
+     * @param key the key with namespace applied
+     * @param loaded the value read from Redis with the remaining ttl of the key
+     * @param stripe the invalidation stripe of the key
+     * @param invalidations the invalidation counter of the stripe before the read
+     * @return the value, null if the key does not exist
+     */
+    private Object keep(String key, Loaded loaded, int stripe, long invalidations) {
+        Object value = loaded.value();
+        entries.put(key, value != null ? value : ABSENT, loaded.ttlMs());
+        if (invalidationStripes.get(stripe) != invalidations) {
+            // invalidated while the value was read, which may have been before or after the write
+            entries.invalidate(key);
+        }
+        return value;
+    }
+
+    /**
+     * Invalidates the key in this near cache.
+     *
+     * @param key the key with namespace applied
+     */
+    void invalidate(String key) {
+        if (!isNearCached(key)) {
+            return;
+        }
+        invalidationStripes.incrementAndGet(stripe(key));
+        entries.invalidate(key);
+        metrics.invalidated();
+    }
+
+    /**
+     * Invalidates the key written by this instance, and publishes it to the other instances in CHANNEL mode, also
+     * with only the negative cache so that they do not keep serving the key as missing.
+     *
+     * @param key the key with namespace applied
+     */
+    void written(String key) {
+        if (!isNearCached(key)) {
+            return;
+        }
+        invalidate(key);
+        RTopic topic = invalidationTopic;
+        if (topic != null) {
+            topic.publishAsync(key).whenComplete((receivers, e) -> {
+                if (e != null) {
+                    LOGGER.warn("Unable to publish near cache invalidation of key {}: {}", key, e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Clears the near cache.
+     */
+    void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            invalidationStripes.incrementAndGet(i);
+        }
+        entries.invalidateAll();
+    }
+
+    /**
+     * Gets the approximate number of entries.
+     *
+     * @return the size
+     */
+    long size() {
+        return entries.size();
+    }
+
+    /**
+     * Subscribes to the invalidations of keys written by other instances.
+     *
+     * @param client the Redisson client
+     * @param invalidation the invalidation mode
+     * @param channel the invalidation channel in CHANNEL mode
+     */
+    void subscribe(RedissonClient client, NearCacheInvalidation invalidation, String channel) {
+        this.invalidation = invalidation;
+        if (invalidation == NearCacheInvalidation.CHANNEL) {
+            RTopic topic = client.getTopic(channel, StringCodec.INSTANCE);
+            int messageListener = topic.addListener(String.class, (ch, key) -> invalidate(key));
+            int statusListener = topic.addListener(new BaseStatusListener() {
+                @Override
+                public void onSubscribe(String ch) {
+                    LOGGER.info("Subscribed to near cache invalidation channel {}, clearing the near cache", ch);
+                    invalidateAll();
+                }
+            });
+            unsubscribers.add(() -> topic.removeListener(messageListener, statusListener));
+            invalidationTopic = topic;
+            return;
+        }
+        List<String> prefixes = keyPrefixes.isEmpty() ? List.of("") : keyPrefixes;
+        for (String prefix : prefixes) {
+            RPatternTopic topic = client.getPatternTopic(KEYSPACE_CHANNEL_PREFIX + "*" + KEYSPACE_KEY_DELIMITER
+                    + prefix + "*", StringCodec.INSTANCE);
+            int messageListener = topic.addListener(String.class, (pattern, ch, event) -> invalidate(keyOf(ch)));
+            int statusListener = topic.addListener(new BasePatternStatusListener() {
+                @Override
+                public void onPSubscribe(String pattern) {
+                    LOGGER.info("Subscribed to keyspace notifications {}, clearing the near cache", pattern);
+                    invalidateAll();
+                }
+            });
+            unsubscribers.add(() -> {
+                topic.removeListener(messageListener);
+                topic.removeListener(statusListener);
+            });
+        }
+    }
+
+    /**
+     * Removes the listeners of the subscriptions and clears the near cache.
+     */
+    void close() {
+        LOGGER.info("Closing near cache with {} invalidation, {} entries", invalidation, size());
+        unsubscribers.forEach(Runnable::run);
+        unsubscribers.clear();
+        invalidationTopic = null;
+        entries.invalidateAll();
+    }
+
+    /**
+     * Gets the key of a keyspace notification channel.
+     *
+     * @param channel the channel, __keyspace@db__:key
+     * @return the key
+     */
+    static String keyOf(CharSequence channel) {
+        String name = channel.toString();
+        return name.substring(name.indexOf(KEYSPACE_KEY_DELIMITER) + KEYSPACE_KEY_DELIMITER.length());
+    }
+
+    /**
+     * A value read from Redis.
+     *
+     * @param value the value, null if the key does not exist
+     * @param ttlMs the remaining ttl of the key in milliseconds, negative if it does not expire or does not exist
+     */
+    record Loaded(Object value, long ttlMs) {
+    }
+
+    /**
+     * Gets the invalidation stripe of the key.
+     *
+     * @param key the key
+     * @return the stripe
+     */
+    private static int stripe(String key) {
+        return key.hashCode() & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+/**
+ * How the near cache of {@link IgniteCacheRedisImpl} learns about keys written by other instances.
+ */
+public enum NearCacheInvalidation {
+
+    /**
+     * Subscribe to the keyspace notifications of Redis, which also covers writes by other clients.
+     * Requires notify-keyspace-events to include K and the generic, string and expired events, for ex KA.
+     * Not supported in cluster mode, where notifications are only published by the node owning the key.
+     */
+    KEYSPACE,
+
+    /** Writers publish the keys they write to an invalidation channel, which covers writes through this cache. */
+    CHANNEL
+}
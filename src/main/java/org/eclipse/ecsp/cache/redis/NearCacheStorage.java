@@ -0,0 +1,52 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+/**
+ * Where the near cache of {@link IgniteCacheRedisImpl} keeps its entries.
+ */
+public enum NearCacheStorage {
+
+    /** Decoded values on the heap, evicted with W-TinyLFU. Reads return the cached instance. */
+    HEAP,
+
+    /**
+     * Codec encoded values in direct memory, outside of the GC heap, evicted in insertion order. Reads decode the
+     * value, so they return a new instance, and large near caches do not inflate the old generation.
+     */
+    OFF_HEAP
+}
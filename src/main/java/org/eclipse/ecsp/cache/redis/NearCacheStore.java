@@ -0,0 +1,91 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+/**
+ * Storage of the entries of a {@link NearCache}, bounded in number and expiring after a ttl. Keys that do not exist
+ * are stored as {@link NearCache#ABSENT}, with a ttl of their own.
+ */
+interface NearCacheStore {
+
+    /**
+     * Gets the value of the key.
+     *
+     * @param key the key with namespace applied
+     * @return the value, ABSENT if the key is known not to exist, null if not stored
+     */
+    Object get(String key);
+
+    /**
+     * Stores the value of the key without a cap of its ttl.
+     *
+     * @param key the key with namespace applied
+     * @param value the value, or ABSENT if the key does not exist
+     */
+    default void put(String key, Object value) {
+        put(key, value, NearCache.NO_EXPIRY);
+    }
+
+    /**
+     * Stores the value of the key for the ttl of its kind, capped by the remaining ttl of the key in Redis so that
+     * the entry does not outlive the key. Nothing is stored if the resulting ttl is 0.
+     *
+     * @param key the key with namespace applied
+     * @param value the value, or ABSENT if the key does not exist
+     * @param maxTtlMs the remaining ttl of the key in milliseconds, negative if it does not expire
+     */
+    void put(String key, Object value, long maxTtlMs);
+
+    /**
+     * Removes the key.
+     *
+     * @param key the key with namespace applied
+     */
+    void invalidate(String key);
+
+    /**
+     * Removes all keys.
+     */
+    void invalidateAll();
+
+    /**
+     * Gets the approximate number of entries.
+     *
+     * @return the size
+     */
+    long size();
+}
@@ -0,0 +1,561 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Near cache storage of codec encoded values in direct memory, so that large near caches add neither to the old
+ * generation nor to the work of the garbage collector.<br>
+ * Keys are spread over segments, each with its own lock. A segment appends its records to a direct buffer used as a
+ * ring, and evicts the oldest records when it runs out of space or entries. Its index is open addressing with linear
+ * probing over two primitive arrays, holding the hash and the address of the record of each key, so that the entries
+ * do not allocate any object on the heap. Values are decoded on every read, which returns a new instance.
+ */
+final class OffHeapNearCacheStore implements NearCacheStore {
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(OffHeapNearCacheStore.class);
+
+    /** The number of segments, a power of two. */
+    private static final int SEGMENTS = 16;
+
+    /** The shift of the hash of a key giving its segment, from the high bits as the index uses the low ones. */
+    private static final int SEGMENT_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(SEGMENTS);
+
+    /** The maximum number of entries of a segment, which keeps the slots of its index within an int. */
+    private static final int MAX_SEGMENT_ENTRIES = 1 << 28;
+
+    /** The offset of the key length in a record, which starts with the hash of the key. */
+    private static final int KEY_LENGTH_OFFSET = Integer.BYTES;
+
+    /** The offset of the value length in a record. */
+    private static final int VALUE_LENGTH_OFFSET = 2 * Integer.BYTES;
+
+    /** The offset of the expiry in a record, in System.nanoTime. */
+    private static final int EXPIRY_OFFSET = 3 * Integer.BYTES;
+
+    /** The length of the header of a record, followed by the key and the value. */
+    private static final int HEADER_BYTES = EXPIRY_OFFSET + Long.BYTES;
+
+    /** The value length of a key that does not exist. */
+    private static final int ABSENT_LENGTH = -1;
+
+    /** Returned by a segment for a key that does not exist. */
+    private static final byte[] ABSENT_VALUE = new byte[0];
+
+    /** The segments. */
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /** Supplies the codec of the values. */
+    private final Supplier<Codec> codec;
+
+    /** The ttl of values in nanoseconds, 0 not to keep values. */
+    private final long ttlNanos;
+
+    /** The ttl of keys that do not exist in nanoseconds, 0 not to keep such keys. */
+    private final long absentTtlNanos;
+
+    /**
+     * Instantiates a new off heap near cache store.
+     *
+     * @param maximumSize the maximum number of entries, spread evenly over the segments
+     * @param ttlMs the time in milliseconds a value is kept, 0 not to keep values
+     * @param absentTtlMs the time in milliseconds a key that does not exist is kept, 0 not to keep such keys
+     * @param capacityBytes the direct memory in bytes of the keys and values
+     * @param codec supplies the codec the values are encoded with, the codec of the Redisson client
+     */
+    OffHeapNearCacheStore(long maximumSize, long ttlMs, long absentTtlMs, long capacityBytes,
+            Supplier<Codec> codec) {
+        NearCache.validate(maximumSize, ttlMs, absentTtlMs);
+        long segmentBytes = capacityBytes / SEGMENTS;
+        if (segmentBytes <= HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                    "Off heap near cache capacity must be between %d and %d bytes, got %d",
+                    (HEADER_BYTES + 1L) * SEGMENTS, (long) Integer.MAX_VALUE * SEGMENTS, capacityBytes));
+        }
+        int segmentEntries = (int) Math.min(MAX_SEGMENT_ENTRIES, Math.max(1L, maximumSize / SEGMENTS));
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment((int) segmentBytes, segmentEntries);
+        }
+        this.codec = codec;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.absentTtlNanos = TimeUnit.MILLISECONDS.toNanos(absentTtlMs);
+    }
+
+    /**
+     * Gets the value of the key, decoded from direct memory.
+     *
+     * @param key the key
+     * @return the value, ABSENT or null
+     */
+    @Override
+    public Object get(String key) {
+        int hash = hash(key);
+        byte[] value = segment(hash).get(hash, key.getBytes(StandardCharsets.UTF_8), System.nanoTime());
+        if (value == ABSENT_VALUE) {
+            return NearCache.ABSENT;
+        }
+        if (value == null) {
+            return null;
+        }
+        try {
+            return codec.get().getValueDecoder().decode(Unpooled.wrappedBuffer(value), new State());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to decode the near cached value of key {}: {}", key, e.getMessage());
+            invalidate(key);
+            return null;
+        }
+    }
+
+    /**
+     * Encodes the value of the key and stores it in direct memory, for a ttl capped by the remaining ttl of the key.
+     *
+     * @param key the key
+     * @param value the value or ABSENT
+     * @param maxTtlMs the remaining ttl of the key in milliseconds, negative if it does not expire
+     */
+    @Override
+    public void put(String key, Object value, long maxTtlMs) {
+        long ttl = value == NearCache.ABSENT ? absentTtlNanos : ttlNanos;
+        if (maxTtlMs >= 0) {
+            ttl = Math.min(ttl, TimeUnit.MILLISECONDS.toNanos(maxTtlMs));
+        }
+        if (ttl == 0) {
+            return;
+        }
+        byte[] encoded = ABSENT_VALUE;
+        if (value != NearCache.ABSENT) {
+            encoded = encode(key, value);
+            if (encoded == null) {
+                invalidate(key);
+                return;
+            }
+        }
+        int hash = hash(key);
+        segment(hash).put(hash, key.getBytes(StandardCharsets.UTF_8), encoded, System.nanoTime() + ttl);
+    }
+
+    /**
+     * Removes the key.
+     *
+     * @param key the key
+     */
+    @Override
+    public void invalidate(String key) {
+        int hash = hash(key);
+        segment(hash).remove(hash, key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Removes all keys.
+     */
+    @Override
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Gets the number of entries, including expired ones that have not been read since.
+     *
+     * @return the size
+     */
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Encodes a value with the codec.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the encoded value, null if it could not be encoded
+     */
+    private byte[] encode(String key, Object value) {
+        ByteBuf buf = null;
+        try {
+            buf = codec.get().getValueEncoder().encode(value);
+            byte[] encoded = new byte[buf.readableBytes()];
+            buf.getBytes(buf.readerIndex(), encoded);
+            return encoded;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to encode the value of key {} for the near cache: {}", key, e.getMessage());
+            return null;
+        } finally {
+            if (buf != null) {
+                buf.release();
+            }
+        }
+    }
+
+    /**
+     * Gets the segment of a hash.
+     *
+     * @param hash the hash of the key
+     * @return the segment
+     */
+    private Segment segment(int hash) {
+        return segments[hash >>> SEGMENT_SHIFT];
+    }
+
+    /**
+     * Gets the hash of a key, with its high bits spread to the low ones.
+     *
+     * @param key the key
+     * @return the hash
+     */
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> (Integer.SIZE / 2));
+    }
+
+    /**
+     * A segment of the store: a ring of records in a direct buffer, indexed by open addressing. Records are
+     * appended at the head and evicted at the tail. Records of removed or replaced keys stay in the ring until the
+     * tail reaches them.
+     */
+    static final class Segment {
+
+        /** Guards the segment. A j.u.c lock rather than a monitor so virtual threads do not pin carriers. */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /** The records. */
+        private final ByteBuffer data;
+
+        /** The addresses of the records plus 1 by slot, 0 for an empty slot. */
+        private final int[] addresses;
+
+        /** The hashes of the keys by slot. */
+        private final int[] hashes;
+
+        /** The mask of a slot. */
+        private final int mask;
+
+        /** The maximum number of entries. */
+        private final int maxEntries;
+
+        /** The number of entries in the index. */
+        private int entries;
+
+        /** The number of records in the ring, including those of removed keys. */
+        private int records;
+
+        /** The position of the next record. */
+        private int head;
+
+        /** The position of the oldest record. */
+        private int tail;
+
+        /** The end of the records before the head wrapped to the start of the ring, -1 if it has not wrapped. */
+        private int wrapAt = -1;
+
+        /**
+         * Instantiates a new segment.
+         *
+         * @param capacity the capacity of the ring in bytes
+         * @param maxEntries the maximum number of entries
+         */
+        Segment(int capacity, int maxEntries) {
+            this.data = ByteBuffer.allocateDirect(capacity);
+            int slots = Integer.highestOneBit(maxEntries * 2 - 1) << 1;
+            this.addresses = new int[slots];
+            this.hashes = new int[slots];
+            this.mask = slots - 1;
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * Gets the encoded value of a key, and removes it if it expired.
+         *
+         * @param hash the hash of the key
+         * @param key the key
+         * @param now the current System.nanoTime
+         * @return the encoded value, ABSENT_VALUE if the key does not exist, null if not stored
+         */
+        byte[] get(int hash, byte[] key, long now) {
+            lock.lock();
+            try {
+                int slot = find(hash, key);
+                if (slot < 0) {
+                    return null;
+                }
+                int address = addresses[slot] - 1;
+                if (data.getLong(address + EXPIRY_OFFSET) - now <= 0) {
+                    removeSlot(slot);
+                    return null;
+                }
+                int valueLength = data.getInt(address + VALUE_LENGTH_OFFSET);
+                if (valueLength == ABSENT_LENGTH) {
+                    return ABSENT_VALUE;
+                }
+                byte[] value = new byte[valueLength];
+                data.get(address + HEADER_BYTES + key.length, value);
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Stores the encoded value of a key, evicting the oldest records as needed.
+         *
+         * @param hash the hash of the key
+         * @param key the key
+         * @param value the encoded value, ABSENT_VALUE if the key does not exist
+         * @param expiresAt the System.nanoTime the entry expires at
+         */
+        void put(int hash, byte[] key, byte[] value, long expiresAt) {
+            lock.lock();
+            try {
+                int slot = find(hash, key);
+                if (slot >= 0) {
+                    removeSlot(slot);
+                }
+                long length = (long) HEADER_BYTES + key.length + value.length;
+                if (length > data.capacity()) {
+                    return;
+                }
+                while (entries >= maxEntries) {
+                    evictOldest();
+                }
+                int address = allocate((int) length);
+                data.putInt(address, hash);
+                data.putInt(address + KEY_LENGTH_OFFSET, key.length);
+                data.putInt(address + VALUE_LENGTH_OFFSET, value == ABSENT_VALUE ? ABSENT_LENGTH : value.length);
+                data.putLong(address + EXPIRY_OFFSET, expiresAt);
+                data.put(address + HEADER_BYTES, key);
+                data.put(address + HEADER_BYTES + key.length, value);
+                slot = hash & mask;
+                while (addresses[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                addresses[slot] = address + 1;
+                hashes[slot] = hash;
+                entries++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Removes a key.
+         *
+         * @param hash the hash of the key
+         * @param key the key
+         */
+        void remove(int hash, byte[] key) {
+            lock.lock();
+            try {
+                int slot = find(hash, key);
+                if (slot >= 0) {
+                    removeSlot(slot);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Removes all keys and records.
+         */
+        void clear() {
+            lock.lock();
+            try {
+                Arrays.fill(addresses, 0);
+                entries = 0;
+                records = 0;
+                head = 0;
+                tail = 0;
+                wrapAt = -1;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Gets the number of entries.
+         *
+         * @return the size
+         */
+        int size() {
+            lock.lock();
+            try {
+                return entries;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Allocates a record at the head of the ring, evicting the oldest records until it fits.
+         *
+         * @param length the length of the record, not greater than the capacity
+         * @return the address of the record
+         */
+        private int allocate(int length) {
+            while (true) {
+                if (records == 0) {
+                    head = 0;
+                    tail = 0;
+                    wrapAt = -1;
+                }
+                if (wrapAt < 0) {
+                    if (data.capacity() - head >= length) {
+                        break;
+                    }
+                    wrapAt = head;
+                    head = 0;
+                } else if (tail - head >= length) {
+                    break;
+                } else {
+                    evictOldest();
+                }
+            }
+            int address = head;
+            head += length;
+            records++;
+            return address;
+        }
+
+        /**
+         * Evicts the oldest record of the ring, and its key from the index unless it was removed or replaced.
+         */
+        private void evictOldest() {
+            int address = tail;
+            int hash = data.getInt(address);
+            int valueLength = data.getInt(address + VALUE_LENGTH_OFFSET);
+            int length = HEADER_BYTES + data.getInt(address + KEY_LENGTH_OFFSET) + Math.max(0, valueLength);
+            int slot = hash & mask;
+            while (addresses[slot] != 0) {
+                if (addresses[slot] == address + 1) {
+                    removeSlot(slot);
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            tail += length;
+            records--;
+            if (tail == wrapAt) {
+                tail = 0;
+                wrapAt = -1;
+            }
+        }
+
+        /**
+         * Finds the slot of a key.
+         *
+         * @param hash the hash of the key
+         * @param key the key
+         * @return the slot, -1 if the key is not stored
+         */
+        private int find(int hash, byte[] key) {
+            int slot = hash & mask;
+            while (addresses[slot] != 0) {
+                if (hashes[slot] == hash && keyEquals(addresses[slot] - 1, key)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Compares the key of a record with a key.
+         *
+         * @param address the address of the record
+         * @param key the key
+         * @return true if the keys are equal
+         */
+        private boolean keyEquals(int address, byte[] key) {
+            if (data.getInt(address + KEY_LENGTH_OFFSET) != key.length) {
+                return false;
+            }
+            int start = address + HEADER_BYTES;
+            for (int i = 0; i < key.length; i++) {
+                if (data.get(start + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Empties a slot, shifting back the following slots of the probe sequence so that lookups do not stop at it.
+         *
+         * @param slot the slot
+         */
+        private void removeSlot(int slot) {
+            int empty = slot;
+            addresses[empty] = 0;
+            entries--;
+            int next = empty;
+            while (true) {
+                next = (next + 1) & mask;
+                if (addresses[next] == 0) {
+                    return;
+                }
+                int home = hashes[next] & mask;
+                if (((next - home) & mask) >= ((next - empty) & mask)) {
+                    addresses[empty] = addresses[next];
+                    hashes[empty] = hashes[next];
+                    addresses[next] = 0;
+                    empty = next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.redisson.api.RBatch;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+
+/**
+ * The Redis batch one drain of a {@link MutationQueue} is executed in.<br>
+ * Every mutation of a drain goes into a single batch, so that writes of a key reach Redis in the order they were
+ * queued. When results are skipped and no mutation of the drain needs its reply, the batch is created with
+ * {@code skipResult}, whose commands never complete on their own, so they are acknowledged once the batch has been
+ * executed. A drain with a compare and set or a ZADD, which need their reply, is executed with results.
+ */
+final class PipelineBatch {
+
+    /** The batch. */
+    private final RBatch batch;
+
+    /** Whether the batch skips results. */
+    private final boolean skipResult;
+
+    /** The mutations added to the batch, acknowledged once it has been executed if it skips results. */
+    private final List<BatchMutation> fireAndForgetMutations = new ArrayList<>();
+
+    /** The compare and set with expiry script. */
+    private final CompareAndSetScript compareAndSetScript;
+
+    /**
+     * Instantiates a new pipeline batch.
+     *
+     * @param batch the batch
+     * @param skipResult true if the batch skips results, see {@link #canSkipResult(List)}
+     * @param compareAndSetScript the script compare and set mutations with expiry are executed with
+     */
+    PipelineBatch(RBatch batch, boolean skipResult, CompareAndSetScript compareAndSetScript) {
+        this.batch = batch;
+        this.skipResult = skipResult;
+        this.compareAndSetScript = compareAndSetScript;
+    }
+
+    /**
+     * Checks whether the mutations of a drain can be executed in a batch that skips results.
+     *
+     * @param mutations the mutations of the drain
+     * @return true if none of them needs its reply
+     */
+    static boolean canSkipResult(List<BatchMutation> mutations) {
+        for (BatchMutation mutation : mutations) {
+            if (mutation.needsResult()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the mutation to the batch.
+     *
+     * @param mutation the mutation
+     * @param onFailure the failure handler of the mutation
+     */
+    void add(BatchMutation mutation, BiConsumer<BatchMutation, Throwable> onFailure) {
+        mutation.addTo(batch, compareAndSetScript, onFailure);
+        if (skipResult) {
+            fireAndForgetMutations.add(mutation);
+        }
+    }
+
+    /**
+     * Executes the batch asynchronously.
+     *
+     * @param onComplete called with the responses of the batch, empty if it skips results, or the failure, once
+     *                   the batch has been executed
+     */
+    void execute(BiConsumer<List<?>, Throwable> onComplete) {
+        batch.executeAsync().whenComplete((r, e) -> {
+            if (e == null) {
+                fireAndForgetMutations.forEach(BatchMutation::acknowledge);
+            }
+            onComplete.accept(r == null || r.getResponses() == null ? Collections.emptyList() : r.getResponses(),
+                    unwrap(e));
+        });
+    }
+
+    /**
+     * Unwraps the failure of a dependent stage.
+     *
+     * @param e the failure, may be null
+     * @return the original failure
+     */
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.cache.MutationPriority;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntSupplier;
+
+/**
+ * A lane of the async pipeline of {@link IgniteCacheRedisImpl}.<br>
+ * Mutations of a lane are queued in their own {@link MutationQueue}s, one per shard, and batched and executed
+ * with the batch size, linger time and in-flight batch limit of the lane, so a backfill filling up one lane
+ * does not hold back the mutations of another.
+ */
+final class PipelineLane {
+
+    /** The Constant SHARD_NAME_PREFIX. */
+    private static final String SHARD_NAME_PREFIX = "shard-";
+
+    /** The priority of the lane. */
+    private final MutationPriority priority;
+
+    /** Supplies the batch size of the lane. */
+    private final IntSupplier batchSize;
+
+    /** Maximum time in milliseconds a partially filled batch waits before it is executed, 0 to disable. */
+    private volatile long lingerMs;
+
+    /** Maximum number of batches of the lane executing concurrently, 0 for no limit. */
+    private volatile int maxInFlightBatches;
+
+    /** Permits for batches of the lane executing concurrently, null if unbounded. */
+    private volatile Semaphore inFlightPermits;
+
+    /** The queues of the lane, by shard index. */
+    private volatile MutationQueue[] queues;
+
+    /**
+     * Instantiates a new pipeline lane with a single shard.
+     *
+     * @param priority the priority of the lane
+     * @param batchSize supplies the batch size of the lane
+     */
+    PipelineLane(MutationPriority priority, IntSupplier batchSize) {
+        this.priority = priority;
+        this.batchSize = batchSize;
+        this.queues = new MutationQueue[] { new MutationQueue(queueName(0)) };
+    }
+
+    /**
+     * Sets the linger time of the lane.
+     *
+     * @param lingerMs the linger time in milliseconds, 0 to disable
+     */
+    void setLingerMs(long lingerMs) {
+        this.lingerMs = lingerMs;
+    }
+
+    /**
+     * Sets the in-flight batch limit of the lane.
+     *
+     * @param maxInFlightBatches the max in-flight batches, 0 for no limit
+     */
+    void setMaxInFlightBatches(int maxInFlightBatches) {
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.inFlightPermits = maxInFlightBatches > 0 ? new Semaphore(maxInFlightBatches) : null;
+    }
+
+    /**
+     * Gets the priority.
+     *
+     * @return the priority
+     */
+    MutationPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the batch size of the lane.
+     *
+     * @return the batch size
+     */
+    int batchSize() {
+        return batchSize.getAsInt();
+    }
+
+    /**
+     * Gets the linger time.
+     *
+     * @return the linger time in milliseconds, 0 if disabled
+     */
+    long getLingerMs() {
+        return lingerMs;
+    }
+
+    /**
+     * Gets the queues of the lane.
+     *
+     * @return the queues, by shard index
+     */
+    MutationQueue[] queues() {
+        return queues;
+    }
+
+    /**
+     * Gets the queue of a shard.
+     *
+     * @param shard the shard index
+     * @return the queue, the one of shard 0 if the shard has no queue yet
+     */
+    MutationQueue queue(int shard) {
+        MutationQueue[] shardQueues = queues;
+        // the slot map is published before the queues of new masters, route to shard 0 in between
+        return shard < shardQueues.length ? shardQueues[shard] : shardQueues[0];
+    }
+
+    /**
+     * Adds queues until the lane has one for every shard. Existing queues are kept.
+     *
+     * @param shardCount the number of shards
+     */
+    void ensureShards(int shardCount) {
+        MutationQueue[] shardQueues = queues;
+        if (shardCount <= shardQueues.length) {
+            return;
+        }
+        MutationQueue[] grown = Arrays.copyOf(shardQueues, shardCount);
+        for (int i = shardQueues.length; i < shardCount; i++) {
+            grown[i] = new MutationQueue(queueName(i));
+        }
+        queues = grown;
+    }
+
+    /**
+     * Gets the number of queued mutations across the shards of the lane.
+     *
+     * @return the queued mutations
+     */
+    int queuedMutations() {
+        int queued = 0;
+        for (MutationQueue queue : queues) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Takes an in-flight batch permit of the lane, without blocking.
+     *
+     * @return false if the in-flight batch limit of the lane has been reached
+     */
+    boolean tryAcquireInFlightPermit() {
+        Semaphore permits = inFlightPermits;
+        return permits == null || permits.tryAcquire();
+    }
+
+    /**
+     * Returns an in-flight batch permit of the lane.
+     *
+     * @return true if the lane limits its in-flight batches, so that queues held back may be drained now
+     */
+    boolean releaseInFlightPermit() {
+        Semaphore permits = inFlightPermits;
+        if (permits == null) {
+            return false;
+        }
+        permits.release();
+        return true;
+    }
+
+    /**
+     * Checks whether the in-flight batch limit of the lane has been reached.
+     *
+     * @return true if no further batch of the lane may be executed right now
+     */
+    boolean isSaturated() {
+        Semaphore permits = inFlightPermits;
+        return permits != null && permits.availablePermits() == 0;
+    }
+
+    /**
+     * Gets the in-flight batch limit.
+     *
+     * @return the max in-flight batches, 0 for no limit
+     */
+    int getMaxInFlightBatches() {
+        return maxInFlightBatches;
+    }
+
+    /**
+     * Gets the name of the queue of a shard. Queues of the NORMAL lane are named after their shard only.
+     *
+     * @param shard the shard index
+     * @return the name
+     */
+    private String queueName(int shard) {
+        return priority == MutationPriority.NORMAL ? SHARD_NAME_PREFIX + shard
+                : priority.name().toLowerCase(Locale.ROOT) + "-" + SHARD_NAME_PREFIX + shard;
+    }
+
+    @Override
+    public String toString() {
+        return priority + " lane";
+    }
+}
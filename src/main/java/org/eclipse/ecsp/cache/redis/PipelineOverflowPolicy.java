@@ -0,0 +1,53 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+/**
+ * What async mutations do when the async pipeline already holds redis.pipeline.max.queued.mutations.
+ */
+public enum PipelineOverflowPolicy {
+
+    /** Block the caller until a queued mutation has been drained, or fail once the block timeout elapsed. */
+    BLOCK,
+
+    /** Fail the caller right away with a RedisPipelineOverflowException. */
+    FAIL_FAST,
+
+    /** Fail the oldest queued mutation with a RedisPipelineOverflowException and queue the new one. */
+    DROP_OLDEST
+}
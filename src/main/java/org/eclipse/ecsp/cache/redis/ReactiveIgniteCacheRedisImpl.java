@@ -0,0 +1,524 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.cache.AddScoredEntityRequest;
+import org.eclipse.ecsp.cache.AddScoredStringRequest;
+import org.eclipse.ecsp.cache.DeleteEntryRequest;
+import org.eclipse.ecsp.cache.DeleteMapOfEntitiesRequest;
+import org.eclipse.ecsp.cache.GetEntityRequest;
+import org.eclipse.ecsp.cache.GetMapOfEntitiesRequest;
+import org.eclipse.ecsp.cache.GetScoredEntitiesRequest;
+import org.eclipse.ecsp.cache.GetScoredStringsRequest;
+import org.eclipse.ecsp.cache.GetStringRequest;
+import org.eclipse.ecsp.cache.PutEntityRequest;
+import org.eclipse.ecsp.cache.PutMapOfEntitiesRequest;
+import org.eclipse.ecsp.cache.PutStringRequest;
+import org.eclipse.ecsp.cache.ReactiveIgniteCache;
+import org.eclipse.ecsp.cache.VersionedEntity;
+import org.eclipse.ecsp.entities.IgniteEntity;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.redisson.api.RBucketReactive;
+import org.redisson.api.RScoredSortedSetReactive;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptReactive;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.client.protocol.ScoredEntry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of ReactiveIgniteCache on the reactive client of Redisson.<br>
+ * Keys, validation and decoding of scanned values follow {@link IgniteCacheRedisImpl}, which this view is obtained
+ * from. Bulk reads and writes reuse its slot aware MGET and pipelines.
+ */
+final class ReactiveIgniteCacheRedisImpl implements ReactiveIgniteCache {
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(ReactiveIgniteCacheRedisImpl.class);
+
+    /** The cache this is a view of. */
+    private final IgniteCacheRedisImpl cache;
+
+    /** The reactive redisson client. */
+    private final RedissonReactiveClient redisson;
+
+    /** The scan regex script. */
+    private final RedisScriptRegistry.Script scanRegexScript;
+
+    /**
+     * Instantiates a new reactive ignite cache.
+     *
+     * @param cache the cache this is a view of
+     * @param redisson the reactive redisson client
+     * @param scanRegexScript the scan regex script
+     */
+    ReactiveIgniteCacheRedisImpl(IgniteCacheRedisImpl cache, RedissonReactiveClient redisson,
+            RedisScriptRegistry.Script scanRegexScript) {
+        this.cache = cache;
+        this.redisson = redisson;
+        this.scanRegexScript = scanRegexScript;
+    }
+
+    /**
+     * Retrieves a string value from Redis based on the provided key.
+     *
+     * @param key the key to retrieve the string value
+     * @return the string value associated with the key
+     */
+    @Override
+    public Mono<String> getString(String key) {
+        return Mono.defer(() -> redisson.<String>getBucket(cache.addNamespace(key, true)).get());
+    }
+
+    /**
+     * Retrieves a string value from Redis based on the provided request.
+     *
+     * @param request the request containing the key and namespace information
+     * @return the string value associated with the key
+     */
+    @Override
+    public Mono<String> getString(GetStringRequest request) {
+        return Mono.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            return redisson.<String>getBucket(request.getKey()).get();
+        });
+    }
+
+    /**
+     * Stores a string value in Redis based on the provided request.
+     *
+     * @param request the request containing the key, value, and other parameters
+     * @return completes once the value has been stored
+     */
+    @Override
+    public Mono<Void> putString(PutStringRequest request) {
+        return Mono.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            return written(request.getKey(), put(request.getKey(), redisson.getBucket(request.getKey()),
+                    request.getValue(), request.getExpectedValue(), request.getTtlMs()));
+        });
+    }
+
+    /**
+     * Stores the given string values in Redis, with one pipeline per cluster master.
+     *
+     * @param values the string values by key
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
+     * @return completes once all writes are acknowledged
+     */
+    @Override
+    public Mono<Void> putStrings(Map<String, String> values, long ttlMs) {
+        return Mono.fromCompletionStage(() -> cache.putAllAsync(values, ttlMs));
+    }
+
+    /**
+     * Retrieves the string values associated with the given keys from Redis, with one MGET per slot.
+     *
+     * @param keys the keys to retrieve the string values for
+     * @return the string values by key, keys that do not exist are omitted
+     */
+    @Override
+    public Mono<Map<String, String>> getStrings(Collection<String> keys) {
+        return Mono.fromCompletionStage(() -> cache.getAllAsync(keys))
+                .map(values -> (Map<String, String>) (Map<String, ?>) values);
+    }
+
+    /**
+     * Retrieves an entity from Redis based on the provided request.
+     *
+     * @param <T> the type of the entity
+     * @param request the request containing the key and namespace information
+     * @return the entity associated with the key
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<T> getEntity(GetEntityRequest request) {
+        return Mono.defer(() -> {
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            return redisson.<T>getBucket(request.getKey()).get();
+        });
+    }
+
+    /**
+     * Retrieves an entity from Redis based on the provided key.
+     *
+     * @param <T> the type of the entity
+     * @param key the key to retrieve the entity
+     * @return the entity associated with the key
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<T> getEntity(String key) {
+        return Mono.defer(() -> redisson.<T>getBucket(cache.addNamespace(key, true)).get());
+    }
+
+    /**
+     * Retrieves the entities associated with the given keys from Redis, with one MGET per slot.
+     *
+     * @param <T> the type of the entity
+     * @param keys the keys to retrieve the entities for
+     * @return the entities by key, keys that do not exist are omitted
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<Map<String, T>> getEntities(Collection<String> keys) {
+        return Mono.fromCompletionStage(() -> cache.getAllAsync(keys))
+                .map(values -> (Map<String, T>) (Map<String, ?>) values);
+    }
+
+    /**
+     * Stores an entity in Redis based on the provided request.
+     *
+     * @param <T> the type of the entity
+     * @param request the request containing the key, value, and other parameters
+     * @return completes once the entity has been stored
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<Void> putEntity(PutEntityRequest<T> request) {
+        return Mono.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            return written(request.getKey(), put(request.getKey(), redisson.<T>getBucket(request.getKey()),
+                    request.getValue(), request.getExpectedValue(), request.getTtlMs()));
+        });
+    }
+
+    /**
+     * Stores the given entities in Redis, with one pipeline per cluster master.
+     *
+     * @param <T> the type of the entity
+     * @param entities the entities by key
+     * @param ttlMs the time to live of every entry in milliseconds, -1 for no expiry
+     * @return completes once all writes are acknowledged
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<Void> putEntities(Map<String, T> entities, long ttlMs) {
+        return Mono.fromCompletionStage(() -> cache.putAllAsync(entities, ttlMs));
+    }
+
+    /**
+     * Stores an entity in versioned mode if its current version matches the expected one.
+     *
+     * @param <T> the type of the entity
+     * @param key the key
+     * @param value the entity
+     * @param expectedVersion the expected version, 0 if the key is expected not to exist
+     * @return emits true if the entity has been stored
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<Boolean> putEntityIfVersion(String key, T value, long expectedVersion) {
+        return Mono.defer(() -> {
+            Objects.requireNonNull(key, IgniteCacheRedisImpl.MANDATORY_KEY);
+            Objects.requireNonNull(value, IgniteCacheRedisImpl.MANDATORY_VALUE);
+            return cache.getVersionedEntityScript().put(redisson, cache.addNamespace(key, true), value,
+                    expectedVersion);
+        });
+    }
+
+    /**
+     * Retrieves an entity stored in versioned mode together with its version.
+     *
+     * @param <T> the type of the entity
+     * @param key the key
+     * @return emits the entity and its version, empty if the key does not exist
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<VersionedEntity<T>> getEntityWithVersion(String key) {
+        return Mono.defer(() -> {
+            Objects.requireNonNull(key, IgniteCacheRedisImpl.MANDATORY_KEY);
+            return cache.getVersionedEntityScript().<T>get(redisson, cache.addNamespace(key, true));
+        });
+    }
+
+    /**
+     * Adds a string to a scored sorted set in Redis.
+     *
+     * @param request the request containing the key, value, and score
+     * @return completes once the string has been added
+     */
+    @Override
+    public Mono<Void> addStringToScoredSortedSet(AddScoredStringRequest request) {
+        return Mono.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            return redisson.<String>getScoredSortedSet(request.getKey())
+                    .add(request.getScore(), request.getValue()).then();
+        });
+    }
+
+    /**
+     * Gets the strings from scored sorted set.
+     *
+     * @param request the request
+     * @return the strings from scored sorted set
+     */
+    @Override
+    public Flux<String> getStringsFromScoredSortedSet(GetScoredStringsRequest request) {
+        return Flux.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            return range(redisson.<String>getScoredSortedSet(request.getKey()), request.isReversed(),
+                    request.getStartIndex(), request.getEndIndex());
+        });
+    }
+
+    /**
+     * Adds an entity to a scored sorted set in Redis.
+     *
+     * @param <T> the type of the entity
+     * @param request the request containing the key, value, and score
+     * @return completes once the entity has been added
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<Void> addEntityToScoredSortedSet(AddScoredEntityRequest<T> request) {
+        return Mono.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            return redisson.<T>getScoredSortedSet(request.getKey())
+                    .add(request.getScore(), request.getValue()).then();
+        });
+    }
+
+    /**
+     * Gets the entities from scored sorted set.
+     *
+     * @param <T> the generic type
+     * @param request the request
+     * @return the entities from scored sorted set
+     */
+    @Override
+    public <T extends IgniteEntity> Flux<T> getEntitiesFromScoredSortedSet(GetScoredEntitiesRequest request) {
+        return Flux.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            return range(redisson.<T>getScoredSortedSet(request.getKey()), request.isReversed(),
+                    request.getStartIndex(), request.getEndIndex());
+        });
+    }
+
+    /**
+     * Streams the key value pairs of a regex scan, requesting the next page once the previous one is consumed.
+     *
+     * @param <T> the generic type
+     * @param keyRegex the key regex
+     * @param namespaceEnabled the namespace enabled
+     * @return the key value pairs for regex
+     */
+    @Override
+    public <T extends IgniteEntity> Flux<Map.Entry<String, T>> getKeyValuePairsForRegex(String keyRegex,
+            Optional<Boolean> namespaceEnabled) {
+        return Flux.defer(() -> {
+            String pattern = cache.scanPattern(keyRegex, namespaceEnabled);
+            RScriptReactive script = redisson.getScript(StringCodec.INSTANCE);
+            return scanPage(script, pattern, 0L)
+                    .expand(matches -> {
+                        long cursor = IgniteCacheRedisImpl.scanCursor(matches);
+                        return cursor > 0 ? scanPage(script, pattern, cursor) : Mono.empty();
+                    })
+                    .concatMapIterable(matches -> cache.<T>decodeScanMatches(matches).entrySet());
+        });
+    }
+
+    /**
+     * Deletes the entry associated with the given key from Redis.
+     *
+     * @param key the key of the entry to be deleted
+     * @return completes once the entry has been deleted
+     */
+    @Override
+    public Mono<Void> delete(String key) {
+        return Mono.defer(() -> {
+            String namespacedKey = cache.addNamespace(key, true);
+            return written(namespacedKey, redisson.getBucket(namespacedKey).delete());
+        });
+    }
+
+    /**
+     * Deletes the entry associated with the given key from Redis.
+     *
+     * @param request the delete request containing the key and namespace information
+     * @return completes once the entry has been deleted
+     */
+    @Override
+    public Mono<Void> delete(DeleteEntryRequest request) {
+        return Mono.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            return written(request.getKey(), redisson.getBucket(request.getKey()).delete());
+        });
+    }
+
+    /**
+     * Stores a map of entities in Redis based on the provided request.
+     *
+     * @param <T> the type of the entities
+     * @param request the request containing the key, value, and other parameters
+     * @return completes once the map has been stored
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<Void> putMapOfEntities(PutMapOfEntitiesRequest<T> request) {
+        return Mono.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            LOGGER.debug("Put map {} to Redis for key {}", request.getValue(), request.getKey());
+            return redisson.<String, T>getMap(request.getKey()).putAll(request.getValue());
+        });
+    }
+
+    /**
+     * Retrieves a map of entities from Redis based on the provided request.
+     *
+     * @param <T> the type of the entities
+     * @param request the request containing the key and namespace information
+     * @return the map of entities associated with the key
+     */
+    @Override
+    public <T extends IgniteEntity> Mono<Map<String, T>> getMapOfEntities(GetMapOfEntitiesRequest request) {
+        return Mono.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            Set<String> fields = request.getFields();
+            if (fields != null && !fields.isEmpty()) {
+                LOGGER.debug("Attempting to get key value pairs from Redis for subkeys {} with key {}", fields,
+                        request.getKey());
+                return redisson.<String, T>getMap(request.getKey()).getAll(fields);
+            }
+            LOGGER.debug("Attempting to get all key value pairs from Redis with parent key {}", request.getKey());
+            return redisson.<String, T>getMap(request.getKey()).readAllMap();
+        });
+    }
+
+    /**
+     * Deletes a map of entities from Redis based on the provided request.
+     *
+     * @param request the request containing the key and namespace information
+     * @return completes once the map has been deleted
+     */
+    @Override
+    public Mono<Void> deleteMapOfEntities(DeleteMapOfEntitiesRequest request) {
+        return Mono.defer(() -> {
+            cache.validate(request);
+            request.withKey(cache.addNamespace(request.getKey(), request.getNamespaceEnabled()));
+            Set<String> fields = request.getFields();
+            if (fields != null && !fields.isEmpty()) {
+                LOGGER.debug("Attempting to remove key value pairs from Redis for subkeys {} with key {}", fields,
+                        request.getKey());
+                return redisson.<Object, Object>getMap(request.getKey()).fastRemove(fields.toArray()).then();
+            }
+            LOGGER.debug("Attempting to remove all key value pairs from Redis with parent key {}", request.getKey());
+            return redisson.getMap(request.getKey()).delete().then();
+        });
+    }
+
+    /**
+     * Invalidates the key in the near cache of the cache once the write completed.
+     *
+     * @param key the key with namespace applied
+     * @param write the write
+     * @return completes once the write completed and the key has been invalidated
+     */
+    private Mono<Void> written(String key, Mono<?> write) {
+        return write.then(Mono.fromRunnable(() -> cache.nearCacheWritten(key)));
+    }
+
+    /**
+     * Stores the value in the bucket, with compare and set if an expected value is given. A compare and set with
+     * expiry is executed as a single script.
+     *
+     * @param <V> the value type
+     * @param key the key of the bucket
+     * @param bucket the bucket
+     * @param value the value
+     * @param expectedValue the expected value, null for an unconditional SET
+     * @param ttlMs the ttl ms, -1 for no expiry
+     * @return completes once the value has been stored
+     */
+    private <V> Mono<Void> put(String key, RBucketReactive<V> bucket, V value, V expectedValue, long ttlMs) {
+        if (expectedValue != null && ttlMs != IgniteCacheRedisImpl.MINUS_ONE_LONG) {
+            return cache.getCompareAndSetScript().execute(redisson, key, expectedValue, value, ttlMs).then();
+        }
+        if (expectedValue != null) {
+            return bucket.compareAndSet(expectedValue, value).then();
+        }
+        if (ttlMs == IgniteCacheRedisImpl.MINUS_ONE_LONG) {
+            return bucket.set(value);
+        }
+        return bucket.set(value, ttlMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Streams the values of a range of a scored sorted set.
+     *
+     * @param <V> the value type
+     * @param sset the scored sorted set
+     * @param reversed whether the range is in descending score order
+     * @param startIndex the start index
+     * @param endIndex the end index
+     * @return the values of the range
+     */
+    private static <V> Flux<V> range(RScoredSortedSetReactive<V> sset, boolean reversed, int startIndex,
+            int endIndex) {
+        Mono<Collection<ScoredEntry<V>>> entries = reversed ? sset.entryRangeReversed(startIndex, endIndex)
+                : sset.entryRange(startIndex, endIndex);
+        return entries.flatMapIterable(range -> range).map(ScoredEntry::getValue);
+    }
+
+    /**
+     * Fetches a page of a regex scan.
+     *
+     * @param script the script object
+     * @param pattern the key regex to scan with
+     * @param cursor the cursor of the page
+     * @return the result of the scan script, the cursor followed by key and value pairs
+     */
+    private Mono<List<Object>> scanPage(RScriptReactive script, String pattern, long cursor) {
+        return cache.getScriptRegistry().evalSha(script, scanRegexScript, RScript.Mode.READ_ONLY,
+                RScript.ReturnType.MULTI, Collections.emptyList(), cursor, cache.getScanLimit(), pattern);
+    }
+}
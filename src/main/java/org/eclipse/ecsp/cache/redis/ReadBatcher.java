@@ -0,0 +1,199 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Gathers the keys of concurrent async reads and loads them together, DataLoader style.<br>
+ * The first read of a window schedules its dispatch after the window has elapsed, a window is dispatched right
+ * away once it holds the max number of keys. Reads of a key already pending in the window share its load.
+ */
+final class ReadBatcher {
+
+    /** The Constant DEFAULT_MAX_BATCH_SIZE. */
+    static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+    /** Loads the values of a set of keys, absent keys are missing from the returned map. */
+    private final Function<String[], CompletionStage<Map<String, Object>>> loader;
+
+    /** Guards the window. A j.u.c lock rather than a monitor so contended virtual threads do not pin carriers. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** The pending reads of the current window, by key. */
+    private Map<String, CompletableFuture<Object>> window = new LinkedHashMap<>();
+
+    /** The max number of keys loaded together. */
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+    /** The time in milliseconds reads are gathered for before they are loaded. */
+    private volatile long windowMs;
+
+    /** Dispatches windows once they have elapsed, null to dispatch them only when full or flushed. */
+    private volatile ScheduledExecutorService scheduler;
+
+    /**
+     * Instantiates a new read batcher.
+     *
+     * @param loader loads the values of a set of keys
+     */
+    ReadBatcher(Function<String[], CompletionStage<Map<String, Object>>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Configures the batcher.
+     *
+     * @param maxBatchSize the max number of keys loaded together
+     * @param windowMs the time in milliseconds reads are gathered for
+     * @param scheduler dispatches windows once they have elapsed
+     */
+    void configure(int maxBatchSize, long windowMs, ScheduledExecutorService scheduler) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max read batch size must be positive, got " + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.windowMs = windowMs;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Adds the key to the current window.
+     *
+     * @param key the key
+     * @return future of the value, completed with null if the key does not exist
+     */
+    CompletableFuture<Object> load(String key) {
+        Map<String, CompletableFuture<Object>> full = null;
+        CompletableFuture<Object> future;
+        boolean opened;
+        lock.lock();
+        try {
+            future = window.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            window.put(key, future);
+            opened = window.size() == 1;
+            if (window.size() >= maxBatchSize) {
+                full = window;
+                window = new LinkedHashMap<>();
+            }
+        } finally {
+            lock.unlock();
+        }
+        ScheduledExecutorService windowScheduler = scheduler;
+        if (full != null) {
+            dispatch(full);
+        } else if (opened && windowScheduler != null) {
+            schedule(windowScheduler);
+        }
+        return future;
+    }
+
+    /**
+     * Schedules the dispatch of the current window once it has elapsed. If the scheduler has been shut down, the
+     * reads of the window are failed instead of waiting forever.
+     *
+     * @param windowScheduler the scheduler
+     */
+    private void schedule(ScheduledExecutorService windowScheduler) {
+        try {
+            windowScheduler.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            Map<String, CompletableFuture<Object>> reads;
+            lock.lock();
+            try {
+                reads = window;
+                window = new LinkedHashMap<>();
+            } finally {
+                lock.unlock();
+            }
+            reads.values().forEach(f -> f.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Loads the reads of the current window right away.
+     */
+    void flush() {
+        Map<String, CompletableFuture<Object>> reads;
+        lock.lock();
+        try {
+            if (window.isEmpty()) {
+                return;
+            }
+            reads = window;
+            window = new LinkedHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        dispatch(reads);
+    }
+
+    /**
+     * Loads the keys of the reads and completes their futures.
+     *
+     * @param reads the reads by key
+     */
+    private void dispatch(Map<String, CompletableFuture<Object>> reads) {
+        CompletionStage<Map<String, Object>> values;
+        try {
+            values = loader.apply(reads.keySet().toArray(new String[0]));
+        } catch (RuntimeException e) {
+            reads.values().forEach(f -> f.completeExceptionally(e));
+            return;
+        }
+        values.whenComplete((v, e) -> reads.forEach((key, f) -> {
+            if (e == null) {
+                f.complete(v.get(key));
+            } else {
+                f.completeExceptionally(e);
+            }
+        }));
+    }
+}
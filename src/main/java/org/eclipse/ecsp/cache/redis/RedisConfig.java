@@ -39,6 +39,7 @@ package org.eclipse.ecsp.cache.redis;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.ecsp.cache.exception.JacksonCodecException;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
@@ -59,8 +60,13 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * This class is used to configure the Redisson client.
@@ -193,6 +199,13 @@ public class RedisConfig {
     @Value("${" + RedisProperty.REDIS_EXECUTOR_THREADS + "}")
     private int threads;
     
+    /** Runs the Redisson executor on virtual threads instead of the redis.executor.threads platform threads. */
+    @Value("${" + RedisProperty.REDIS_EXECUTOR_VIRTUAL_THREADS + ":false}")
+    private boolean virtualThreads;
+    
+    /** The virtual thread executors of the clients created so far, as Redisson does not shut down given executors. */
+    private final List<ExecutorService> virtualThreadExecutors = new CopyOnWriteArrayList<>();
+    
     /** The keep alive. */
     @Value("${" + RedisProperty.REDIS_KEEP_ALIVE + "}")
     private boolean keepAlive;
@@ -254,7 +267,48 @@ public class RedisConfig {
      */
     @Bean
     public RedissonClient redissonClient() {
-        return Redisson.create(getConfig());
+        Config config = getConfig();
+        if (virtualThreads) {
+            ExecutorService executor = newVirtualThreadExecutor();
+            if (executor != null) {
+                LOGGER.info("Running the Redisson executor on virtual threads");
+                virtualThreadExecutors.add(executor);
+                config.setExecutor(executor);
+            } else {
+                LOGGER.warn("{} is enabled but virtual threads are not available on Java {}, "
+                        + "falling back to {} executor threads", RedisProperty.REDIS_EXECUTOR_VIRTUAL_THREADS,
+                        Runtime.version().feature(), threads);
+            }
+        }
+        return Redisson.create(config);
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for each task.<br>
+     * Looked up reflectively so the library keeps building for Java 17 while running on virtual threads
+     * on Java 21 and later. Callbacks of Redisson futures then run on virtual threads, and the blocking
+     * waits of the synchronous API park the calling virtual thread instead of pinning its carrier, as
+     * Redisson waits on CompletableFuture and the cache guards its shared state with j.u.c locks rather
+     * than monitors. VirtualThreadBenchmark checks this with JFR pinning events.
+     *
+     * @return the executor, null if the JVM does not support virtual threads
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Shuts down the virtual thread executors once the clients using them have been shut down.
+     */
+    @PreDestroy
+    public void shutdownVirtualThreadExecutors() {
+        virtualThreadExecutors.forEach(ExecutorService::shutdown);
+        virtualThreadExecutors.clear();
     }
 
     /**
@@ -523,6 +577,7 @@ public class RedisConfig {
             nettyThreads = Integer.parseInt(props.get(RedisProperty.REDIS_NETTY_THREADS));
             decodeInExecutor = Boolean.parseBoolean(props.get(RedisProperty.REDIS_DECODE_IN_EXECUTOR));
             threads = Integer.parseInt(props.get(RedisProperty.REDIS_EXECUTOR_THREADS));
+            virtualThreads = Boolean.parseBoolean(props.get(RedisProperty.REDIS_EXECUTOR_VIRTUAL_THREADS));
             keepAlive = Boolean.parseBoolean(props.get(RedisProperty.REDIS_KEEP_ALIVE));
             pingConnectionInterval = Integer.parseInt(props.get(RedisProperty.REDIS_PING_CONNECTION_INTERVAL));
             tcpNoDelay = Boolean.parseBoolean(props.get(RedisProperty.REDIS_TCP_NO_DELAY));
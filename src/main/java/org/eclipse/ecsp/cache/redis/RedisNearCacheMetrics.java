@@ -0,0 +1,145 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics of the near cache of {@link IgniteCacheRedisImpl}.<br>
+ * Values are read on demand, so they can be bound to whichever metrics registry the service uses,
+ * for ex as gauges and counters.
+ */
+public class RedisNearCacheMetrics {
+
+    /** The reads served by the near cache. */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** The reads of keys that do not exist served by the near cache. */
+    private final AtomicLong absentHits = new AtomicLong();
+
+    /** The reads of near cached keys that went to Redis. */
+    private final AtomicLong misses = new AtomicLong();
+
+    /** The invalidated keys. */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /** Supplies the number of entries in the near cache. */
+    private final LongSupplier size;
+
+    /**
+     * Instantiates a new redis near cache metrics.
+     *
+     * @param size supplies the number of entries in the near cache
+     */
+    RedisNearCacheMetrics(LongSupplier size) {
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of reads served by the near cache.
+     *
+     * @return the hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of reads of keys that do not exist served by the near cache, without reaching Redis.
+     *
+     * @return the hits of keys that do not exist
+     */
+    public long getAbsentHits() {
+        return absentHits.get();
+    }
+
+    /**
+     * Gets the number of reads of near cached keys that went to Redis.
+     *
+     * @return the misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of keys invalidated, by writes of this instance or by notifications from Redis.
+     *
+     * @return the invalidations
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * Gets the approximate number of entries in the near cache.
+     *
+     * @return the size
+     */
+    public long getSize() {
+        return size.getAsLong();
+    }
+
+    /**
+     * Records a read served by the near cache.
+     */
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Records a read of a key that does not exist served by the near cache.
+     */
+    void absentHit() {
+        absentHits.incrementAndGet();
+    }
+
+    /**
+     * Records a read of a near cached key that went to Redis.
+     */
+    void miss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Records an invalidated key.
+     */
+    void invalidated() {
+        invalidations.incrementAndGet();
+    }
+}
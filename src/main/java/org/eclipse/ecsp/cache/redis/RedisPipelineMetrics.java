@@ -0,0 +1,326 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Metrics of the async pipeline of {@link IgniteCacheRedisImpl}.<br>
+ * Values are read on demand, so they can be bound to whichever metrics registry the service uses,
+ * for ex as gauges and counters.
+ */
+public class RedisPipelineMetrics {
+
+    /** The current batch size. */
+    private final AtomicInteger batchSize = new AtomicInteger();
+
+    /** The executed batches. */
+    private final AtomicLong executedBatches = new AtomicLong();
+
+    /** The failed batches. */
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    /** The last batch round trip in millis. */
+    private final AtomicLong lastBatchRoundTripMs = new AtomicLong();
+
+    /** The in-flight batches. */
+    private final AtomicInteger inFlightBatches = new AtomicInteger();
+
+    /** The rejected mutations. */
+    private final AtomicLong rejectedMutations = new AtomicLong();
+
+    /** The dropped mutations. */
+    private final AtomicLong droppedMutations = new AtomicLong();
+
+    /** The coalesced mutations. */
+    private final AtomicLong coalescedMutations = new AtomicLong();
+
+    /** The retried mutations. */
+    private final AtomicLong retriedMutations = new AtomicLong();
+
+    /** The failed mutations. */
+    private final AtomicLong failedMutations = new AtomicLong();
+
+    /** The abandoned mutations. */
+    private final AtomicLong abandonedMutations = new AtomicLong();
+
+    /** The spilled mutations. */
+    private final AtomicLong spilledMutations = new AtomicLong();
+
+    /** The replayed mutations. */
+    private final AtomicLong replayedMutations = new AtomicLong();
+
+    /** Supplies the number of queued mutations. */
+    private final IntSupplier queueDepth;
+
+    /**
+     * Instantiates a new redis pipeline metrics.
+     *
+     * @param queueDepth supplies the number of queued mutations
+     */
+    RedisPipelineMetrics(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Gets the batch size async mutations are currently pipelined with.
+     *
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize.get();
+    }
+
+    /**
+     * Gets the number of executed batches.
+     *
+     * @return the executed batches
+     */
+    public long getExecutedBatches() {
+        return executedBatches.get();
+    }
+
+    /**
+     * Gets the number of batches whose execution failed.
+     *
+     * @return the failed batches
+     */
+    public long getFailedBatches() {
+        return failedBatches.get();
+    }
+
+    /**
+     * Gets the executeAsync round trip of the last executed batch.
+     *
+     * @return the round trip in millis
+     */
+    public long getLastBatchRoundTripMs() {
+        return lastBatchRoundTripMs.get();
+    }
+
+    /**
+     * Gets the number of async mutations waiting to be drained into a batch.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    /**
+     * Gets the number of batches currently executing.
+     *
+     * @return the in-flight batches
+     */
+    public int getInFlightBatches() {
+        return inFlightBatches.get();
+    }
+
+    /**
+     * Gets the number of async mutations rejected because the pipeline was full.
+     *
+     * @return the rejected mutations
+     */
+    public long getRejectedMutations() {
+        return rejectedMutations.get();
+    }
+
+    /**
+     * Gets the number of queued async mutations dropped to make room for new ones.
+     *
+     * @return the dropped mutations
+     */
+    public long getDroppedMutations() {
+        return droppedMutations.get();
+    }
+
+    /**
+     * Gets the number of async writes that were superseded by a later write of the same key in their batch.
+     *
+     * @return the coalesced mutations
+     */
+    public long getCoalescedMutations() {
+        return coalescedMutations.get();
+    }
+
+    /**
+     * Gets the number of retries of async mutations that failed in their batch.
+     *
+     * @return the retried mutations
+     */
+    public long getRetriedMutations() {
+        return retriedMutations.get();
+    }
+
+    /**
+     * Gets the number of async mutations whose future failed after they ran out of retries.
+     *
+     * @return the failed mutations
+     */
+    public long getFailedMutations() {
+        return failedMutations.get();
+    }
+
+    /**
+     * Gets the number of queued async mutations that were failed because shutdown did not drain them in time.
+     *
+     * @return the abandoned mutations
+     */
+    public long getAbandonedMutations() {
+        return abandonedMutations.get();
+    }
+
+    /**
+     * Gets the number of async mutations spilled to the journal while Redis was unhealthy or the pipeline saturated.
+     *
+     * @return the spilled mutations
+     */
+    public long getSpilledMutations() {
+        return spilledMutations.get();
+    }
+
+    /**
+     * Gets the number of spilled mutations replayed from the journal into the pipeline.
+     *
+     * @return the replayed mutations
+     */
+    public long getReplayedMutations() {
+        return replayedMutations.get();
+    }
+
+    /**
+     * Records the current batch size.
+     *
+     * @param size the size
+     */
+    void batchSize(int size) {
+        batchSize.set(size);
+    }
+
+    /**
+     * Records an executed batch.
+     *
+     * @param roundTripMs the round trip in millis
+     * @param failed whether the batch failed
+     */
+    void batchExecuted(long roundTripMs, boolean failed) {
+        executedBatches.incrementAndGet();
+        if (failed) {
+            failedBatches.incrementAndGet();
+        }
+        lastBatchRoundTripMs.set(roundTripMs);
+    }
+
+    /**
+     * Records a batch that started executing.
+     */
+    void batchStarted() {
+        inFlightBatches.incrementAndGet();
+    }
+
+    /**
+     * Records a batch that finished executing.
+     */
+    void batchFinished() {
+        inFlightBatches.decrementAndGet();
+    }
+
+    /**
+     * Records a rejected mutation.
+     */
+    void mutationRejected() {
+        rejectedMutations.incrementAndGet();
+    }
+
+    /**
+     * Records a dropped mutation.
+     */
+    void mutationDropped() {
+        droppedMutations.incrementAndGet();
+    }
+
+    /**
+     * Records writes superseded by a later write of the same key.
+     *
+     * @param count the number of superseded writes
+     */
+    void mutationsCoalesced(int count) {
+        coalescedMutations.addAndGet(count);
+    }
+
+    /**
+     * Records a retry of a failed mutation.
+     */
+    void mutationRetried() {
+        retriedMutations.incrementAndGet();
+    }
+
+    /**
+     * Records a mutation that failed for good.
+     */
+    void mutationFailed() {
+        failedMutations.incrementAndGet();
+    }
+
+    /**
+     * Records mutations abandoned at shutdown.
+     *
+     * @param count the number of abandoned mutations
+     */
+    void mutationsAbandoned(int count) {
+        abandonedMutations.addAndGet(count);
+    }
+
+    /**
+     * Records a mutation spilled to the journal.
+     */
+    void mutationSpilled() {
+        spilledMutations.incrementAndGet();
+    }
+
+    /**
+     * Records mutations replayed from the journal.
+     *
+     * @param count the number of replayed mutations
+     */
+    void mutationsReplayed(int count) {
+        replayedMutations.addAndGet(count);
+    }
+}
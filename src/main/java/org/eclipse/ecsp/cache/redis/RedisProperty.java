@@ -158,4 +158,144 @@ public abstract class RedisProperty {
     
     /** The Constant REDIS_CHECK_SLOTS_COVERAGE. */
     public static final String REDIS_CHECK_SLOTS_COVERAGE = "redis.check.slots.coverage";
-}
\ No newline at end of file
+    
+    /** The Constant REDIS_PIPELINE_LINGER_MS. */
+    public static final String REDIS_PIPELINE_LINGER_MS = "redis.pipeline.linger.ms";
+    
+    /** The Constant REDIS_PIPELINE_SHARD_REFRESH_MS. */
+    public static final String REDIS_PIPELINE_SHARD_REFRESH_MS = "redis.pipeline.shard.refresh.ms";
+    
+    /** The Constant REDIS_PIPELINE_ADAPTIVE_ENABLED. */
+    public static final String REDIS_PIPELINE_ADAPTIVE_ENABLED = "redis.pipeline.adaptive.enabled";
+    
+    /** The Constant REDIS_PIPELINE_ADAPTIVE_MIN_SIZE. */
+    public static final String REDIS_PIPELINE_ADAPTIVE_MIN_SIZE = "redis.pipeline.adaptive.min.size";
+    
+    /** The Constant REDIS_PIPELINE_ADAPTIVE_MAX_SIZE. */
+    public static final String REDIS_PIPELINE_ADAPTIVE_MAX_SIZE = "redis.pipeline.adaptive.max.size";
+    
+    /** The Constant REDIS_PIPELINE_ADAPTIVE_INCREMENT. */
+    public static final String REDIS_PIPELINE_ADAPTIVE_INCREMENT = "redis.pipeline.adaptive.increment";
+    
+    /** The Constant REDIS_PIPELINE_ADAPTIVE_TARGET_LATENCY_MS. */
+    public static final String REDIS_PIPELINE_ADAPTIVE_TARGET_LATENCY_MS = "redis.pipeline.adaptive.target.latency.ms";
+    
+    /** The Constant REDIS_PIPELINE_MAX_INFLIGHT_BATCHES. */
+    public static final String REDIS_PIPELINE_MAX_INFLIGHT_BATCHES = "redis.pipeline.max.inflight.batches";
+    
+    /** The Constant REDIS_PIPELINE_MAX_QUEUED_MUTATIONS. */
+    public static final String REDIS_PIPELINE_MAX_QUEUED_MUTATIONS = "redis.pipeline.max.queued.mutations";
+    
+    /** The Constant REDIS_PIPELINE_OVERFLOW_POLICY. */
+    public static final String REDIS_PIPELINE_OVERFLOW_POLICY = "redis.pipeline.overflow.policy";
+    
+    /** The Constant REDIS_PIPELINE_OVERFLOW_BLOCK_TIMEOUT_MS. */
+    public static final String REDIS_PIPELINE_OVERFLOW_BLOCK_TIMEOUT_MS = "redis.pipeline.overflow.block.timeout.ms";
+    
+    /** The Constant REDIS_PIPELINE_COALESCE_WRITES. */
+    public static final String REDIS_PIPELINE_COALESCE_WRITES = "redis.pipeline.coalesce.writes";
+    
+    /** The Constant REDIS_PIPELINE_RETRY_ATTEMPTS. */
+    public static final String REDIS_PIPELINE_RETRY_ATTEMPTS = "redis.pipeline.retry.attempts";
+    
+    /** The Constant REDIS_PIPELINE_RETRY_BACKOFF_MS. */
+    public static final String REDIS_PIPELINE_RETRY_BACKOFF_MS = "redis.pipeline.retry.backoff.ms";
+    
+    /** The Constant REDIS_PIPELINE_RETRY_MAX_BACKOFF_MS. */
+    public static final String REDIS_PIPELINE_RETRY_MAX_BACKOFF_MS = "redis.pipeline.retry.max.backoff.ms";
+    
+    /** The Constant REDIS_PIPELINE_SKIP_RESULT. */
+    public static final String REDIS_PIPELINE_SKIP_RESULT = "redis.pipeline.skip.result";
+    
+    /** The Constant REDIS_PIPELINE_RESPONSE_TIMEOUT_MS. */
+    public static final String REDIS_PIPELINE_RESPONSE_TIMEOUT_MS = "redis.pipeline.response.timeout.ms";
+    
+    /** The Constant REDIS_PIPELINE_BATCH_RETRY_ATTEMPTS. */
+    public static final String REDIS_PIPELINE_BATCH_RETRY_ATTEMPTS = "redis.pipeline.batch.retry.attempts";
+    
+    /** The Constant REDIS_PIPELINE_BATCH_RETRY_INTERVAL_MS. */
+    public static final String REDIS_PIPELINE_BATCH_RETRY_INTERVAL_MS = "redis.pipeline.batch.retry.interval.ms";
+    
+    /** The Constant REDIS_PIPELINE_EXECUTION_MODE. */
+    public static final String REDIS_PIPELINE_EXECUTION_MODE = "redis.pipeline.execution.mode";
+    
+    /** The Constant REDIS_PIPELINE_READ_WINDOW_MS. */
+    public static final String REDIS_PIPELINE_READ_WINDOW_MS = "redis.pipeline.read.window.ms";
+    
+    /** The Constant REDIS_PIPELINE_READ_MAX_BATCH_SIZE. */
+    public static final String REDIS_PIPELINE_READ_MAX_BATCH_SIZE = "redis.pipeline.read.max.batch.size";
+    
+    /** The Constant REDIS_EXECUTOR_VIRTUAL_THREADS. */
+    public static final String REDIS_EXECUTOR_VIRTUAL_THREADS = "redis.executor.virtual-threads";
+    
+    /** The Constant REDIS_PIPELINE_SHUTDOWN_TIMEOUT_MS. */
+    public static final String REDIS_PIPELINE_SHUTDOWN_TIMEOUT_MS = "redis.pipeline.shutdown.timeout.ms";
+    
+    /** The Constant REDIS_PIPELINE_SPILL_PATH. */
+    public static final String REDIS_PIPELINE_SPILL_PATH = "redis.pipeline.spill.path";
+    
+    /** The Constant REDIS_PIPELINE_SPILL_MAX_BYTES. */
+    public static final String REDIS_PIPELINE_SPILL_MAX_BYTES = "redis.pipeline.spill.max.bytes";
+    
+    /** The Constant REDIS_PIPELINE_SPILL_REPLAY_INTERVAL_MS. */
+    public static final String REDIS_PIPELINE_SPILL_REPLAY_INTERVAL_MS = "redis.pipeline.spill.replay.interval.ms";
+    
+    /** The Constant REDIS_PIPELINE_LANE_HIGH_SIZE. */
+    public static final String REDIS_PIPELINE_LANE_HIGH_SIZE = "redis.pipeline.lane.high.size";
+    
+    /** The Constant REDIS_PIPELINE_LANE_HIGH_LINGER_MS. */
+    public static final String REDIS_PIPELINE_LANE_HIGH_LINGER_MS = "redis.pipeline.lane.high.linger.ms";
+    
+    /** The Constant REDIS_PIPELINE_LANE_HIGH_MAX_INFLIGHT_BATCHES. */
+    public static final String REDIS_PIPELINE_LANE_HIGH_MAX_INFLIGHT_BATCHES =
+            "redis.pipeline.lane.high.max.inflight.batches";
+    
+    /** The Constant REDIS_PIPELINE_LANE_LOW_SIZE. */
+    public static final String REDIS_PIPELINE_LANE_LOW_SIZE = "redis.pipeline.lane.low.size";
+    
+    /** The Constant REDIS_PIPELINE_LANE_LOW_LINGER_MS. */
+    public static final String REDIS_PIPELINE_LANE_LOW_LINGER_MS = "redis.pipeline.lane.low.linger.ms";
+    
+    /** The Constant REDIS_PIPELINE_LANE_LOW_MAX_INFLIGHT_BATCHES. */
+    public static final String REDIS_PIPELINE_LANE_LOW_MAX_INFLIGHT_BATCHES =
+            "redis.pipeline.lane.low.max.inflight.batches";
+    
+    /** The Constant REDIS_NEAR_CACHE_ENABLED. */
+    public static final String REDIS_NEAR_CACHE_ENABLED = "redis.near.cache.enabled";
+    
+    /** The Constant REDIS_NEAR_CACHE_MAX_SIZE. */
+    public static final String REDIS_NEAR_CACHE_MAX_SIZE = "redis.near.cache.max.size";
+    
+    /** The Constant REDIS_NEAR_CACHE_TTL_MS. */
+    public static final String REDIS_NEAR_CACHE_TTL_MS = "redis.near.cache.ttl.ms";
+    
+    /** The Constant REDIS_NEAR_CACHE_KEY_PREFIXES. */
+    public static final String REDIS_NEAR_CACHE_KEY_PREFIXES = "redis.near.cache.key.prefixes";
+    
+    /** The Constant REDIS_NEAR_CACHE_INVALIDATION. */
+    public static final String REDIS_NEAR_CACHE_INVALIDATION = "redis.near.cache.invalidation";
+    
+    /** The Constant REDIS_NEAR_CACHE_INVALIDATION_CHANNEL. */
+    public static final String REDIS_NEAR_CACHE_INVALIDATION_CHANNEL = "redis.near.cache.invalidation.channel";
+    
+    /** The Constant REDIS_NEGATIVE_CACHE_ENABLED. */
+    public static final String REDIS_NEGATIVE_CACHE_ENABLED = "redis.negative.cache.enabled";
+    
+    /** The Constant REDIS_NEGATIVE_CACHE_TTL_MS. */
+    public static final String REDIS_NEGATIVE_CACHE_TTL_MS = "redis.negative.cache.ttl.ms";
+    
+    /** The Constant REDIS_NEAR_CACHE_STORAGE. */
+    public static final String REDIS_NEAR_CACHE_STORAGE = "redis.near.cache.storage";
+    
+    /** The Constant REDIS_NEAR_CACHE_OFF_HEAP_BYTES. */
+    public static final String REDIS_NEAR_CACHE_OFF_HEAP_BYTES = "redis.near.cache.off.heap.bytes";
+    
+    /** The Constant REDIS_REFRESH_AHEAD_FRACTION. */
+    public static final String REDIS_REFRESH_AHEAD_FRACTION = "redis.refresh.ahead.fraction";
+    
+    /** The Constant REDIS_REFRESH_AHEAD_THREADS. */
+    public static final String REDIS_REFRESH_AHEAD_THREADS = "redis.refresh.ahead.threads";
+    
+    /** The Constant REDIS_REFRESH_AHEAD_QUEUE_CAPACITY. */
+    public static final String REDIS_REFRESH_AHEAD_QUEUE_CAPACITY = "redis.refresh.ahead.queue.capacity";
+}
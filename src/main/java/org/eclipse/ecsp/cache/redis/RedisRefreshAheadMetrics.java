@@ -0,0 +1,145 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics of the refresh-ahead of {@link IgniteCacheRedisImpl}.<br>
+ * Values are read on demand, so they can be bound to whichever metrics registry the service uses,
+ * for ex as gauges and counters.
+ */
+public class RedisRefreshAheadMetrics {
+
+    /** The refreshes submitted to the executor. */
+    private final AtomicLong scheduled = new AtomicLong();
+
+    /** The refreshes that stored a loaded value. */
+    private final AtomicLong refreshed = new AtomicLong();
+
+    /** The refreshes that failed. */
+    private final AtomicLong failures = new AtomicLong();
+
+    /** The refreshes rejected because the queue of the executor was full. */
+    private final AtomicLong rejected = new AtomicLong();
+
+    /** Supplies the number of keys being refreshed. */
+    private final LongSupplier pending;
+
+    /**
+     * Instantiates a new redis refresh ahead metrics.
+     *
+     * @param pending supplies the number of keys being refreshed
+     */
+    RedisRefreshAheadMetrics(LongSupplier pending) {
+        this.pending = pending;
+    }
+
+    /**
+     * Gets the number of refreshes submitted to the executor.
+     *
+     * @return the scheduled refreshes
+     */
+    public long getScheduled() {
+        return scheduled.get();
+    }
+
+    /**
+     * Gets the number of refreshes that stored a loaded value.
+     *
+     * @return the refreshed keys
+     */
+    public long getRefreshed() {
+        return refreshed.get();
+    }
+
+    /**
+     * Gets the number of refreshes whose loader or write failed.
+     *
+     * @return the failures
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Gets the number of refreshes rejected because the queue of the executor was full.
+     *
+     * @return the rejected refreshes
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Gets the number of keys queued or being refreshed.
+     *
+     * @return the pending refreshes
+     */
+    public long getPending() {
+        return pending.getAsLong();
+    }
+
+    /**
+     * Records a refresh submitted to the executor.
+     */
+    void scheduled() {
+        scheduled.incrementAndGet();
+    }
+
+    /**
+     * Records a refresh that stored a loaded value.
+     */
+    void refreshed() {
+        refreshed.incrementAndGet();
+    }
+
+    /**
+     * Records a failed refresh.
+     */
+    void failed() {
+        failures.incrementAndGet();
+    }
+
+    /**
+     * Records a refresh rejected by the executor.
+     */
+    void rejected() {
+        rejected.incrementAndGet();
+    }
+}
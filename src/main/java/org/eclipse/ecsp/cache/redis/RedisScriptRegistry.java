@@ -0,0 +1,266 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptReactive;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the Lua scripts of the cache, invoked with EVALSHA so that only the SHA1 digest of a script is sent
+ * and Redis does not hash the script body on every call.<br>
+ * Scripts are loaded with SCRIPT LOAD into the script cache of every master once the cache is initialized. A
+ * script cache flushed on the server, for ex by a restart or failover, surfaces as NOSCRIPT: the script did not
+ * run, so it is loaded again and the command retried.
+ */
+final class RedisScriptRegistry {
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(RedisScriptRegistry.class);
+
+    /** The error prefix of Redis when the script cache does not hold the script. */
+    private static final String NO_SCRIPT = "NOSCRIPT";
+
+    /** The registered scripts by name. */
+    private final Map<String, Script> scripts = new ConcurrentHashMap<>();
+
+    /**
+     * A registered script.
+     *
+     * @param name the name of the script
+     * @param source the body of the script
+     * @param sha the SHA1 digest of the script, which is what EVALSHA refers to it by
+     */
+    record Script(String name, String source, String sha) {
+    }
+
+    /**
+     * Registers a script, replacing a script previously registered with the same name.
+     *
+     * @param name the name of the script
+     * @param source the body of the script
+     * @return the registered script
+     */
+    Script register(String name, String source) {
+        Script script = new Script(name, source, sha1(source));
+        scripts.put(name, script);
+        return script;
+    }
+
+    /**
+     * Gets the registered scripts.
+     *
+     * @return the scripts
+     */
+    Collection<Script> getScripts() {
+        return Collections.unmodifiableCollection(scripts.values());
+    }
+
+    /**
+     * Loads all registered scripts into the script cache of every master. A failure is only logged, as scripts
+     * missing on the server are loaded again on NOSCRIPT.
+     *
+     * @param client the Redisson client
+     */
+    void loadAll(RedissonClient client) {
+        RScript script = client.getScript(StringCodec.INSTANCE);
+        for (Script registered : scripts.values()) {
+            try {
+                script.scriptLoad(registered.source());
+                LOGGER.info("Loaded script {} with sha {}", registered.name(), registered.sha());
+            } catch (RedisException e) {
+                LOGGER.warn("Unable to load script {}, it is loaded on first use: {}", registered.name(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Loads all registered scripts asynchronously into the script cache of every master.
+     *
+     * @param client the Redisson client
+     * @return the future completed once all scripts have been loaded
+     */
+    CompletableFuture<Void> loadAllAsync(RedissonClient client) {
+        RScript script = client.getScript(StringCodec.INSTANCE);
+        return CompletableFuture.allOf(scripts.values().stream()
+                .map(registered -> script.scriptLoadAsync(registered.source()).toCompletableFuture())
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Executes a script with EVALSHA, loading it on NOSCRIPT.
+     *
+     * @param <R> the reply type
+     * @param client the script object of the codec of the arguments and replies
+     * @param script the registered script
+     * @param mode the mode
+     * @param returnType the return type
+     * @param keys the keys
+     * @param values the arguments
+     * @return the reply
+     */
+    <R> R evalSha(RScript client, Script script, RScript.Mode mode, RScript.ReturnType returnType, List<Object> keys,
+            Object... values) {
+        try {
+            return client.evalSha(mode, script.sha(), returnType, keys, values);
+        } catch (RedisException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            LOGGER.info("Script {} is not in the script cache of the server, loading it again", script.name());
+            client.scriptLoad(script.source());
+            return client.evalSha(mode, script.sha(), returnType, keys, values);
+        }
+    }
+
+    /**
+     * Executes a script with EVALSHA asynchronously, loading it on NOSCRIPT.
+     *
+     * @param <R> the reply type
+     * @param client the script object of the codec of the arguments and replies
+     * @param script the registered script
+     * @param mode the mode
+     * @param returnType the return type
+     * @param keys the keys
+     * @param values the arguments
+     * @return the future of the reply
+     */
+    <R> CompletionStage<R> evalShaAsync(RScript client, Script script, RScript.Mode mode,
+            RScript.ReturnType returnType, List<Object> keys, Object... values) {
+        RFuture<R> reply = client.evalShaAsync(mode, script.sha(), returnType, keys, values);
+        return reply.exceptionallyCompose(e -> {
+            if (!isNoScript(e)) {
+                return CompletableFuture.failedFuture(e);
+            }
+            LOGGER.info("Script {} is not in the script cache of the server, loading it again", script.name());
+            return client.scriptLoadAsync(script.source())
+                    .thenCompose(sha -> client.<R>evalShaAsync(mode, script.sha(), returnType, keys, values));
+        });
+    }
+
+    /**
+     * Executes a script with EVALSHA through the reactive client, loading it on NOSCRIPT.
+     *
+     * @param <R> the reply type
+     * @param client the reactive script object of the codec of the arguments and replies
+     * @param script the registered script
+     * @param mode the mode
+     * @param returnType the return type
+     * @param keys the keys
+     * @param values the arguments
+     * @return emits the reply
+     */
+    <R> Mono<R> evalSha(RScriptReactive client, Script script, RScript.Mode mode, RScript.ReturnType returnType,
+            List<Object> keys, Object... values) {
+        Mono<R> reply = client.evalSha(mode, script.sha(), returnType, keys, values);
+        return reply.onErrorResume(RedisScriptRegistry::isNoScript, e -> {
+            LOGGER.info("Script {} is not in the script cache of the server, loading it again", script.name());
+            return client.scriptLoad(script.source()).then(client.<R>evalSha(mode, script.sha(), returnType, keys,
+                    values));
+        });
+    }
+
+    /**
+     * Adds a script executed with EVALSHA to the batch. A NOSCRIPT failure fails the batch command and is left to
+     * the caller, see {@link #isNoScript(Throwable)} and {@link #loadAllAsync(RedissonClient)}.
+     *
+     * @param <R> the reply type
+     * @param batch the batch
+     * @param codec the codec of the arguments and replies
+     * @param script the registered script
+     * @param mode the mode
+     * @param returnType the return type
+     * @param keys the keys
+     * @param values the arguments
+     * @return the future of the reply
+     */
+    <R> RFuture<R> evalShaAsync(RBatch batch, Codec codec, Script script, RScript.Mode mode,
+            RScript.ReturnType returnType, List<Object> keys, Object... values) {
+        return batch.getScript(codec).evalShaAsync(mode, script.sha(), returnType, keys, values);
+    }
+
+    /**
+     * Checks whether the failure, or one of its causes, is a NOSCRIPT error, i.e. the script did not run.
+     *
+     * @param failure the failure
+     * @return true if the script cache of the server did not hold the script
+     */
+    static boolean isNoScript(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains(NO_SCRIPT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the SHA1 digest of the script as lower case hex, as computed by SCRIPT LOAD.
+     *
+     * @param script the script
+     * @return the digest
+     */
+    static String sha1(String script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1")
+                    .digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Refresh-ahead of keys written with a ttl, so that the read after their expiry does not pay for the reload.<br>
+ * Loaders are registered by key prefix with the ttl their values are written with. Reads of a registered key fetch
+ * its remaining ttl along with the value, and once the key is past the configured fraction of its ttl, a refresh
+ * through the loader is submitted to a bounded executor, at most one per key at a time. The current value is served
+ * until the refresh has written the new one.
+ */
+final class RefreshAhead {
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(RefreshAhead.class);
+
+    /** The script registry. */
+    private final RedisScriptRegistry registry;
+
+    /** The registered read with ttl script. */
+    private final RedisScriptRegistry.Script readWithTtl;
+
+    /** Supplies the Redisson client. */
+    private final Supplier<RedissonClient> client;
+
+    /** Supplies the codec of the Redisson client. */
+    private final Supplier<Codec> codecSupplier;
+
+    /** Invalidates a written key in the near cache. */
+    private final Consumer<String> written;
+
+    /** The registered loaders. */
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    /** The keys queued or being refreshed. */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /** The metrics. */
+    private final RedisRefreshAheadMetrics metrics = new RedisRefreshAheadMetrics(() -> refreshing.size());
+
+    /** The fraction of the ttl after which a read refreshes the key. */
+    private volatile double fraction;
+
+    /** The executor of the refreshes, null until configured. */
+    private volatile ThreadPoolExecutor executor;
+
+    /** The codec of the script replies, resolved on first use. */
+    private volatile Codec codec;
+
+    /**
+     * Instantiates a new refresh ahead and registers its script.
+     *
+     * @param registry the script registry
+     * @param client supplies the Redisson client
+     * @param codecSupplier supplies the codec of the Redisson client, only called on first use
+     * @param written invalidates a written key in the near cache
+     */
+    RefreshAhead(RedisScriptRegistry registry, Supplier<RedissonClient> client, Supplier<Codec> codecSupplier,
+            Consumer<String> written) {
+        this.registry = registry;
+        this.readWithTtl = registry.register(SingleFlightLoader.READ_WITH_TTL_SCRIPT_NAME,
+                SingleFlightLoader.READ_WITH_TTL_SCRIPT);
+        this.client = client;
+        this.codecSupplier = codecSupplier;
+        this.written = written;
+    }
+
+    /**
+     * Starts the executor of the refreshes.
+     *
+     * @param fraction the fraction of the ttl after which a read refreshes the key, between 0 and 1 exclusive
+     * @param threads the number of threads refreshing keys
+     * @param queueCapacity the maximum number of refreshes waiting for a thread, further ones are rejected
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    void configure(double fraction, int threads, int queueCapacity) {
+        if (fraction <= 0 || fraction >= 1 || threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException(String.format("Refresh ahead fraction must be between 0 and 1, "
+                    + "threads and queue capacity greater than 0, got %s, %d and %d", fraction, threads,
+                    queueCapacity));
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "redis-refresh-ahead-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.fraction = fraction;
+        ThreadPoolExecutor previous = executor;
+        executor = pool;
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * Registers the loader of the keys starting with a prefix.
+     *
+     * @param keyPrefix the key prefix with namespace applied
+     * @param namespaceLength the length of the namespace of the prefix, removed from the keys given to the loader
+     * @param ttlMs the ttl in ms of the keys, which the refreshed values are written with
+     * @param loader loads the value of a key without namespace, null if it does not exist anymore
+     */
+    void register(String keyPrefix, int namespaceLength, long ttlMs, Function<String, ?> loader) {
+        registrations.add(new Registration(keyPrefix, namespaceLength, ttlMs, loader));
+        LOGGER.info("Registered refresh ahead loader of keys {}* with ttl {} ms", keyPrefix, ttlMs);
+    }
+
+    /**
+     * Checks whether a loader is registered for the key.
+     *
+     * @param key the key with namespace applied
+     * @return true if reads of the key go through {@link #read(String)}
+     */
+    boolean isRegistered(String key) {
+        return registration(key) != null;
+    }
+
+    /**
+     * Reads the value of a registered key with its remaining ttl, and submits a refresh if it is near expiry.
+     *
+     * @param key the key with namespace applied
+     * @return the value, null if the key does not exist
+     */
+    Object read(String key) {
+        return registration(key) == null ? client.get().getBucket(key).get() : readWithTtl(key).value();
+    }
+
+    /**
+     * Reads the value of a key with its remaining ttl in one round trip, and submits a refresh if the key is
+     * registered and near expiry. The ttl returned for a registered key far from expiry is the time until it
+     * becomes near expiry, so that a near cache serves it no longer and the next read submits the refresh.
+     *
+     * @param key the key with namespace applied
+     * @return the value, null if the key does not exist, with the time it may be near cached for
+     */
+    NearCache.Loaded readWithTtl(String key) {
+        return loaded(key, registry.evalSha(client.get().getScript(codec()), readWithTtl, RScript.Mode.READ_ONLY,
+                RScript.ReturnType.MULTI, Collections.singletonList(key)));
+    }
+
+    /**
+     * Reads the value of a key with its remaining ttl asynchronously, see {@link #readWithTtl(String)}.
+     *
+     * @param key the key with namespace applied
+     * @return future of the value, null if the key does not exist, with the time it may be near cached for
+     */
+    CompletionStage<NearCache.Loaded> readWithTtlAsync(String key) {
+        CompletionStage<List<Object>> entry = registry.evalShaAsync(client.get().getScript(codec()), readWithTtl,
+                RScript.Mode.READ_ONLY, RScript.ReturnType.MULTI, Collections.singletonList(key));
+        return entry.thenApply(reply -> loaded(key, reply));
+    }
+
+    /**
+     * Submits a refresh of a key read with its remaining ttl if it is registered and near expiry.
+     *
+     * @param key the key with namespace applied
+     * @param entry the value and remaining ttl in ms of the key
+     * @return the value, null if the key does not exist, with the time it may be near cached for
+     */
+    private NearCache.Loaded loaded(String key, List<Object> entry) {
+        Object value = entry.isEmpty() ? null : entry.get(0);
+        long remainingMs = entry.size() > 1 ? ((Number) entry.get(1)).longValue() : NearCache.NO_EXPIRY;
+        Registration registration = value == null ? null : registration(key);
+        if (registration == null || remainingMs <= 0) {
+            return new NearCache.Loaded(value, remainingMs);
+        }
+        if (isNearExpiry(remainingMs, registration.ttlMs())) {
+            schedule(key, registration);
+            return new NearCache.Loaded(value, remainingMs);
+        }
+        return new NearCache.Loaded(value, remainingMs - (long) (registration.ttlMs() * (1 - fraction)));
+    }
+
+    /**
+     * Checks whether a key is past the fraction of its ttl.
+     *
+     * @param remainingMs the remaining ttl in ms, negative if the key does not expire
+     * @param ttlMs the ttl of the key
+     * @return true to refresh the key
+     */
+    boolean isNearExpiry(long remainingMs, long ttlMs) {
+        return remainingMs > 0 && remainingMs <= ttlMs * (1 - fraction);
+    }
+
+    /**
+     * Gets the metrics.
+     *
+     * @return the metrics
+     */
+    RedisRefreshAheadMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops the executor, abandoning the queued refreshes.
+     */
+    void close() {
+        ThreadPoolExecutor pool = executor;
+        executor = null;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        refreshing.clear();
+    }
+
+    /**
+     * Submits the refresh of a key, unless it is already being refreshed or the executor is not started.
+     *
+     * @param key the key with namespace applied
+     * @param registration the registration of the key
+     */
+    private void schedule(String key, Registration registration) {
+        ThreadPoolExecutor pool = executor;
+        if (pool == null || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            pool.execute(() -> refresh(key, registration));
+            metrics.scheduled();
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            metrics.rejected();
+            LOGGER.debug("Refresh ahead of key {} rejected, {} refreshes are pending", key, refreshing.size());
+        }
+    }
+
+    /**
+     * Loads the value of a key and writes it with the ttl of its registration. A null value is not written, so
+     * that the key expires.
+     *
+     * @param key the key with namespace applied
+     * @param registration the registration of the key
+     */
+    private void refresh(String key, Registration registration) {
+        try {
+            Object value = registration.loader().apply(key.substring(registration.namespaceLength()));
+            if (value != null) {
+                client.get().getBucket(key).set(value, registration.ttlMs(), TimeUnit.MILLISECONDS);
+                written.accept(key);
+                metrics.refreshed();
+            }
+        } catch (RuntimeException e) {
+            metrics.failed();
+            LOGGER.warn("Refresh ahead of key {} failed: {}", key, e.getMessage());
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Gets the registration of the key.
+     *
+     * @param key the key with namespace applied
+     * @return the registration of the first matching prefix, null if none
+     */
+    private Registration registration(String key) {
+        for (Registration registration : registrations) {
+            if (key.startsWith(registration.keyPrefix())) {
+                return registration;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the codec of the script replies.
+     *
+     * @return the codec
+     */
+    private Codec codec() {
+        Codec scriptCodec = codec;
+        if (scriptCodec == null) {
+            scriptCodec = new ScriptArgumentCodec(codecSupplier.get());
+            codec = scriptCodec;
+        }
+        return scriptCodec;
+    }
+
+    /**
+     * The loader of the keys starting with a prefix.
+     *
+     * @param keyPrefix the key prefix with namespace applied
+     * @param namespaceLength the length of the namespace of the prefix
+     * @param ttlMs the ttl in ms the values are written with
+     * @param loader loads the value of a key without namespace
+     */
+    private record Registration(String keyPrefix, int namespaceLength, long ttlMs, Function<String, ?> loader) {
+    }
+}
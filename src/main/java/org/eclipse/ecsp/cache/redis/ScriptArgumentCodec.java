@@ -0,0 +1,116 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The codec of Lua script arguments and replies.<br>
+ * Values are encoded and decoded with the codec of the Redisson client, the same way buckets encode them, so a
+ * script compares and stores them exactly like a bucket would. Numbers wrapped with {@link #digits(long)} are
+ * encoded as their decimal digits whatever the codec of the client, so that commands such as PX accept them.
+ */
+final class ScriptArgumentCodec extends BaseCodec {
+
+    /** The codec of the Redisson client. */
+    private final Codec delegate;
+
+    /** The value encoder. */
+    private final Encoder encoder;
+
+    /**
+     * Instantiates a new script argument codec.
+     *
+     * @param delegate the codec of the Redisson client
+     */
+    ScriptArgumentCodec(Codec delegate) {
+        this.delegate = delegate;
+        this.encoder = in -> in instanceof Digits digits ? encodeDigits(digits)
+                : delegate.getValueEncoder().encode(in);
+    }
+
+    /**
+     * Wraps a number so that it is encoded as its decimal digits.
+     *
+     * @param value the number
+     * @return the script argument
+     */
+    static Object digits(long value) {
+        return new Digits(value);
+    }
+
+    /**
+     * Encodes the number as its decimal digits.
+     *
+     * @param digits the number
+     * @return the encoded number
+     */
+    private static ByteBuf encodeDigits(Digits digits) {
+        return Unpooled.wrappedBuffer(Long.toString(digits.value()).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return delegate.getValueDecoder();
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return delegate.getClassLoader();
+    }
+
+    /**
+     * A number encoded as its decimal digits.
+     *
+     * @param value the number
+     */
+    private record Digits(long value) {
+    }
+}
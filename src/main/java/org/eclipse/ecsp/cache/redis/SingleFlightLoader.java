@@ -0,0 +1,486 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.cache.exception.IgniteCacheException;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through loading of entities that protects the system of record from cache stampedes.<br>
+ * Concurrent misses of a key within the process share one call of the loader. With a lease, only the node that
+ * took the lease key in Redis with SET NX PX calls the loader, the others poll the key until the lease expires, or
+ * until the holder marks the lease as absent because the loader returned null.
+ * With early refresh, a read loads the entity again before it expires with a probability that grows as the expiry
+ * approaches, and with the time the last load took (XFetch), so that expiries of popular keys do not cause a miss.
+ * The duration of the last load is kept in Redis next to the key, so that every node refreshes early.
+ */
+final class SingleFlightLoader {
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(SingleFlightLoader.class);
+
+    /** The name the read with ttl script is registered with. */
+    static final String READ_WITH_TTL_SCRIPT_NAME = "readWithTtl";
+
+    /** Reads a value with its remaining ttl in ms, KEYS[1] the key. */
+    static final String READ_WITH_TTL_SCRIPT = "return {redis.call('get', KEYS[1]), redis.call('pttl', KEYS[1])}";
+
+    /** The name the read with load duration script is registered with. */
+    static final String READ_WITH_LOAD_DURATION_SCRIPT_NAME = "readWithLoadDuration";
+
+    /**
+     * Reads a value with its remaining ttl in ms and the duration in ms of its last load, KEYS[1] the key, KEYS[2]
+     * the load duration key.
+     */
+    static final String READ_WITH_LOAD_DURATION_SCRIPT = "return {redis.call('get', KEYS[1]), "
+            + "redis.call('pttl', KEYS[1]), tonumber(redis.call('get', KEYS[2]))}";
+
+    /** Releases a lease if it is still held by the token, KEYS[1] the lease key, ARGV[1] the token. */
+    static final String RELEASE_LEASE_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('del', KEYS[1]) "
+            + "end "
+            + "return 0";
+
+    /**
+     * Marks a lease as absent if it is still held by the token, for the waiters to stop polling, KEYS[1] the lease
+     * key, ARGV[1] the token, ARGV[2] the marker, ARGV[3] the lease in ms.
+     */
+    static final String MARK_LEASE_ABSENT_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) "
+            + "return 1 "
+            + "end "
+            + "return 0";
+
+    /** The suffix of the lease key of a key. */
+    static final String LEASE_SUFFIX = ":lease";
+
+    /** The suffix of the key holding the duration in ms of the last load of a key. */
+    static final String LOAD_DURATION_SUFFIX = ":load.ms";
+
+    /** The value of a lease whose holder found the key absent. */
+    static final String ABSENT_LEASE = "absent";
+
+    /** Returned by a waiter of the lease holder when the holder found the key absent. */
+    private static final Object ABSENT = new Object();
+
+    /** The number of times a node waiting for the lease holder polls the key during the lease. */
+    private static final long LEASE_POLLS = 20;
+
+    /** The minimum interval in ms between polls of a node waiting for the lease holder. */
+    private static final long MIN_LEASE_POLL_INTERVAL_MS = 5;
+
+    /** The script registry. */
+    private final RedisScriptRegistry registry;
+
+    /** The registered read with ttl script. */
+    private final RedisScriptRegistry.Script readWithTtl;
+
+    /** The registered read with load duration script. */
+    private final RedisScriptRegistry.Script readWithLoadDuration;
+
+    /** The registered release lease script. */
+    private final RedisScriptRegistry.Script releaseLease;
+
+    /** The registered mark lease absent script. */
+    private final RedisScriptRegistry.Script markLeaseAbsent;
+
+    /** Supplies the Redisson client. */
+    private final Supplier<RedissonClient> client;
+
+    /** Supplies the codec of the Redisson client. */
+    private final Supplier<Codec> codecSupplier;
+
+    /** Reads the value of a key, through the near cache if enabled. */
+    private final Function<String, Object> reader;
+
+    /** Invalidates a written key in the near cache. */
+    private final Consumer<String> written;
+
+    /** The loads in flight by key. */
+    private final ConcurrentMap<String, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+    /** The codec of the script replies, resolved on first use. */
+    private volatile Codec codec;
+
+    /**
+     * Instantiates a new single flight loader and registers its scripts.
+     *
+     * @param registry the script registry
+     * @param client supplies the Redisson client
+     * @param codecSupplier supplies the codec of the Redisson client, only called on first use
+     * @param reader reads the value of a key, through the near cache if enabled
+     * @param written invalidates a written key in the near cache
+     */
+    SingleFlightLoader(RedisScriptRegistry registry, Supplier<RedissonClient> client, Supplier<Codec> codecSupplier,
+            Function<String, Object> reader, Consumer<String> written) {
+        this.registry = registry;
+        this.readWithTtl = registry.register(READ_WITH_TTL_SCRIPT_NAME, READ_WITH_TTL_SCRIPT);
+        this.readWithLoadDuration = registry.register(READ_WITH_LOAD_DURATION_SCRIPT_NAME,
+                READ_WITH_LOAD_DURATION_SCRIPT);
+        this.releaseLease = registry.register("releaseLease", RELEASE_LEASE_SCRIPT);
+        this.markLeaseAbsent = registry.register("markLeaseAbsent", MARK_LEASE_ABSENT_SCRIPT);
+        this.client = client;
+        this.codecSupplier = codecSupplier;
+        this.reader = reader;
+        this.written = written;
+    }
+
+    /**
+     * Gets the value of the key, or loads and stores it on a miss.
+     *
+     * @param key the key with namespace applied
+     * @param loader loads the value, null if it does not exist
+     * @param ttlMs the ttl of the stored value in ms, -1 for no expiry
+     * @param leaseMs the lease in ms taken before loading, 0 for no lease
+     * @param earlyRefreshBeta the beta of early refresh, 0 to disable it
+     * @return the value, null if the loader returned null
+     */
+    Object getOrLoad(String key, Supplier<?> loader, long ttlMs, long leaseMs, double earlyRefreshBeta) {
+        if (earlyRefreshBeta > 0 && ttlMs > 0) {
+            List<Object> entry = readWithLoadDuration(key);
+            Object value = entry.isEmpty() ? null : entry.get(0);
+            if (value != null) {
+                long remainingMs = ((Number) entry.get(1)).longValue();
+                long loadMs = entry.size() > 2 ? ((Number) entry.get(2)).longValue() : 0;
+                return refreshEarly(loadMs, remainingMs, earlyRefreshBeta)
+                        ? refresh(key, loader, ttlMs, leaseMs, value) : value;
+            }
+        } else {
+            Object value = reader.apply(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return load(key, loader, ttlMs, leaseMs);
+    }
+
+    /**
+     * Reads the value of a key with its remaining ttl and the duration of its last load, in one script call. The
+     * duration is not read for keys whose load duration key cannot share their cluster slot.
+     *
+     * @param key the key
+     * @return the value, the remaining ttl in ms and the load duration in ms if known
+     */
+    private List<Object> readWithLoadDuration(String key) {
+        RScript script = client.get().getScript(codec());
+        String durationKey = loadDurationKey(key);
+        if (durationKey == null) {
+            return registry.evalSha(script, readWithTtl, RScript.Mode.READ_ONLY, RScript.ReturnType.MULTI,
+                    Collections.singletonList(key));
+        }
+        return registry.evalSha(script, readWithLoadDuration, RScript.Mode.READ_ONLY, RScript.ReturnType.MULTI,
+                Arrays.asList(key, durationKey));
+    }
+
+    /**
+     * Gets the key holding the duration of the last load of a key, in the same cluster slot as the key so that both
+     * are read by one script. Keys with a hash tag keep it, other keys become the hash tag.
+     *
+     * @param key the key
+     * @return the load duration key, null if the key has a closing brace but no hash tag, as it cannot be wrapped
+     */
+    static String loadDurationKey(String key) {
+        int open = key.indexOf('{');
+        int close = open < 0 ? -1 : key.indexOf('}', open + 1);
+        if (close > open + 1) {
+            return key + LOAD_DURATION_SUFFIX;
+        }
+        return key.indexOf('}') < 0 ? "{" + key + "}" + LOAD_DURATION_SUFFIX : null;
+    }
+
+    /**
+     * Loads the value of a missed key, sharing the load with concurrent misses of the key.
+     *
+     * @param key the key
+     * @param loader the loader
+     * @param ttlMs the ttl in ms
+     * @param leaseMs the lease in ms
+     * @return the value
+     */
+    private Object load(String key, Supplier<?> loader, long ttlMs, long leaseMs) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+        try {
+            Object value = loadOnce(key, loader, ttlMs, leaseMs, null);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Loads the value of a key again before it expires, unless it is already being loaded, in which case the
+     * current value is returned.
+     *
+     * @param key the key
+     * @param loader the loader
+     * @param ttlMs the ttl in ms
+     * @param leaseMs the lease in ms
+     * @param current the current value
+     * @return the loaded value, or the current one
+     */
+    private Object refresh(String key, Supplier<?> loader, long ttlMs, long leaseMs, Object current) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (flights.putIfAbsent(key, flight) != null) {
+            return current;
+        }
+        LOGGER.debug("Refreshing key {} before it expires", key);
+        try {
+            Object value = loadOnce(key, loader, ttlMs, leaseMs, current);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Loads the value, holding the lease of the key if a lease is requested.
+     *
+     * @param key the key
+     * @param loader the loader
+     * @param ttlMs the ttl in ms
+     * @param leaseMs the lease in ms
+     * @param current the current value of an early refresh, null for a miss
+     * @return the value
+     */
+    private Object loadOnce(String key, Supplier<?> loader, long ttlMs, long leaseMs, Object current) {
+        if (leaseMs <= 0) {
+            return loadAndStore(key, loader, ttlMs);
+        }
+        String leaseKey = key + LEASE_SUFFIX;
+        String token = UUID.randomUUID().toString();
+        RBucket<String> lease = client.get().getBucket(leaseKey, StringCodec.INSTANCE);
+        if (lease.setIfAbsent(token, Duration.ofMillis(leaseMs))) {
+            boolean absent = false;
+            try {
+                Object value = current == null ? reader.apply(key) : null;
+                if (value == null) {
+                    value = loadAndStore(key, loader, ttlMs);
+                    absent = value == null;
+                }
+                return value;
+            } finally {
+                releaseLease(leaseKey, token, absent, leaseMs);
+            }
+        }
+        if (current != null) {
+            return current;
+        }
+        Object value = awaitLeaseHolder(key, lease, leaseMs);
+        if (value == ABSENT) {
+            return null;
+        }
+        return value != null ? value : loadAndStore(key, loader, ttlMs);
+    }
+
+    /**
+     * Releases the lease if it is still held by the token. If the loader returned null, the lease is marked as
+     * absent for the rest of the lease instead, so that the nodes waiting for it return null without loading.
+     *
+     * @param leaseKey the lease key
+     * @param token the token of the holder
+     * @param absent true if the loader returned null
+     * @param leaseMs the lease in ms
+     */
+    private void releaseLease(String leaseKey, String token, boolean absent, long leaseMs) {
+        RScript script = client.get().getScript(StringCodec.INSTANCE);
+        if (absent) {
+            registry.evalSha(script, markLeaseAbsent, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                    Collections.singletonList(leaseKey), token, ABSENT_LEASE, String.valueOf(leaseMs));
+        } else {
+            registry.evalSha(script, releaseLease, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                    Collections.singletonList(leaseKey), token);
+        }
+    }
+
+    /**
+     * Polls the key while another node holds its lease and loads it.
+     *
+     * @param key the key
+     * @param lease the lease
+     * @param leaseMs the lease in ms
+     * @return the value stored by the lease holder, ABSENT if the holder marked the lease as absent, null if
+     *     nothing has been stored within the lease
+     */
+    private Object awaitLeaseHolder(String key, RBucket<String> lease, long leaseMs) {
+        long pollIntervalMs = Math.max(MIN_LEASE_POLL_INTERVAL_MS, leaseMs / LEASE_POLLS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseMs);
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IgniteCacheException(String.format("Interrupted while waiting for key %s to be loaded",
+                        key), e);
+            }
+            Object value = reader.apply(key);
+            if (value != null) {
+                return value;
+            }
+            if (ABSENT_LEASE.equals(lease.get())) {
+                return ABSENT;
+            }
+        }
+        LOGGER.warn("Key {} has not been loaded by the holder of its lease within {} ms, loading it", key, leaseMs);
+        return null;
+    }
+
+    /**
+     * Calls the loader and stores its value. A value stored with a ttl is stored with the duration of the load,
+     * for early refresh.
+     *
+     * @param key the key
+     * @param loader the loader
+     * @param ttlMs the ttl in ms
+     * @return the value, null if the loader returned null
+     */
+    private Object loadAndStore(String key, Supplier<?> loader, long ttlMs) {
+        long start = System.nanoTime();
+        Object value = loader.get();
+        long loadMs = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (value == null) {
+            return null;
+        }
+        RBucket<Object> bucket = client.get().getBucket(key);
+        if (ttlMs > 0) {
+            bucket.set(value, ttlMs, TimeUnit.MILLISECONDS);
+            storeLoadDuration(key, loadMs, ttlMs);
+        } else {
+            bucket.set(value);
+        }
+        written.accept(key);
+        return value;
+    }
+
+    /**
+     * Stores the duration of the last load of a key asynchronously, with the ttl of the key.
+     *
+     * @param key the key
+     * @param loadMs the duration of the load in ms
+     * @param ttlMs the ttl of the key in ms
+     */
+    private void storeLoadDuration(String key, long loadMs, long ttlMs) {
+        String durationKey = loadDurationKey(key);
+        if (durationKey == null) {
+            return;
+        }
+        client.get().<String>getBucket(durationKey, StringCodec.INSTANCE)
+                .setAsync(String.valueOf(loadMs), ttlMs, TimeUnit.MILLISECONDS)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        LOGGER.warn("Unable to store the load duration of key {}: {}", key, e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Decides whether a read refreshes the value before it expires, as XFetch does: the probability grows as the
+     * expiry approaches, and with the time the last load of the key took.
+     *
+     * @param deltaMs the duration in ms of the last load of the key, 0 if unknown
+     * @param remainingMs the remaining ttl in ms
+     * @param beta the beta, greater values refresh earlier
+     * @return true to refresh the value
+     */
+    static boolean refreshEarly(long deltaMs, long remainingMs, double beta) {
+        if (deltaMs <= 0 || remainingMs <= 0) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return -deltaMs * beta * Math.log(random) >= remainingMs;
+    }
+
+    /**
+     * Waits for a load of another thread.
+     *
+     * @param flight the load
+     * @return the value
+     */
+    private static Object join(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /**
+     * Gets the codec of the script replies.
+     *
+     * @return the codec
+     */
+    private Codec codec() {
+        Codec scriptCodec = codec;
+        if (scriptCodec == null) {
+            scriptCodec = new ScriptArgumentCodec(codecSupplier.get());
+            codec = scriptCodec;
+        }
+        return scriptCodec;
+    }
+}
@@ -0,0 +1,572 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.eclipse.ecsp.cache.MutationPriority;
+import org.eclipse.ecsp.cache.exception.RedisBatchProcessingException;
+import org.eclipse.ecsp.cache.exception.RedisPipelineOverflowException;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.redisson.client.codec.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Circular, memory-mapped journal that async mutations are spilled to while Redis is unhealthy or the pipeline
+ * is saturated, and replayed from in order once it can take them again.<br>
+ * Values are encoded with the codec of the Redisson client, so only the futures of spilled mutations are kept on
+ * heap. The read and write positions are kept in the header of the file, so mutations spilled by a previous process
+ * are replayed after a restart. The read position only moves past a replayed record once its mutation has completed,
+ * so a mutation replayed but not completed before the process stopped is replayed again after the restart.
+ * Records are appended after the last one, wrapping around to the start of the file once the end has been reached, so
+ * the space of completed records is reused while the journal is never drained.<br>
+ * Records and positions are written to the mapped file, which the operating system writes back to disk, and are only
+ * forced to disk on close. They survive a crash of the process, but may be lost on a crash of the host.
+ */
+final class SpillJournal {
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(SpillJournal.class);
+
+    /** The size of the header holding the read and write positions. */
+    private static final int HEADER_SIZE = 2 * Long.BYTES;
+
+    /** The length written in place of an absent value. */
+    private static final int NO_VALUE = -1;
+
+    /** The length marking the end of the records before the writer wrapped around to the start of the file. */
+    private static final int WRAP = 0;
+
+    /** Returned by appendPosition when a record does not fit. */
+    private static final int NO_ROOM = -1;
+
+    /** The file channel. */
+    private final FileChannel channel;
+
+    /** The mapped file. */
+    private final MappedByteBuffer buffer;
+
+    /** The codec values are encoded with. */
+    private final Codec codec;
+
+    /** Guards the positions and futures, and keeps replayed records in order. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** The futures of the records spilled by this process, in journal order. */
+    private final Deque<CompletableFuture<String>> futures = new ArrayDeque<>();
+
+    /** The number of records left by a previous process, replayed before the ones with a future. */
+    private int recoveredRecords;
+
+    /** The records replayed whose mutation has not completed yet, in journal order. */
+    private final Deque<ReplayedRecord> replaying = new ArrayDeque<>();
+
+    /** The position after the last record whose replayed mutation has completed, persisted as read position. */
+    private int committedPosition;
+
+    /** The position of the next record to replay. */
+    private int readPosition;
+
+    /** The position the next record is appended at. */
+    private int writePosition;
+
+    /** Set once the journal has been closed. */
+    private boolean closed;
+
+    /**
+     * Instantiates a new spill journal.
+     *
+     * @param channel the file channel
+     * @param buffer the mapped file
+     * @param codec the codec values are encoded with
+     */
+    private SpillJournal(FileChannel channel, MappedByteBuffer buffer, Codec codec) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.codec = codec;
+    }
+
+    /**
+     * Opens the journal, creating the file if it does not exist, and recovers the records not replayed yet.
+     *
+     * @param path the path of the file
+     * @param maxBytes the size of the file, which bounds the spilled mutations
+     * @param codec the codec values are encoded with
+     * @return the journal
+     * @throws IOException if the file cannot be mapped
+     */
+    static SpillJournal open(Path path, int maxBytes, Codec codec) throws IOException {
+        if (maxBytes <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Spill journal size must exceed " + HEADER_SIZE + ", got " + maxBytes);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        SpillJournal journal = new SpillJournal(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, maxBytes),
+                codec);
+        journal.recover();
+        LOGGER.info("Opened spill journal {} of {} bytes with {} records to replay", path, maxBytes,
+                journal.recoveredRecords);
+        return journal;
+    }
+
+    /**
+     * Reads the positions from the header and counts the records left to replay.
+     * A new or corrupt header resets the journal.
+     */
+    private void recover() {
+        long read = buffer.getLong(0);
+        long write = buffer.getLong(Long.BYTES);
+        if (read < HEADER_SIZE || write < HEADER_SIZE || read > buffer.capacity() || write > buffer.capacity()) {
+            reset();
+            return;
+        }
+        int position = (int) read;
+        boolean wrapped = write < read;
+        int records = 0;
+        while (position != write) {
+            if (wrapped && atWrap(position)) {
+                position = HEADER_SIZE;
+                wrapped = false;
+                continue;
+            }
+            int end = wrapped ? buffer.capacity() : (int) write;
+            int length = position + Integer.BYTES <= end ? buffer.getInt(position) : 0;
+            if (length <= 0 || position + Integer.BYTES + length > end) {
+                LOGGER.error("Spill journal is corrupt at position {}, discarding its records", position);
+                reset();
+                return;
+            }
+            position += Integer.BYTES + length;
+            records++;
+        }
+        committedPosition = (int) read;
+        readPosition = (int) read;
+        writePosition = (int) write;
+        recoveredRecords = records;
+    }
+
+    /**
+     * Appends the mutation, unless it need not be spilled and no earlier mutation is waiting to be replayed.
+     * Once a mutation has been spilled, later ones are spilled too until the journal has been replayed,
+     * so that mutations are executed in order.
+     *
+     * @param mutation the mutation
+     * @param spill whether the mutation has to be spilled, for ex because Redis is unhealthy
+     * @return true if the mutation has been appended, false if it should go through the pipeline directly
+     * @throws RedisPipelineOverflowException if the mutation has to be spilled but does not fit into the journal,
+     *     since going through the pipeline directly would run it ahead of the spilled ones
+     */
+    boolean offer(BatchMutation mutation, boolean spill) {
+        lock.lock();
+        try {
+            if (closed || (!spill && !hasPendingRecords())) {
+                return false;
+            }
+            byte[] record = encode(mutation);
+            int position = appendPosition(Integer.BYTES + record.length);
+            if (position == NO_ROOM) {
+                throw new RedisPipelineOverflowException(String.format("Spill journal is full, mutation %s for key %s "
+                        + "was rejected", mutation.getMutationId(), mutation.getKey()));
+            }
+            buffer.putInt(position, record.length);
+            buffer.put(position + Integer.BYTES, record);
+            writePosition = position + Integer.BYTES + record.length;
+            buffer.putLong(Long.BYTES, writePosition);
+            futures.addLast(mutation.getFuture());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays up to maxRecords records in journal order. The future of each spilled mutation completes with the
+     * outcome of its replayed mutation, and the read position in the header moves past the record once the replayed
+     * mutations of the record and of all earlier records have completed.
+     *
+     * @param maxRecords the max number of records to replay
+     * @param sink takes the replayed mutations, called with the journal locked so that they stay in order
+     * @return the number of replayed records
+     */
+    int replay(int maxRecords, Consumer<BatchMutation> sink) {
+        lock.lock();
+        try {
+            if (closed) {
+                return 0;
+            }
+            int replayed = 0;
+            while (replayed < maxRecords && hasPendingRecords()) {
+                if (readPosition > writePosition && atWrap(readPosition)) {
+                    readPosition = HEADER_SIZE;
+                }
+                int length = buffer.getInt(readPosition);
+                byte[] record = new byte[length];
+                buffer.get(readPosition + Integer.BYTES, record);
+                readPosition += Integer.BYTES + length;
+                ReplayedRecord replayedRecord = new ReplayedRecord(readPosition);
+                replaying.addLast(replayedRecord);
+                CompletableFuture<String> spilled = recoveredRecords > 0 ? null : futures.pollFirst();
+                if (spilled == null) {
+                    recoveredRecords--;
+                }
+                replayed++;
+                BatchMutation mutation;
+                try {
+                    mutation = decode(record);
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.error("Unable to decode spilled mutation of {} bytes, skipping it", length, e);
+                    if (spilled != null) {
+                        spilled.completeExceptionally(new RedisBatchProcessingException(
+                                "Unable to decode spilled mutation", e));
+                    }
+                    acknowledge(replayedRecord);
+                    continue;
+                }
+                mutation.getFuture().whenComplete((id, e) -> {
+                    if (spilled != null) {
+                        complete(spilled, id, e);
+                    }
+                    acknowledge(replayedRecord);
+                });
+                sink.accept(mutation);
+            }
+            if (!hasPendingRecords() && replaying.isEmpty()) {
+                reset();
+            }
+            return replayed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the replayed mutation of the record as completed, and commits the read position past the records whose
+     * replayed mutations have all completed, in journal order.
+     *
+     * @param record the replayed record
+     */
+    private void acknowledge(ReplayedRecord record) {
+        lock.lock();
+        try {
+            record.completed = true;
+            if (closed) {
+                return;
+            }
+            while (!replaying.isEmpty() && replaying.peekFirst().completed) {
+                committedPosition = replaying.pollFirst().end;
+            }
+            buffer.putLong(0, committedPosition);
+            if (replaying.isEmpty() && !hasPendingRecords()) {
+                reset();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether records are waiting to be replayed.
+     *
+     * @return true if the journal is not empty
+     */
+    boolean hasPending() {
+        lock.lock();
+        try {
+            return hasPendingRecords();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the journal to disk and closes it. Records not replayed yet are kept for the next process,
+     * the futures of the ones spilled by this process are failed. Records replayed whose mutation has not completed
+     * yet are kept too, and replayed again by the next process.
+     *
+     * @return the number of records kept for the next process
+     */
+    int close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return 0;
+            }
+            int kept = recoveredRecords + futures.size() + replaying.size();
+            RedisBatchProcessingException cause = new RedisBatchProcessingException(
+                    "Mutation is kept in the spill journal, it will be replayed on the next start");
+            futures.forEach(f -> f.completeExceptionally(cause));
+            futures.clear();
+            replaying.clear();
+            closed = true;
+            buffer.force();
+            channel.close();
+            return kept;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether records are waiting to be replayed, with the lock held.
+     *
+     * @return true if the journal is not empty
+     */
+    private boolean hasPendingRecords() {
+        return !closed && readPosition != writePosition;
+    }
+
+    /**
+     * Gets the position a record is appended at, wrapping around to the start of the file if it does not fit before
+     * its end. The write position never catches up with the committed read position, which would make the journal
+     * look empty.
+     *
+     * @param size the size of the record with its length
+     * @return the position, NO_ROOM if the record does not fit in front of the records left to replay or complete
+     */
+    private int appendPosition(int size) {
+        if (writePosition < committedPosition) {
+            return writePosition + size < committedPosition ? writePosition : NO_ROOM;
+        }
+        if (writePosition + size <= buffer.capacity()) {
+            return writePosition;
+        }
+        if (HEADER_SIZE + size >= committedPosition) {
+            return NO_ROOM;
+        }
+        if (writePosition + Integer.BYTES <= buffer.capacity()) {
+            buffer.putInt(writePosition, WRAP);
+        }
+        return HEADER_SIZE;
+    }
+
+    /**
+     * Checks whether the records before a wrap of the writer end at the position.
+     *
+     * @param position the position, after the last record appended before the wrap
+     * @return true if no record starts at the position
+     */
+    private boolean atWrap(int position) {
+        return position + Integer.BYTES > buffer.capacity() || buffer.getInt(position) == WRAP;
+    }
+
+    /**
+     * Empties the journal, so that the next record is appended right after the header.
+     */
+    private void reset() {
+        committedPosition = HEADER_SIZE;
+        readPosition = HEADER_SIZE;
+        writePosition = HEADER_SIZE;
+        recoveredRecords = 0;
+        buffer.putLong(0, committedPosition);
+        buffer.putLong(Long.BYTES, writePosition);
+    }
+
+    /**
+     * Encodes the mutation into a record.
+     *
+     * @param mutation the mutation
+     * @return the record
+     */
+    private byte[] encode(BatchMutation mutation) {
+        byte[] key = mutation.getKey().getBytes(StandardCharsets.UTF_8);
+        byte[] mutationId = mutation.getMutationId() == null ? null
+                : mutation.getMutationId().getBytes(StandardCharsets.UTF_8);
+        byte[] value = encodeValue(mutation.getValue());
+        byte[] expectedValue = encodeValue(mutation.getExpectedValue());
+        ByteBuffer record = ByteBuffer.allocate(2 + Long.BYTES + Double.BYTES
+                + length(key) + length(mutationId) + length(value) + length(expectedValue));
+        record.put((byte) mutation.getType().ordinal())
+                .put((byte) mutation.getPriority().ordinal())
+                .putLong(mutation.getTtlMs())
+                .putDouble(mutation.getScore());
+        put(record, key);
+        put(record, mutationId);
+        put(record, value);
+        put(record, expectedValue);
+        return record.array();
+    }
+
+    /**
+     * Decodes a record into a new mutation.
+     *
+     * @param bytes the record
+     * @return the mutation
+     * @throws IOException if a value cannot be decoded
+     */
+    private BatchMutation decode(byte[] bytes) throws IOException {
+        ByteBuffer record = ByteBuffer.wrap(bytes);
+        BatchMutation.Type type = BatchMutation.Type.values()[record.get()];
+        MutationPriority priority = MutationPriority.values()[record.get()];
+        long ttlMs = record.getLong();
+        double score = record.getDouble();
+        byte[] key = get(record);
+        byte[] mutationId = get(record);
+        Object value = decodeValue(get(record));
+        Object expectedValue = decodeValue(get(record));
+        return BatchMutation.restore(type, new String(key, StandardCharsets.UTF_8), value, expectedValue, ttlMs,
+                score, mutationId == null ? null : new String(mutationId, StandardCharsets.UTF_8))
+                .withPriority(priority);
+    }
+
+    /**
+     * Encodes a value with the codec.
+     *
+     * @param value the value, may be null
+     * @return the encoded value, null if the value is null
+     */
+    private byte[] encodeValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        ByteBuf encoded;
+        try {
+            encoded = codec.getValueEncoder().encode(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            byte[] bytes = new byte[encoded.readableBytes()];
+            encoded.readBytes(bytes);
+            return bytes;
+        } finally {
+            encoded.release();
+        }
+    }
+
+    /**
+     * Decodes a value with the codec.
+     *
+     * @param bytes the encoded value, may be null
+     * @return the value, null if bytes is null
+     * @throws IOException if the value cannot be decoded
+     */
+    private Object decodeValue(byte[] bytes) throws IOException {
+        return bytes == null ? null : codec.getValueDecoder().decode(Unpooled.wrappedBuffer(bytes), null);
+    }
+
+    /**
+     * Gets the number of bytes a length-prefixed field takes in a record.
+     *
+     * @param field the field, may be null
+     * @return the number of bytes
+     */
+    private static int length(byte[] field) {
+        return Integer.BYTES + (field == null ? 0 : field.length);
+    }
+
+    /**
+     * Writes a length-prefixed field.
+     *
+     * @param record the record
+     * @param field the field, may be null
+     */
+    private static void put(ByteBuffer record, byte[] field) {
+        if (field == null) {
+            record.putInt(NO_VALUE);
+        } else {
+            record.putInt(field.length).put(field);
+        }
+    }
+
+    /**
+     * Reads a length-prefixed field.
+     *
+     * @param record the record
+     * @return the field, null if it was absent
+     */
+    private static byte[] get(ByteBuffer record) {
+        int length = record.getInt();
+        if (length == NO_VALUE) {
+            return null;
+        }
+        byte[] field = new byte[length];
+        record.get(field);
+        return field;
+    }
+
+    /**
+     * Completes the future of a spilled mutation with the outcome of its replay.
+     *
+     * @param spilled the future of the spilled mutation
+     * @param mutationId the mutation id
+     * @param cause the failure, null on success
+     */
+    private static void complete(CompletableFuture<String> spilled, String mutationId, Throwable cause) {
+        if (cause == null) {
+            spilled.complete(mutationId);
+        } else {
+            spilled.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * A replayed record, waiting for its replayed mutation to complete.
+     */
+    private static final class ReplayedRecord {
+
+        /** The position after the record. */
+        private final int end;
+
+        /** Set once the replayed mutation has completed. */
+        private boolean completed;
+
+        /**
+         * Instantiates a new replayed record.
+         *
+         * @param end the position after the record
+         */
+        private ReplayedRecord(int end) {
+            this.end = end;
+        }
+    }
+}
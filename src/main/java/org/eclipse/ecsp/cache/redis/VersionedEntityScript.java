@@ -0,0 +1,202 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.cache.VersionedEntity;
+import org.eclipse.ecsp.entities.IgniteEntity;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.codec.Codec;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Versioned entities as Lua scripts, executed with EVALSHA through the {@link RedisScriptRegistry}.<br>
+ * A versioned entity is stored in a hash holding its version and its value. A put compares only the version,
+ * so the expected entity is not shipped to Redis, stores the value and increments the version in one round trip.
+ * A key that does not exist has version 0. Values are encoded with {@link ScriptArgumentCodec}.
+ */
+final class VersionedEntityScript {
+
+    /** The put script, KEYS[1] the key, ARGV[1] the expected version, ARGV[2] the value. */
+    static final String PUT_SCRIPT = "local version = redis.call('hget', KEYS[1], 'version') or '0' "
+            + "if version ~= ARGV[1] then "
+            + "return 0 "
+            + "end "
+            + "redis.call('hmset', KEYS[1], 'version', tostring(tonumber(version) + 1), 'value', ARGV[2]) "
+            + "return 1";
+
+    /** The get script, KEYS[1] the key. Replies with the version as integer and the value. */
+    static final String GET_SCRIPT = "local entry = redis.call('hmget', KEYS[1], 'version', 'value') "
+            + "if not entry[1] then "
+            + "return nil "
+            + "end "
+            + "return {tonumber(entry[1]), entry[2]}";
+
+    /** The SHA1 digest of the put script. */
+    static final String PUT_SHA = RedisScriptRegistry.sha1(PUT_SCRIPT);
+
+    /** The SHA1 digest of the get script. */
+    static final String GET_SHA = RedisScriptRegistry.sha1(GET_SCRIPT);
+
+    /** The name the put script is registered with. */
+    static final String PUT_NAME = "versionedPut";
+
+    /** The name the get script is registered with. */
+    static final String GET_NAME = "versionedGet";
+
+    /** The script registry. */
+    private final RedisScriptRegistry registry;
+
+    /** The registered put script. */
+    private final RedisScriptRegistry.Script putScript;
+
+    /** The registered get script. */
+    private final RedisScriptRegistry.Script getScript;
+
+    /** Supplies the codec of the Redisson client. */
+    private final Supplier<Codec> codecSupplier;
+
+    /** The codec of the script arguments and replies, resolved on first use. */
+    private volatile Codec codec;
+
+    /**
+     * Instantiates a new versioned entity script and registers its scripts.
+     *
+     * @param registry the script registry
+     * @param codecSupplier supplies the codec of the Redisson client, only called on first use
+     */
+    VersionedEntityScript(RedisScriptRegistry registry, Supplier<Codec> codecSupplier) {
+        this.registry = registry;
+        this.putScript = registry.register(PUT_NAME, PUT_SCRIPT);
+        this.getScript = registry.register(GET_NAME, GET_SCRIPT);
+        this.codecSupplier = codecSupplier;
+    }
+
+    /**
+     * Stores the entity if its current version matches the expected one, and increments the version.
+     *
+     * @param client the Redisson client
+     * @param key the key
+     * @param value the entity
+     * @param expectedVersion the expected version, 0 if the key is expected not to exist
+     * @return true if the entity has been stored
+     */
+    boolean put(RedissonClient client, String key, Object value, long expectedVersion) {
+        Boolean stored = registry.evalSha(client.getScript(codec()), putScript, RScript.Mode.READ_WRITE,
+                RScript.ReturnType.BOOLEAN, Collections.singletonList(key), ScriptArgumentCodec.digits(expectedVersion),
+                value);
+        return Boolean.TRUE.equals(stored);
+    }
+
+    /**
+     * Gets the entity together with its version.
+     *
+     * @param <T> the type of the entity
+     * @param client the Redisson client
+     * @param key the key
+     * @return the versioned entity, null if the key does not exist
+     */
+    <T extends IgniteEntity> VersionedEntity<T> get(RedissonClient client, String key) {
+        List<Object> entry = registry.evalSha(client.getScript(codec()), getScript, RScript.Mode.READ_ONLY,
+                RScript.ReturnType.MULTI, Collections.singletonList(key));
+        return toVersionedEntity(entry);
+    }
+
+    /**
+     * Stores the entity through the reactive client if its current version matches the expected one.
+     *
+     * @param client the reactive Redisson client
+     * @param key the key
+     * @param value the entity
+     * @param expectedVersion the expected version, 0 if the key is expected not to exist
+     * @return emits whether the entity has been stored
+     */
+    Mono<Boolean> put(RedissonReactiveClient client, String key, Object value, long expectedVersion) {
+        return registry.evalSha(client.getScript(codec()), putScript, RScript.Mode.READ_WRITE,
+                RScript.ReturnType.BOOLEAN, Collections.singletonList(key), ScriptArgumentCodec.digits(expectedVersion),
+                value);
+    }
+
+    /**
+     * Gets the entity together with its version through the reactive client.
+     *
+     * @param <T> the type of the entity
+     * @param client the reactive Redisson client
+     * @param key the key
+     * @return emits the versioned entity, empty if the key does not exist
+     */
+    <T extends IgniteEntity> Mono<VersionedEntity<T>> get(RedissonReactiveClient client, String key) {
+        Mono<List<Object>> entry = registry.evalSha(client.getScript(codec()), getScript, RScript.Mode.READ_ONLY,
+                RScript.ReturnType.MULTI, Collections.singletonList(key));
+        return entry.mapNotNull(VersionedEntityScript::toVersionedEntity);
+    }
+
+    /**
+     * Converts the reply of the get script.
+     *
+     * @param <T> the type of the entity
+     * @param entry the version and the value, null if the key does not exist
+     * @return the versioned entity, null if the key does not exist
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends IgniteEntity> VersionedEntity<T> toVersionedEntity(List<Object> entry) {
+        if (entry == null || entry.isEmpty()) {
+            return null;
+        }
+        return new VersionedEntity<>((T) entry.get(1), ((Number) entry.get(0)).longValue());
+    }
+
+    /**
+     * Gets the codec of the script arguments and replies.
+     *
+     * @return the codec
+     */
+    private Codec codec() {
+        Codec scriptCodec = codec;
+        if (scriptCodec == null) {
+            scriptCodec = new ScriptArgumentCodec(codecSupplier.get());
+            codec = scriptCodec;
+        }
+        return scriptCodec;
+    }
+}
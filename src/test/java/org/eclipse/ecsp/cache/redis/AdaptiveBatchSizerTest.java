@@ -0,0 +1,138 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for AdaptiveBatchSizer.
+ */
+public class AdaptiveBatchSizerTest {
+
+    /** The min size. */
+    private static final int MIN_SIZE = 10;
+
+    /** The max size. */
+    private static final int MAX_SIZE = 100;
+
+    /** The increment. */
+    private static final int INCREMENT = 10;
+
+    /** The initial size. */
+    private static final int INITIAL_SIZE = 40;
+
+    /** The target latency ms. */
+    private static final long TARGET_LATENCY_MS = 20;
+
+    /** A round trip within the target latency. */
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** A round trip above the target latency. */
+    private static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Test full batches with fast round trips grow the size additively up to the max size.
+     */
+    @Test
+    public void testFullFastBatchesIncreaseSize() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(INITIAL_SIZE, MIN_SIZE, MAX_SIZE, INCREMENT,
+                TARGET_LATENCY_MS);
+        Assert.assertEquals(INITIAL_SIZE + INCREMENT,
+                sizer.onBatchExecuted(INITIAL_SIZE, INITIAL_SIZE, FAST_NANOS, FAST_NANOS, false));
+        for (int i = 0; i < MAX_SIZE; i++) {
+            sizer.onBatchExecuted(sizer.size(), sizer.size(), FAST_NANOS, FAST_NANOS, false);
+        }
+        Assert.assertEquals(MAX_SIZE, sizer.size());
+    }
+
+    /**
+     * Test partial batches with fast round trips keep the size.
+     */
+    @Test
+    public void testPartialFastBatchKeepsSize() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(INITIAL_SIZE, MIN_SIZE, MAX_SIZE, INCREMENT,
+                TARGET_LATENCY_MS);
+        Assert.assertEquals(INITIAL_SIZE, sizer.onBatchExecuted(INITIAL_SIZE, 1, FAST_NANOS, FAST_NANOS, false));
+    }
+
+    /**
+     * Test slow round trips, long flush waits and failures halve the size down to the min size.
+     */
+    @Test
+    public void testCongestionHalvesSize() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(INITIAL_SIZE, MIN_SIZE, MAX_SIZE, INCREMENT,
+                TARGET_LATENCY_MS);
+        Assert.assertEquals(INITIAL_SIZE / RedisConstants.TWO.getValue(),
+                sizer.onBatchExecuted(INITIAL_SIZE, INITIAL_SIZE, FAST_NANOS, SLOW_NANOS, false));
+        Assert.assertEquals(MIN_SIZE, sizer.onBatchExecuted(sizer.size(), 1, SLOW_NANOS, FAST_NANOS, false));
+        Assert.assertEquals(MIN_SIZE, sizer.onBatchExecuted(sizer.size(), MIN_SIZE, FAST_NANOS, FAST_NANOS, true));
+    }
+
+    /**
+     * Test batches drained before the last decrease do not decrease the size again.
+     */
+    @Test
+    public void testStaleBatchDoesNotDecreaseAgain() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(INITIAL_SIZE, MIN_SIZE, MAX_SIZE, INCREMENT,
+                TARGET_LATENCY_MS);
+        int halved = sizer.onBatchExecuted(INITIAL_SIZE, INITIAL_SIZE, FAST_NANOS, SLOW_NANOS, false);
+        Assert.assertEquals(halved, sizer.onBatchExecuted(INITIAL_SIZE, INITIAL_SIZE, FAST_NANOS, SLOW_NANOS, false));
+    }
+
+    /**
+     * Test initial size is clamped to the bounds.
+     */
+    @Test
+    public void testInitialSizeClamped() {
+        Assert.assertEquals(MAX_SIZE,
+                new AdaptiveBatchSizer(MAX_SIZE + 1, MIN_SIZE, MAX_SIZE, INCREMENT, TARGET_LATENCY_MS).size());
+        Assert.assertEquals(MIN_SIZE,
+                new AdaptiveBatchSizer(1, MIN_SIZE, MAX_SIZE, INCREMENT, TARGET_LATENCY_MS).size());
+    }
+
+    /**
+     * Test invalid bounds are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBoundsRejected() {
+        new AdaptiveBatchSizer(INITIAL_SIZE, MAX_SIZE, MIN_SIZE, INCREMENT, TARGET_LATENCY_MS);
+    }
+}
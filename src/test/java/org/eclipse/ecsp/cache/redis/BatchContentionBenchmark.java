@@ -0,0 +1,447 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.cache.IgniteCache;
+import org.eclipse.ecsp.cache.PutStringRequest;
+import org.eclipse.ecsp.cache.exception.RedisBatchProcessingException;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucketAsync;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Contention benchmark comparing the legacy volatile RBatch swap-and-retry scheme with the
+ * mutation queue drained by the batch flusher. Both runs wait for the future of every mutation, and count
+ * the ones that failed or never completed.
+ * Not picked up by surefire by default, run with -Dtest=BatchContentionBenchmark.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = { RedisConfig.class })
+@TestPropertySource("/ignite-cache.properties")
+@TestExecutionListeners(
+        listeners = { ShutdownExecutionListener.class },
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+public class BatchContentionBenchmark {
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(BatchContentionBenchmark.class);
+
+    /** The producer thread counts to benchmark. */
+    private static final int[] PRODUCER_THREADS = { 8, 32, 128 };
+
+    /** The mutations issued by each producer. */
+    private static final int MUTATIONS_PER_PRODUCER = 2000;
+
+    /** The batch size used by both schemes. */
+    private static final int BATCH_SIZE = 100;
+
+    /** The number of retries of the legacy scheme. */
+    private static final int NUM_BATCH_RETRIES = 5;
+
+    /** The time to wait for all producers and batches to complete. */
+    private static final long TIMEOUT_MINUTES = 5;
+
+    /** The redis. */
+    @ClassRule
+    public static EmbeddedRedisServer redis = new EmbeddedRedisServer();
+
+    /** The redisson client. */
+    @Autowired
+    private RedissonClient redissonClient;
+
+    /** The ignite cache. */
+    @Autowired
+    private IgniteCache igniteCache;
+
+    /**
+     * Runs both schemes at 8, 32 and 128 producer threads and logs throughput,
+     * retries and failed mutations of each run.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void benchmarkBatchContention() throws Exception {
+        ((IgniteCacheRedisImpl) igniteCache).setBatchSize(BATCH_SIZE);
+        // warm up both paths before measuring
+        runLegacy(PRODUCER_THREADS[0]);
+        runQueue(PRODUCER_THREADS[0]);
+        for (int threads : PRODUCER_THREADS) {
+            Result legacy = runLegacy(threads);
+            Result queue = runQueue(threads);
+            LOGGER.info("Producers {}: legacy swap-and-retry {}", threads, legacy);
+            LOGGER.info("Producers {}: mutation queue        {}", threads, queue);
+            Assert.assertEquals(0, queue.failed);
+        }
+    }
+
+    /**
+     * Issues the mutations through the mutation queue of IgniteCacheRedisImpl and waits for their futures.
+     *
+     * @param threads the number of producer threads
+     * @return the result
+     * @throws Exception the exception
+     */
+    private Result runQueue(int threads) throws Exception {
+        List<Future<String>> futures = new ArrayList<>();
+        AtomicLong failed = new AtomicLong();
+        long elapsedNanos = runProducers(threads, (producer, i) -> {
+            Future<String> f = igniteCache.putStringAsync(new PutStringRequest()
+                    .withKey("queue:" + producer + ":" + i)
+                    .withValue(String.valueOf(i))
+                    .withMutationId(String.valueOf(i))
+                    .withNamespaceEnabled(false));
+            synchronized (futures) {
+                futures.add(f);
+            }
+        }, () -> {
+            ((IgniteCacheRedisImpl) igniteCache).flushPendingMutations();
+            failed.set(awaitAll(futures));
+        });
+        return new Result(threads * (long) MUTATIONS_PER_PRODUCER, elapsedNanos, 0, failed.get());
+    }
+
+    /**
+     * Issues the mutations through the batching code of IgniteCacheRedisImpl before the mutation queue and waits for
+     * their futures.
+     *
+     * @param threads the number of producer threads
+     * @return the result
+     * @throws Exception the exception
+     */
+    private Result runLegacy(int threads) throws Exception {
+        LegacyBatcher batcher = new LegacyBatcher(redissonClient, BATCH_SIZE);
+        List<Future<String>> futures = new ArrayList<>();
+        AtomicLong failed = new AtomicLong();
+        long elapsedNanos = runProducers(threads, (producer, i) -> {
+            try {
+                Future<String> f = batcher.putStringAsync("legacy:" + producer + ":" + i, String.valueOf(i),
+                        String.valueOf(i));
+                synchronized (futures) {
+                    futures.add(f);
+                }
+            } catch (RedisBatchProcessingException e) {
+                failed.incrementAndGet();
+            }
+        }, () -> {
+            batcher.executeTrailingBatch();
+            failed.addAndGet(awaitAll(futures));
+        });
+        return new Result(threads * (long) MUTATIONS_PER_PRODUCER, elapsedNanos, batcher.retries.get(),
+                failed.get());
+    }
+
+    /**
+     * Waits for the futures of all mutations, up to the benchmark timeout in total.
+     *
+     * @param futures the futures
+     * @return the number of futures that failed or did not complete in time
+     * @throws InterruptedException the interrupted exception
+     */
+    private static long awaitAll(List<Future<String>> futures) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(TIMEOUT_MINUTES);
+        long failed = 0;
+        for (Future<String> f : futures) {
+            try {
+                f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Starts the producers together and measures the time until all of them are done
+     * and the completion callback has returned.
+     *
+     * @param threads the number of producer threads
+     * @param mutation the mutation issued by a producer
+     * @param completion waits for all mutations to be executed
+     * @return the elapsed time in nanoseconds
+     * @throws Exception the exception
+     */
+    private long runProducers(int threads, Mutation mutation, Completion completion) throws Exception {
+        ExecutorService producers = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int producer = t;
+            producers.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < MUTATIONS_PER_PRODUCER; i++) {
+                        mutation.issue(producer, i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        Assert.assertTrue(done.await(TIMEOUT_MINUTES, TimeUnit.MINUTES));
+        completion.await();
+        long elapsedNanos = System.nanoTime() - begin;
+        producers.shutdown();
+        redissonClient.getKeys().flushall();
+        return elapsedNanos;
+    }
+
+    /**
+     * A mutation issued by a producer.
+     */
+    @FunctionalInterface
+    private interface Mutation {
+        void issue(int producer, int index);
+    }
+
+    /**
+     * Waits for all issued mutations to be executed.
+     */
+    @FunctionalInterface
+    private interface Completion {
+        void await() throws Exception;
+    }
+
+    /**
+     * The batching code of IgniteCacheRedisImpl before the mutation queue, copied from the baseline commit:
+     * producers add straight into a volatile RBatch, which is swapped out and executed once it is full,
+     * and retry when they hit a batch that has already been executed. Only the retries are counted on top,
+     * and executeTrailingBatch is a benchmark addition, called once all producers are done.
+     */
+    private static final class LegacyBatcher {
+
+        /** The redisson client. */
+        private final RedissonClient redissonClient;
+
+        /** Pipelining batch size. */
+        private final int batchSize;
+
+        /** The current batch. */
+        private volatile RBatch currentBatch = null;
+
+        /**
+         * used for tracking the current size of the batch and to trigger execution
+         * when size equals batch size.
+         */
+        private AtomicInteger batchCount = new AtomicInteger(0);
+
+        /** The last batch exec timestamp. */
+        private AtomicLong lastBatchExecTimestamp = new AtomicLong(System.currentTimeMillis());
+
+        /** The retries, counted by the benchmark. */
+        private final AtomicLong retries = new AtomicLong();
+
+        /**
+         * Instantiates a new legacy batcher and starts the initial batch.
+         *
+         * @param redissonClient the redisson client
+         * @param batchSize the batch size
+         */
+        LegacyBatcher(RedissonClient redissonClient, int batchSize) {
+            this.redissonClient = redissonClient;
+            this.batchSize = batchSize;
+            startBatch();
+        }
+
+        /**
+         * Asynchronously stores a string, as putStringAsync without ttl and expected value did.
+         *
+         * @param key the key
+         * @param value the value
+         * @param mutationId the mutation id
+         * @return a Future completed with the mutation id once the SET has been executed
+         */
+        Future<String> putStringAsync(String key, String value, String mutationId) {
+            CompletableFuture<String> f = new CompletableFuture<>();
+            performBatchOperation(v -> {
+                RBucketAsync<String> bucket = currentBatch.getBucket(key);
+                bucket.setAsync(value)
+                        .thenAccept(s -> f.complete(mutationId));
+            });
+            return f;
+        }
+
+        /**
+         * Executes the batch operation consumer in a reliable way. <br>
+         * If a thread was performing a batch operation and another thread performed RBatch.execute() at the same
+         * time, then first thread will fail with IllegalStateException("Batch already has been executed").
+         * This method performs a retry for such scenarios. Also advances the batch state.
+         *
+         * @param c the batch operation consumer
+         */
+        private void performBatchOperation(Consumer<Void> c) {
+            for (int i = 1; i <= NUM_BATCH_RETRIES; i++) {
+                try {
+                    c.accept(null);
+                    break;
+                } catch (IllegalStateException ise) {
+                    if (!ise.getMessage().contains("Batch already has been executed")) {
+                        throw ise;
+                    }
+                    retries.incrementAndGet();
+                    if (i == NUM_BATCH_RETRIES) {
+                        throw new RedisBatchProcessingException(
+                                "Batch operation failed despite trying " + NUM_BATCH_RETRIES + " times");
+                    }
+                } catch (NullPointerException npe) {
+                    // This has been introduced because it was observed in
+                    // integration test case
+                    // IgniteCacheRedisImplIntegrationTest.testBatchConcurrentExecutionException()
+                    retries.incrementAndGet();
+                    if (i == NUM_BATCH_RETRIES) {
+                        LOGGER.warn("SetAsync invoked before a new batch was created", npe);
+                        throw new RedisBatchProcessingException(
+                                "Batch operation failed despite trying " + NUM_BATCH_RETRIES + " times");
+                    }
+                }
+            }
+            advanceBatchState();
+        }
+
+        /**
+         * Advance batch state.
+         */
+        private void advanceBatchState() {
+            int size = batchCount.incrementAndGet();
+            if (size % batchSize == 0) {
+                // before executing the batch we will keep a reference and then swap
+                // the main reference to a new instance of batch so clients can
+                // continue adding to batch
+                RBatch existingBatch = currentBatch;
+                // now assign new batch to the same reference so that other threads
+                // see the new batch and not the old one (currentBatch is volatile)
+                startBatch();
+                LOGGER.debug("Executing batch asynchronously");
+                existingBatch.executeAsync().thenAccept(r -> {
+                    LOGGER.debug("Executed batch asynchronously");
+                    LOGGER.trace("Responses of last batch operation: {}",
+                            r.getResponses());
+                });
+            }
+        }
+
+        /**
+         * Starts a new batch for Redis operations.
+         * This method initializes the `currentBatch` with a new instance of `RBatch`.
+         * It also resets the `batchCount` to 0 if it reaches the `batchSize` and updates the `lastBatchExecTimestamp`.
+         */
+        private void startBatch() {
+            currentBatch = redissonClient.createBatch();
+            boolean updated = batchCount.compareAndSet(batchSize, 0);
+            if (updated) {
+                lastBatchExecTimestamp.set(System.currentTimeMillis());
+            }
+        }
+
+        /**
+         * Executes the mutations left in the current batch, which the legacy code only executed once a later
+         * mutation filled it up. Called once all producers are done, so that their futures can complete.
+         */
+        void executeTrailingBatch() {
+            currentBatch.executeAsync();
+        }
+    }
+
+    /**
+     * Result of a single benchmark run.
+     */
+    private static final class Result {
+
+        /** The mutations. */
+        private final long mutations;
+
+        /** The elapsed nanos. */
+        private final long elapsedNanos;
+
+        /** The retries. */
+        private final long retries;
+
+        /** The failed mutations. */
+        private final long failed;
+
+        /**
+         * Instantiates a new result.
+         *
+         * @param mutations the mutations
+         * @param elapsedNanos the elapsed nanos
+         * @param retries the retries
+         * @param failed the failed mutations
+         */
+        Result(long mutations, long elapsedNanos, long retries, long failed) {
+            this.mutations = mutations;
+            this.elapsedNanos = elapsedNanos;
+            this.retries = retries;
+            this.failed = failed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mutations=%d elapsedMs=%d throughput=%.0f ops/s retries=%d failed=%d",
+                    mutations, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    (double) mutations * TimeUnit.SECONDS.toNanos(1) / elapsedNanos, retries, failed);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.redisson.api.redisnode.RedisClusterMaster;
+import org.redisson.cluster.ClusterSlotRange;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.eclipse.ecsp.cache.redis.RedisConstants.TWO;
+
+/**
+ * Test class for ClusterSlotRouter.
+ */
+public class ClusterSlotRouterTest {
+
+    /** The last slot owned by the first master. */
+    private static final int FIRST_MASTER_LAST_SLOT = 8191;
+
+    /** The first master port. */
+    private static final int FIRST_MASTER_PORT = 7000;
+
+    /** The second master port. */
+    private static final int SECOND_MASTER_PORT = 7001;
+
+    /** The replica port. */
+    private static final int REPLICA_PORT = 7002;
+
+    /** CRC16 XMODEM check value of "123456789". */
+    private static final int CRC16_CHECK_VALUE = 0x31C3;
+
+    /** The slot of key foo as reported by CLUSTER KEYSLOT. */
+    private static final int FOO_SLOT = 12182;
+
+    /** The slot of key bar as reported by CLUSTER KEYSLOT. */
+    private static final int BAR_SLOT = 5061;
+
+    /**
+     * Test crc16 check value.
+     */
+    @Test
+    public void testCrc16CheckValue() {
+        byte[] bytes = "123456789".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(CRC16_CHECK_VALUE, ClusterSlotRouter.crc16(bytes, 0, bytes.length));
+    }
+
+    /**
+     * Test slot matches redis cluster.
+     */
+    @Test
+    public void testSlotMatchesRedisCluster() {
+        Assert.assertEquals(FOO_SLOT, ClusterSlotRouter.slot("foo"));
+        Assert.assertEquals(BAR_SLOT, ClusterSlotRouter.slot("bar"));
+    }
+
+    /**
+     * Test slot honours hash tags.
+     */
+    @Test
+    public void testSlotHonoursHashTags() {
+        Assert.assertEquals(ClusterSlotRouter.slot("{user1000}.following"),
+                ClusterSlotRouter.slot("{user1000}.followers"));
+        Assert.assertEquals(ClusterSlotRouter.slot("bar"), ClusterSlotRouter.slot("foo{bar}{zap}"));
+        Assert.assertEquals(ClusterSlotRouter.slot("{bar"), ClusterSlotRouter.slot("foo{{bar}}zap"));
+        // an empty hash tag is not a hash tag, the whole key is hashed
+        byte[] bytes = "foo{}{bar}".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(ClusterSlotRouter.crc16(bytes, 0, bytes.length) & (ClusterSlotRouter.SLOT_COUNT - 1),
+                ClusterSlotRouter.slot("foo{}{bar}"));
+    }
+
+    /**
+     * Test keys are routed to a single shard before refresh.
+     */
+    @Test
+    public void testSingleShardBeforeRefresh() {
+        ClusterSlotRouter router = new ClusterSlotRouter();
+        Assert.assertEquals(1, router.shardCount());
+        Assert.assertEquals(0, router.shardOf("foo"));
+        Assert.assertEquals(0, router.shardOf("bar"));
+    }
+
+    /**
+     * Test keys are routed to the master owning their slot.
+     */
+    @Test
+    public void testRefreshRoutesKeysToOwningMaster() {
+        RedisClusterMaster first = master(FIRST_MASTER_PORT);
+        RedisClusterMaster second = master(SECOND_MASTER_PORT);
+        Map<ClusterSlotRange, Set<String>> slots = new HashMap<>();
+        slots.put(new ClusterSlotRange(0, FIRST_MASTER_LAST_SLOT),
+                new LinkedHashSet<>(Arrays.asList("127.0.0.1:" + FIRST_MASTER_PORT, "127.0.0.1:" + REPLICA_PORT)));
+        slots.put(new ClusterSlotRange(FIRST_MASTER_LAST_SLOT + 1, ClusterSlotRouter.SLOT_COUNT - 1),
+                Collections.singleton("127.0.0.1:" + SECOND_MASTER_PORT));
+        Mockito.when(first.clusterSlots()).thenReturn(slots);
+        Mockito.when(second.clusterSlots()).thenReturn(slots);
+
+        ClusterSlotRouter router = new ClusterSlotRouter();
+        Assert.assertTrue(router.refresh(Arrays.asList(first, second)));
+        Assert.assertEquals(TWO.getValue(), router.shardCount());
+        Assert.assertEquals(0, router.shardOf("bar"));
+        Assert.assertEquals(1, router.shardOf("foo"));
+
+        // shard indexes are stable irrespective of the order masters are reported in
+        Assert.assertFalse(router.refresh(Arrays.asList(second, first)));
+        Assert.assertEquals(0, router.shardOf("bar"));
+        Assert.assertEquals(1, router.shardOf("foo"));
+    }
+
+    /**
+     * Test slots of an unknown master are routed to shard 0.
+     */
+    @Test
+    public void testUnknownMasterRoutedToFirstShard() {
+        RedisClusterMaster second = master(SECOND_MASTER_PORT);
+        Map<ClusterSlotRange, Set<String>> slots = new HashMap<>();
+        slots.put(new ClusterSlotRange(0, ClusterSlotRouter.SLOT_COUNT - 1),
+                Collections.singleton("127.0.0.1:" + FIRST_MASTER_PORT));
+        Mockito.when(second.clusterSlots()).thenReturn(slots);
+
+        ClusterSlotRouter router = new ClusterSlotRouter();
+        Assert.assertFalse(router.refresh(Collections.singletonList(second)));
+        Assert.assertEquals(0, router.shardOf("foo"));
+    }
+
+    /**
+     * Creates a mocked cluster master listening on localhost.
+     *
+     * @param port the port
+     * @return the master
+     */
+    static RedisClusterMaster master(int port) {
+        RedisClusterMaster master = Mockito.mock(RedisClusterMaster.class);
+        Mockito.when(master.getAddr()).thenReturn(new InetSocketAddress("127.0.0.1", port));
+        return master;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test class for CompareAndSetScript.
+ */
+public class CompareAndSetScriptTest {
+
+    /**
+     * Test the digest EVALSHA refers to the script by is the one SCRIPT LOAD returns.
+     */
+    @Test
+    public void testShaIsDigestOfScript() {
+        Assert.assertEquals("d28c5a6dbc44b505a134cb60e331bd0483ad0816", CompareAndSetScript.SHA);
+    }
+
+    /**
+     * Test the script is registered, so that it is loaded with the other scripts of the cache.
+     */
+    @Test
+    public void testScriptRegistered() {
+        RedisScriptRegistry registry = new RedisScriptRegistry();
+        new CompareAndSetScript(registry, () -> StringCodec.INSTANCE);
+        Assert.assertEquals(1, registry.getScripts().size());
+        Assert.assertEquals(CompareAndSetScript.SHA, registry.getScripts().iterator().next().sha());
+    }
+
+    /**
+     * Test values are encoded with the codec of the client and the ttl as plain digits.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testArgumentsEncoded() throws IOException {
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RScript script = Mockito.mock(RScript.class);
+        AtomicReference<Codec> codec = new AtomicReference<>();
+        Mockito.when(redisson.getScript(Mockito.any(Codec.class))).thenAnswer(invocation -> {
+            codec.set(invocation.getArgument(0));
+            return script;
+        });
+        AtomicReference<Object[]> args = new AtomicReference<>();
+        Mockito.when(script.evalSha(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.anyList(),
+                Mockito.any(), Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+                    args.set(invocation.getArguments());
+                    return true;
+                });
+        CompareAndSetScript compareAndSet = new CompareAndSetScript(new RedisScriptRegistry(),
+                () -> StringCodec.INSTANCE);
+        Assert.assertTrue(compareAndSet.execute(redisson, "hello", "old", "new", TimeUnit.MINUTES.toMillis(1)));
+        Object[] arguments = args.get();
+        Assert.assertEquals("old", encoded(codec.get(), arguments[arguments.length - 3]));
+        Assert.assertEquals("new", encoded(codec.get(), arguments[arguments.length - 2]));
+        Assert.assertEquals("60000", encoded(codec.get(), arguments[arguments.length - 1]));
+    }
+
+    /**
+     * Encodes the script argument with the codec and reads the encoded bytes as a string.
+     *
+     * @param codec the codec
+     * @param argument the argument
+     * @return the encoded argument
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static String encoded(Codec codec, Object argument) throws IOException {
+        ByteBuf encoded = codec.getValueEncoder().encode(argument);
+        byte[] bytes = new byte[encoded.readableBytes()];
+        encoded.readBytes(bytes);
+        encoded.release();
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
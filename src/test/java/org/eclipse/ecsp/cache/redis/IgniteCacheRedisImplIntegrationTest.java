@@ -42,12 +42,14 @@ import org.eclipse.ecsp.cache.DeleteEntryRequest;
 import org.eclipse.ecsp.cache.DeleteMapOfEntitiesRequest;
 import org.eclipse.ecsp.cache.GetEntityRequest;
 import org.eclipse.ecsp.cache.GetMapOfEntitiesRequest;
+import org.eclipse.ecsp.cache.GetOrLoadRequest;
 import org.eclipse.ecsp.cache.GetScoredEntitiesRequest;
 import org.eclipse.ecsp.cache.GetStringRequest;
 import org.eclipse.ecsp.cache.IgniteCache;
 import org.eclipse.ecsp.cache.PutEntityRequest;
 import org.eclipse.ecsp.cache.PutMapOfEntitiesRequest;
 import org.eclipse.ecsp.cache.PutStringRequest;
+import org.eclipse.ecsp.cache.VersionedEntity;
 import org.eclipse.ecsp.cache.redis.IgniteCacheRedisImpl;
 import org.eclipse.ecsp.cache.redis.RedisConfig;
 import org.eclipse.ecsp.domain.Version;
@@ -80,6 +82,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.eclipse.ecsp.cache.redis.RedisConstants.FIVE;
 import static org.eclipse.ecsp.cache.redis.RedisConstants.HUNDRED;
@@ -236,6 +239,144 @@ public class IgniteCacheRedisImplIntegrationTest {
         Assert.assertEquals("old", entityRead.getValue());
     }
 
+    /**
+     * Test put entity if with ttl sets the value together with its expiry.
+     */
+    @Test
+    public void testPutEntityIfWithTtl() {
+        IgniteCacheIntegTestEntity oldEntity = new IgniteCacheIntegTestEntity();
+        oldEntity.setId("1000");
+        oldEntity.setValue("old");
+        PutEntityRequest<IgniteCacheIntegTestEntity> oldReq = new PutEntityRequest<>();
+        oldReq.withKey("hello").withValue(oldEntity);
+        igniteCache.putEntity(oldReq);
+        IgniteCacheIntegTestEntity newEntity = new IgniteCacheIntegTestEntity();
+        newEntity.setId("1000");
+        newEntity.setValue("new");
+
+        PutEntityRequest<IgniteCacheIntegTestEntity> req = new PutEntityRequest<>();
+        req.withKey("hello").withValue(newEntity);
+        req.withTtlMs(TimeUnit.MINUTES.toMillis(1)).ifCurrentMatches(oldEntity);
+        igniteCache.putEntity(req);
+        Assert.assertEquals("new", ((IgniteCacheIntegTestEntity) igniteCache.getEntity("hello")).getValue());
+        long remainingMs = redissonClient.getBucket("namespace:hello").remainTimeToLive();
+        Assert.assertTrue(remainingMs > 0 && remainingMs <= TimeUnit.MINUTES.toMillis(1));
+
+        IgniteCacheIntegTestEntity staleEntity = new IgniteCacheIntegTestEntity();
+        staleEntity.setId("1000");
+        staleEntity.setValue("stale");
+        PutEntityRequest<IgniteCacheIntegTestEntity> staleReq = new PutEntityRequest<>();
+        staleReq.withKey("hello").withValue(staleEntity);
+        staleReq.withTtlMs(1L).ifCurrentMatches(oldEntity);
+        igniteCache.putEntity(staleReq);
+        Assert.assertEquals("new", ((IgniteCacheIntegTestEntity) igniteCache.getEntity("hello")).getValue());
+    }
+
+    /**
+     * Test versioned put increments the version and rejects a stale version.
+     */
+    @Test
+    public void testPutEntityIfVersion() {
+        Assert.assertNull(igniteCache.getEntityWithVersion("versioned"));
+        IgniteCacheIntegTestEntity entity = new IgniteCacheIntegTestEntity();
+        entity.setId("1000");
+        entity.setValue("first");
+        Assert.assertTrue(igniteCache.putEntityIfVersion("versioned", entity, 0));
+        VersionedEntity<IgniteCacheIntegTestEntity> versioned = igniteCache.getEntityWithVersion("versioned");
+        Assert.assertEquals(1, versioned.getVersion());
+        Assert.assertEquals("first", versioned.getValue().getValue());
+
+        IgniteCacheIntegTestEntity secondEntity = new IgniteCacheIntegTestEntity();
+        secondEntity.setId("1000");
+        secondEntity.setValue("second");
+        Assert.assertTrue(igniteCache.putEntityIfVersion("versioned", secondEntity, 1));
+        IgniteCacheIntegTestEntity staleEntity = new IgniteCacheIntegTestEntity();
+        staleEntity.setId("1000");
+        staleEntity.setValue("stale");
+        Assert.assertFalse(igniteCache.putEntityIfVersion("versioned", staleEntity, 1));
+        versioned = igniteCache.getEntityWithVersion("versioned");
+        Assert.assertEquals(2, versioned.getVersion());
+        Assert.assertEquals("second", versioned.getValue().getValue());
+    }
+
+    /**
+     * Test get or load with a lease and early refresh loads a missed entity once and releases the lease.
+     */
+    @Test
+    public void testGetOrLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        GetOrLoadRequest<IgniteCacheIntegTestEntity> request = new GetOrLoadRequest<IgniteCacheIntegTestEntity>()
+                .withKey("loaded")
+                .withLoader(() -> {
+                    loads.incrementAndGet();
+                    IgniteCacheIntegTestEntity entity = new IgniteCacheIntegTestEntity();
+                    entity.setId("1000");
+                    entity.setValue("loaded");
+                    return entity;
+                })
+                .withTtlMs(TimeUnit.MINUTES.toMillis(1))
+                .withLeaseMs(TimeUnit.SECONDS.toMillis(1))
+                .withEarlyRefreshBeta(1.0);
+        Assert.assertEquals("loaded", igniteCache.getOrLoad(request).getValue());
+        Assert.assertEquals("loaded", igniteCache.getOrLoad(request).getValue());
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals("loaded", igniteCache.<IgniteCacheIntegTestEntity>getEntity("loaded").getValue());
+        Assert.assertNull(igniteCache.getString("loaded" + SingleFlightLoader.LEASE_SUFFIX));
+    }
+
+    /**
+     * Test a read near expiry of a key with a refresh loader serves the current entity and refreshes it.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testRefreshAhead() throws InterruptedException {
+        long ttlMs = TimeUnit.SECONDS.toMillis(1);
+        igniteCache.registerRefreshLoader("refreshAhead:", ttlMs, key -> {
+            IgniteCacheIntegTestEntity entity = new IgniteCacheIntegTestEntity();
+            entity.setId(key);
+            entity.setValue("refreshed");
+            return entity;
+        });
+        IgniteCacheIntegTestEntity entity = new IgniteCacheIntegTestEntity();
+        entity.setId("refreshAhead:1");
+        entity.setValue("current");
+        PutEntityRequest<IgniteCacheIntegTestEntity> request = new PutEntityRequest<>();
+        request.withKey("refreshAhead:1").withValue(entity);
+        igniteCache.putEntity(request.withTtlMs(ttlMs));
+        Thread.sleep(ttlMs - HUNDRED.getValue());
+        Assert.assertEquals("current",
+                igniteCache.<IgniteCacheIntegTestEntity>getEntity("refreshAhead:1").getValue());
+
+        RedisRefreshAheadMetrics metrics = ((IgniteCacheRedisImpl) igniteCache).getRefreshAheadMetrics();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(FIVE.getValue());
+        while (metrics.getRefreshed() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(TEN.getValue());
+        }
+        Assert.assertEquals(1, metrics.getRefreshed());
+        Assert.assertEquals("refreshed",
+                igniteCache.<IgniteCacheIntegTestEntity>getEntity("refreshAhead:1").getValue());
+    }
+
+    /**
+     * Test async put string if with ttl is pipelined as a single script.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     * @throws TimeoutException the timeout exception
+     */
+    @Test
+    public void testPutStringIfWithTtlAsync() throws InterruptedException, ExecutionException, TimeoutException {
+        igniteCache.putString(new PutStringRequest().withKey("session").withValue("v1"));
+        Future<String> refreshed = igniteCache.putStringAsync(new PutStringRequest().withKey("session")
+                .withValue("v2").ifCurrentMatches("v1").withTtlMs(TimeUnit.MINUTES.toMillis(1))
+                .withMutationId("mut001"));
+        ((IgniteCacheRedisImpl) igniteCache).flushPendingMutations();
+        Assert.assertEquals("mut001", refreshed.get(TEN.getValue(), TimeUnit.SECONDS));
+        Assert.assertEquals("v2", igniteCache.getString("session"));
+        Assert.assertTrue(redissonClient.getBucket("namespace:session").remainTimeToLive() > 0);
+    }
+
     /**
      * Test entity scored sorted set.
      */
@@ -423,6 +564,22 @@ public class IgniteCacheRedisImplIntegrationTest {
         Assert.assertEquals(value3, kv.get("namespace:KEY2"));
     }
 
+    /**
+     * Test the scan script is loaded again once the script cache of the server has been flushed.
+     */
+    @Test
+    public void testGetKeyValueWithKeyRegexAfterScriptFlush() {
+        PutEntityRequest<IgniteCacheIntegTestEntity> req = new PutEntityRequest<IgniteCacheIntegTestEntity>();
+        req.withKey("FLUSHKEY1");
+        IgniteCacheIntegTestEntity value = new IgniteCacheIntegTestEntity("id423", "value423", TEN.getValue());
+        req.withValue(value);
+        igniteCache.putEntity(req);
+        redissonClient.getScript().scriptFlush();
+        Map<String, IgniteEntity> kv = igniteCache.getKeyValuePairsForRegex("FLUSHKEY*", Optional.of(Boolean.TRUE));
+        Assert.assertEquals(1, kv.size());
+        Assert.assertEquals(value, kv.get("namespace:FLUSHKEY1"));
+    }
+
     /**
      * Test get key value with key regex with namespace disabled.
      */
@@ -38,41 +38,74 @@ package org.eclipse.ecsp.cache.redis;
 
 import org.eclipse.ecsp.cache.AddScoredEntityRequest;
 import org.eclipse.ecsp.cache.AddScoredStringRequest;
+import org.eclipse.ecsp.cache.AsyncIgniteCache;
 import org.eclipse.ecsp.cache.DeleteEntryRequest;
 import org.eclipse.ecsp.cache.DeleteMapOfEntitiesRequest;
 import org.eclipse.ecsp.cache.GetEntityRequest;
 import org.eclipse.ecsp.cache.GetMapOfEntitiesRequest;
+import org.eclipse.ecsp.cache.GetOrLoadRequest;
 import org.eclipse.ecsp.cache.GetScoredEntitiesRequest;
 import org.eclipse.ecsp.cache.GetScoredStringsRequest;
 import org.eclipse.ecsp.cache.GetStringRequest;
+import org.eclipse.ecsp.cache.MutationPriority;
 import org.eclipse.ecsp.cache.PutEntityRequest;
 import org.eclipse.ecsp.cache.PutMapOfEntitiesRequest;
 import org.eclipse.ecsp.cache.PutStringRequest;
+import org.eclipse.ecsp.cache.VersionedEntity;
+import org.eclipse.ecsp.cache.exception.RedisBatchProcessingException;
+import org.eclipse.ecsp.cache.exception.RedisPipelineOverflowException;
 import org.eclipse.ecsp.cache.redis.IgniteCacheRedisImpl;
 import org.eclipse.ecsp.domain.Version;
 import org.eclipse.ecsp.entities.IgniteEntity;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.BatchResult;
 import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
 import org.redisson.api.RBucketAsync;
+import org.redisson.api.RBuckets;
+import org.redisson.api.RBucketsAsync;
 import org.redisson.api.RFuture;
 import org.redisson.api.RScoredSortedSet;
 import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisCluster;
+import org.redisson.api.redisnode.RedisClusterMaster;
+import org.redisson.api.redisnode.RedisNodes;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
 import org.redisson.client.protocol.ScoredEntry;
+import org.redisson.cluster.ClusterSlotRange;
+import org.redisson.config.Config;
 import org.redisson.misc.CompletableFutureWrapper;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static org.eclipse.ecsp.cache.redis.RedisConstants.FIVE;
+import static org.eclipse.ecsp.cache.redis.RedisConstants.TEN;
+import static org.eclipse.ecsp.cache.redis.RedisConstants.THREE;
+import static org.eclipse.ecsp.cache.redis.RedisConstants.TWO;
 
 /**
  * Unit test class for IgniteCacheRedisImpl.
@@ -85,6 +118,18 @@ public class IgniteCacheRedisImplUnitTest {
     /** The Constant TWO_DOUBLE. */
     private static final double TWO_DOUBLE = 2.0D;
 
+    /** The port of the first cluster master. */
+    private static final int FIRST_MASTER_PORT = 7000;
+
+    /** The port of the second cluster master. */
+    private static final int SECOND_MASTER_PORT = 7001;
+
+    /** The size of the spill journal. */
+    private static final int SPILL_MAX_BYTES = 4096;
+
+    /** The first slot owned by the second cluster master. */
+    private static final int CLUSTER_SLOT_SPLIT = 8192;
+
     /**
      * Test get string with namespace not provided.
      */
@@ -136,7 +181,7 @@ public class IgniteCacheRedisImplUnitTest {
     @Test
     public void testDeleteEntryAsyncRequestWithNamespaceDisabled() throws InterruptedException, ExecutionException {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RedissonClient redisson = Mockito.mock(RedissonClient.class);
         RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
@@ -145,6 +190,7 @@ public class IgniteCacheRedisImplUnitTest {
         redisCache.setRedissonClient(redisson);
         Future<String> mutationId = redisCache.deleteAsync(
                 new DeleteEntryRequest().withKey("hello").withMutationId("mut001").withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
         Assert.assertTrue(mutationId.isDone());
         Assert.assertEquals("mut001", mutationId.get());
         Mockito.verify(rbucket).deleteAsync();
@@ -235,6 +281,327 @@ public class IgniteCacheRedisImplUnitTest {
         Mockito.verify(rbucket).compareAndSet("", "world");
     }
 
+    /**
+     * Test compare and set with ttl is executed as a single script, which is loaded again on NOSCRIPT.
+     */
+    @Test
+    public void testPutStringKeyValueIfWithTtlWithNamespaceDisabled() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RBucket<Object> rbucket = (RBucket<Object>) Mockito.mock(RBucket.class);
+        Mockito.when(redisson.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(redisson.getConfig()).thenReturn(new Config().setCodec(StringCodec.INSTANCE));
+        RScript script = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        Mockito.when(script.evalSha(Mockito.eq(RScript.Mode.READ_WRITE), Mockito.eq(CompareAndSetScript.SHA),
+                Mockito.eq(RScript.ReturnType.BOOLEAN), Mockito.eq(Collections.singletonList("hello")),
+                Mockito.eq(""), Mockito.eq("world"), Mockito.any()))
+                .thenThrow(new RedisException("NOSCRIPT No matching script. Please use EVAL."))
+                .thenReturn(true);
+        redisCache.setRedissonClient(redisson);
+        redisCache.putString(new PutStringRequest().withKey("hello").ifCurrentMatches("").withValue("world")
+                .withTtlMs(TimeUnit.MINUTES.toMillis(1)).withNamespaceEnabled(false));
+        Mockito.verify(script).scriptLoad(CompareAndSetScript.SCRIPT);
+        Mockito.verify(script, Mockito.times(TWO.getValue())).evalSha(Mockito.eq(RScript.Mode.READ_WRITE),
+                Mockito.eq(CompareAndSetScript.SHA), Mockito.eq(RScript.ReturnType.BOOLEAN),
+                Mockito.eq(Collections.singletonList("hello")), Mockito.eq(""), Mockito.eq("world"), Mockito.any());
+        Mockito.verify(rbucket, Mockito.never()).compareAndSet("", "world");
+    }
+
+    /**
+     * Test async compare and set with ttl is pipelined as a single script.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testPutStringKeyValueIfWithTtlAsyncWithNamespaceDisabled()
+            throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        Mockito.when(redisson.getConfig()).thenReturn(new Config().setCodec(StringCodec.INSTANCE));
+        redisCache.setRedissonClient(redisson);
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RScriptAsync script = Mockito.mock(RScriptAsync.class);
+        Mockito.when(rbatch.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        Mockito.when(script.evalShaAsync(Mockito.eq(RScript.Mode.READ_WRITE), Mockito.eq(CompareAndSetScript.SHA),
+                Mockito.eq(RScript.ReturnType.BOOLEAN), Mockito.eq(Collections.singletonList("hello")),
+                Mockito.eq(""), Mockito.eq("world"), Mockito.any())).thenReturn(new CompletableFutureWrapper<>(true));
+        Future<String> ret = redisCache.putStringAsync(new PutStringRequest().withKey("hello").ifCurrentMatches("")
+                .withValue("world").withTtlMs(TimeUnit.MINUTES.toMillis(1)).withMutationId("mut001")
+                .withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
+        Assert.assertEquals("mut001", ret.get());
+        Mockito.verify(rbatch, Mockito.never()).getBucket("hello");
+    }
+
+    /**
+     * Test async compare and set with ttl is retried once after the scripts are loaded again when the script cache
+     * of the server has been flushed, even with retries disabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testPutStringKeyValueIfWithTtlAsyncRetriedAfterScriptFlushWithNamespaceDisabled()
+            throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        Mockito.when(redisson.getConfig()).thenReturn(new Config().setCodec(StringCodec.INSTANCE));
+        RScript loader = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(StringCodec.INSTANCE)).thenReturn(loader);
+        Mockito.when(loader.scriptLoadAsync(Mockito.anyString()))
+                .thenReturn(new CompletableFutureWrapper<>(CompareAndSetScript.SHA));
+        redisCache.setRedissonClient(redisson);
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RScriptAsync script = Mockito.mock(RScriptAsync.class);
+        Mockito.when(rbatch.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        Mockito.when(script.evalShaAsync(Mockito.eq(RScript.Mode.READ_WRITE), Mockito.eq(CompareAndSetScript.SHA),
+                Mockito.eq(RScript.ReturnType.BOOLEAN), Mockito.eq(Collections.singletonList("hello")),
+                Mockito.eq(""), Mockito.eq("world"), Mockito.any()))
+                .thenReturn(new CompletableFutureWrapper<>(
+                        new RedisException("NOSCRIPT No matching script. Please use EVAL.")))
+                .thenReturn(new CompletableFutureWrapper<>(true));
+        Future<String> ret = redisCache.putStringAsync(new PutStringRequest().withKey("hello").ifCurrentMatches("")
+                .withValue("world").withTtlMs(TimeUnit.MINUTES.toMillis(1)).withMutationId("mut001")
+                .withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
+        redisCache.flushPendingMutations();
+        Assert.assertEquals("mut001", ret.get());
+        Mockito.verify(loader).scriptLoadAsync(CompareAndSetScript.SCRIPT);
+        Mockito.verify(script, Mockito.times(TWO.getValue())).evalShaAsync(Mockito.eq(RScript.Mode.READ_WRITE),
+                Mockito.eq(CompareAndSetScript.SHA), Mockito.eq(RScript.ReturnType.BOOLEAN),
+                Mockito.eq(Collections.singletonList("hello")), Mockito.eq(""), Mockito.eq("world"), Mockito.any());
+        Assert.assertEquals(1, redisCache.getPipelineMetrics().getRetriedMutations());
+    }
+
+    /**
+     * Test versioned put compares only the version in a single script.
+     */
+    @Test
+    public void testPutEntityIfVersion() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        Mockito.when(redisson.getConfig()).thenReturn(new Config().setCodec(StringCodec.INSTANCE));
+        RScript script = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
+        Mockito.when(script.evalSha(Mockito.eq(RScript.Mode.READ_WRITE), Mockito.eq(VersionedEntityScript.PUT_SHA),
+                Mockito.eq(RScript.ReturnType.BOOLEAN), Mockito.eq(Collections.singletonList("hello")),
+                Mockito.any(), Mockito.eq(entity))).thenReturn(true, false);
+        redisCache.setRedissonClient(redisson);
+        Assert.assertTrue(redisCache.putEntityIfVersion("hello", entity, 0));
+        Assert.assertFalse(redisCache.putEntityIfVersion("hello", entity, 0));
+        Mockito.verify(redisson, Mockito.never()).getBucket("hello");
+    }
+
+    /**
+     * Test versioned get returns the entity together with its version.
+     */
+    @Test
+    public void testGetEntityWithVersion() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        Mockito.when(redisson.getConfig()).thenReturn(new Config().setCodec(StringCodec.INSTANCE));
+        RScript script = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
+        Mockito.when(script.evalSha(Mockito.eq(RScript.Mode.READ_ONLY), Mockito.eq(VersionedEntityScript.GET_SHA),
+                Mockito.eq(RScript.ReturnType.MULTI), Mockito.eq(Collections.singletonList("hello"))))
+                .thenReturn(Arrays.asList((long) THREE.getValue(), entity));
+        redisCache.setRedissonClient(redisson);
+        VersionedEntity<IgniteCacheTestEntity> versioned = redisCache.getEntityWithVersion("hello");
+        Assert.assertEquals((long) THREE.getValue(), versioned.getVersion());
+        Assert.assertSame(entity, versioned.getValue());
+        Assert.assertNull(redisCache.getEntityWithVersion("world"));
+    }
+
+    /**
+     * Stubs the reads of a key with its remaining ttl, as near cache misses read them.
+     *
+     * @param redisson the mocked Redisson client
+     * @param key the key
+     * @param value the value, null if the key does not exist
+     * @param remainingMs the remaining ttl of the key in ms
+     * @return the mocked script client
+     */
+    private static RScript stubReadWithTtl(RedissonClient redisson, String key, Object value, long remainingMs) {
+        RScript script = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        Mockito.when(script.evalSha(Mockito.eq(RScript.Mode.READ_ONLY),
+                Mockito.eq(RedisScriptRegistry.sha1(SingleFlightLoader.READ_WITH_TTL_SCRIPT)),
+                Mockito.eq(RScript.ReturnType.MULTI), Mockito.eq(Collections.singletonList(key))))
+                .thenReturn(Arrays.asList(value, remainingMs));
+        return script;
+    }
+
+    /**
+     * Verifies the number of reads of a key with its remaining ttl.
+     *
+     * @param script the mocked script client
+     * @param key the key
+     * @param times the expected number of reads
+     */
+    private static void verifyReadsWithTtl(RScript script, String key, int times) {
+        Mockito.verify(script, Mockito.times(times)).evalSha(Mockito.eq(RScript.Mode.READ_ONLY),
+                Mockito.eq(RedisScriptRegistry.sha1(SingleFlightLoader.READ_WITH_TTL_SCRIPT)),
+                Mockito.eq(RScript.ReturnType.MULTI), Mockito.eq(Collections.singletonList(key)));
+    }
+
+    /**
+     * Test the forced health check probes Redis on the raw bucket, without publishing near cache invalidations.
+     */
+    @Test
+    public void testForcedHealthCheckNotPublishedWithNearCache() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RBucket<Object> rbucket = (RBucket<Object>) Mockito.mock(RBucket.class);
+        Mockito.when(redisson.getBucket("hello")).thenReturn(rbucket);
+        RTopic topic = Mockito.mock(RTopic.class);
+        Mockito.when(redisson.getTopic(Mockito.eq("invalidation"), Mockito.any(Codec.class))).thenReturn(topic);
+        redisCache.setRedissonClient(redisson);
+        redisCache.enableNearCache(TEN.getValue(), TimeUnit.MINUTES.toMillis(1), 0, Collections.emptyList(),
+                NearCacheInvalidation.CHANNEL, "invalidation");
+        Assert.assertTrue(redisCache.isHealthy(true));
+        Mockito.verify(rbucket).set("world");
+        Mockito.verify(rbucket).delete();
+        Mockito.verify(topic, Mockito.never()).publishAsync(Mockito.anyString());
+    }
+
+    /**
+     * Test reads are served from the near cache until the key is written.
+     */
+    @Test
+    public void testGetStringFromNearCache() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RScript script = stubReadWithTtl(redisson, "hello", "world", NearCache.NO_EXPIRY);
+        RBucket<Object> rbucket = (RBucket<Object>) Mockito.mock(RBucket.class);
+        Mockito.when(redisson.getBucket("hello")).thenReturn(rbucket);
+        RTopic topic = Mockito.mock(RTopic.class);
+        Mockito.when(redisson.getTopic(Mockito.eq("invalidation"), Mockito.any(Codec.class))).thenReturn(topic);
+        Mockito.when(topic.publishAsync("hello")).thenReturn(new CompletableFutureWrapper<>(1L));
+        redisCache.setRedissonClient(redisson);
+        redisCache.enableNearCache(TEN.getValue(), TimeUnit.MINUTES.toMillis(1), 0, Collections.emptyList(),
+                NearCacheInvalidation.CHANNEL, "invalidation");
+        Assert.assertEquals("world", redisCache.getString("hello"));
+        Assert.assertEquals("world", redisCache.getString(new GetStringRequest().withKey("hello")));
+        verifyReadsWithTtl(script, "hello", 1);
+
+        redisCache.putString(new PutStringRequest().withKey("hello").withValue("world"));
+        Mockito.verify(topic).publishAsync("hello");
+        Assert.assertEquals("world", redisCache.getString("hello"));
+        verifyReadsWithTtl(script, "hello", TWO.getValue());
+        Assert.assertEquals(1, redisCache.getNearCacheMetrics().getHits());
+        Assert.assertEquals(TWO.getValue(), redisCache.getNearCacheMetrics().getMisses());
+    }
+
+    /**
+     * Test a value is not served from the near cache once its key expired in Redis, even though the ttl of the
+     * near cache has not elapsed yet.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testNearCacheTtlCappedByKeyTtl() throws InterruptedException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RScript script = stubReadWithTtl(redisson, "hello", "world", 1L);
+        redisCache.setRedissonClient(redisson);
+        redisCache.enableNearCache(TEN.getValue(), TimeUnit.MINUTES.toMillis(1), 0, Collections.emptyList(),
+                NearCacheInvalidation.CHANNEL, "invalidation");
+        Assert.assertEquals("world", redisCache.getString("hello"));
+        Thread.sleep(TEN.getValue());
+        Assert.assertEquals("world", redisCache.getString("hello"));
+        verifyReadsWithTtl(script, "hello", TWO.getValue());
+        Assert.assertEquals(0, redisCache.getNearCacheMetrics().getHits());
+    }
+
+    /**
+     * Test reads of a missing key are served from the negative cache until the key is written, and written keys
+     * are published to the other instances when only the negative cache is enabled.
+     */
+    @Test
+    public void testGetStringFromNegativeCache() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RScript script = stubReadWithTtl(redisson, "unknown", null, NearCache.NO_EXPIRY);
+        RBucket<Object> rbucket = (RBucket<Object>) Mockito.mock(RBucket.class);
+        Mockito.when(redisson.getBucket("unknown")).thenReturn(rbucket);
+        RTopic topic = Mockito.mock(RTopic.class);
+        Mockito.when(redisson.getTopic(Mockito.eq("invalidation"), Mockito.any(Codec.class))).thenReturn(topic);
+        Mockito.when(topic.publishAsync("unknown")).thenReturn(new CompletableFutureWrapper<>(1L));
+        redisCache.setRedissonClient(redisson);
+        redisCache.enableNearCache(TEN.getValue(), 0, TimeUnit.MINUTES.toMillis(1), Collections.emptyList(),
+                NearCacheInvalidation.CHANNEL, "invalidation");
+        Assert.assertNull(redisCache.getString("unknown"));
+        Assert.assertNull(redisCache.getString("unknown"));
+        verifyReadsWithTtl(script, "unknown", 1);
+        Assert.assertEquals(1, redisCache.getNearCacheMetrics().getAbsentHits());
+
+        redisCache.putString(new PutStringRequest().withKey("unknown").withValue("world"));
+        Mockito.verify(topic).publishAsync("unknown");
+        stubReadWithTtl(redisson, "unknown", "world", NearCache.NO_EXPIRY);
+        Assert.assertEquals("world", redisCache.getString("unknown"));
+        Assert.assertEquals("world", redisCache.getString("unknown"));
+    }
+
+    /**
+     * Test KEYSPACE invalidation of the near cache is rejected in cluster mode.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeyspaceInvalidationRejectedInClusterMode() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        Config config = Mockito.mock(Config.class);
+        Mockito.when(config.isClusterConfig()).thenReturn(true);
+        Mockito.when(redisson.getConfig()).thenReturn(config);
+        redisCache.setRedissonClient(redisson);
+        redisCache.enableNearCache(TEN.getValue(), TimeUnit.MINUTES.toMillis(1), 0, Collections.emptyList(),
+                NearCacheInvalidation.KEYSPACE, "invalidation");
+    }
+
+    /**
+     * Test a missed entity is loaded and stored with the ttl, and a hit is not loaded.
+     */
+    @Test
+    public void testGetOrLoad() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RBucket<Object> rbucket = (RBucket<Object>) Mockito.mock(RBucket.class);
+        Mockito.when(redisson.getBucket("hello")).thenReturn(rbucket);
+        redisCache.setRedissonClient(redisson);
+        IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
+        Assert.assertSame(entity, redisCache.getOrLoad("hello", () -> entity, TEN.getValue()));
+        Mockito.verify(rbucket).set(entity, TEN.getValue(), TimeUnit.MILLISECONDS);
+
+        Mockito.when(rbucket.get()).thenReturn(entity);
+        Assert.assertSame(entity, redisCache.getOrLoad("hello", () -> {
+            throw new IllegalStateException("hit must not be loaded");
+        }, TEN.getValue()));
+    }
+
+    /**
+     * Test get or load with a negative lease.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetOrLoadWithNegativeLease() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.getOrLoad(new GetOrLoadRequest<IgniteCacheTestEntity>().withKey("hello")
+                .withLoader(IgniteCacheTestEntity::new).withLeaseMs(-1));
+    }
+
+    /**
+     * Test register refresh loader without ttl.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterRefreshLoaderWithoutTtl() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.registerRefreshLoader("vehicle:", 0, key -> new IgniteCacheTestEntity());
+    }
+
     /**
      * Test get entity with namespace not provided.
      */
@@ -599,7 +966,7 @@ public class IgniteCacheRedisImplUnitTest {
     @Test
     public void testPutStringKeyValueAsyncWithNamespaceDisabled() throws InterruptedException, ExecutionException {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
         Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
@@ -610,6 +977,7 @@ public class IgniteCacheRedisImplUnitTest {
                         .withValue("world")
                         .withMutationId("mut001")
                         .withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
         Assert.assertTrue(ret.isDone());
         Assert.assertEquals("mut001", ret.get());
         Mockito.verify(rbucket).setAsync("world");
@@ -660,7 +1028,7 @@ public class IgniteCacheRedisImplUnitTest {
     public void testPutStringKeyValueAsyncWithNullMutationIdWithNamespaceDisabled()
             throws InterruptedException, ExecutionException {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
         Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
@@ -671,6 +1039,7 @@ public class IgniteCacheRedisImplUnitTest {
                         .withValue("world")
                         .withMutationId(null)
                         .withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
         Assert.assertTrue(ret.isDone());
         Assert.assertNull(ret.get());
         Mockito.verify(rbucket).setAsync("world");
@@ -686,7 +1055,7 @@ public class IgniteCacheRedisImplUnitTest {
     public void testPutStringKeyValueWithTtlAsyncWithNamespaceDisabled()
             throws InterruptedException, ExecutionException {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
         Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
@@ -699,6 +1068,7 @@ public class IgniteCacheRedisImplUnitTest {
                         .withTtlMs(THOUSAND_LONG)
                         .withMutationId("mut001")
                         .withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
         Assert.assertTrue(ret.isDone());
         Assert.assertEquals("mut001", ret.get());
         Mockito.verify(rbucket).setAsync("world", THOUSAND_LONG, TimeUnit.MILLISECONDS);
@@ -714,7 +1084,7 @@ public class IgniteCacheRedisImplUnitTest {
     public void testPutStringKeyValueIfAsyncWithNamespaceDisabled()
             throws InterruptedException, ExecutionException {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
         Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
@@ -725,6 +1095,7 @@ public class IgniteCacheRedisImplUnitTest {
                         .ifCurrentMatches("")
                         .withValue("world")
                         .withMutationId("mut001"));
+        redisCache.flushPendingMutations();
         Assert.assertTrue(ret.isDone());
         Assert.assertEquals("mut001", ret.get());
         Mockito.verify(rbucket).compareAndSetAsync("", "world");
@@ -741,7 +1112,7 @@ public class IgniteCacheRedisImplUnitTest {
             throws InterruptedException, ExecutionException {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
         IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
         Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
@@ -749,6 +1120,7 @@ public class IgniteCacheRedisImplUnitTest {
         PutEntityRequest<IgniteCacheTestEntity> req = new PutEntityRequest<>();
         req.withKey("hello").withValue(entity).withMutationId("mut001").withNamespaceEnabled(false);
         Future<String> ret = redisCache.putEntityAsync(req);
+        redisCache.flushPendingMutations();
         Assert.assertTrue(ret.isDone());
         Assert.assertEquals("mut001", ret.get());
         Mockito.verify(rbucket).setAsync(entity);
@@ -809,7 +1181,7 @@ public class IgniteCacheRedisImplUnitTest {
     public void testPutEntityWithTtlAsyncWithNamespaceDisabled() throws InterruptedException, ExecutionException {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
         IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
         Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
@@ -820,6 +1192,7 @@ public class IgniteCacheRedisImplUnitTest {
         req.withKey("hello").withValue(entity).withMutationId("mut001").withNamespaceEnabled(false);
         req.withTtlMs(THOUSAND_LONG);
         Future<String> ret = redisCache.putEntityAsync(req);
+        redisCache.flushPendingMutations();
         Assert.assertTrue(ret.isDone());
         Assert.assertEquals("mut001", ret.get());
         Mockito.verify(rbucket).setAsync(entity, THOUSAND_LONG, TimeUnit.MILLISECONDS);
@@ -837,7 +1210,7 @@ public class IgniteCacheRedisImplUnitTest {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
         IgniteCacheTestEntity newEntity = new IgniteCacheTestEntity();
         IgniteCacheTestEntity oldEntity = new IgniteCacheTestEntity();
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
         Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
@@ -849,6 +1222,7 @@ public class IgniteCacheRedisImplUnitTest {
         req.ifCurrentMatches(oldEntity);
         Future<String> ret = redisCache
                 .putEntityAsync(req);
+        redisCache.flushPendingMutations();
         Assert.assertTrue(ret.isDone());
         Assert.assertEquals("mut001", ret.get());
         Mockito.verify(rbucket).compareAndSetAsync(oldEntity, newEntity);
@@ -864,7 +1238,7 @@ public class IgniteCacheRedisImplUnitTest {
     public void testAddStringToScoredSortedSetAsyncWithNamespaceDisabled()
             throws InterruptedException, ExecutionException {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RScoredSortedSetAsync<Object> rsss = (RScoredSortedSetAsync<Object>) Mockito.mock(RScoredSortedSetAsync.class);
         Mockito.when(rbatch.getScoredSortedSet("presidents")).thenReturn(rsss);
@@ -876,6 +1250,7 @@ public class IgniteCacheRedisImplUnitTest {
                         .withValue("Abdul Kalam")
                         .withMutationId("8undu7")
                         .withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
         Assert.assertTrue(ret.isDone());
         Assert.assertEquals("8undu7", ret.get());
         Mockito.verify(rsss).addAsync(1D, "Abdul Kalam");
@@ -892,7 +1267,7 @@ public class IgniteCacheRedisImplUnitTest {
             throws InterruptedException, ExecutionException {
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
         redisCache.setBatchSize(FIVE.getValue());
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         redisCache.setRBatch(rbatch);
         RScoredSortedSetAsync<Object> rsss = (RScoredSortedSetAsync<Object>) Mockito.mock(RScoredSortedSetAsync.class);
         Mockito.when(rbatch.getScoredSortedSet("entities")).thenReturn(rsss);
@@ -906,6 +1281,7 @@ public class IgniteCacheRedisImplUnitTest {
                         .withValue(entity)
                         .withMutationId("8undu7")
                         .withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
         Assert.assertFalse(ret.isDone());
         Mockito.verify(rsss).addAsync(1D, entity);
     }
@@ -921,7 +1297,7 @@ public class IgniteCacheRedisImplUnitTest {
         IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
         redisCache.setBatchSize(FIVE.getValue());
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         RScoredSortedSetAsync<Object> rsss = (RScoredSortedSetAsync<Object>) Mockito.mock(RScoredSortedSetAsync.class);
         Mockito.when(rbatch.getScoredSortedSet("entities")).thenReturn(rsss);
         Mockito.when(rsss.addAsync(1D, entity)).thenReturn(new CompletableFutureWrapper(false));
@@ -933,7 +1309,8 @@ public class IgniteCacheRedisImplUnitTest {
                         .withValue(entity)
                         .withMutationId("8undu7")
                         .withNamespaceEnabled(false));
-        // Assert.assertTrue(ret.isDone());
+        redisCache.flushPendingMutations();
+        Assert.assertTrue(ret.isDone());
         try {
             ret.get();
             Assert.fail("Expecting RuntimeException when testing completedExceptionally");
@@ -946,73 +1323,906 @@ public class IgniteCacheRedisImplUnitTest {
     }
 
     /**
-     * Test async batch already executed with namespace disabled.
+     * Test mutation that cannot be added to the batch only fails its own future with namespace disabled.
      *
      * @throws InterruptedException the interrupted exception
-     * @throws ExecutionException the execution exception
      */
     @Test
-    public void testAsyncBatchAlreadyExecutedWithNamespaceDisabled()
-            throws
-            InterruptedException,
-            ExecutionException {
+    public void testAsyncBatchAddFailureCompletesOnlyAffectedFutureWithNamespaceDisabled()
+            throws InterruptedException {
         IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
         redisCache.setBatchSize(FIVE.getValue());
-        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBatch rbatch = mockBatch();
         RScoredSortedSetAsync<Object> rsss = (RScoredSortedSetAsync<Object>) Mockito.mock(RScoredSortedSetAsync.class);
         Mockito.when(rbatch.getScoredSortedSet("entities")).thenReturn(rsss);
         Mockito.when(rsss.addAsync(1D, entity))
                 .thenThrow(new IllegalStateException("Batch already has been executed!"));
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
         redisCache.setRBatch(rbatch);
+        Future<String> failed = redisCache.addEntityToScoredSortedSetAsync(
+                new AddScoredEntityRequest<IgniteCacheTestEntity>()
+                        .withKey("entities")
+                        .withScore(1D)
+                        .withValue(entity)
+                        .withMutationId("8undu7")
+                        .withNamespaceEnabled(false));
+        Future<String> succeeded = redisCache.putStringAsync(new PutStringRequest()
+                .withKey("hello").withValue("world").withMutationId("mut001").withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
         try {
-            Future<String> ret = redisCache.addEntityToScoredSortedSetAsync(
-                    new AddScoredEntityRequest<IgniteCacheTestEntity>()
-                            .withKey("entities")
-                            .withScore(1D)
-                            .withValue(entity)
-                            .withMutationId("8undu7")
-                            .withNamespaceEnabled(false));
-            Assert.fail("Expecting RuntimeException when testing completedExceptionally");
-        } catch (Throwable re) {
-            Assert.assertEquals("Batch operation failed despite trying 5 times",
-                    re.getMessage());
+            failed.get();
+            Assert.fail("Expecting ExecutionException when mutation could not be added to batch");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            Assert.assertEquals("Batch already has been executed!", e.getCause().getMessage());
         }
-        Mockito.verify(rsss, Mockito.times(FIVE.getValue())).addAsync(1D, entity);
+        Assert.assertTrue(succeeded.isDone());
+        Mockito.verify(rsss).addAsync(1D, entity);
+        Mockito.verify(rbatch).executeAsync();
     }
 
     /**
-     * Test async batch unexpected illegal state exception with namespace disabled.
+     * Test failed mutation is retried and then fails with the batch id and the cause, while the other mutations
+     * of its batch succeed, with namespace disabled.
      *
      * @throws InterruptedException the interrupted exception
      * @throws ExecutionException the execution exception
      */
     @Test
-    public void testAsyncBatchUnexpectedIllegalStateExceptionWithNamespaceDisabled()
+    public void testAsyncFailedMutationRetriedBeforeFailingWithNamespaceDisabled()
             throws InterruptedException, ExecutionException {
-        IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
         IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
         redisCache.setBatchSize(FIVE.getValue());
-        RBatch rbatch = Mockito.mock(RBatch.class);
-        RScoredSortedSetAsync<Object> rsss = (RScoredSortedSetAsync<Object>) Mockito.mock(RScoredSortedSetAsync.class);
-        Mockito.when(rbatch.getScoredSortedSet("entities")).thenReturn(rsss);
-        Mockito.when(rsss.addAsync(1D, entity))
-                .thenThrow(new IllegalStateException("This is something we are not expecting"));
+        redisCache.setRetryPolicy(1, 0L, 0L);
+        RBatch rbatch = mockBatch();
+        RBucketAsync<Object> poison = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("poison")).thenReturn(poison);
+        Mockito.when(poison.setAsync("world"))
+                .thenReturn(new CompletableFutureWrapper<Void>(new IllegalStateException("OOM command not allowed")));
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
         redisCache.setRBatch(rbatch);
+        Future<String> failed = redisCache.putStringAsync(new PutStringRequest()
+                .withKey("poison").withValue("world").withMutationId("mut001").withNamespaceEnabled(false));
+        Future<String> succeeded = putHelloAsync(redisCache, "mut002");
+        redisCache.flushPendingMutations();
+        Assert.assertEquals("mut002", succeeded.get());
         try {
-            Future<String> ret = redisCache.addEntityToScoredSortedSetAsync(
-                    new AddScoredEntityRequest<IgniteCacheTestEntity>()
-                            .withKey("entities")
-                            .withScore(1D)
-                            .withValue(entity)
-                            .withMutationId("8undu7")
-                            .withNamespaceEnabled(false));
-            Assert.fail("Expecting RuntimeException when testing completedExceptionally");
-        } catch (Throwable re) {
-            Assert.assertEquals("This is something we are not expecting",
-                    re.getMessage());
+            failed.get();
+            Assert.fail("Expecting ExecutionException when mutation ran out of retries");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RedisBatchProcessingException);
+            Assert.assertEquals("Mutation mut001 for key poison failed in batch 2 after 2 attempt(s)",
+                    e.getCause().getMessage());
+            Assert.assertEquals("OOM command not allowed", e.getCause().getCause().getMessage());
         }
-        Mockito.verify(rsss).addAsync(1D, entity);
+        Mockito.verify(poison, Mockito.times(TWO.getValue())).setAsync("world");
+        Mockito.verify(rbucket).setAsync("world");
+        Assert.assertEquals(1, redisCache.getPipelineMetrics().getRetriedMutations());
+        Assert.assertEquals(1, redisCache.getPipelineMetrics().getFailedMutations());
+    }
+
+    /**
+     * Test failed SET is not retried once a newer SET of the same key has been queued, so the retry cannot overwrite
+     * the newer value, and completes once the newer SET has been executed, with namespace disabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testAsyncFailedMutationNotRetriedAfterNewerWriteWithNamespaceDisabled()
+            throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.setRetryPolicy(1, 0L, 0L);
+        RBatch rbatch = mockBatch();
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("stale"))
+                .thenReturn(new CompletableFutureWrapper<Void>(new IllegalStateException("OOM command not allowed")));
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        redisCache.setRBatch(rbatch);
+        Future<String> stale = redisCache.putStringAsync(new PutStringRequest()
+                .withKey("hello").withValue("stale").withMutationId("mut001").withNamespaceEnabled(false));
+        Future<String> newer = putHelloAsync(redisCache, "mut002");
+        redisCache.flushPendingMutations();
+        Assert.assertEquals("mut002", newer.get());
+        Assert.assertEquals("mut001", stale.get());
+        Mockito.verify(rbucket).setAsync("stale");
+        Mockito.verify(rbucket).setAsync("world");
+        Assert.assertEquals(0, redisCache.getPipelineMetrics().getRetriedMutations());
+    }
+
+    /**
+     * Test failed batch execution fails every mutation whose command did not complete with namespace disabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testAsyncBatchExecutionFailureFailsPendingMutationsWithNamespaceDisabled()
+            throws InterruptedException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.setRetryPolicy(0, 0L, 0L);
+        RBatch rbatch = Mockito.mock(RBatch.class);
+        Mockito.when(rbatch.executeAsync())
+                .thenReturn(new CompletableFutureWrapper<>(new IllegalStateException("Connection reset")));
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket(Mockito.anyString())).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world"))
+                .thenReturn(new CompletableFutureWrapper<Void>(new CompletableFuture<Void>()));
+        redisCache.setRBatch(rbatch);
+        List<Future<String>> futures = Arrays.asList(putHelloAsync(redisCache, "mut001"),
+                redisCache.putStringAsync(new PutStringRequest()
+                        .withKey("hi").withValue("world").withMutationId("mut002").withNamespaceEnabled(false)));
+        redisCache.flushPendingMutations();
+        for (Future<String> future : futures) {
+            Assert.assertTrue(future.isDone());
+            try {
+                future.get();
+                Assert.fail("Expecting ExecutionException when batch execution failed");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof RedisBatchProcessingException);
+                Assert.assertEquals("Connection reset", e.getCause().getCause().getMessage());
+            }
+        }
+        Assert.assertEquals(TWO.getValue(), redisCache.getPipelineMetrics().getFailedMutations());
+    }
+
+    /**
+     * Test unconditional writes go into a batch that skips results and are acknowledged once it is executed, with
+     * namespace disabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testSkipResultRoutesFireAndForgetWritesWithNamespaceDisabled()
+            throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.setSkipResult(true);
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBatch fireAndForget = mockBatch();
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(fireAndForget.getBucket("hello")).thenReturn(rbucket);
+        // commands of a batch that skips results never complete on their own
+        Mockito.when(rbucket.setAsync("world"))
+                .thenReturn(new CompletableFutureWrapper<Void>(new CompletableFuture<Void>()));
+        redisCache.setFireAndForgetRBatch(fireAndForget);
+        Future<String> put = putHelloAsync(redisCache, "mut001");
+        redisCache.flushPendingMutations();
+        Assert.assertEquals("mut001", put.get());
+        Mockito.verify(fireAndForget).executeAsync();
+        Mockito.verifyNoInteractions(rbatch);
+    }
+
+    /**
+     * Test a write followed by a compare and set of the same key go into one batch with results in their order,
+     * even though results are skipped, with namespace disabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testSkipResultKeepsOrderOfWriteAndCompareAndSetWithNamespaceDisabled()
+            throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.setSkipResult(true);
+        RBatch rbatch = mockBatch();
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<>((Void) null));
+        Mockito.when(rbucket.compareAndSetAsync("world", "again")).thenReturn(new CompletableFutureWrapper<>(true));
+        redisCache.setRBatch(rbatch);
+        RBatch fireAndForget = mockBatch();
+        redisCache.setFireAndForgetRBatch(fireAndForget);
+        Future<String> put = putHelloAsync(redisCache, "mut001");
+        Future<String> compareAndSet = redisCache.putStringAsync(new PutStringRequest().withKey("hello")
+                .ifCurrentMatches("world").withValue("again").withMutationId("mut002").withNamespaceEnabled(false));
+        redisCache.flushPendingMutations();
+        Assert.assertEquals("mut001", put.get());
+        Assert.assertEquals("mut002", compareAndSet.get());
+        InOrder order = Mockito.inOrder(rbucket);
+        order.verify(rbucket).setAsync("world");
+        order.verify(rbucket).compareAndSetAsync("world", "again");
+        Mockito.verify(rbatch).executeAsync();
+        Mockito.verifyNoInteractions(fireAndForget);
+    }
+
+    /**
+     * Test async reads of strings and entities are read together with a single MGET with namespace disabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testAsyncReadsGatheredIntoSingleMgetWithNamespaceDisabled()
+            throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        redisCache.setRedissonClient(redisson);
+        RBuckets rbuckets = Mockito.mock(RBuckets.class);
+        Mockito.when(redisson.getBuckets()).thenReturn(rbuckets);
+        IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
+        Map<String, Object> values = new HashMap<>();
+        values.put("hello", "world");
+        values.put("entity", entity);
+        Mockito.when(rbuckets.getAsync("hello", "entity", "hi")).thenReturn(new CompletableFutureWrapper<>(values));
+        Future<String> hello = redisCache.getStringAsync(new GetStringRequest().withKey("hello")
+                .withNamespaceEnabled(false));
+        Future<IgniteCacheTestEntity> entityRead = redisCache.getEntityAsync(new GetEntityRequest().withKey("entity")
+                .withNamespaceEnabled(false));
+        Future<String> duplicate = redisCache.getStringAsync(new GetStringRequest().withKey("hello")
+                .withNamespaceEnabled(false));
+        Future<String> missing = redisCache.getStringAsync(new GetStringRequest().withKey("hi")
+                .withNamespaceEnabled(false));
+        redisCache.flushPendingReads();
+        Assert.assertEquals("world", hello.get());
+        Assert.assertEquals("world", duplicate.get());
+        Assert.assertSame(entity, entityRead.get());
+        Assert.assertNull(missing.get());
+        Mockito.verify(rbuckets).getAsync("hello", "entity", "hi");
+        Mockito.verify(redisson, Mockito.never()).getBucket(Mockito.anyString());
+    }
+
+    /**
+     * Test get strings reads all keys with a single MGET and omits missing keys.
+     */
+    @Test
+    public void testGetStringsOmitsMissingKeys() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        redisCache.setRedissonClient(redisson);
+        RBuckets rbuckets = Mockito.mock(RBuckets.class);
+        Mockito.when(redisson.getBuckets()).thenReturn(rbuckets);
+        Map<String, Object> values = new HashMap<>();
+        values.put("hello", "world");
+        Mockito.when(rbuckets.getAsync(Mockito.<String>any())).thenReturn(new CompletableFutureWrapper<>(values));
+        Map<String, String> strings = redisCache.getStrings(Arrays.asList("hello", "hi"));
+        Assert.assertEquals(Collections.singletonMap("hello", "world"), strings);
+        Mockito.verify(rbuckets, Mockito.times(1)).getAsync(Mockito.<String>any());
+    }
+
+    /**
+     * Test get entities issues one MGET per slot in cluster mode.
+     */
+    @Test
+    public void testGetEntitiesGroupedBySlotInClusterMode() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        redisCache.setRedissonClient(redisson);
+        Config config = Mockito.mock(Config.class);
+        Mockito.when(config.isClusterConfig()).thenReturn(true);
+        Mockito.when(redisson.getConfig()).thenReturn(config);
+        RBuckets rbuckets = Mockito.mock(RBuckets.class);
+        Mockito.when(redisson.getBuckets()).thenReturn(rbuckets);
+        IgniteCacheTestEntity first = new IgniteCacheTestEntity();
+        IgniteCacheTestEntity second = new IgniteCacheTestEntity();
+        Map<String, Object> sameSlot = new HashMap<>();
+        sameSlot.put("{user1}.a", first);
+        sameSlot.put("{user1}.b", second);
+        Mockito.when(rbuckets.getAsync(Mockito.<String>any())).thenAnswer(invocation -> {
+            Map<String, Object> values = new HashMap<>();
+            for (Object key : invocation.getArguments()) {
+                if (sameSlot.containsKey(key)) {
+                    values.put((String) key, sameSlot.get(key));
+                }
+            }
+            return new CompletableFutureWrapper<>(values);
+        });
+        Map<String, IgniteCacheTestEntity> entities = redisCache.getEntities(Arrays.asList("{user1}.a", "{user1}.b",
+                "other"));
+        Assert.assertEquals(TWO.getValue(), entities.size());
+        Assert.assertSame(first, entities.get("{user1}.a"));
+        Assert.assertSame(second, entities.get("{user1}.b"));
+        Mockito.verify(rbuckets, Mockito.times(TWO.getValue())).getAsync(Mockito.<String>any());
+    }
+
+    /**
+     * Test put strings without expiry writes all keys with a single MSET.
+     */
+    @Test
+    public void testPutStringsWithoutTtlUsesMset() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        redisCache.setRedissonClient(redisson);
+        RBatch rbatch = mockBatch();
+        Mockito.when(redisson.createBatch(Mockito.any(BatchOptions.class))).thenReturn(rbatch);
+        RBucketsAsync rbuckets = Mockito.mock(RBucketsAsync.class);
+        Mockito.when(rbatch.getBuckets()).thenReturn(rbuckets);
+        Map<String, String> values = new HashMap<>();
+        values.put("hello", "world");
+        values.put("hi", "there");
+        redisCache.putStrings(values, -1L);
+        Mockito.verify(rbuckets).setAsync(values);
+        Mockito.verify(rbatch).executeAsync();
+    }
+
+    /**
+     * Test put strings writes one batch per cluster master, holding an MSET per slot.
+     */
+    @Test
+    public void testPutStringsBatchedPerClusterMaster() {
+        RedisClusterMaster first = ClusterSlotRouterTest.master(FIRST_MASTER_PORT);
+        RedisClusterMaster second = ClusterSlotRouterTest.master(SECOND_MASTER_PORT);
+        Map<ClusterSlotRange, Set<String>> slots = new HashMap<>();
+        slots.put(new ClusterSlotRange(0, CLUSTER_SLOT_SPLIT - 1),
+                Collections.singleton("127.0.0.1:" + FIRST_MASTER_PORT));
+        slots.put(new ClusterSlotRange(CLUSTER_SLOT_SPLIT, ClusterSlotRouter.SLOT_COUNT - 1),
+                Collections.singleton("127.0.0.1:" + SECOND_MASTER_PORT));
+        Mockito.when(first.clusterSlots()).thenReturn(slots);
+        RedisCluster cluster = Mockito.mock(RedisCluster.class);
+        Mockito.when(cluster.getMasters()).thenReturn(Arrays.asList(first, second));
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        Mockito.when(redisson.getRedisNodes(RedisNodes.CLUSTER)).thenReturn(cluster);
+        Config config = Mockito.mock(Config.class);
+        Mockito.when(config.isClusterConfig()).thenReturn(true);
+        Mockito.when(redisson.getConfig()).thenReturn(config);
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setRedissonClient(redisson);
+        redisCache.refreshShards();
+        RBatch rbatch = mockBatch();
+        Mockito.when(redisson.createBatch(Mockito.any(BatchOptions.class))).thenReturn(rbatch);
+        RBucketsAsync rbuckets = Mockito.mock(RBucketsAsync.class);
+        Mockito.when(rbatch.getBuckets()).thenReturn(rbuckets);
+        Map<String, String> values = new HashMap<>();
+        // bar and hello live in two slots of the first master, foo on the second one
+        values.put("bar", "world");
+        values.put("hello", "world");
+        values.put("foo", "world");
+        redisCache.putStrings(values, -1L);
+        Mockito.verify(redisson, Mockito.times(TWO.getValue())).createBatch(Mockito.any(BatchOptions.class));
+        Mockito.verify(rbatch, Mockito.times(TWO.getValue())).executeAsync();
+        Mockito.verify(rbuckets).setAsync(Collections.singletonMap("bar", "world"));
+        Mockito.verify(rbuckets).setAsync(Collections.singletonMap("hello", "world"));
+        Mockito.verify(rbuckets).setAsync(Collections.singletonMap("foo", "world"));
+    }
+
+    /**
+     * Test put strings rejects a ttl that is neither positive nor -1 before writing anything.
+     */
+    @Test
+    public void testPutStringsRejectsInvalidTtl() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        redisCache.setRedissonClient(redisson);
+        try {
+            redisCache.putStrings(Collections.singletonMap("hello", "world"), 0L);
+            Assert.fail("Expecting IllegalArgumentException for a ttl of 0");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Invalid ttlMs 0, expected a positive value or -1", e.getMessage());
+        }
+        Mockito.verify(redisson, Mockito.never()).createBatch(Mockito.any(BatchOptions.class));
+    }
+
+    /**
+     * Test put entities with expiry pipelines a SET PX per key in a single batch.
+     */
+    @Test
+    public void testPutEntitiesWithTtlPipelinesSetPx() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        redisCache.setRedissonClient(redisson);
+        RBatch rbatch = mockBatch();
+        Mockito.when(redisson.createBatch(Mockito.any(BatchOptions.class))).thenReturn(rbatch);
+        RBucketAsync<Object> first = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        RBucketAsync<Object> second = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("first")).thenReturn(first);
+        Mockito.when(rbatch.getBucket("second")).thenReturn(second);
+        IgniteCacheTestEntity entity = new IgniteCacheTestEntity();
+        Map<String, IgniteCacheTestEntity> entities = new HashMap<>();
+        entities.put("first", entity);
+        entities.put("second", entity);
+        redisCache.putEntities(entities, TimeUnit.MINUTES.toMillis(1));
+        Mockito.verify(first).setAsync(entity, TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+        Mockito.verify(second).setAsync(entity, TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+        Mockito.verify(rbatch).executeAsync();
+    }
+
+    /**
+     * Test async operation taking an executor completes its future on that executor with namespace disabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testAsyncViewCompletesOnCallbackExecutorWithNamespaceDisabled()
+            throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        RBatch rbatch = mockBatch();
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        redisCache.setRBatch(rbatch);
+        List<Runnable> callbacks = new ArrayList<>();
+        AsyncIgniteCache asyncCache = redisCache;
+        CompletableFuture<String> future = asyncCache.putStringAsync(new PutStringRequest().withKey("hello")
+                .withValue("world").withMutationId("mut001").withNamespaceEnabled(false), callbacks::add);
+        redisCache.flushPendingMutations();
+        Assert.assertFalse(future.isDone());
+        Assert.assertEquals(1, callbacks.size());
+        callbacks.get(0).run();
+        Assert.assertEquals("mut001", future.get());
+    }
+
+    /**
+     * Test shutdown flushes mutations queued below the batch size and rejects new ones with namespace disabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testShutdownFlushesQueuedMutationsWithNamespaceDisabled()
+            throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        Future<String> future = putHelloAsync(redisCache, "mut001");
+        Assert.assertFalse(future.isDone());
+        redisCache.shutdown(THOUSAND_LONG);
+        Assert.assertEquals("mut001", future.get());
+        Mockito.verify(rbatch).executeAsync();
+        Assert.assertEquals(0, redisCache.getPipelineMetrics().getAbandonedMutations());
+        try {
+            putHelloAsync(redisCache, "mut002");
+            Assert.fail("Expecting RedisBatchProcessingException after shutdown");
+        } catch (RedisBatchProcessingException e) {
+            Assert.assertEquals("Async pipeline is shutting down, mutation mut002 for key hello was rejected",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Test shutdown executes a failed mutation waiting for the backoff of its retry instead of dropping it with the
+     * tasks of the batch flusher, with namespace disabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testShutdownExecutesRetryWaitingForBackoffWithNamespaceDisabled()
+            throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.setRetryPolicy(1, THOUSAND_LONG * TEN.getValue(), THOUSAND_LONG * TEN.getValue());
+        redisCache.setBatchFlusher(Executors.newSingleThreadScheduledExecutor());
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world"))
+                .thenReturn(new CompletableFutureWrapper<Void>(new IllegalStateException("OOM command not allowed")))
+                .thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        Future<String> future = putHelloAsync(redisCache, "mut001");
+        redisCache.flushPendingMutations();
+        Assert.assertFalse(future.isDone());
+        redisCache.shutdown(THOUSAND_LONG);
+        Assert.assertEquals("mut001", future.get());
+        Mockito.verify(rbucket, Mockito.times(TWO.getValue())).setAsync("world");
+        Assert.assertEquals(1, redisCache.getPipelineMetrics().getRetriedMutations());
+        Assert.assertEquals(0, redisCache.getPipelineMetrics().getAbandonedMutations());
+    }
+
+    /**
+     * Test shutdown fails the mutations still queued once its deadline has passed with namespace disabled.
+     */
+    @Test
+    public void testShutdownAbandonsQueuedMutationsAfterDeadlineWithNamespaceDisabled() {
+        IgniteCacheRedisImpl redisCache = newSaturatedPipeline(PipelineOverflowPolicy.FAIL_FAST);
+        redisCache.shutdown(1);
+        RedisPipelineMetrics metrics = redisCache.getPipelineMetrics();
+        Assert.assertEquals(TWO.getValue(), metrics.getAbandonedMutations());
+        Assert.assertEquals(0, metrics.getQueueDepth());
+        Assert.assertEquals(1, metrics.getInFlightBatches());
+    }
+
+    /**
+     * Test async mutations are spilled to the journal while Redis is unhealthy and replayed once it is healthy again
+     * with namespace disabled.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testAsyncMutationsSpilledWhileUnhealthyWithNamespaceDisabled()
+            throws IOException, InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(1);
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        Path path = Files.createTempFile("redis-spill", ".journal");
+        try {
+            redisCache.setSpillJournal(SpillJournal.open(path, SPILL_MAX_BYTES, StringCodec.INSTANCE));
+            redisCache.setHealthy(false);
+            Future<String> future = putHelloAsync(redisCache, "mut001");
+            Assert.assertFalse(future.isDone());
+            Mockito.verify(rbatch, Mockito.never()).executeAsync();
+            redisCache.setHealthy(true);
+            redisCache.replaySpilledMutations();
+            Assert.assertEquals("mut001", future.get());
+            Mockito.verify(rbucket).setAsync("world");
+            Assert.assertEquals(1, redisCache.getPipelineMetrics().getSpilledMutations());
+            Assert.assertEquals(1, redisCache.getPipelineMetrics().getReplayedMutations());
+        } finally {
+            redisCache.shutdown(THOUSAND_LONG);
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Test async mutations are not added to the batch until it is drained with namespace disabled.
+     */
+    @Test
+    public void testAsyncMutationsQueuedUntilBatchSizeReachedWithNamespaceDisabled() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(TWO.getValue());
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        Future<String> first = redisCache.putStringAsync(new PutStringRequest()
+                .withKey("hello").withValue("world").withMutationId("mut001").withNamespaceEnabled(false));
+        Assert.assertFalse(first.isDone());
+        Mockito.verify(rbucket, Mockito.never()).setAsync("world");
+        Future<String> second = redisCache.putStringAsync(new PutStringRequest()
+                .withKey("hello").withValue("world").withMutationId("mut002").withNamespaceEnabled(false));
+        Assert.assertTrue(first.isDone());
+        Assert.assertTrue(second.isDone());
+        Mockito.verify(rbucket, Mockito.times(TWO.getValue())).setAsync("world");
+        Mockito.verify(rbatch).executeAsync();
+    }
+
+    /**
+     * Test async mutations are batched per cluster master and a full shard does not wait for the others.
+     */
+    @Test
+    public void testAsyncMutationsShardedPerClusterMasterWithNamespaceDisabled() {
+        RedisClusterMaster first = ClusterSlotRouterTest.master(FIRST_MASTER_PORT);
+        RedisClusterMaster second = ClusterSlotRouterTest.master(SECOND_MASTER_PORT);
+        Map<ClusterSlotRange, Set<String>> slots = new HashMap<>();
+        slots.put(new ClusterSlotRange(0, CLUSTER_SLOT_SPLIT - 1),
+                Collections.singleton("127.0.0.1:" + FIRST_MASTER_PORT));
+        slots.put(new ClusterSlotRange(CLUSTER_SLOT_SPLIT, ClusterSlotRouter.SLOT_COUNT - 1),
+                Collections.singleton("127.0.0.1:" + SECOND_MASTER_PORT));
+        Mockito.when(first.clusterSlots()).thenReturn(slots);
+        RedisCluster cluster = Mockito.mock(RedisCluster.class);
+        Mockito.when(cluster.getMasters()).thenReturn(Arrays.asList(first, second));
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        Mockito.when(redisson.getRedisNodes(RedisNodes.CLUSTER)).thenReturn(cluster);
+
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setRedissonClient(redisson);
+        redisCache.setBatchSize(TWO.getValue());
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket(Mockito.anyString())).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        redisCache.refreshShards();
+
+        // bar and hello live on the first master, foo on the second one
+        Future<String> bar = redisCache.putStringAsync(new PutStringRequest()
+                .withKey("bar").withValue("world").withMutationId("mut001").withNamespaceEnabled(false));
+        Future<String> foo = redisCache.putStringAsync(new PutStringRequest()
+                .withKey("foo").withValue("world").withMutationId("mut002").withNamespaceEnabled(false));
+        Assert.assertFalse(bar.isDone());
+        Assert.assertFalse(foo.isDone());
+        Future<String> hello = redisCache.putStringAsync(new PutStringRequest()
+                .withKey("hello").withValue("world").withMutationId("mut003").withNamespaceEnabled(false));
+        Assert.assertTrue(bar.isDone());
+        Assert.assertTrue(hello.isDone());
+        Assert.assertFalse(foo.isDone());
+        Mockito.verify(rbatch).executeAsync();
+        Mockito.verify(rbatch, Mockito.never()).getBucket("foo");
+    }
+
+    /**
+     * Test adaptive batch size grows after full batches and is exported through the pipeline metrics.
+     */
+    @Test
+    public void testAdaptiveBatchSizeExportedAsMetricWithNamespaceDisabled() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(TWO.getValue());
+        redisCache.enableAdaptiveBatchSize(TWO.getValue(), FIVE.getValue(), 1, TimeUnit.MINUTES.toMillis(1));
+        Assert.assertEquals(TWO.getValue(), redisCache.getPipelineMetrics().getBatchSize());
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        for (int i = 0; i < TWO.getValue(); i++) {
+            redisCache.putStringAsync(new PutStringRequest()
+                    .withKey("hello").withValue("world").withNamespaceEnabled(false));
+        }
+        Mockito.verify(rbatch).executeAsync();
+        Assert.assertEquals(TWO.getValue() + 1, redisCache.getPipelineMetrics().getBatchSize());
+        Assert.assertEquals(1, redisCache.getPipelineMetrics().getExecutedBatches());
+    }
+
+    /**
+     * Test mutations are rejected with FAIL_FAST once the in-flight and queued limits are reached.
+     */
+    @Test
+    public void testPipelineOverflowFailFastWithNamespaceDisabled() {
+        IgniteCacheRedisImpl redisCache = newSaturatedPipeline(PipelineOverflowPolicy.FAIL_FAST);
+        try {
+            putHelloAsync(redisCache, "mut005");
+            Assert.fail("Expecting RedisPipelineOverflowException when pipeline is full");
+        } catch (RedisPipelineOverflowException e) {
+            Assert.assertEquals("Async pipeline is full with 2 queued mutations", e.getMessage());
+        }
+        RedisPipelineMetrics metrics = redisCache.getPipelineMetrics();
+        Assert.assertEquals(1, metrics.getRejectedMutations());
+        Assert.assertEquals(TWO.getValue(), metrics.getQueueDepth());
+        Assert.assertEquals(1, metrics.getInFlightBatches());
+    }
+
+    /**
+     * Test the oldest queued mutation is failed with DROP_OLDEST once the limits are reached.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testPipelineOverflowDropOldestWithNamespaceDisabled() throws InterruptedException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(TWO.getValue());
+        redisCache.configureBackpressure(1, TWO.getValue(), PipelineOverflowPolicy.DROP_OLDEST, 0);
+        redisCache.setRBatch(mockPendingBatch());
+        putHelloAsync(redisCache, "mut001");
+        putHelloAsync(redisCache, "mut002");
+        Future<String> oldest = putHelloAsync(redisCache, "mut003");
+        Future<String> queued = putHelloAsync(redisCache, "mut004");
+        Future<String> admitted = putHelloAsync(redisCache, "mut005");
+        try {
+            oldest.get();
+            Assert.fail("Expecting oldest queued mutation to be dropped");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RedisPipelineOverflowException);
+        }
+        Assert.assertFalse(queued.isDone());
+        Assert.assertFalse(admitted.isDone());
+        Assert.assertEquals(1, redisCache.getPipelineMetrics().getDroppedMutations());
+        Assert.assertEquals(TWO.getValue(), redisCache.getPipelineMetrics().getQueueDepth());
+    }
+
+    /**
+     * Test BLOCK fails the caller once the block timeout elapsed without capacity becoming available.
+     */
+    @Test(expected = RedisPipelineOverflowException.class)
+    public void testPipelineOverflowBlockTimeoutWithNamespaceDisabled() {
+        putHelloAsync(newSaturatedPipeline(PipelineOverflowPolicy.BLOCK), "mut005");
+    }
+
+    /**
+     * Creates a pipeline with batch size 2, 1 in-flight batch that never completes and 2 queued mutations,
+     * so any further mutation overflows.
+     *
+     * @param policy the overflow policy
+     * @return the cache
+     */
+    private static IgniteCacheRedisImpl newSaturatedPipeline(PipelineOverflowPolicy policy) {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(TWO.getValue());
+        redisCache.configureBackpressure(1, TWO.getValue(), policy, 1);
+        RBatch rbatch = mockPendingBatch();
+        redisCache.setRBatch(rbatch);
+        for (int i = 1; i <= TWO.getValue() + TWO.getValue(); i++) {
+            putHelloAsync(redisCache, "mut00" + i);
+        }
+        Mockito.verify(rbatch).executeAsync();
+        return redisCache;
+    }
+
+    /**
+     * Puts hello=world asynchronously.
+     *
+     * @param redisCache the cache
+     * @param mutationId the mutation id
+     * @return the future
+     */
+    private static Future<String> putHelloAsync(IgniteCacheRedisImpl redisCache, String mutationId) {
+        return redisCache.putStringAsync(new PutStringRequest()
+                .withKey("hello").withValue("world").withMutationId(mutationId).withNamespaceEnabled(false));
+    }
+
+    /**
+     * Creates a mocked batch whose asynchronous execution never completes.
+     *
+     * @return the mocked batch
+     */
+    private static RBatch mockPendingBatch() {
+        RBatch rbatch = Mockito.mock(RBatch.class);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        RFuture<BatchResult<?>> pending = (RFuture<BatchResult<?>>) Mockito.mock(RFuture.class);
+        Mockito.when(rbatch.executeAsync()).thenReturn(pending);
+        return rbatch;
+    }
+
+    /**
+     * Test repeated writes of a key in a batch are coalesced into the last one when write coalescing is enabled.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testCoalesceWritesWithNamespaceDisabled() throws InterruptedException, ExecutionException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.setCoalesceWrites(true);
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync(Mockito.any())).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 1; i <= FIVE.getValue(); i++) {
+            futures.add(redisCache.putStringAsync(new PutStringRequest()
+                    .withKey("hello").withValue("world" + i).withMutationId("mut00" + i).withNamespaceEnabled(false)));
+        }
+        for (int i = 1; i <= FIVE.getValue(); i++) {
+            Assert.assertEquals("mut00" + i, futures.get(i - 1).get());
+        }
+        Mockito.verify(rbucket).setAsync("world" + FIVE.getValue());
+        Mockito.verify(rbucket, Mockito.times(1)).setAsync(Mockito.any());
+        Assert.assertEquals(FIVE.getValue() - 1, redisCache.getPipelineMetrics().getCoalescedMutations());
+    }
+
+    /**
+     * Test partially filled batch is executed once linger time has elapsed.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testPartialBatchExecutedAfterLingerWithNamespaceDisabled() throws InterruptedException {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.setLingerMs(1L);
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        redisCache.setRedissonClient(redisson);
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        redisCache.putStringAsync(new PutStringRequest()
+                .withKey("hello").withValue("world").withNamespaceEnabled(false));
+        Mockito.verify(rbatch, Mockito.never()).executeAsync();
+        Thread.sleep(FIVE.getValue());
+        redisCache.flushIfLingerElapsed();
+        Mockito.verify(rbatch).executeAsync();
+    }
+
+    /**
+     * Test partially filled batch is not executed before linger time has elapsed.
+     */
+    @Test
+    public void testPartialBatchNotExecutedBeforeLingerWithNamespaceDisabled() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.setLingerMs(TimeUnit.HOURS.toMillis(1));
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket("hello")).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        redisCache.putStringAsync(new PutStringRequest()
+                .withKey("hello").withValue("world").withNamespaceEnabled(false));
+        redisCache.flushIfLingerElapsed();
+        Mockito.verify(rbatch, Mockito.never()).executeAsync();
+    }
+
+    /**
+     * Test a HIGH priority mutation is executed with the batch size of its lane while the LOW lane is held back
+     * by its in-flight batch limit.
+     */
+    @Test
+    public void testHighPriorityLaneNotHeldBackByLowLaneWithNamespaceDisabled() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.configureLane(MutationPriority.HIGH, 1, 0, 0);
+        redisCache.configureLane(MutationPriority.LOW, 1, 0, 1);
+        RBatch rbatch = mockPendingBatch();
+        redisCache.setRBatch(rbatch);
+        Future<String> backfill = redisCache.putStringAsync(new PutStringRequest().withKey("hello")
+                .withValue("world").withMutationId("mut001").withPriority(MutationPriority.LOW)
+                .withNamespaceEnabled(false));
+        Future<String> heldBack = redisCache.putStringAsync(new PutStringRequest().withKey("hello")
+                .withValue("world").withMutationId("mut002").withPriority(MutationPriority.LOW)
+                .withNamespaceEnabled(false));
+        Mockito.verify(rbatch).executeAsync();
+        Future<String> urgent = redisCache.putStringAsync(new PutStringRequest().withKey("hello")
+                .withValue("world").withMutationId("mut003").withPriority(MutationPriority.HIGH)
+                .withNamespaceEnabled(false));
+        Mockito.verify(rbatch, Mockito.times(TWO.getValue())).executeAsync();
+        Assert.assertFalse(backfill.isDone());
+        Assert.assertFalse(heldBack.isDone());
+        Assert.assertFalse(urgent.isDone());
+        Assert.assertEquals(1, redisCache.getPipelineMetrics().getQueueDepth());
+        Assert.assertEquals(TWO.getValue(), redisCache.getPipelineMetrics().getInFlightBatches());
+    }
+
+    /**
+     * Test the in-flight batch limit of the pipeline caps the HIGH lane, which has no limit of its own.
+     */
+    @Test
+    public void testInFlightBatchLimitAppliedToHighLaneWithNamespaceDisabled() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.configureBackpressure(1, 0, PipelineOverflowPolicy.FAIL_FAST, 0);
+        redisCache.configureLane(MutationPriority.HIGH, 1, 0, 0);
+        RBatch rbatch = mockPendingBatch();
+        redisCache.setRBatch(rbatch);
+        Future<String> first = redisCache.putStringAsync(new PutStringRequest().withKey("hello")
+                .withValue("world").withMutationId("mut001").withPriority(MutationPriority.HIGH)
+                .withNamespaceEnabled(false));
+        Future<String> heldBack = redisCache.putStringAsync(new PutStringRequest().withKey("hello")
+                .withValue("world").withMutationId("mut002").withPriority(MutationPriority.HIGH)
+                .withNamespaceEnabled(false));
+        Mockito.verify(rbatch).executeAsync();
+        Assert.assertFalse(first.isDone());
+        Assert.assertFalse(heldBack.isDone());
+        Assert.assertEquals(1, redisCache.getPipelineMetrics().getQueueDepth());
+        Assert.assertEquals(1, redisCache.getPipelineMetrics().getInFlightBatches());
+    }
+
+    /**
+     * Test queued mutations are flushed lane by lane, from the highest to the lowest priority.
+     */
+    @Test
+    public void testLanesFlushedInPriorityOrderWithNamespaceDisabled() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        redisCache.setBatchSize(FIVE.getValue());
+        redisCache.configureLane(MutationPriority.HIGH, FIVE.getValue(), 0, 0);
+        redisCache.configureLane(MutationPriority.LOW, FIVE.getValue(), 0, 0);
+        RBatch rbatch = mockBatch();
+        redisCache.setRBatch(rbatch);
+        RBucketAsync<Object> rbucket = (RBucketAsync<Object>) Mockito.mock(RBucketAsync.class);
+        Mockito.when(rbatch.getBucket(Mockito.anyString())).thenReturn(rbucket);
+        Mockito.when(rbucket.setAsync("world")).thenReturn(new CompletableFutureWrapper<Void>((Void) null));
+        Mockito.when(rbucket.deleteAsync()).thenReturn(new CompletableFutureWrapper<>(true));
+        redisCache.putStringAsync(new PutStringRequest().withKey("low").withValue("world")
+                .withPriority(MutationPriority.LOW).withNamespaceEnabled(false));
+        redisCache.deleteAsync(new DeleteEntryRequest().withKey("normal").withNamespaceEnabled(false));
+        redisCache.putStringAsync(new PutStringRequest().withKey("high").withValue("world")
+                .withPriority(MutationPriority.HIGH).withNamespaceEnabled(false));
+        Mockito.verify(rbatch, Mockito.never()).executeAsync();
+        redisCache.flushPendingMutations();
+        InOrder inOrder = Mockito.inOrder(rbatch);
+        inOrder.verify(rbatch).getBucket("high");
+        inOrder.verify(rbatch).getBucket("normal");
+        inOrder.verify(rbatch).getBucket("low");
+        Mockito.verify(rbatch, Mockito.times(THREE.getValue())).executeAsync();
+    }
+
+    /**
+     * Creates a mocked batch whose asynchronous execution completes with an empty result.
+     *
+     * @return the mocked batch
+     */
+    private static RBatch mockBatch() {
+        RBatch rbatch = Mockito.mock(RBatch.class);
+        Mockito.when(rbatch.executeAsync())
+                .thenReturn(new CompletableFutureWrapper<>(new BatchResult<>(Collections.emptyList(), 0)));
+        return rbatch;
     }
 
     /**
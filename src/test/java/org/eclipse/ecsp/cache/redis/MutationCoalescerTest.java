@@ -0,0 +1,144 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.eclipse.ecsp.cache.redis.RedisConstants.TWO;
+
+/**
+ * Test class for MutationCoalescer.
+ */
+public class MutationCoalescerTest {
+
+    /**
+     * Test only the last unconditional write per key is kept and superseded writes complete with their own id.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testLastWritePerKeyWins() throws InterruptedException, ExecutionException {
+        BatchMutation first = BatchMutation.put("hello", "world1", null, -1L, "mut001");
+        BatchMutation other = BatchMutation.put("other", "value", null, -1L, "mut002");
+        BatchMutation second = BatchMutation.put("hello", "world2", null, -1L, "mut003");
+        BatchMutation delete = BatchMutation.delete("hello", "mut004");
+
+        List<BatchMutation> commands = MutationCoalescer.coalesce(Arrays.asList(first, other, second, delete));
+
+        Assert.assertEquals(Arrays.asList(other, delete), commands);
+        Assert.assertFalse(first.getFuture().isDone());
+        Assert.assertFalse(second.getFuture().isDone());
+        delete.getFuture().complete("mut004");
+        Assert.assertEquals("mut001", first.getFuture().get());
+        Assert.assertEquals("mut003", second.getFuture().get());
+    }
+
+    /**
+     * Test the winning write keeps its own position, so writes of other keys queued before it are still sent
+     * before it.
+     */
+    @Test
+    public void testWinningWriteKeepsOrderAcrossKeys() {
+        BatchMutation first = BatchMutation.put("a", "1", null, -1L, "mut001");
+        BatchMutation other = BatchMutation.put("b", "1", null, -1L, "mut002");
+        BatchMutation second = BatchMutation.put("a", "2", null, -1L, "mut003");
+
+        List<BatchMutation> commands = MutationCoalescer.coalesce(Arrays.asList(first, other, second));
+
+        Assert.assertEquals(Arrays.asList(other, second), commands);
+    }
+
+    /**
+     * Test superseded writes fail when the write that replaced them fails.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testSupersededWriteFailsWithWinner() throws InterruptedException {
+        BatchMutation first = BatchMutation.put("hello", "world1", null, -1L, "mut001");
+        BatchMutation second = BatchMutation.put("hello", "world2", null, -1L, "mut002");
+        MutationCoalescer.coalesce(Arrays.asList(first, second));
+        IllegalStateException cause = new IllegalStateException("failed");
+        second.fail(cause);
+        try {
+            first.getFuture().get();
+            Assert.fail("Expecting superseded write to fail with the write that replaced it");
+        } catch (ExecutionException e) {
+            Assert.assertSame(cause, e.getCause());
+        }
+    }
+
+    /**
+     * Test compare and set and scored sorted set additions are not coalesced and act as a barrier for the key.
+     */
+    @Test
+    public void testConditionalWritesNotCoalesced() {
+        BatchMutation before = BatchMutation.put("hello", "world1", null, -1L, "mut001");
+        BatchMutation cas = BatchMutation.put("hello", "world2", "world1", -1L, "mut002");
+        BatchMutation casAgain = BatchMutation.put("hello", "world3", "world2", -1L, "mut003");
+        BatchMutation after = BatchMutation.put("hello", "world4", null, -1L, "mut004");
+        BatchMutation zadd = BatchMutation.addToScoredSortedSet("scores", 1D, "a", "mut005");
+        BatchMutation zaddAgain = BatchMutation.addToScoredSortedSet("scores", TWO.getValue(), "b", "mut006");
+
+        List<BatchMutation> commands = MutationCoalescer.coalesce(
+                Arrays.asList(before, cas, casAgain, after, zadd, zaddAgain));
+
+        Assert.assertEquals(Arrays.asList(before, cas, casAgain, after, zadd, zaddAgain), commands);
+    }
+
+    /**
+     * Test writes are coalesced again after a barrier.
+     */
+    @Test
+    public void testWritesCoalescedAfterBarrier() {
+        BatchMutation cas = BatchMutation.put("hello", "world1", "world0", -1L, "mut001");
+        BatchMutation first = BatchMutation.put("hello", "world2", null, -1L, "mut002");
+        BatchMutation second = BatchMutation.put("hello", "world3", null, -1L, "mut003");
+
+        List<BatchMutation> commands = MutationCoalescer.coalesce(Arrays.asList(cas, first, second));
+
+        Assert.assertEquals(TWO.getValue(), commands.size());
+        Assert.assertSame(second, commands.get(1));
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.redisson.api.RPatternTopic;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.api.listener.PatternMessageListener;
+import org.redisson.api.listener.PatternStatusListener;
+import org.redisson.api.listener.StatusListener;
+import org.redisson.client.codec.Codec;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for NearCache.
+ */
+public class NearCacheTest {
+
+    /** The metrics of the near cache under test. */
+    private final RedisNearCacheMetrics metrics = new RedisNearCacheMetrics(() -> 0L);
+
+    /** The number of loads from Redis. */
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /**
+     * Creates a near cache of all keys.
+     *
+     * @return the near cache
+     */
+    private NearCache nearCache() {
+        return new NearCache(RedisConstants.TEN.getValue(), TimeUnit.MINUTES.toMillis(1), 0, Collections.emptyList(),
+                metrics);
+    }
+
+    /**
+     * Loads a key from Redis, which has the value "world" for every key but "missing".
+     *
+     * @param key the key
+     * @return the value, with no ttl
+     */
+    private NearCache.Loaded load(String key) {
+        loads.incrementAndGet();
+        return new NearCache.Loaded("missing".equals(key) ? null : "world", NearCache.NO_EXPIRY);
+    }
+
+    /**
+     * Test a value read from Redis is served from the near cache afterwards.
+     */
+    @Test
+    public void testValueServedFromNearCache() {
+        NearCache nearCache = nearCache();
+        Assert.assertEquals("world", nearCache.get("hello", this::load));
+        Assert.assertEquals("world", nearCache.get("hello", this::load));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, metrics.getHits());
+        Assert.assertEquals(1, metrics.getMisses());
+    }
+
+    /**
+     * Test a value is kept no longer than the remaining ttl of its key.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testValueKeptAtMostKeyTtl() throws InterruptedException {
+        NearCache nearCache = nearCache();
+        nearCache.get("hello", key -> {
+            loads.incrementAndGet();
+            return new NearCache.Loaded("world", 1L);
+        });
+        Thread.sleep(RedisConstants.TEN.getValue());
+        Assert.assertEquals("world", nearCache.get("hello", this::load));
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+        Assert.assertEquals(0, metrics.getHits());
+    }
+
+    /**
+     * Test a value read asynchronously from Redis is served from the near cache afterwards, to sync reads too.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testValueReadAsyncServedFromNearCache() throws InterruptedException, ExecutionException {
+        NearCache nearCache = nearCache();
+        Assert.assertEquals("world", nearCache.getAsync("hello",
+                key -> CompletableFuture.completedFuture(load(key))).get());
+        CompletableFuture<Object> hit = nearCache.getAsync("hello",
+                key -> CompletableFuture.completedFuture(load(key)));
+        Assert.assertTrue(hit.isDone());
+        Assert.assertEquals("world", hit.get());
+        Assert.assertEquals("world", nearCache.get("hello", this::load));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(RedisConstants.TWO.getValue(), metrics.getHits());
+    }
+
+    /**
+     * Test keys that do not exist are not kept.
+     */
+    @Test
+    public void testMissingKeyNotKept() {
+        NearCache nearCache = nearCache();
+        Assert.assertNull(nearCache.get("missing", this::load));
+        Assert.assertNull(nearCache.get("missing", this::load));
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+    }
+
+    /**
+     * Test keys that do not exist are kept with their own ttl, and read again once written.
+     */
+    @Test
+    public void testMissingKeyKeptUntilWritten() {
+        NearCache nearCache = new NearCache(RedisConstants.TEN.getValue(), 0, TimeUnit.MINUTES.toMillis(1),
+                Collections.emptyList(), metrics);
+        Assert.assertNull(nearCache.get("missing", this::load));
+        Assert.assertNull(nearCache.get("missing", this::load));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, metrics.getAbsentHits());
+
+        nearCache.written("missing");
+        nearCache.get("missing", this::load);
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+
+        loads.set(0);
+        nearCache.get("hello", this::load);
+        nearCache.get("hello", this::load);
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+        Assert.assertEquals(0, metrics.getHits());
+    }
+
+    /**
+     * Test a near cache keeping neither values nor missing keys is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoTtlRejected() {
+        new NearCache(RedisConstants.TEN.getValue(), 0, 0, Collections.emptyList(), metrics);
+    }
+
+    /**
+     * Test only keys matching a key prefix are near cached.
+     */
+    @Test
+    public void testOnlyKeysWithPrefixNearCached() {
+        NearCache nearCache = new NearCache(RedisConstants.TEN.getValue(), TimeUnit.MINUTES.toMillis(1), 0,
+                List.of("ns:config:"), metrics);
+        nearCache.get("ns:state:1", this::load);
+        nearCache.get("ns:state:1", this::load);
+        nearCache.get("ns:config:1", this::load);
+        nearCache.get("ns:config:1", this::load);
+        Assert.assertEquals(RedisConstants.THREE.getValue(), loads.get());
+        Assert.assertEquals(1, metrics.getMisses());
+    }
+
+    /**
+     * Test an invalidated key is read from Redis again.
+     */
+    @Test
+    public void testInvalidatedKeyReadAgain() {
+        NearCache nearCache = nearCache();
+        nearCache.get("hello", this::load);
+        nearCache.invalidate("hello");
+        nearCache.get("hello", this::load);
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+        Assert.assertEquals(1, metrics.getInvalidations());
+    }
+
+    /**
+     * Test a value whose key is invalidated while it is read from Redis is not kept, as it may be stale.
+     */
+    @Test
+    public void testValueInvalidatedDuringReadNotKept() {
+        NearCache nearCache = nearCache();
+        nearCache.get("hello", key -> {
+            nearCache.invalidate("hello");
+            return load(key);
+        });
+        nearCache.get("hello", this::load);
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+    }
+
+    /**
+     * Test keys published to the invalidation channel are invalidated, and written keys are published.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testChannelInvalidation() {
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RTopic topic = Mockito.mock(RTopic.class);
+        Mockito.when(redisson.getTopic(Mockito.eq("invalidation"), Mockito.any(Codec.class))).thenReturn(topic);
+        Mockito.when(topic.publishAsync("hello")).thenReturn(new CompletableFutureWrapper<>(1L));
+        NearCache nearCache = nearCache();
+        nearCache.subscribe(redisson, NearCacheInvalidation.CHANNEL, "invalidation");
+        ArgumentCaptor<MessageListener<String>> listener = ArgumentCaptor.forClass(MessageListener.class);
+        Mockito.verify(topic).addListener(Mockito.eq(String.class), listener.capture());
+
+        nearCache.get("hello", this::load);
+        listener.getValue().onMessage("invalidation", "hello");
+        nearCache.get("hello", this::load);
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+
+        nearCache.written("hello");
+        Mockito.verify(topic).publishAsync("hello");
+        nearCache.close();
+        Mockito.verify(topic).removeListener(0, 0);
+    }
+
+    /**
+     * Test written keys are invalidated locally and published when only the negative cache is enabled, so that
+     * other instances do not keep serving them as missing.
+     */
+    @Test
+    public void testPublishedWithNegativeCacheOnly() {
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RTopic topic = Mockito.mock(RTopic.class);
+        Mockito.when(redisson.getTopic(Mockito.eq("invalidation"), Mockito.any(Codec.class))).thenReturn(topic);
+        Mockito.when(topic.publishAsync("missing")).thenReturn(new CompletableFutureWrapper<>(1L));
+        NearCache nearCache = new NearCache(RedisConstants.TEN.getValue(), 0, TimeUnit.MINUTES.toMillis(1),
+                Collections.emptyList(), metrics);
+        nearCache.subscribe(redisson, NearCacheInvalidation.CHANNEL, "invalidation");
+        nearCache.get("missing", this::load);
+        nearCache.written("missing");
+        nearCache.get("missing", this::load);
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+        Mockito.verify(topic).publishAsync("missing");
+    }
+
+    /**
+     * Test the near cache is cleared when the invalidation channel is subscribed again, as invalidations may have
+     * been missed meanwhile.
+     */
+    @Test
+    public void testClearedOnResubscribe() {
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RTopic topic = Mockito.mock(RTopic.class);
+        Mockito.when(redisson.getTopic(Mockito.eq("invalidation"), Mockito.any(Codec.class))).thenReturn(topic);
+        NearCache nearCache = nearCache();
+        nearCache.subscribe(redisson, NearCacheInvalidation.CHANNEL, "invalidation");
+        ArgumentCaptor<StatusListener> listener = ArgumentCaptor.forClass(StatusListener.class);
+        Mockito.verify(topic).addListener(listener.capture());
+
+        nearCache.get("hello", this::load);
+        listener.getValue().onSubscribe("invalidation");
+        nearCache.get("hello", this::load);
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+    }
+
+    /**
+     * Test keys of keyspace notifications are invalidated.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testKeyspaceInvalidation() {
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RPatternTopic topic = Mockito.mock(RPatternTopic.class);
+        Mockito.when(redisson.getPatternTopic(Mockito.eq("__keyspace@*__:ns:config:*"), Mockito.any(Codec.class)))
+                .thenReturn(topic);
+        NearCache nearCache = new NearCache(RedisConstants.TEN.getValue(), TimeUnit.MINUTES.toMillis(1), 0,
+                List.of("ns:config:"), metrics);
+        nearCache.subscribe(redisson, NearCacheInvalidation.KEYSPACE, null);
+        ArgumentCaptor<PatternMessageListener<String>> listener = ArgumentCaptor
+                .forClass(PatternMessageListener.class);
+        Mockito.verify(topic).addListener(Mockito.eq(String.class), listener.capture());
+        Mockito.verify(topic).addListener(Mockito.any(PatternStatusListener.class));
+
+        nearCache.get("ns:config:1", this::load);
+        listener.getValue().onMessage("__keyspace@*__:ns:config:*", "__keyspace@0__:ns:config:1", "set");
+        nearCache.get("ns:config:1", this::load);
+        Assert.assertEquals(RedisConstants.TWO.getValue(), loads.get());
+    }
+
+    /**
+     * Test the key of a keyspace notification channel is extracted.
+     */
+    @Test
+    public void testKeyOfKeyspaceChannel() {
+        Assert.assertEquals("ns:hello", NearCache.keyOf("__keyspace@0__:ns:hello"));
+        Assert.assertEquals("a__:b", NearCache.keyOf("__keyspace@12__:a__:b"));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for OffHeapNearCacheStore.
+ */
+public class OffHeapNearCacheStoreTest {
+
+    /** The direct memory of the stores that do not evict for lack of space. */
+    private static final long CAPACITY_BYTES = 1 << 20;
+
+    /** The number of keys of the tests with many keys. */
+    private static final int KEYS = 1000;
+
+    /**
+     * Creates a store of string values.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param capacityBytes the direct memory in bytes
+     * @return the store
+     */
+    private static OffHeapNearCacheStore store(long maximumSize, long capacityBytes) {
+        return new OffHeapNearCacheStore(maximumSize, TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(1),
+                capacityBytes, () -> StringCodec.INSTANCE);
+    }
+
+    /**
+     * Test a value is decoded as stored, and replaced by a later put.
+     */
+    @Test
+    public void testValueStoredAndReplaced() {
+        OffHeapNearCacheStore store = store(KEYS, CAPACITY_BYTES);
+        store.put("hello", "world");
+        Assert.assertEquals("world", store.get("hello"));
+        store.put("hello", "again");
+        Assert.assertEquals("again", store.get("hello"));
+        Assert.assertEquals(1, store.size());
+        Assert.assertNull(store.get("other"));
+    }
+
+    /**
+     * Test keys that do not exist are stored as ABSENT, and removed when invalidated.
+     */
+    @Test
+    public void testAbsentKeyStoredUntilInvalidated() {
+        OffHeapNearCacheStore store = store(KEYS, CAPACITY_BYTES);
+        store.put("missing", NearCache.ABSENT);
+        Assert.assertSame(NearCache.ABSENT, store.get("missing"));
+        store.invalidate("missing");
+        Assert.assertNull(store.get("missing"));
+        Assert.assertEquals(0, store.size());
+    }
+
+    /**
+     * Test kinds of entries with a ttl of 0 are not stored, and entries expire after their ttl.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testTtl() throws InterruptedException {
+        OffHeapNearCacheStore store = new OffHeapNearCacheStore(KEYS, 1, 0, CAPACITY_BYTES,
+                () -> StringCodec.INSTANCE);
+        store.put("missing", NearCache.ABSENT);
+        Assert.assertNull(store.get("missing"));
+        store.put("hello", "world");
+        Thread.sleep(RedisConstants.TEN.getValue());
+        Assert.assertNull(store.get("hello"));
+        Assert.assertEquals(0, store.size());
+    }
+
+    /**
+     * Test the oldest entries are evicted when the direct memory is full, and the last one is kept.
+     */
+    @Test
+    public void testOldestEvictedWhenFull() {
+        OffHeapNearCacheStore store = store(KEYS, RedisConstants.THOUSAND.getValue());
+        for (int i = 0; i < KEYS; i++) {
+            store.put("key" + i, "value" + i);
+            Assert.assertEquals("value" + i, store.get("key" + i));
+        }
+        Assert.assertTrue(store.size() < KEYS / RedisConstants.TEN.getValue());
+    }
+
+    /**
+     * Test the number of entries is bounded by the maximum size.
+     */
+    @Test
+    public void testSizeBounded() {
+        OffHeapNearCacheStore store = store(RedisConstants.HUNDRED.getValue(), CAPACITY_BYTES);
+        for (int i = 0; i < KEYS; i++) {
+            store.put("key" + i, "value" + i);
+        }
+        Assert.assertTrue(store.size() <= RedisConstants.HUNDRED.getValue());
+        Assert.assertEquals("value" + (KEYS - 1), store.get("key" + (KEYS - 1)));
+    }
+
+    /**
+     * Test random puts and invalidations match a map, which covers the removals of the open addressing index.
+     */
+    @Test
+    public void testMatchesMap() {
+        OffHeapNearCacheStore store = store(RedisConstants.TEN_THOUSAND.getValue(), CAPACITY_BYTES);
+        Map<String, String> expected = new HashMap<>();
+        Random random = new Random(RedisConstants.TEN.getValue());
+        for (int i = 0; i < KEYS * RedisConstants.TEN.getValue(); i++) {
+            String key = "key" + random.nextInt(KEYS);
+            if (random.nextBoolean()) {
+                store.put(key, "value" + i);
+                expected.put(key, "value" + i);
+            } else {
+                store.invalidate(key);
+                expected.remove(key);
+            }
+        }
+        for (int i = 0; i < KEYS; i++) {
+            Assert.assertEquals(expected.get("key" + i), store.get("key" + i));
+        }
+        Assert.assertEquals(expected.size(), store.size());
+        store.invalidateAll();
+        Assert.assertEquals(0, store.size());
+    }
+
+    /**
+     * Test a capacity too small for the segments is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityValidated() {
+        store(KEYS, RedisConstants.HUNDRED.getValue());
+    }
+}
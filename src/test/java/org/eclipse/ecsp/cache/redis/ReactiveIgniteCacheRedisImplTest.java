@@ -0,0 +1,171 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.cache.GetScoredStringsRequest;
+import org.eclipse.ecsp.cache.GetStringRequest;
+import org.eclipse.ecsp.cache.PutStringRequest;
+import org.eclipse.ecsp.cache.ReactiveIgniteCache;
+import org.eclipse.ecsp.cache.VersionedEntity;
+import org.eclipse.ecsp.entities.IgniteEntity;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RBucketReactive;
+import org.redisson.api.RScoredSortedSetReactive;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptReactive;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.client.protocol.ScoredEntry;
+import org.redisson.config.Config;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.eclipse.ecsp.cache.redis.RedisConstants.TWO;
+
+/**
+ * Test class for ReactiveIgniteCacheRedisImpl.
+ */
+public class ReactiveIgniteCacheRedisImplTest {
+
+    /** The reactive redisson client. */
+    private RedissonReactiveClient reactiveClient;
+
+    /** The reactive cache under test. */
+    private ReactiveIgniteCache reactiveCache;
+
+    /**
+     * Sets up the reactive view of a cache on a mocked reactive client.
+     */
+    @Before
+    public void setUp() {
+        IgniteCacheRedisImpl redisCache = new IgniteCacheRedisImpl();
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        reactiveClient = Mockito.mock(RedissonReactiveClient.class);
+        Mockito.when(redisson.reactive()).thenReturn(reactiveClient);
+        Mockito.when(redisson.getConfig()).thenReturn(new Config().setCodec(StringCodec.INSTANCE));
+        redisCache.setRedissonClient(redisson);
+        redisCache.enableReactive();
+        reactiveCache = redisCache.reactive();
+    }
+
+    /**
+     * Test get string emits the value of the bucket.
+     */
+    @Test
+    public void testGetString() {
+        RBucketReactive<Object> bucket = (RBucketReactive<Object>) Mockito.mock(RBucketReactive.class);
+        Mockito.when(reactiveClient.getBucket("hello")).thenReturn(bucket);
+        Mockito.when(bucket.get()).thenReturn(Mono.just("world"));
+        Assert.assertEquals("world", reactiveCache.getString(new GetStringRequest().withKey("hello")
+                .withNamespaceEnabled(false)).block());
+    }
+
+    /**
+     * Test put string is lazy and writes with expiry once subscribed.
+     */
+    @Test
+    public void testPutStringWithTtlIsLazy() {
+        RBucketReactive<Object> bucket = (RBucketReactive<Object>) Mockito.mock(RBucketReactive.class);
+        Mockito.when(reactiveClient.getBucket("hello")).thenReturn(bucket);
+        Mockito.when(bucket.set("world", TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS))
+                .thenReturn(Mono.empty());
+        Mono<Void> put = reactiveCache.putString(new PutStringRequest().withKey("hello").withValue("world")
+                .withTtlMs(TimeUnit.MINUTES.toMillis(1)).withNamespaceEnabled(false));
+        Mockito.verify(bucket, Mockito.never()).set("world", TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+        put.block();
+        Mockito.verify(bucket).set("world", TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Test invalid request is signalled as an error of the returned publisher instead of being thrown.
+     */
+    @Test
+    public void testInvalidRequestSignalledAsError() {
+        Mono<Void> put = reactiveCache.putString(new PutStringRequest().withKey("hello"));
+        Assert.assertThrows(NullPointerException.class, put::block);
+    }
+
+    /**
+     * Test versioned get emits the entity with its version, and nothing for a missing key.
+     */
+    @Test
+    public void testGetEntityWithVersion() {
+        RScriptReactive script = Mockito.mock(RScriptReactive.class);
+        Mockito.when(reactiveClient.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        IgniteEntity entity = Mockito.mock(IgniteEntity.class);
+        Mockito.when(script.evalSha(Mockito.eq(RScript.Mode.READ_ONLY), Mockito.eq(VersionedEntityScript.GET_SHA),
+                Mockito.eq(RScript.ReturnType.MULTI), Mockito.eq(Collections.singletonList("hello"))))
+                .thenReturn(Mono.just(Arrays.asList((long) TWO.getValue(), entity)));
+        Mockito.when(script.evalSha(Mockito.eq(RScript.Mode.READ_ONLY), Mockito.eq(VersionedEntityScript.GET_SHA),
+                Mockito.eq(RScript.ReturnType.MULTI), Mockito.eq(Collections.singletonList("world"))))
+                .thenReturn(Mono.empty());
+        VersionedEntity<IgniteEntity> versioned = reactiveCache
+                .<IgniteEntity>getEntityWithVersion("hello").block();
+        Assert.assertEquals(TWO.getValue(), versioned.getVersion());
+        Assert.assertSame(entity, versioned.getValue());
+        Assert.assertNull(reactiveCache.getEntityWithVersion("world").block());
+    }
+
+    /**
+     * Test strings of a scored sorted set are emitted in score order.
+     */
+    @Test
+    public void testGetStringsFromScoredSortedSet() {
+        RScoredSortedSetReactive<Object> sset = (RScoredSortedSetReactive<Object>) Mockito
+                .mock(RScoredSortedSetReactive.class);
+        Mockito.when(reactiveClient.getScoredSortedSet("presidents")).thenReturn(sset);
+        Collection<ScoredEntry<Object>> entries = Arrays.asList(new ScoredEntry<Object>(1D, "washington"),
+                new ScoredEntry<Object>(2D, "adams"));
+        Mockito.when(sset.entryRange(0, -1)).thenReturn(Mono.just(entries));
+        List<String> presidents = reactiveCache.getStringsFromScoredSortedSet(new GetScoredStringsRequest()
+                .withKey("presidents").withStartIndex(0).withEndIndex(-1).withNamespaceEnabled(false))
+                .collectList().block();
+        Assert.assertEquals(TWO.getValue(), presidents.size());
+        Assert.assertEquals(Arrays.asList("washington", "adams"), presidents);
+    }
+}
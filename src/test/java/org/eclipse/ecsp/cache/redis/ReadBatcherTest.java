@@ -0,0 +1,138 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Test class for ReadBatcher.
+ */
+public class ReadBatcherTest {
+
+    /** The keys of every load. */
+    private final List<List<String>> loads = new ArrayList<>();
+
+    /**
+     * Loads keys from a map that has a value for "hello" only.
+     *
+     * @param keys the keys
+     * @return the values by key
+     */
+    private CompletableFuture<Map<String, Object>> load(String[] keys) {
+        loads.add(Arrays.asList(keys));
+        Map<String, Object> values = new HashMap<>();
+        values.put("hello", "world");
+        return CompletableFuture.completedFuture(values);
+    }
+
+    /**
+     * Test reads of a window are loaded together once and duplicate keys share their load.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testReadsOfWindowLoadedTogether() throws InterruptedException, ExecutionException {
+        ReadBatcher batcher = new ReadBatcher(this::load);
+        CompletableFuture<Object> hello = batcher.load("hello");
+        CompletableFuture<Object> duplicate = batcher.load("hello");
+        CompletableFuture<Object> missing = batcher.load("hi");
+        Assert.assertFalse(hello.isDone());
+        batcher.flush();
+        Assert.assertEquals("world", hello.get());
+        Assert.assertEquals("world", duplicate.get());
+        Assert.assertNull(missing.get());
+        Assert.assertEquals(List.of(List.of("hello", "hi")), loads);
+    }
+
+    /**
+     * Test a window is loaded as soon as it holds the max number of keys.
+     */
+    @Test
+    public void testFullWindowLoadedRightAway() {
+        ReadBatcher batcher = new ReadBatcher(this::load);
+        batcher.configure(2, 0L, null);
+        CompletableFuture<Object> hello = batcher.load("hello");
+        batcher.load("hi");
+        Assert.assertTrue(hello.isDone());
+        CompletableFuture<Object> next = batcher.load("hey");
+        Assert.assertFalse(next.isDone());
+        Assert.assertEquals(1, loads.size());
+    }
+
+    /**
+     * Test failure of the load fails every read of the window.
+     */
+    @Test
+    public void testFailedLoadFailsEveryRead() {
+        ReadBatcher batcher = new ReadBatcher(keys -> {
+            throw new IllegalStateException("Connection reset");
+        });
+        CompletableFuture<Object> hello = batcher.load("hello");
+        CompletableFuture<Object> hi = batcher.load("hi");
+        batcher.flush();
+        Assert.assertTrue(hello.isCompletedExceptionally());
+        Assert.assertTrue(hi.isCompletedExceptionally());
+    }
+
+    /**
+     * Test reads fail once the scheduler of the windows has been shut down, instead of never completing.
+     */
+    @Test
+    public void testReadsFailAfterSchedulerShutdown() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.shutdown();
+        ReadBatcher batcher = new ReadBatcher(this::load);
+        batcher.configure(RedisConstants.TEN.getValue(), 1L, scheduler);
+        CompletableFuture<Object> hello = batcher.load("hello");
+        Assert.assertTrue(hello.isCompletedExceptionally());
+        batcher.flush();
+        Assert.assertTrue(loads.isEmpty());
+    }
+}
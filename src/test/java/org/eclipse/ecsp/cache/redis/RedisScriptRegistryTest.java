@@ -0,0 +1,146 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptReactive;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.Codec;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Test class for RedisScriptRegistry.
+ */
+public class RedisScriptRegistryTest {
+
+    /** The NOSCRIPT error of Redis. */
+    private static final String NO_SCRIPT = "NOSCRIPT No matching script. Please use EVAL.";
+
+    /**
+     * Test the digest EVALSHA refers to a script by is the one SCRIPT LOAD returns.
+     */
+    @Test
+    public void testShaIsDigestOfScript() {
+        RedisScriptRegistry.Script script = new RedisScriptRegistry().register("ping", "return 1");
+        Assert.assertEquals("e0e1f9fabfc9d4800c877a703b823ac0578ff8db", script.sha());
+    }
+
+    /**
+     * Test NOSCRIPT is recognised when wrapped by the failure of a batch.
+     */
+    @Test
+    public void testNoScriptRecognisedInCauses() {
+        Assert.assertTrue(RedisScriptRegistry.isNoScript(new CompletionException(new RedisException(NO_SCRIPT))));
+        Assert.assertFalse(RedisScriptRegistry.isNoScript(new RedisException("ERR value is not an integer")));
+        Assert.assertFalse(RedisScriptRegistry.isNoScript(new IllegalStateException()));
+    }
+
+    /**
+     * Test all registered scripts are loaded, and a script failing to load does not prevent the others.
+     */
+    @Test
+    public void testLoadAll() {
+        RedisScriptRegistry registry = new RedisScriptRegistry();
+        registry.register("ping", "return 1");
+        registry.register("pong", "return 2");
+        RedissonClient redisson = Mockito.mock(RedissonClient.class);
+        RScript script = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        Mockito.when(script.scriptLoad("return 1")).thenThrow(new RedisException("connection refused"));
+        registry.loadAll(redisson);
+        Mockito.verify(script).scriptLoad("return 1");
+        Mockito.verify(script).scriptLoad("return 2");
+    }
+
+    /**
+     * Test a script missing in the script cache of the server is loaded again and the command retried.
+     */
+    @Test
+    public void testEvalShaReloadsOnNoScript() {
+        RedisScriptRegistry registry = new RedisScriptRegistry();
+        RedisScriptRegistry.Script ping = registry.register("ping", "return 1");
+        RScript script = Mockito.mock(RScript.class);
+        List<Object> keys = Collections.singletonList("hello");
+        Mockito.when(script.evalSha(RScript.Mode.READ_ONLY, ping.sha(), RScript.ReturnType.INTEGER, keys))
+                .thenThrow(new RedisException(NO_SCRIPT))
+                .thenReturn(1L);
+        Long reply = registry.evalSha(script, ping, RScript.Mode.READ_ONLY, RScript.ReturnType.INTEGER, keys);
+        Assert.assertEquals(Long.valueOf(1L), reply);
+        Mockito.verify(script).scriptLoad("return 1");
+    }
+
+    /**
+     * Test other failures of a script are not retried.
+     */
+    @Test
+    public void testEvalShaDoesNotRetryOtherFailures() {
+        RedisScriptRegistry registry = new RedisScriptRegistry();
+        RedisScriptRegistry.Script ping = registry.register("ping", "return 1");
+        RScript script = Mockito.mock(RScript.class);
+        List<Object> keys = Collections.singletonList("hello");
+        Mockito.when(script.evalSha(RScript.Mode.READ_ONLY, ping.sha(), RScript.ReturnType.INTEGER, keys))
+                .thenThrow(new RedisException("ERR wrong number of arguments"));
+        Assert.assertThrows(RedisException.class, () -> registry.evalSha(script, ping, RScript.Mode.READ_ONLY,
+                RScript.ReturnType.INTEGER, keys));
+        Mockito.verify(script, Mockito.never()).scriptLoad("return 1");
+    }
+
+    /**
+     * Test a script missing in the script cache of the server is loaded again through the reactive client.
+     */
+    @Test
+    public void testReactiveEvalShaReloadsOnNoScript() {
+        RedisScriptRegistry registry = new RedisScriptRegistry();
+        RedisScriptRegistry.Script ping = registry.register("ping", "return 1");
+        RScriptReactive script = Mockito.mock(RScriptReactive.class);
+        List<Object> keys = Collections.singletonList("hello");
+        Mockito.when(script.evalSha(RScript.Mode.READ_ONLY, ping.sha(), RScript.ReturnType.INTEGER, keys))
+                .thenReturn(Mono.error(new RedisException(NO_SCRIPT)), Mono.just(1L));
+        Mockito.when(script.scriptLoad("return 1")).thenReturn(Mono.just(ping.sha()));
+        Mono<Long> reply = registry.evalSha(script, ping, RScript.Mode.READ_ONLY, RScript.ReturnType.INTEGER, keys);
+        Assert.assertEquals(Long.valueOf(1L), reply.block());
+        Mockito.verify(script).scriptLoad("return 1");
+    }
+}
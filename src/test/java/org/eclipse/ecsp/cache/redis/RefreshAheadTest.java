@@ -0,0 +1,245 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for RefreshAhead.
+ */
+public class RefreshAheadTest {
+
+    /** The ttl of the refreshed keys. */
+    private static final long TTL_MS = 1000;
+
+    /** The remaining ttl of keys near expiry. */
+    private static final long NEAR_EXPIRY_MS = 100;
+
+    /** The fraction of the ttl after which keys are refreshed. */
+    private static final double FRACTION = 0.8;
+
+    /** The mocked Redisson client. */
+    private RedissonClient redisson;
+
+    /** The mocked script client. */
+    private RScript script;
+
+    /** The number of calls of the loader. */
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /** Released to let the loader return. */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /** The keys written by refreshes. */
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+    /** The refresh ahead under test. */
+    private RefreshAhead refreshAhead;
+
+    /**
+     * Sets up the mocked Redisson client and a loader of the keys starting with ns:vehicle:.
+     */
+    @Before
+    public void setUp() {
+        redisson = Mockito.mock(RedissonClient.class);
+        script = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        refreshAhead = new RefreshAhead(new RedisScriptRegistry(), () -> redisson, () -> StringCodec.INSTANCE,
+                written::add);
+        refreshAhead.configure(FRACTION, 1, 1);
+        refreshAhead.register("ns:vehicle:", "ns:".length(), TTL_MS, key -> {
+            loads.incrementAndGet();
+            try {
+                release.await(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "refreshed " + key;
+        });
+    }
+
+    /**
+     * Stops the executor.
+     */
+    @After
+    public void tearDown() {
+        release.countDown();
+        refreshAhead.close();
+    }
+
+    /**
+     * Stubs the value and remaining ttl of a key.
+     *
+     * @param key the key
+     * @param value the value
+     * @param remainingMs the remaining ttl in ms
+     */
+    private void stubRead(String key, Object value, long remainingMs) {
+        Mockito.when(script.evalSha(Mockito.eq(RScript.Mode.READ_ONLY),
+                Mockito.eq(RedisScriptRegistry.sha1(SingleFlightLoader.READ_WITH_TTL_SCRIPT)),
+                Mockito.eq(RScript.ReturnType.MULTI), Mockito.eq(Collections.singletonList(key))))
+                .thenReturn(Arrays.asList(value, remainingMs));
+    }
+
+    /**
+     * Waits until no refresh is pending.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    private void awaitRefreshes() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (refreshAhead.getMetrics().getPending() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Test keys are refreshed once past the fraction of their ttl.
+     */
+    @Test
+    public void testNearExpiry() {
+        Assert.assertFalse(refreshAhead.isNearExpiry(TTL_MS, TTL_MS));
+        Assert.assertFalse(refreshAhead.isNearExpiry((long) (TTL_MS * (1 - FRACTION)) + 1, TTL_MS));
+        Assert.assertTrue(refreshAhead.isNearExpiry(NEAR_EXPIRY_MS, TTL_MS));
+        Assert.assertFalse(refreshAhead.isNearExpiry(-1, TTL_MS));
+    }
+
+    /**
+     * Test reads of a key near expiry serve the current value and refresh it once in the background.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRefreshedOnceWhileStaleValueServed() throws InterruptedException {
+        RBucket<Object> bucket = (RBucket<Object>) Mockito.mock(RBucket.class);
+        Mockito.doReturn(bucket).when(redisson).getBucket("ns:vehicle:1");
+        stubRead("ns:vehicle:1", "current", NEAR_EXPIRY_MS);
+        Assert.assertTrue(refreshAhead.isRegistered("ns:vehicle:1"));
+        Assert.assertEquals("current", refreshAhead.read("ns:vehicle:1"));
+        Assert.assertEquals("current", refreshAhead.read("ns:vehicle:1"));
+        release.countDown();
+        awaitRefreshes();
+        Assert.assertEquals(1, loads.get());
+        Mockito.verify(bucket).set("refreshed vehicle:1", TTL_MS, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(List.of("ns:vehicle:1"), written);
+        Assert.assertEquals(1, refreshAhead.getMetrics().getScheduled());
+        Assert.assertEquals(1, refreshAhead.getMetrics().getRefreshed());
+    }
+
+    /**
+     * Test keys far from expiry and keys without a loader are not refreshed.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testNotRefreshed() throws InterruptedException {
+        stubRead("ns:vehicle:1", "current", TTL_MS);
+        Assert.assertEquals("current", refreshAhead.read("ns:vehicle:1"));
+        Assert.assertFalse(refreshAhead.isRegistered("ns:driver:1"));
+        awaitRefreshes();
+        Assert.assertEquals(0, loads.get());
+        Assert.assertEquals(0, refreshAhead.getMetrics().getScheduled());
+    }
+
+    /**
+     * Test a registered key far from expiry may be near cached only until it is near expiry, and other keys until
+     * they expire.
+     */
+    @Test
+    public void testNearCachedUntilNearExpiry() {
+        stubRead("ns:vehicle:1", "current", TTL_MS);
+        long untilNearExpiryMs = TTL_MS - (long) (TTL_MS * (1 - FRACTION));
+        Assert.assertEquals(untilNearExpiryMs, refreshAhead.readWithTtl("ns:vehicle:1").ttlMs());
+        stubRead("ns:vehicle:2", "current", NEAR_EXPIRY_MS);
+        Assert.assertEquals(NEAR_EXPIRY_MS, refreshAhead.readWithTtl("ns:vehicle:2").ttlMs());
+        stubRead("ns:driver:1", "current", TTL_MS);
+        Assert.assertEquals(TTL_MS, refreshAhead.readWithTtl("ns:driver:1").ttlMs());
+        Assert.assertEquals(1, refreshAhead.getMetrics().getScheduled());
+    }
+
+    /**
+     * Test refreshes beyond the queue capacity of the executor are rejected.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testRejectedWhenQueueFull() throws InterruptedException {
+        for (int i = 0; i < RedisConstants.THREE.getValue(); i++) {
+            stubRead("ns:vehicle:" + i, "current", NEAR_EXPIRY_MS);
+            refreshAhead.read("ns:vehicle:" + i);
+        }
+        Assert.assertEquals(RedisConstants.TWO.getValue(), refreshAhead.getMetrics().getScheduled());
+        Assert.assertEquals(1, refreshAhead.getMetrics().getRejected());
+        Assert.assertEquals(RedisConstants.TWO.getValue(), refreshAhead.getMetrics().getPending());
+    }
+
+    /**
+     * Test a failing loader is counted and does not prevent later refreshes of the key.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testFailedRefresh() throws InterruptedException {
+        refreshAhead.register("ns:broken:", "ns:".length(), TTL_MS, key -> {
+            throw new IllegalStateException("unavailable");
+        });
+        stubRead("ns:broken:1", "current", NEAR_EXPIRY_MS);
+        refreshAhead.read("ns:broken:1");
+        awaitRefreshes();
+        refreshAhead.read("ns:broken:1");
+        awaitRefreshes();
+        Assert.assertEquals(RedisConstants.TWO.getValue(), refreshAhead.getMetrics().getFailures());
+    }
+}
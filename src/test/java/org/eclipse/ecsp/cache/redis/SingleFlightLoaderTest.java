@@ -0,0 +1,284 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test class for SingleFlightLoader.
+ */
+public class SingleFlightLoaderTest {
+
+    /** The key loaded by the tests. */
+    private static final String KEY = "ns:hello";
+
+    /** The values in Redis by key. */
+    private final Map<String, Object> redis = new ConcurrentHashMap<>();
+
+    /** The number of calls of the loader. */
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /** The mocked Redisson client. */
+    private RedissonClient redisson;
+
+    /** The mocked bucket of the key. */
+    private RBucket<Object> bucket;
+
+    /** The mocked lease of the key. */
+    private RBucket<String> lease;
+
+    /** The mocked load duration of the key. */
+    private RBucket<String> loadDuration;
+
+    /** The loader under test. */
+    private SingleFlightLoader loader;
+
+    /**
+     * Sets up the mocked Redisson client, with reads served from the map of values.
+     */
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        redisson = Mockito.mock(RedissonClient.class);
+        bucket = (RBucket<Object>) Mockito.mock(RBucket.class);
+        lease = (RBucket<String>) Mockito.mock(RBucket.class);
+        Mockito.doReturn(bucket).when(redisson).getBucket(KEY);
+        Mockito.doReturn(lease).when(redisson).getBucket(KEY + SingleFlightLoader.LEASE_SUFFIX,
+                StringCodec.INSTANCE);
+        loadDuration = (RBucket<String>) Mockito.mock(RBucket.class);
+        Mockito.when(loadDuration.setAsync(Mockito.anyString(), Mockito.anyLong(), Mockito.any(TimeUnit.class)))
+                .thenReturn(new CompletableFutureWrapper<>((Void) null));
+        Mockito.doReturn(loadDuration).when(redisson).getBucket(SingleFlightLoader.loadDurationKey(KEY),
+                StringCodec.INSTANCE);
+        loader = new SingleFlightLoader(new RedisScriptRegistry(), () -> redisson, () -> StringCodec.INSTANCE,
+                redis::get, key -> { });
+    }
+
+    /**
+     * Loads the value "world".
+     *
+     * @return the value
+     */
+    private Object load() {
+        loads.incrementAndGet();
+        return "world";
+    }
+
+    /**
+     * Test concurrent misses of a key call the loader once.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testConcurrentMissesLoadOnce() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Object> firstValue = new AtomicReference<>();
+        AtomicReference<Object> secondValue = new AtomicReference<>();
+        Thread first = new Thread(() -> firstValue.set(loader.getOrLoad(KEY, () -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load();
+        }, -1, 0, 0)));
+        first.start();
+        Assert.assertTrue(loading.await(1, TimeUnit.MINUTES));
+        Thread second = new Thread(() -> secondValue.set(loader.getOrLoad(KEY, this::load, -1, 0, 0)));
+        second.start();
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        first.join();
+        second.join();
+        Assert.assertEquals("world", firstValue.get());
+        Assert.assertEquals("world", secondValue.get());
+        Assert.assertEquals(1, loads.get());
+        Mockito.verify(bucket).set("world");
+    }
+
+    /**
+     * Test a hit does not call the loader.
+     */
+    @Test
+    public void testHitNotLoaded() {
+        redis.put(KEY, "world");
+        Assert.assertEquals("world", loader.getOrLoad(KEY, this::load, -1, 0, 0));
+        Assert.assertEquals(0, loads.get());
+    }
+
+    /**
+     * Test a loaded value is stored with the ttl and the duration of the load, and a null one is not stored.
+     */
+    @Test
+    public void testLoadedValueStoredWithTtl() {
+        Assert.assertNull(loader.getOrLoad(KEY, () -> null, RedisConstants.TEN.getValue(), 0, 0));
+        Mockito.verifyNoInteractions(bucket, loadDuration);
+        Assert.assertEquals("world", loader.getOrLoad(KEY, this::load, RedisConstants.TEN.getValue(), 0, 0));
+        Mockito.verify(bucket).set("world", RedisConstants.TEN.getValue(), TimeUnit.MILLISECONDS);
+        Mockito.verify(loadDuration).setAsync(Mockito.anyString(), Mockito.eq((long) RedisConstants.TEN.getValue()),
+                Mockito.eq(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Test the holder of the lease loads the value and releases the lease.
+     */
+    @Test
+    public void testLeaseHolderLoads() {
+        RScript script = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(StringCodec.INSTANCE)).thenReturn(script);
+        Mockito.when(lease.setIfAbsent(Mockito.anyString(), Mockito.any(Duration.class))).thenReturn(true);
+        Assert.assertEquals("world", loader.getOrLoad(KEY, this::load, -1, TimeUnit.SECONDS.toMillis(1), 0));
+        Assert.assertEquals(1, loads.get());
+        Mockito.verify(script).evalSha(Mockito.eq(RScript.Mode.READ_WRITE), Mockito.anyString(),
+                Mockito.eq(RScript.ReturnType.INTEGER), Mockito.anyList(), Mockito.any());
+    }
+
+    /**
+     * Test a node without the lease waits for the value stored by the holder of the lease.
+     */
+    @Test
+    public void testLeaseNotAcquiredWaitsForValue() {
+        Mockito.when(lease.setIfAbsent(Mockito.anyString(), Mockito.any(Duration.class))).thenAnswer(invocation -> {
+            redis.put(KEY, "stored by the holder");
+            return false;
+        });
+        Assert.assertEquals("stored by the holder",
+                loader.getOrLoad(KEY, this::load, -1, TimeUnit.MINUTES.toMillis(1), 0));
+        Assert.assertEquals(0, loads.get());
+    }
+
+    /**
+     * Test the holder of the lease marks the lease as absent when the loader returns null.
+     */
+    @Test
+    public void testLeaseHolderMarksAbsent() {
+        RScript script = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(StringCodec.INSTANCE)).thenReturn(script);
+        Mockito.when(lease.setIfAbsent(Mockito.anyString(), Mockito.any(Duration.class))).thenReturn(true);
+        Assert.assertNull(loader.getOrLoad(KEY, () -> null, -1, TimeUnit.SECONDS.toMillis(1), 0));
+        Mockito.verify(script).evalSha(Mockito.eq(RScript.Mode.READ_WRITE),
+                Mockito.eq(RedisScriptRegistry.sha1(SingleFlightLoader.MARK_LEASE_ABSENT_SCRIPT)),
+                Mockito.eq(RScript.ReturnType.INTEGER), Mockito.anyList(), Mockito.any(),
+                Mockito.eq(SingleFlightLoader.ABSENT_LEASE), Mockito.eq(String.valueOf(TimeUnit.SECONDS.toMillis(1))));
+    }
+
+    /**
+     * Test a node without the lease stops waiting and returns null once the holder marked the lease as absent.
+     */
+    @Test
+    public void testLeaseMarkedAbsentNotLoaded() {
+        Mockito.when(lease.setIfAbsent(Mockito.anyString(), Mockito.any(Duration.class))).thenReturn(false);
+        Mockito.when(lease.get()).thenReturn(SingleFlightLoader.ABSENT_LEASE);
+        Assert.assertNull(loader.getOrLoad(KEY, this::load, -1, TimeUnit.MINUTES.toMillis(1), 0));
+        Assert.assertEquals(0, loads.get());
+    }
+
+    /**
+     * Test a node without the lease loads the value once the lease expired without a value being stored.
+     */
+    @Test
+    public void testLeaseExpiredLoads() {
+        Mockito.when(lease.setIfAbsent(Mockito.anyString(), Mockito.any(Duration.class))).thenReturn(false);
+        Assert.assertEquals("world", loader.getOrLoad(KEY, this::load, -1, RedisConstants.TEN.getValue(), 0));
+        Assert.assertEquals(1, loads.get());
+    }
+
+    /**
+     * Test early refresh is decided from the duration of the last load and the remaining ttl.
+     */
+    @Test
+    public void testRefreshEarly() {
+        Assert.assertFalse(SingleFlightLoader.refreshEarly(0, 1, 1.0));
+        Assert.assertTrue(SingleFlightLoader.refreshEarly(RedisConstants.TEN.getValue(), 1, Double.MAX_VALUE));
+        Assert.assertFalse(SingleFlightLoader.refreshEarly(RedisConstants.TEN.getValue(), TimeUnit.DAYS.toMillis(1),
+                Double.MIN_VALUE));
+        Assert.assertFalse(SingleFlightLoader.refreshEarly(RedisConstants.TEN.getValue(), 0, 1.0));
+    }
+
+    /**
+     * Test a read refreshes early with the load duration stored in Redis, so that nodes which did not load the key
+     * refresh it too.
+     */
+    @Test
+    public void testRefreshEarlyWithStoredLoadDuration() {
+        RScript script = Mockito.mock(RScript.class);
+        Mockito.when(redisson.getScript(Mockito.any(Codec.class))).thenReturn(script);
+        Mockito.when(script.evalSha(Mockito.eq(RScript.Mode.READ_ONLY),
+                Mockito.eq(RedisScriptRegistry.sha1(SingleFlightLoader.READ_WITH_LOAD_DURATION_SCRIPT)),
+                Mockito.eq(RScript.ReturnType.MULTI),
+                Mockito.eq(Arrays.asList(KEY, SingleFlightLoader.loadDurationKey(KEY)))))
+                .thenReturn(Arrays.asList("current", 1L, TimeUnit.SECONDS.toMillis(1)));
+        Assert.assertEquals("world", loader.getOrLoad(KEY, this::load, TimeUnit.MINUTES.toMillis(1), 0,
+                Double.MAX_VALUE));
+        Assert.assertEquals(1, loads.get());
+    }
+
+    /**
+     * Test the load duration key shares the cluster slot of the key, and is not used for keys it cannot share it
+     * with.
+     */
+    @Test
+    public void testLoadDurationKeyInSlotOfKey() {
+        Assert.assertEquals("{ns:hello}:load.ms", SingleFlightLoader.loadDurationKey(KEY));
+        Assert.assertEquals(ClusterSlotRouter.slot(KEY),
+                ClusterSlotRouter.slot(SingleFlightLoader.loadDurationKey(KEY)));
+        Assert.assertEquals("ns:{1}:x:load.ms", SingleFlightLoader.loadDurationKey("ns:{1}:x"));
+        Assert.assertNull(SingleFlightLoader.loadDurationKey("ns:{}:x"));
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import org.eclipse.ecsp.cache.exception.RedisBatchProcessingException;
+import org.eclipse.ecsp.cache.exception.RedisPipelineOverflowException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.redisson.client.codec.StringCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.eclipse.ecsp.cache.redis.RedisConstants.FIVE;
+import static org.eclipse.ecsp.cache.redis.RedisConstants.THREE;
+import static org.eclipse.ecsp.cache.redis.RedisConstants.TWO;
+
+/**
+ * Test class for SpillJournal.
+ */
+public class SpillJournalTest {
+
+    /** The size of the journals under test. */
+    private static final int MAX_BYTES = 4096;
+
+    /** The size of a journal with room for a single DEL. */
+    private static final int SMALL_MAX_BYTES = 80;
+
+    /** The size of a journal with room for two DELs, and a third one once the first has been replayed. */
+    private static final int WRAP_MAX_BYTES = 128;
+
+    /** The score of spilled ZADD mutations. */
+    private static final double TWO_DOUBLE = 2.0D;
+
+    /** The ttl of spilled SET PX mutations. */
+    private static final long TTL_MS = 60000L;
+
+    /** The file of the journal. */
+    private Path path;
+
+    /** The mutations handed to the pipeline by replays. */
+    private final List<BatchMutation> replayed = new ArrayList<>();
+
+    /**
+     * Creates the file of the journal.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Before
+    public void setUp() throws IOException {
+        path = Files.createTempFile("redis-spill", ".journal");
+    }
+
+    /**
+     * Deletes the file of the journal.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Test mutations are appended only once they have to be spilled, and later ones until the journal is replayed.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testMutationsSpilledUntilReplayed() throws IOException {
+        SpillJournal journal = SpillJournal.open(path, MAX_BYTES, StringCodec.INSTANCE);
+        Assert.assertFalse(journal.offer(BatchMutation.delete("hello", "mut001"), false));
+        Assert.assertTrue(journal.offer(BatchMutation.delete("hello", "mut002"), true));
+        Assert.assertTrue(journal.offer(BatchMutation.delete("hello", "mut003"), false));
+        Assert.assertEquals(2, journal.replay(Integer.MAX_VALUE, replayed::add));
+        Assert.assertFalse(journal.hasPending());
+        Assert.assertFalse(journal.offer(BatchMutation.delete("hello", "mut004"), false));
+        journal.close();
+    }
+
+    /**
+     * Test spilled mutations are replayed in order with their fields, and complete with their replayed mutation.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     * @throws InterruptedException the interrupted exception
+     * @throws ExecutionException the execution exception
+     */
+    @Test
+    public void testSpilledMutationsReplayedInOrder() throws IOException, InterruptedException, ExecutionException {
+        SpillJournal journal = SpillJournal.open(path, MAX_BYTES, StringCodec.INSTANCE);
+        BatchMutation put = BatchMutation.put("hello", "world", null, TTL_MS, "mut001");
+        BatchMutation add = BatchMutation.addToScoredSortedSet("scores", TWO_DOUBLE, "world", "mut002");
+        journal.offer(put, true);
+        journal.offer(add, true);
+        Assert.assertEquals(1, journal.replay(1, replayed::add));
+        Assert.assertTrue(journal.hasPending());
+        Assert.assertEquals(1, journal.replay(1, replayed::add));
+        Assert.assertEquals(BatchMutation.Type.SET, replayed.get(0).getType());
+        Assert.assertEquals("hello", replayed.get(0).getKey());
+        Assert.assertEquals("world", replayed.get(0).getValue());
+        Assert.assertEquals(TTL_MS, replayed.get(0).getTtlMs());
+        Assert.assertEquals(BatchMutation.Type.SCORED_SORTED_SET_ADD, replayed.get(1).getType());
+        Assert.assertEquals(TWO_DOUBLE, replayed.get(1).getScore(), 0D);
+        Assert.assertFalse(put.getFuture().isDone());
+        replayed.get(0).getFuture().complete("mut001");
+        replayed.get(1).getFuture().completeExceptionally(
+                new RedisBatchProcessingException("Redis batch update failed"));
+        Assert.assertEquals("mut001", put.getFuture().get());
+        Assert.assertTrue(add.getFuture().isCompletedExceptionally());
+        journal.close();
+    }
+
+    /**
+     * Test mutations not replayed before the journal is closed are replayed by the next process.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testPendingMutationsRecoveredAfterReopen() throws IOException {
+        SpillJournal journal = SpillJournal.open(path, MAX_BYTES, StringCodec.INSTANCE);
+        BatchMutation put = BatchMutation.put("hello", "world", null, IgniteCacheRedisImpl.MINUS_ONE_LONG, "mut001");
+        journal.offer(put, true);
+        Assert.assertEquals(1, journal.close());
+        Assert.assertTrue(put.getFuture().isCompletedExceptionally());
+        SpillJournal reopened = SpillJournal.open(path, MAX_BYTES, StringCodec.INSTANCE);
+        Assert.assertTrue(reopened.hasPending());
+        Assert.assertEquals(1, reopened.replay(Integer.MAX_VALUE, replayed::add));
+        Assert.assertEquals("mut001", replayed.get(0).getMutationId());
+        replayed.get(0).getFuture().complete("mut001");
+        Assert.assertEquals(0, reopened.close());
+    }
+
+    /**
+     * Test a mutation that has to be spilled but does not fit into the journal anymore is rejected.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testFullJournalRejectsMutation() throws IOException {
+        SpillJournal journal = SpillJournal.open(path, SMALL_MAX_BYTES, StringCodec.INSTANCE);
+        Assert.assertTrue(journal.offer(BatchMutation.delete("hello", "mut001"), true));
+        try {
+            journal.offer(BatchMutation.delete("hello", "mut002"), false);
+            Assert.fail("Expecting RedisPipelineOverflowException when the journal is full");
+        } catch (RedisPipelineOverflowException e) {
+            Assert.assertEquals("Spill journal is full, mutation mut002 for key hello was rejected", e.getMessage());
+        }
+        journal.close();
+    }
+
+    /**
+     * Test the space of completed replayed records is reused before the journal has been drained, and records
+     * written after the wrap are recovered in order after a reopen.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testReplayedSpaceReusedAfterWrap() throws IOException {
+        SpillJournal journal = SpillJournal.open(path, WRAP_MAX_BYTES, StringCodec.INSTANCE);
+        Assert.assertTrue(journal.offer(BatchMutation.delete("hello", "mut0001"), true));
+        Assert.assertTrue(journal.offer(BatchMutation.delete("hello", "mut002"), true));
+        Assert.assertEquals(1, journal.replay(1, replayed::add));
+        replayed.get(0).getFuture().complete("mut0001");
+        Assert.assertTrue(journal.offer(BatchMutation.delete("hello", "mut003"), true));
+        try {
+            journal.offer(BatchMutation.delete("hello", "mut004"), true);
+            Assert.fail("Expecting RedisPipelineOverflowException when the wrapped journal is full");
+        } catch (RedisPipelineOverflowException e) {
+            Assert.assertTrue(journal.hasPending());
+        }
+        Assert.assertEquals(2, journal.close());
+        SpillJournal reopened = SpillJournal.open(path, WRAP_MAX_BYTES, StringCodec.INSTANCE);
+        Assert.assertEquals(2, reopened.replay(Integer.MAX_VALUE, replayed::add));
+        Assert.assertEquals("mut0001", replayed.get(0).getMutationId());
+        Assert.assertEquals("mut002", replayed.get(1).getMutationId());
+        Assert.assertEquals("mut003", replayed.get(2).getMutationId());
+        Assert.assertFalse(reopened.hasPending());
+        reopened.close();
+    }
+
+    /**
+     * Test a replayed mutation that has not completed keeps its space and is replayed again after a reopen, while
+     * the read position moves past the records whose replayed mutations have completed, in journal order.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testReadPositionCommittedOnceReplayedMutationCompleted() throws IOException {
+        SpillJournal journal = SpillJournal.open(path, MAX_BYTES, StringCodec.INSTANCE);
+        journal.offer(BatchMutation.delete("hello", "mut001"), true);
+        journal.offer(BatchMutation.delete("hello", "mut002"), true);
+        journal.offer(BatchMutation.delete("hello", "mut003"), true);
+        Assert.assertEquals(TWO.getValue(), journal.replay(TWO.getValue(), replayed::add));
+        // the second one completes first, the first one is still pending
+        replayed.get(1).getFuture().complete("mut002");
+        Assert.assertEquals(THREE.getValue(), journal.close());
+        SpillJournal reopened = SpillJournal.open(path, MAX_BYTES, StringCodec.INSTANCE);
+        Assert.assertEquals(THREE.getValue(), reopened.replay(Integer.MAX_VALUE, replayed::add));
+        Assert.assertEquals("mut001", replayed.get(TWO.getValue()).getMutationId());
+        Assert.assertEquals("mut002", replayed.get(THREE.getValue()).getMutationId());
+        replayed.get(TWO.getValue()).getFuture().complete("mut001");
+        Assert.assertEquals(TWO.getValue(), reopened.close());
+        SpillJournal again = SpillJournal.open(path, MAX_BYTES, StringCodec.INSTANCE);
+        Assert.assertEquals(TWO.getValue(), again.replay(Integer.MAX_VALUE, replayed::add));
+        Assert.assertEquals("mut002", replayed.get(FIVE.getValue()).getMutationId());
+        again.close();
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * *******************************************************************************
+ *
+ *  Copyright (c) 2023-24 Harman International
+ *
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *
+ *  you may not use this file except in compliance with the License.
+ *
+ *  You may obtain a copy of the License at
+ *
+ *
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *       
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ *  See the License for the specific language governing permissions and
+ *
+ *  limitations under the License.
+ *
+ *
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  *******************************************************************************
+ */
+
+package org.eclipse.ecsp.cache.redis;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.eclipse.ecsp.cache.IgniteCache;
+import org.eclipse.ecsp.cache.PutStringRequest;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark of the synchronous API at 10k concurrent callers: on platform threads with the default Redisson
+ * executor as baseline, and on virtual threads with redis.executor.virtual-threads enabled. The virtual run is
+ * recorded with JFR and fails if any virtual thread pinned its carrier while blocked.
+ * Needs Java 21 or later and is skipped otherwise. Not picked up by surefire by default, run with
+ * -Dtest=VirtualThreadBenchmark.
+ */
+public class VirtualThreadBenchmark {
+
+    /** The Constant LOGGER. */
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VirtualThreadBenchmark.class);
+
+    /** The number of concurrent callers. */
+    private static final int CALLERS = 10_000;
+
+    /** The put and get round trips issued by each caller. */
+    private static final int ROUND_TRIPS_PER_CALLER = 10;
+
+    /** The time to wait for all callers to complete. */
+    private static final long TIMEOUT_MINUTES = 5;
+
+    /** The JFR event of a virtual thread blocking while pinned to its carrier. */
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /** The redis. */
+    @ClassRule
+    public static EmbeddedRedisServer redis = new EmbeddedRedisServer();
+
+    /**
+     * Runs the callers on platform threads against a client with platform executor threads, then on virtual
+     * threads against a client with a virtual thread executor, and logs the throughput and failed calls of
+     * each run.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void benchmarkCallerThreads() throws Exception {
+        ExecutorService probe = RedisConfig.newVirtualThreadExecutor();
+        Assume.assumeNotNull(probe);
+        probe.shutdown();
+        Result platform;
+        try (AnnotationConfigApplicationContext context = newContext(false)) {
+            run(context, "warmup-platform", Executors.newFixedThreadPool(CALLERS));
+            platform = run(context, "platform", Executors.newFixedThreadPool(CALLERS));
+        }
+        Result virtual;
+        long pinned;
+        try (AnnotationConfigApplicationContext context = newContext(true);
+                Recording recording = new Recording()) {
+            run(context, "warmup-virtual", RedisConfig.newVirtualThreadExecutor());
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            virtual = run(context, "virtual", RedisConfig.newVirtualThreadExecutor());
+            recording.stop();
+            pinned = countPinnedEvents(recording);
+        }
+        LOGGER.info("Callers {}: platform threads {}", CALLERS, platform);
+        LOGGER.info("Callers {}: virtual threads  {} pinned={}", CALLERS, virtual, pinned);
+        Assert.assertEquals(0, platform.failed);
+        Assert.assertEquals(0, virtual.failed);
+        Assert.assertEquals(0, pinned);
+    }
+
+    /**
+     * Starts a context of the cache with the Redisson executor on platform or on virtual threads.
+     *
+     * @param virtualThreads whether the Redisson executor runs on virtual threads
+     * @return the context
+     * @throws Exception the exception
+     */
+    private static AnnotationConfigApplicationContext newContext(boolean virtualThreads) throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new ResourcePropertySource(
+                "classpath:ignite-cache.properties"));
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Collections.singletonMap(RedisProperty.REDIS_EXECUTOR_VIRTUAL_THREADS, virtualThreads)));
+        context.register(RedisConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    /**
+     * Counts the pinned virtual thread events of the recording, logging the stack trace of each of them.
+     *
+     * @param recording the stopped recording
+     * @return the number of pinned events
+     * @throws Exception the exception
+     */
+    private static long countPinnedEvents(Recording recording) throws Exception {
+        Path file = Files.createTempFile("virtual-thread-benchmark", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> PINNED_EVENT.equals(event.getEventType().getName()))
+                    .peek(event -> LOGGER.warn("Virtual thread pinned its carrier: {}", event.getStackTrace()))
+                    .count();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Starts the callers together on the given executor and measures the time until all of them are done.
+     *
+     * @param context the context of the cache
+     * @param name the name of the run, used as key prefix
+     * @param callers the executor running the callers
+     * @return the result
+     * @throws Exception the exception
+     */
+    private Result run(AnnotationConfigApplicationContext context, String name, ExecutorService callers)
+            throws Exception {
+        IgniteCache igniteCache = context.getBean(IgniteCache.class);
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(CALLERS);
+        for (int c = 0; c < CALLERS; c++) {
+            final String key = name + ":" + c;
+            callers.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ROUND_TRIPS_PER_CALLER; i++) {
+                        igniteCache.putString(new PutStringRequest()
+                                .withKey(key)
+                                .withValue(String.valueOf(i)));
+                        if (!String.valueOf(i).equals(igniteCache.getString(key))) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        Assert.assertTrue(done.await(TIMEOUT_MINUTES, TimeUnit.MINUTES));
+        long elapsedNanos = System.nanoTime() - begin;
+        callers.shutdown();
+        context.getBean(RedissonClient.class).getKeys().flushall();
+        return new Result(CALLERS * (long) ROUND_TRIPS_PER_CALLER, elapsedNanos, failed.get());
+    }
+
+    /**
+     * Result of a single benchmark run.
+     */
+    private static final class Result {
+
+        /** The round trips. */
+        private final long roundTrips;
+
+        /** The elapsed nanos. */
+        private final long elapsedNanos;
+
+        /** The failed round trips. */
+        private final long failed;
+
+        /**
+         * Instantiates a new result.
+         *
+         * @param roundTrips the round trips
+         * @param elapsedNanos the elapsed nanos
+         * @param failed the failed round trips
+         */
+        Result(long roundTrips, long elapsedNanos, long failed) {
+            this.roundTrips = roundTrips;
+            this.elapsedNanos = elapsedNanos;
+            this.failed = failed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("roundTrips=%d elapsedMs=%d throughput=%.0f ops/s failed=%d",
+                    roundTrips, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    (double) roundTrips * TimeUnit.SECONDS.toNanos(1) / elapsedNanos, failed);
+        }
+    }
+}